@@ -0,0 +1,23 @@
+plugins {
+    application
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+application {
+    mainClass.set("com.example.gxxr.analytics.AnalyticsCli")
+    applicationDefaultJvmArgs = listOf("-Xmx256m")
+}
+
+dependencies {
+
+    implementation(project(":telemetry"))
+    testImplementation(libs.junit)
+}
@@ -0,0 +1,128 @@
+package com.example.gxxr.analytics;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Post-ride reports for recorded sessions:
+ *
+ * <pre>analytics [--out DIR] [--threads N] [--block-lines N] SESSION...</pre>
+ *
+ * A session is a logger JSON lines file (optionally gzipped), a {@code .gsxa}
+ * archive, or a directory of those. For each one {@code NAME-report.json},
+ * {@code NAME-laps.csv} and {@code NAME-trace.csv} are written to the output
+ * directory. CSV exports of the logger go through tool-scripts/csv2json.py first.
+ */
+public final class AnalyticsCli {
+
+    private AnalyticsCli() {
+    }
+
+    public static void main(String[] args) {
+        File outDir = new File(".");
+        int threads = Runtime.getRuntime().availableProcessors();
+        int blockLines = SessionAnalyzer.DEFAULT_BLOCK_LINES;
+        List<File> inputs = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--out")) {
+                    outDir = new File(args[++i]);
+                } else if (arg.equals("--threads")) {
+                    threads = Integer.parseInt(args[++i]);
+                } else if (arg.equals("--block-lines")) {
+                    blockLines = Integer.parseInt(args[++i]);
+                } else if (arg.startsWith("--")) {
+                    usage("Unknown option " + arg);
+                    return;
+                } else {
+                    addInputs(new File(arg), inputs);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            usage("Bad option value");
+            return;
+        }
+        if (inputs.isEmpty() || threads < 1 || blockLines < 1) {
+            usage(inputs.isEmpty() ? "No sessions found" : "Bad option value");
+            return;
+        }
+        if (!outDir.isDirectory() && !outDir.mkdirs()) {
+            System.err.println("Cannot create " + outDir);
+            System.exit(1);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        SessionAnalyzer analyzer = new SessionAnalyzer(pool, blockLines);
+        boolean failed = false;
+        try {
+            for (File input : inputs) {
+                try {
+                    long start = System.nanoTime();
+                    SessionReport report = analyzer.analyze(input);
+                    write(report, outDir);
+                    System.out.println(String.format(Locale.ROOT, "%s: %d frames, %d laps, %d skipped lines in %.1f s",
+                            report.name, report.session.frames, report.laps.size(), report.skippedLines,
+                            (System.nanoTime() - start) / 1e9));
+                } catch (IOException e) {
+                    System.err.println(input + ": " + e.getMessage());
+                    failed = true;
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    private static void addInputs(File file, List<File> inputs) {
+        if (!file.isDirectory()) {
+            inputs.add(file);
+            return;
+        }
+        File[] children = file.listFiles();
+        if (children == null) {
+            return;
+        }
+        Arrays.sort(children);
+        for (File child : children) {
+            if (child.isFile() && SessionAnalyzer.isSessionFile(child)) {
+                inputs.add(child);
+            }
+        }
+    }
+
+    static void write(SessionReport report, File outDir) throws IOException {
+        try (Writer out = open(new File(outDir, report.name + "-report.json"))) {
+            report.writeJson(out);
+        }
+        try (Writer out = open(new File(outDir, report.name + "-laps.csv"))) {
+            report.writeLapsCsv(out);
+        }
+        try (Writer out = open(new File(outDir, report.name + "-trace.csv"))) {
+            report.writeTraceCsv(out);
+        }
+    }
+
+    private static Writer open(File file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+    }
+
+    private static void usage(String problem) {
+        System.err.println(problem);
+        System.err.println("usage: analytics [--out DIR] [--threads N] [--block-lines N] SESSION...");
+        System.exit(2);
+    }
+}
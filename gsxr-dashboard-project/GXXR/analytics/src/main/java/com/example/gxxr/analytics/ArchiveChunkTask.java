@@ -0,0 +1,53 @@
+package com.example.gxxr.analytics;
+
+import com.example.gxxr.telemetry.TelemetryArchiveReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Summarises a range of archive chunks. Each task opens its own reader so the
+ * column blocks are decoded on the worker threads rather than the feeding one.
+ */
+final class ArchiveChunkTask extends RecursiveTask<ChunkResult> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final File archive;
+    private final int firstChunk, count;
+    private final int[] channels;
+
+    ArchiveChunkTask(File archive, int firstChunk, int count, int[] channels) {
+        this.archive = archive;
+        this.firstChunk = firstChunk;
+        this.count = count;
+        this.channels = channels;
+    }
+
+    /** Archive ids of the report channels, -1 for those the archive never recorded */
+    static int[] channelIds(TelemetryArchiveReader reader) {
+        int[] ids = new int[ReportChannels.COUNT];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = reader.channelId(ReportChannels.KEYS[i]);
+        }
+        return ids;
+    }
+
+    @Override
+    protected ChunkResult compute() {
+        final ChunkResult result = new ChunkResult();
+        try (TelemetryArchiveReader reader = new TelemetryArchiveReader(archive)) {
+            reader.readChunks(firstChunk, count, channels, new TelemetryArchiveReader.RowVisitor() {
+                @Override
+                public void onRow(long timestampMicros, double[] values) {
+                    result.add(timestampMicros / 1e6, values);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result;
+    }
+}
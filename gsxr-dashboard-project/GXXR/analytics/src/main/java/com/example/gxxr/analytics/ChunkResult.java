@@ -0,0 +1,130 @@
+package com.example.gxxr.analytics;
+
+import com.example.gxxr.telemetry.TelemetryChannels;
+import com.example.gxxr.telemetry.TelemetryFrame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Summary of a run of consecutive frames, cut into pieces wherever a lap gesture
+ * could start. Whether one does depends on the debounced switch state and lap
+ * mode, which only the frames before the run can tell, so the run also keeps
+ * each frame's time and switch levels for {@link SessionReport} to replay the
+ * dash's gesture recognition over in session order.
+ *
+ * A gesture starts where the last of its switches reached its level, so a piece
+ * starts at every frame where a switch changes level, at the first frame that
+ * shows each switch and wherever the clock steps back (the recognizer starts
+ * over there).
+ */
+final class ChunkResult {
+
+    // Switches the lap gestures read, as report channels and as dash channels
+    private static final int[] SWITCHES = {ReportChannels.HEADLIGHT, ReportChannels.FRONT_BRAKE, ReportChannels.REAR_BRAKE};
+    private static final int[] SWITCH_CHANNELS = {TelemetryChannels.HEADLIGHT, TelemetryChannels.FRONT_BRAKE, TelemetryChannels.REAR_BRAKE};
+
+    final List<SegmentReport> pieces = new ArrayList<>();
+    long skippedLines;
+
+    // First frame of each piece
+    private int[] pieceStarts = new int[8];
+
+    private int frameCount;
+    private long[] frameMillis = new long[256];
+    private double[] switchLevels = new double[256 * SWITCHES.length];
+
+    // Last level shown by each switch, NaN until a frame shows it
+    private final double[] lastLevels = new double[SWITCHES.length];
+
+    ChunkResult() {
+        Arrays.fill(lastLevels, Double.NaN);
+    }
+
+    boolean isEmpty() {
+        return pieces.isEmpty();
+    }
+
+    void add(double timestamp, double[] values) {
+        ReportChannels.fillLeanAngle(values);
+        long millis = Math.round(timestamp * 1000);
+        boolean cut = pieces.isEmpty();
+        if (frameCount > 0 && millis < frameMillis[frameCount - 1]) {
+            Arrays.fill(lastLevels, Double.NaN);
+            cut = true;
+        }
+        if (frameCount == frameMillis.length) {
+            frameMillis = Arrays.copyOf(frameMillis, frameCount * 2);
+            switchLevels = Arrays.copyOf(switchLevels, frameCount * 2 * SWITCHES.length);
+        }
+        frameMillis[frameCount] = millis;
+        for (int i = 0; i < SWITCHES.length; i++) {
+            double value = values[SWITCHES[i]];
+            switchLevels[frameCount * SWITCHES.length + i] = value;
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            // Levels as the recognizer reads them
+            double level = Math.round(value);
+            if (level != lastLevels[i]) {
+                lastLevels[i] = level;
+                cut = true;
+            }
+        }
+        if (cut) {
+            addPiece(frameCount, new SegmentReport());
+        }
+        frameCount++;
+        pieces.get(pieces.size() - 1).add(timestamp, values);
+    }
+
+    private void addPiece(int firstFrame, SegmentReport piece) {
+        if (pieces.size() == pieceStarts.length) {
+            pieceStarts = Arrays.copyOf(pieceStarts, pieces.size() * 2);
+        }
+        pieceStarts[pieces.size()] = firstFrame;
+        pieces.add(piece);
+    }
+
+    int frameCount() {
+        return frameCount;
+    }
+
+    long frameMillis(int frame) {
+        return frameMillis[frame];
+    }
+
+    int pieceStart(int piece) {
+        return pieceStarts[piece];
+    }
+
+    /** Loads the time and switch levels of {@code frame} for the gesture recognizer */
+    void loadSwitches(int frame, TelemetryFrame into) {
+        into.timestampMillis = frameMillis[frame];
+        for (int i = 0; i < SWITCHES.length; i++) {
+            into.set(SWITCH_CHANNELS[i], switchLevels[frame * SWITCHES.length + i]);
+        }
+    }
+
+    /** Adds the run that directly follows this one */
+    void append(ChunkResult next) {
+        skippedLines += next.skippedLines;
+        if (next.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < next.pieces.size(); i++) {
+            addPiece(frameCount + next.pieceStarts[i], next.pieces.get(i));
+        }
+        int count = frameCount + next.frameCount;
+        if (count > frameMillis.length) {
+            frameMillis = Arrays.copyOf(frameMillis, count);
+            switchLevels = Arrays.copyOf(switchLevels, count * SWITCHES.length);
+        }
+        System.arraycopy(next.frameMillis, 0, frameMillis, frameCount, next.frameCount);
+        System.arraycopy(next.switchLevels, 0, switchLevels, frameCount * SWITCHES.length,
+                next.frameCount * SWITCHES.length);
+        frameCount = count;
+        System.arraycopy(next.lastLevels, 0, lastLevels, 0, lastLevels.length);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.gxxr.analytics;
+
+/** Fixed-width bins between {@code min} and {@code max}; values outside land in the end bins */
+final class Histogram {
+
+    final double min, width;
+    final long[] counts;
+
+    Histogram(double min, double max, double width) {
+        this.min = min;
+        this.width = width;
+        this.counts = new long[(int) Math.ceil((max - min) / width)];
+    }
+
+    void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        int bin = (int) Math.floor((value - min) / width);
+        counts[Math.max(0, Math.min(counts.length - 1, bin))]++;
+    }
+
+    void add(Histogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+    }
+
+    long total() {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+}
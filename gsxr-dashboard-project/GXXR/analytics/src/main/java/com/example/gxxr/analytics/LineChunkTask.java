@@ -0,0 +1,83 @@
+package com.example.gxxr.analytics;
+
+import com.example.gxxr.telemetry.FlatFrameParser;
+import com.example.gxxr.telemetry.TelemetryArchiveImporter;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveTask;
+
+/** Parses and summarises a block of JSON lines frames, splitting it across the pool */
+final class LineChunkTask extends RecursiveTask<ChunkResult> {
+
+    private static final long serialVersionUID = 1L;
+
+    static final int SPLIT_LINES = 256;
+
+    private final String[] lines;
+    private final int from, to;
+
+    LineChunkTask(String[] lines, int from, int to) {
+        this.lines = lines;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected ChunkResult compute() {
+        if (to - from > SPLIT_LINES) {
+            int middle = (from + to) >>> 1;
+            LineChunkTask left = new LineChunkTask(lines, from, middle);
+            left.fork();
+            ChunkResult right = new LineChunkTask(lines, middle, to).compute();
+            ChunkResult result = left.join();
+            result.append(right);
+            return result;
+        }
+
+        ChunkResult result = new ChunkResult();
+        FrameFields frame = new FrameFields();
+        FlatFrameParser parser = new FlatFrameParser();
+        for (int i = from; i < to; i++) {
+            String line = lines[i];
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            frame.clear();
+            try {
+                parser.parse(line, frame);
+            } catch (IllegalArgumentException e) {
+                result.skippedLines++;
+                continue;
+            }
+            if (Double.isNaN(frame.timestamp)) {
+                result.skippedLines++;
+                continue;
+            }
+            result.add(frame.timestamp, frame.values);
+        }
+        return result;
+    }
+
+    private static final class FrameFields implements FlatFrameParser.FieldVisitor {
+
+        final double[] values = new double[ReportChannels.COUNT];
+        double timestamp;
+
+        void clear() {
+            Arrays.fill(values, Double.NaN);
+            timestamp = Double.NaN;
+        }
+
+        @Override
+        public void onField(String key, double value) {
+            if (TelemetryArchiveImporter.TIMESTAMP_KEY.equals(key)) {
+                timestamp = value;
+                return;
+            }
+            int channel = ReportChannels.indexOf(key);
+            if (channel >= 0) {
+                values[channel] = value;
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.gxxr.analytics;
+
+import com.example.gxxr.telemetry.LeanEstimator;
+import com.example.gxxr.telemetry.TelemetryChannels;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/** Logger keys the reports read, in a dense layout for the per-frame arrays */
+final class ReportChannels {
+
+    static final int FRONT_SUSPENSION = 0;
+    static final int REAR_SUSPENSION = 1;
+    static final int FRONT_BRAKE_DISK_TEMP = 2;
+    static final int REAR_BRAKE_DISK_TEMP = 3;
+    static final int WHEEL_SPEED = 4;
+    static final int LEAN_ANGLE = 5;
+    static final int FRONT_BRAKE = 6;
+    static final int REAR_BRAKE = 7;
+    static final int HEADLIGHT = 8;
+    static final int COOLANT_TEMP = 9;
+    static final int GPS_FIX = 10;
+    // Bike IMU, for the lean angle of frames recorded without the dash's
+    static final int IMU_PITCH_RATE = 11;
+    static final int IMU_YAW_RATE = 12;
+    static final int IMU_LATERAL_ACCEL = 13;
+    static final int IMU_VERTICAL_ACCEL = 14;
+
+    static final int COUNT = 15;
+
+    static final String[] KEYS = {
+            TelemetryChannels.key(TelemetryChannels.FRONT_SUSPENSION),
+            TelemetryChannels.key(TelemetryChannels.REAR_SUSPENSION),
+            TelemetryChannels.key(TelemetryChannels.FRONT_BRAKE_DISK_TEMP),
+            // Read by the dash without a channel of its own
+            "rear_brake_gps_S1",
+            TelemetryChannels.key(TelemetryChannels.WHEEL_SPEED),
+            // Only in frames that carry the dash's lean angle, see fillLeanAngle
+            TelemetryChannels.key(TelemetryChannels.LEAN_ANGLE),
+            TelemetryChannels.key(TelemetryChannels.FRONT_BRAKE),
+            TelemetryChannels.key(TelemetryChannels.REAR_BRAKE),
+            TelemetryChannels.key(TelemetryChannels.HEADLIGHT),
+            TelemetryChannels.key(TelemetryChannels.COOLANT_TEMP),
+            TelemetryChannels.key(TelemetryChannels.GPS_FIX),
+            LeanEstimator.BIKE_GYRO_Y_KEY,
+            LeanEstimator.BIKE_GYRO_Z_KEY,
+            LeanEstimator.BIKE_ACCEL_Y_KEY,
+            LeanEstimator.BIKE_ACCEL_Z_KEY,
+    };
+
+    private static final Map<String, Integer> INDEX = new HashMap<>();
+
+    static {
+        for (int i = 0; i < COUNT; i++) {
+            INDEX.put(KEYS[i], i);
+        }
+    }
+
+    private ReportChannels() {
+    }
+
+    /**
+     * Recordings hold the logger's frames, without the lean the dash showed; work it
+     * out from the bike IMU where the frame has none.
+     */
+    static void fillLeanAngle(double[] values) {
+        if (Double.isNaN(values[LEAN_ANGLE])) {
+            values[LEAN_ANGLE] = LeanEstimator.instantLean(values[IMU_PITCH_RATE], values[IMU_YAW_RATE],
+                    values[IMU_LATERAL_ACCEL], values[IMU_VERTICAL_ACCEL], values[WHEEL_SPEED]);
+        }
+    }
+
+    /** Channel for a flattened logger key, or -1 if no report uses it */
+    static int indexOf(String key) {
+        Integer index = INDEX.get(key);
+        return index == null ? -1 : index;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.gxxr.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A channel averaged into one point per second of frame time. Pieces cover
+ * consecutive stretches of a session and are appended in order; a second split
+ * across two pieces is merged.
+ *
+ * The trace is kept as segments of consecutive seconds. A gap longer than
+ * {@link #MAX_GAP_SECONDS} (the logger clock jumping ahead, or a long stop) starts
+ * a new segment instead of allocating a point for every second in between.
+ */
+final class SecondTrace {
+
+    static final long MAX_GAP_SECONDS = 600;
+
+    private final List<Segment> segments = new ArrayList<>();
+
+    private static final class Segment {
+
+        final long firstSecond;
+        double[] sums;
+        int[] counts;
+        int length;
+
+        Segment(long firstSecond, int capacity) {
+            this.firstSecond = firstSecond;
+            sums = new double[capacity];
+            counts = new int[capacity];
+        }
+
+        long endSecond() {
+            return firstSecond + length;
+        }
+
+        void ensureLength(int newLength) {
+            if (newLength > sums.length) {
+                int capacity = Math.max(newLength, sums.length * 2);
+                sums = Arrays.copyOf(sums, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+            }
+            length = Math.max(length, newLength);
+        }
+
+        /** Adds {@code other}'s points, which start {@code offset} seconds into this segment */
+        void add(Segment other, int offset) {
+            ensureLength(offset + other.length);
+            for (int i = 0; i < other.length; i++) {
+                sums[offset + i] += other.sums[i];
+                counts[offset + i] += other.counts[i];
+            }
+        }
+    }
+
+    void add(double timestampSeconds, double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        long second = (long) Math.floor(timestampSeconds);
+        Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (last == null || second - last.endSecond() > MAX_GAP_SECONDS) {
+            last = new Segment(second, 64);
+            segments.add(last);
+        }
+        long index = second - last.firstSecond;
+        if (index < 0) {
+            // Out of order frame; not worth reshuffling the trace for
+            return;
+        }
+        last.ensureLength((int) index + 1);
+        last.sums[(int) index] += value;
+        last.counts[(int) index]++;
+    }
+
+    void append(SecondTrace next) {
+        for (Segment segment : next.segments) {
+            Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            if (last != null && segment.firstSecond - last.endSecond() <= MAX_GAP_SECONDS) {
+                long offset = segment.firstSecond - last.firstSecond;
+                if (offset >= 0) {
+                    last.add(segment, (int) offset);
+                }
+                continue;
+            }
+            // Copied, the same piece is appended to both its lap and the session
+            Segment copy = new Segment(segment.firstSecond, Math.max(1, segment.length));
+            copy.add(segment, 0);
+            segments.add(copy);
+        }
+    }
+
+    /** Seconds with a point, over all segments */
+    int length() {
+        int length = 0;
+        for (Segment segment : segments) {
+            length += segment.length;
+        }
+        return length;
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    long segmentStart(int segment) {
+        return segments.get(segment).firstSecond;
+    }
+
+    /** Exclusive */
+    long segmentEnd(int segment) {
+        return segments.get(segment).endSecond();
+    }
+
+    /** Mean over {@code second}, NaN where the channel had no samples */
+    double valueAt(long second) {
+        for (Segment segment : segments) {
+            if (second >= segment.firstSecond && second < segment.endSecond()) {
+                int index = (int) (second - segment.firstSecond);
+                return segment.counts[index] == 0 ? Double.NaN : segment.sums[index] / segment.counts[index];
+            }
+        }
+        return Double.NaN;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.gxxr.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Statistics over a stretch of frames: a whole session, a lap, or the piece of a
+ * chunk between two lap gestures. Reports of consecutive stretches are combined
+ * with {@link #append}, so chunks can be summarised in parallel and stitched in
+ * order afterwards.
+ */
+final class SegmentReport {
+
+    // Longer frame intervals count as a dropout of the whole logger (grid is 20 ms)
+    static final double GAP_SECONDS = 0.1;
+
+    long frames;
+    double firstTimestamp = Double.NaN, lastTimestamp = Double.NaN;
+    long gaps;
+    double gapSeconds;
+
+    final long[] missing = new long[ReportChannels.COUNT];
+    final long[] samples = new long[ReportChannels.COUNT];
+    final double[] sums = new double[ReportChannels.COUNT];
+    final double[] mins = new double[ReportChannels.COUNT];
+    final double[] maxs = new double[ReportChannels.COUNT];
+
+    final Histogram frontSuspension = new Histogram(0, 100, 5);
+    final Histogram rearSuspension = new Histogram(0, 200, 5);
+    final Histogram leanAngle = new Histogram(-70, 70, 5);
+    final Histogram wheelSpeed = new Histogram(0, 320, 10);
+
+    final SecondTrace speedTrace = new SecondTrace();
+    final SecondTrace frontBrakeTrace = new SecondTrace();
+    final SecondTrace rearBrakeTrace = new SecondTrace();
+
+    SegmentReport() {
+        Arrays.fill(mins, Double.POSITIVE_INFINITY);
+        Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+    }
+
+    void add(double timestamp, double[] values) {
+        if (frames > 0) {
+            countGap(timestamp - lastTimestamp);
+        } else {
+            firstTimestamp = timestamp;
+        }
+        frames++;
+        lastTimestamp = timestamp;
+
+        for (int channel = 0; channel < ReportChannels.COUNT; channel++) {
+            double value = values[channel];
+            if (Double.isNaN(value)) {
+                missing[channel]++;
+                continue;
+            }
+            samples[channel]++;
+            sums[channel] += value;
+            mins[channel] = Math.min(mins[channel], value);
+            maxs[channel] = Math.max(maxs[channel], value);
+        }
+
+        frontSuspension.add(values[ReportChannels.FRONT_SUSPENSION]);
+        rearSuspension.add(values[ReportChannels.REAR_SUSPENSION]);
+        leanAngle.add(values[ReportChannels.LEAN_ANGLE]);
+        wheelSpeed.add(values[ReportChannels.WHEEL_SPEED]);
+        speedTrace.add(timestamp, values[ReportChannels.WHEEL_SPEED]);
+        frontBrakeTrace.add(timestamp, values[ReportChannels.FRONT_BRAKE_DISK_TEMP]);
+        rearBrakeTrace.add(timestamp, values[ReportChannels.REAR_BRAKE_DISK_TEMP]);
+    }
+
+    private void countGap(double interval) {
+        if (interval > GAP_SECONDS) {
+            gaps++;
+            gapSeconds += interval;
+        }
+    }
+
+    /** Adds the stretch that directly follows this one */
+    void append(SegmentReport next) {
+        if (next.frames == 0) {
+            return;
+        }
+        if (frames > 0) {
+            countGap(next.firstTimestamp - lastTimestamp);
+        } else {
+            firstTimestamp = next.firstTimestamp;
+        }
+        frames += next.frames;
+        lastTimestamp = next.lastTimestamp;
+        gaps += next.gaps;
+        gapSeconds += next.gapSeconds;
+
+        for (int channel = 0; channel < ReportChannels.COUNT; channel++) {
+            missing[channel] += next.missing[channel];
+            samples[channel] += next.samples[channel];
+            sums[channel] += next.sums[channel];
+            mins[channel] = Math.min(mins[channel], next.mins[channel]);
+            maxs[channel] = Math.max(maxs[channel], next.maxs[channel]);
+        }
+
+        frontSuspension.add(next.frontSuspension);
+        rearSuspension.add(next.rearSuspension);
+        leanAngle.add(next.leanAngle);
+        wheelSpeed.add(next.wheelSpeed);
+        speedTrace.append(next.speedTrace);
+        frontBrakeTrace.append(next.frontBrakeTrace);
+        rearBrakeTrace.append(next.rearBrakeTrace);
+    }
+
+    double durationSeconds() {
+        return frames == 0 ? 0 : lastTimestamp - firstTimestamp;
+    }
+
+    double mean(int channel) {
+        return samples[channel] == 0 ? Double.NaN : sums[channel] / samples[channel];
+    }
+
+    double min(int channel) {
+        return samples[channel] == 0 ? Double.NaN : mins[channel];
+    }
+
+    double max(int channel) {
+        return samples[channel] == 0 ? Double.NaN : maxs[channel];
+    }
+
+    /** Share of frames the channel was absent from */
+    double dropoutRate(int channel) {
+        return frames == 0 ? 0 : (double) missing[channel] / frames;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.gxxr.analytics;
+
+import com.example.gxxr.telemetry.SessionUploader;
+import com.example.gxxr.telemetry.TelemetryArchiveReader;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams a recorded session through a fork/join pool. The input is read in
+ * blocks of frames on the calling thread and each block is summarised on the
+ * pool; at most two blocks per worker are in flight, so memory stays bounded by
+ * the block size rather than the session length. Finished blocks are joined in
+ * order and stitched into the session and lap reports.
+ */
+final class SessionAnalyzer {
+
+    static final int DEFAULT_BLOCK_LINES = 2048;
+    static final int DEFAULT_BLOCK_CHUNKS = 2;
+
+    private final ForkJoinPool pool;
+    private final int blockLines;
+    private final int maxInFlight;
+
+    SessionAnalyzer(ForkJoinPool pool) {
+        this(pool, DEFAULT_BLOCK_LINES);
+    }
+
+    SessionAnalyzer(ForkJoinPool pool, int blockLines) {
+        this.pool = pool;
+        this.blockLines = blockLines;
+        this.maxInFlight = 2 * pool.getParallelism();
+    }
+
+    static boolean isSessionFile(File file) {
+        String name = file.getName();
+        return name.endsWith(".jsonl") || name.endsWith(".jsonl.gz")
+                || name.endsWith(SessionUploader.ARCHIVE_SUFFIX);
+    }
+
+    static String sessionName(File file) {
+        String name = file.getName();
+        for (String suffix : new String[]{".jsonl", ".jsonl.gz", SessionUploader.ARCHIVE_SUFFIX}) {
+            if (name.endsWith(suffix)) {
+                return name.substring(0, name.length() - suffix.length());
+            }
+        }
+        return name;
+    }
+
+    SessionReport analyze(File input) throws IOException {
+        SessionReport report = new SessionReport(sessionName(input));
+        try {
+            if (input.getName().endsWith(SessionUploader.ARCHIVE_SUFFIX)) {
+                analyzeArchive(input, report);
+            } else {
+                analyzeJsonLines(input, report);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        report.finish();
+        return report;
+    }
+
+    private void analyzeJsonLines(File input, SessionReport report) throws IOException {
+        InputStream in = new FileInputStream(input);
+        try {
+            if (input.getName().endsWith(".gz")) {
+                in = new GZIPInputStream(in, 64 * 1024);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"), 256 * 1024);
+            ArrayDeque<ForkJoinTask<ChunkResult>> inFlight = new ArrayDeque<>();
+            List<String> block = new ArrayList<>(blockLines);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                block.add(line);
+                if (block.size() == blockLines) {
+                    submit(new LineChunkTask(block.toArray(new String[0]), 0, block.size()), inFlight, report);
+                    block.clear();
+                }
+            }
+            if (!block.isEmpty()) {
+                submit(new LineChunkTask(block.toArray(new String[0]), 0, block.size()), inFlight, report);
+            }
+            drain(inFlight, report);
+        } finally {
+            in.close();
+        }
+    }
+
+    private void analyzeArchive(File input, SessionReport report) throws IOException {
+        int chunks;
+        int[] channels;
+        try (TelemetryArchiveReader reader = new TelemetryArchiveReader(input)) {
+            chunks = reader.chunkCount();
+            channels = ArchiveChunkTask.channelIds(reader);
+        }
+        ArrayDeque<ForkJoinTask<ChunkResult>> inFlight = new ArrayDeque<>();
+        for (int first = 0; first < chunks; first += DEFAULT_BLOCK_CHUNKS) {
+            submit(new ArchiveChunkTask(input, first, DEFAULT_BLOCK_CHUNKS, channels), inFlight, report);
+        }
+        drain(inFlight, report);
+    }
+
+    private void submit(ForkJoinTask<ChunkResult> task, ArrayDeque<ForkJoinTask<ChunkResult>> inFlight,
+                        SessionReport report) {
+        if (inFlight.size() >= maxInFlight) {
+            report.append(inFlight.removeFirst().join());
+        }
+        inFlight.addLast(pool.submit(task));
+    }
+
+    private static void drain(ArrayDeque<ForkJoinTask<ChunkResult>> inFlight, SessionReport report) {
+        while (!inFlight.isEmpty()) {
+            report.append(inFlight.removeFirst().join());
+        }
+    }
+}
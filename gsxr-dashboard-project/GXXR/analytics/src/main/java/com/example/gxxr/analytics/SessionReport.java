@@ -0,0 +1,273 @@
+package com.example.gxxr.analytics;
+
+import com.example.gxxr.telemetry.GestureRecognizer;
+import com.example.gxxr.telemetry.LapGestures;
+import com.example.gxxr.telemetry.TelemetryFrame;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Session and lap summaries, fed with chunk results in session order. A lap runs
+ * from an arm gesture to the next stop gesture, recognised as on the dash: the
+ * same debounced {@link LapGestures}, and only while lap mode is on. As on the
+ * dash's lap timer, a lap starts and ends at the frame its gesture started, which
+ * is up to a debounce interval before the frame that confirmed it; pieces that
+ * recent are held back until a gesture can no longer start in them. A lap still
+ * open when the recording ends is left out, as is one abandoned by leaving lap
+ * mode.
+ */
+final class SessionReport {
+
+    // Furthest a gesture's start is looked for before the frame that confirmed it
+    static final long MAX_GESTURE_LOOKBACK_MILLIS = 1000;
+
+    private static final int ARM = 1;
+    private static final int STOP = 2;
+    private static final int ABANDON = 3;
+
+    final String name;
+    final SegmentReport session = new SegmentReport();
+    final List<SegmentReport> laps = new ArrayList<>();
+    long skippedLines;
+
+    private final GestureRecognizer gestureRecognizer = LapGestures.newRecognizer();
+    private final TelemetryFrame switches = new TelemetryFrame();
+    private boolean isLapModeEnabled, isLapArmed;
+    private long lastFrameMillis = Long.MIN_VALUE;
+
+    // Pieces a gesture may still start in, oldest first
+    private final ArrayDeque<HeldPiece> heldPieces = new ArrayDeque<>();
+    private SegmentReport openLap;
+
+    private static final class HeldPiece {
+
+        final SegmentReport piece;
+        final long startMillis;
+        // Lap gestures taking effect at the start of the piece, in order
+        final List<Integer> gestures = new ArrayList<>(1);
+
+        HeldPiece(SegmentReport piece, long startMillis) {
+            this.piece = piece;
+            this.startMillis = startMillis;
+        }
+    }
+
+    SessionReport(String name) {
+        this.name = name;
+    }
+
+    void append(ChunkResult chunk) {
+        skippedLines += chunk.skippedLines;
+        int piece = 0;
+        for (int frame = 0; frame < chunk.frameCount(); frame++) {
+            long millis = chunk.frameMillis(frame);
+            if (millis < lastFrameMillis) {
+                // The recognizer starts over, nothing before can start a gesture
+                releaseHeldPieces(Long.MAX_VALUE, 0);
+            }
+            lastFrameMillis = millis;
+            if (piece < chunk.pieces.size() && chunk.pieceStart(piece) == frame) {
+                heldPieces.addLast(new HeldPiece(chunk.pieces.get(piece++), millis));
+            }
+            chunk.loadSwitches(frame, switches);
+            int fired = gestureRecognizer.process(switches);
+            if (fired != 0) {
+                handleLapGestures(fired);
+            }
+            // The newest piece is still taking frames; gestures confirmed in it can start there
+            releaseHeldPieces(millis - MAX_GESTURE_LOOKBACK_MILLIS, 1);
+        }
+    }
+
+    /** As the dash's lap timer does */
+    private void handleLapGestures(int gestures) {
+        if ((gestures & (1 << LapGestures.LAP_MODE)) != 0) {
+            if (isLapModeEnabled && isLapArmed) {
+                heldPieces.getLast().gestures.add(ABANDON);
+                isLapArmed = false;
+            }
+            isLapModeEnabled = !isLapModeEnabled;
+        }
+        if (!isLapModeEnabled) {
+            return;
+        }
+        if ((gestures & (1 << LapGestures.LAP_ARM)) != 0 && !isLapArmed) {
+            heldPieceStarting(gestureRecognizer.startedAtMillis(LapGestures.LAP_ARM)).gestures.add(ARM);
+            isLapArmed = true;
+        } else if ((gestures & (1 << LapGestures.LAP_STOP)) != 0 && isLapArmed) {
+            heldPieceStarting(gestureRecognizer.startedAtMillis(LapGestures.LAP_STOP)).gestures.add(STOP);
+            isLapArmed = false;
+        }
+    }
+
+    /**
+     * The held piece starting at the frame a gesture started; the oldest held piece
+     * if that is further back than pieces are held, and never one before a piece an
+     * earlier gesture took effect in
+     */
+    private HeldPiece heldPieceStarting(long startedAtMillis) {
+        HeldPiece found = null;
+        for (HeldPiece held : heldPieces) {
+            if (found == null || found.startMillis < startedAtMillis || !held.gestures.isEmpty()) {
+                found = held;
+            }
+        }
+        return found;
+    }
+
+    /** Adds the held pieces starting before {@code beforeMillis} to the reports, keeping at least {@code keep} */
+    private void releaseHeldPieces(long beforeMillis, int keep) {
+        while (heldPieces.size() > keep && heldPieces.getFirst().startMillis < beforeMillis) {
+            HeldPiece held = heldPieces.removeFirst();
+            for (int gesture : held.gestures) {
+                if (gesture == ARM) {
+                    openLap = new SegmentReport();
+                } else if (gesture == STOP && openLap != null) {
+                    laps.add(openLap);
+                    openLap = null;
+                } else {
+                    openLap = null;
+                }
+            }
+            session.append(held.piece);
+            if (openLap != null) {
+                openLap.append(held.piece);
+            }
+        }
+    }
+
+    void finish() {
+        releaseHeldPieces(Long.MAX_VALUE, 0);
+        openLap = null;
+    }
+
+    void writeJson(Writer out) throws IOException {
+        out.write("{\"session\":\"" + name.replace("\\", "\\\\").replace("\"", "\\\"") + "\"");
+        out.write(",\"frames\":" + session.frames);
+        out.write(",\"skipped_lines\":" + skippedLines);
+        out.write(",\"first_ts\":" + number(session.firstTimestamp));
+        out.write(",\"duration_s\":" + number(session.durationSeconds()));
+        out.write(",\"gaps\":" + session.gaps);
+        out.write(",\"gap_s\":" + number(session.gapSeconds));
+
+        out.write(",\"channels\":{");
+        for (int channel = 0; channel < ReportChannels.COUNT; channel++) {
+            out.write((channel == 0 ? "" : ",") + "\"" + ReportChannels.KEYS[channel] + "\":{");
+            out.write("\"min\":" + number(session.min(channel)));
+            out.write(",\"mean\":" + number(session.mean(channel)));
+            out.write(",\"max\":" + number(session.max(channel)));
+            out.write(",\"dropout\":" + number(session.dropoutRate(channel)) + "}");
+        }
+        out.write("}");
+
+        out.write(",\"histograms\":{");
+        writeHistogram(out, "front_suspension_mm", session.frontSuspension);
+        out.write(",");
+        writeHistogram(out, "rear_suspension_mm", session.rearSuspension);
+        out.write(",");
+        writeHistogram(out, "lean_angle_deg", session.leanAngle);
+        out.write(",");
+        writeHistogram(out, "wheel_speed_kmh", session.wheelSpeed);
+        out.write("}");
+
+        out.write(",\"laps\":[");
+        for (int i = 0; i < laps.size(); i++) {
+            SegmentReport lap = laps.get(i);
+            out.write((i == 0 ? "" : ",") + "{\"lap\":" + (i + 1));
+            out.write(",\"start_ts\":" + number(lap.firstTimestamp));
+            out.write(",\"duration_s\":" + number(lap.durationSeconds()));
+            out.write(",\"frames\":" + lap.frames);
+            out.write(",\"gaps\":" + lap.gaps);
+            out.write(",\"max_speed\":" + number(lap.max(ReportChannels.WHEEL_SPEED)));
+            out.write(",\"max_front_disc_temp\":" + number(lap.max(ReportChannels.FRONT_BRAKE_DISK_TEMP)));
+            out.write(",\"max_rear_disc_temp\":" + number(lap.max(ReportChannels.REAR_BRAKE_DISK_TEMP)));
+            out.write(",\"lean_deg\":[" + number(lap.min(ReportChannels.LEAN_ANGLE)) + ","
+                    + number(lap.max(ReportChannels.LEAN_ANGLE)) + "]");
+            out.write(",\"front_suspension_mm\":[" + number(lap.min(ReportChannels.FRONT_SUSPENSION)) + ","
+                    + number(lap.max(ReportChannels.FRONT_SUSPENSION)) + "]");
+            out.write(",\"rear_suspension_mm\":[" + number(lap.min(ReportChannels.REAR_SUSPENSION)) + ","
+                    + number(lap.max(ReportChannels.REAR_SUSPENSION)) + "]}");
+        }
+        out.write("]}\n");
+    }
+
+    private static void writeHistogram(Writer out, String name, Histogram histogram) throws IOException {
+        out.write("\"" + name + "\":{\"min\":" + number(histogram.min) + ",\"width\":" + number(histogram.width) + ",\"counts\":[");
+        for (int i = 0; i < histogram.counts.length; i++) {
+            out.write((i == 0 ? "" : ",") + histogram.counts[i]);
+        }
+        out.write("]}");
+    }
+
+    void writeLapsCsv(Writer out) throws IOException {
+        out.write("lap,start_ts,duration_s,frames,gaps,mean_speed,max_speed,max_front_disc_temp,max_rear_disc_temp,"
+                + "min_lean,max_lean,min_front_suspension,min_rear_suspension\n");
+        for (int i = 0; i < laps.size(); i++) {
+            SegmentReport lap = laps.get(i);
+            out.write((i + 1) + "," + cell(lap.firstTimestamp) + "," + cell(lap.durationSeconds())
+                    + "," + lap.frames + "," + lap.gaps
+                    + "," + cell(lap.mean(ReportChannels.WHEEL_SPEED))
+                    + "," + cell(lap.max(ReportChannels.WHEEL_SPEED))
+                    + "," + cell(lap.max(ReportChannels.FRONT_BRAKE_DISK_TEMP))
+                    + "," + cell(lap.max(ReportChannels.REAR_BRAKE_DISK_TEMP))
+                    + "," + cell(lap.min(ReportChannels.LEAN_ANGLE))
+                    + "," + cell(lap.max(ReportChannels.LEAN_ANGLE))
+                    + "," + cell(lap.min(ReportChannels.FRONT_SUSPENSION))
+                    + "," + cell(lap.min(ReportChannels.REAR_SUSPENSION)) + "\n");
+        }
+    }
+
+    /** One row per second of the session with the mean speed and disc temperatures */
+    void writeTraceCsv(Writer out) throws IOException {
+        out.write("second,speed,front_disc_temp,rear_disc_temp\n");
+        SecondTrace[] traces = {session.speedTrace, session.frontBrakeTrace, session.rearBrakeTrace};
+        // Rows cover every trace's segments, without filling the gaps between them
+        List<long[]> spans = new ArrayList<>();
+        for (SecondTrace trace : traces) {
+            for (int segment = 0; segment < trace.segmentCount(); segment++) {
+                spans.add(new long[]{trace.segmentStart(segment), trace.segmentEnd(segment)});
+            }
+        }
+        Collections.sort(spans, new Comparator<long[]>() {
+            @Override
+            public int compare(long[] a, long[] b) {
+                return Long.compare(a[0], b[0]);
+            }
+        });
+        StringBuilder row = new StringBuilder(64);
+        long written = Long.MIN_VALUE;
+        for (long[] span : spans) {
+            for (long second = Math.max(span[0], written); second < span[1]; second++) {
+                row.setLength(0);
+                row.append(second);
+                for (SecondTrace trace : traces) {
+                    row.append(',').append(cell(trace.valueAt(second)));
+                }
+                out.write(row.append('\n').toString());
+            }
+            written = Math.max(written, span[1]);
+        }
+    }
+
+    private static String number(double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? "null" : format(value);
+    }
+
+    private static String cell(double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? "" : format(value);
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.gxxr.analytics;
+
+import com.example.gxxr.telemetry.TelemetryArchiveImporter;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class SessionAnalyzerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final double START = 1700000000;
+
+    // Two minutes at 50 Hz: lap mode switched on holding both brakes from 1 s to 4.5 s,
+    // laps armed at 10 s and 55 s, stopped at 50 s and 95 s, a half second logger
+    // dropout at 70 s and the front sonar missing every tenth frame
+    private File writeSession() throws Exception {
+        return writeSession(0);
+    }
+
+    /** As above, with the logger clock jumping {@code jumpSeconds} ahead at 60 s */
+    private File writeSession(double jumpSeconds) throws Exception {
+        File file = folder.newFile("ride.jsonl");
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8")) {
+            for (int i = 0; i < 6000; i++) {
+                double t = i * 0.02;
+                if (t >= 70 && t < 70.5) {
+                    continue;
+                }
+                boolean lapMode = t >= 1 && t < 4.5;
+                boolean arm = (t >= 10 && t < 10.5) || (t >= 55 && t < 55.5);
+                boolean stop = (t >= 50 && t < 50.5) || (t >= 95 && t < 95.5);
+                StringBuilder frame = new StringBuilder();
+                frame.append(String.format(Locale.ROOT, "{\"frame_ts\": %.3f", START + t + (t >= 60 ? jumpSeconds : 0)));
+                if (i % 10 != 0) {
+                    field(frame, ReportChannels.FRONT_SUSPENSION, 48 + 20 * Math.sin(t));
+                }
+                field(frame, ReportChannels.REAR_SUSPENSION, 80 + 30 * Math.cos(t));
+                field(frame, ReportChannels.FRONT_BRAKE_DISK_TEMP, 60 + t);
+                field(frame, ReportChannels.REAR_BRAKE_DISK_TEMP, 40 + t / 2);
+                field(frame, ReportChannels.WHEEL_SPEED, 120 + 80 * Math.sin(t / 7));
+                switches(frame, arm || stop, lapMode || arm, lapMode || stop);
+                frame.append("}\n");
+                out.write(frame.toString());
+                if (i == 3000) {
+                    out.write("{\"frame_ts\": \n");
+                }
+            }
+        }
+        return file;
+    }
+
+    private static void field(StringBuilder frame, int channel, double value) {
+        frame.append(String.format(Locale.ROOT, ", \"%s\": %.1f", ReportChannels.KEYS[channel], value));
+    }
+
+    // The brake switches read 0 while the lever is pulled
+    private static void switches(StringBuilder frame, boolean headlight, boolean frontBrake, boolean rearBrake) {
+        field(frame, ReportChannels.HEADLIGHT, headlight ? 1 : 0);
+        field(frame, ReportChannels.FRONT_BRAKE, frontBrake ? 0 : 1);
+        field(frame, ReportChannels.REAR_BRAKE, rearBrake ? 0 : 1);
+    }
+
+    private static SessionReport analyze(File input, int threads, int blockLines) throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return new SessionAnalyzer(pool, blockLines).analyze(input);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void assertSameReport(SessionReport expected, SessionReport actual) {
+        assertEquals(expected.session.frames, actual.session.frames);
+        assertEquals(expected.session.gaps, actual.session.gaps);
+        assertEquals(expected.laps.size(), actual.laps.size());
+        for (int channel = 0; channel < ReportChannels.COUNT; channel++) {
+            assertEquals(expected.session.missing[channel], actual.session.missing[channel]);
+            assertEquals(expected.session.mean(channel), actual.session.mean(channel), 1e-6);
+        }
+        assertArrayEquals(expected.session.frontSuspension.counts, actual.session.frontSuspension.counts);
+        assertArrayEquals(expected.session.wheelSpeed.counts, actual.session.wheelSpeed.counts);
+        for (int i = 0; i < expected.laps.size(); i++) {
+            assertEquals(expected.laps.get(i).frames, actual.laps.get(i).frames);
+            assertEquals(expected.laps.get(i).max(ReportChannels.WHEEL_SPEED),
+                    actual.laps.get(i).max(ReportChannels.WHEEL_SPEED), 0);
+        }
+        SecondTrace expectedTrace = expected.session.speedTrace, actualTrace = actual.session.speedTrace;
+        assertEquals(expectedTrace.segmentCount(), actualTrace.segmentCount());
+        for (int segment = 0; segment < expectedTrace.segmentCount(); segment++) {
+            assertEquals(expectedTrace.segmentStart(segment), actualTrace.segmentStart(segment));
+            assertEquals(expectedTrace.segmentEnd(segment), actualTrace.segmentEnd(segment));
+            for (long second = expectedTrace.segmentStart(segment); second < expectedTrace.segmentEnd(segment); second++) {
+                assertEquals(expectedTrace.valueAt(second), actualTrace.valueAt(second), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    public void jsonLines_findsLapsAndDropouts() throws Exception {
+        SessionReport report = analyze(writeSession(), 1, 100000);
+
+        assertEquals("ride", report.name);
+        assertEquals(5975, report.session.frames);
+        assertEquals(1, report.skippedLines);
+        assertEquals(1, report.session.gaps);
+        assertEquals(0.52, report.session.gapSeconds, 1e-6);
+        assertEquals(0.1, report.session.dropoutRate(ReportChannels.FRONT_SUSPENSION), 0.001);
+        assertEquals(0, report.session.dropoutRate(ReportChannels.REAR_SUSPENSION), 0);
+        assertEquals(1, report.session.dropoutRate(ReportChannels.LEAN_ANGLE), 0);
+
+        assertEquals(2, report.laps.size());
+        assertEquals(START + 10, report.laps.get(0).firstTimestamp, 1e-6);
+        assertEquals(39.98, report.laps.get(0).durationSeconds(), 1e-6);
+        assertEquals(START + 55, report.laps.get(1).firstTimestamp, 1e-6);
+        assertEquals(1, report.laps.get(1).gaps);
+        assertEquals(110, report.laps.get(0).max(ReportChannels.FRONT_BRAKE_DISK_TEMP), 0.05);
+
+        assertEquals(120, report.session.speedTrace.length());
+        assertFalse(Double.isNaN(report.session.speedTrace.valueAt((long) START + 70)));
+        assertEquals(report.session.frames - report.session.missing[ReportChannels.FRONT_SUSPENSION],
+                report.session.frontSuspension.total());
+    }
+
+    @Test
+    public void lapGestures_areDebouncedAndNeedLapMode() throws Exception {
+        // 40 s at 50 Hz, the rider's gestures at the times below
+        File file = folder.newFile("gestures.jsonl");
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8")) {
+            for (int i = 0; i < 2000; i++) {
+                double t = i * 0.02;
+                // Armed and stopped before lap mode is on; neither counts
+                boolean arm = (t >= 2 && t < 2.5)
+                        // A 40 ms bounce of the front brake with the headlight on, then the real thing
+                        || (t >= 11 && t < 11.04) || (t >= 15 && t < 15.5);
+                boolean stop = (t >= 5 && t < 5.5) || (t >= 30 && t < 30.5);
+                boolean lapMode = t >= 7 && t < 10.5;
+                StringBuilder frame = new StringBuilder();
+                frame.append(String.format(Locale.ROOT, "{\"frame_ts\": %.3f", START + t));
+                field(frame, ReportChannels.WHEEL_SPEED, 100);
+                switches(frame, arm || stop, lapMode || arm, lapMode || stop);
+                frame.append("}\n");
+                out.write(frame.toString());
+            }
+        }
+        SessionReport report = analyze(file, 1, 100000);
+
+        assertEquals(1, report.laps.size());
+        // From the frame the arm gesture started to the one before the stop gesture started
+        assertEquals(START + 15, report.laps.get(0).firstTimestamp, 1e-6);
+        assertEquals(750, report.laps.get(0).frames);
+        // Chunk edges inside the bounce and the gestures
+        assertSameReport(report, analyze(file, 4, 3));
+        assertSameReport(report, analyze(file, 2, 149));
+    }
+
+    @Test
+    public void recordedFrames_getLeanFromTheBikeImu() throws Exception {
+        // 90 km/h, a steady 40 degree left-hander from 5 s to 15 s, then parked on the side stand
+        File file = folder.newFile("corner.jsonl");
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8")) {
+            for (int i = 0; i < 1000; i++) {
+                double t = i * 0.02;
+                boolean parked = t >= 18;
+                double lean = parked ? 10 : t >= 5 && t < 15 ? 40 : 0;
+                double speed = parked ? 0 : 90;
+                double heading = parked ? 0 : Math.toDegrees(9.80665 * Math.tan(Math.toRadians(lean)) / (speed / 3.6));
+                double lateral = parked ? -9.80665 * Math.sin(Math.toRadians(lean)) : 0;
+                double vertical = 9.80665 * (parked ? Math.cos(Math.toRadians(lean)) : 1 / Math.cos(Math.toRadians(lean)));
+                StringBuilder frame = new StringBuilder();
+                frame.append(String.format(Locale.ROOT, "{\"frame_ts\": %.3f", START + t));
+                field(frame, ReportChannels.WHEEL_SPEED, speed);
+                frame.append(String.format(Locale.ROOT,
+                        ", \"primary_imu_mpuA_g_y\": %.4f, \"primary_imu_mpuA_g_z\": %.4f"
+                                + ", \"primary_imu_mpuA_a_y\": %.4f, \"primary_imu_mpuA_a_z\": %.4f}\n",
+                        -heading * Math.sin(Math.toRadians(lean)), heading * Math.cos(Math.toRadians(lean)),
+                        lateral, vertical));
+                out.write(frame.toString());
+            }
+        }
+        SessionReport report = analyze(file, 2, 128);
+
+        assertEquals(0, report.session.dropoutRate(ReportChannels.LEAN_ANGLE), 0);
+        assertEquals(40, report.session.max(ReportChannels.LEAN_ANGLE), 0.1);
+        assertEquals(0, report.session.min(ReportChannels.LEAN_ANGLE), 0.1);
+        // 10 s of the ride either side of 40
+        assertEquals(500, report.session.leanAngle.counts[(35 + 70) / 5] + report.session.leanAngle.counts[(40 + 70) / 5]);
+    }
+
+    @Test
+    public void loggerClockJump_startsANewTraceSegment() throws Exception {
+        // Thirty years ahead: one point per second in between would never fit
+        File session = writeSession(1e9);
+        SessionReport sequential = analyze(session, 1, 100000);
+        SecondTrace trace = sequential.session.speedTrace;
+        assertEquals(2, trace.segmentCount());
+        assertEquals(120, trace.length());
+        assertEquals((long) START + 60, trace.segmentEnd(0));
+        assertEquals((long) START + 1_000_000_060L, trace.segmentStart(1));
+        assertSameReport(sequential, analyze(session, 4, 37));
+
+        StringWriter csv = new StringWriter();
+        sequential.writeTraceCsv(csv);
+        assertEquals(121, csv.toString().split("\n").length);
+    }
+
+    @Test
+    public void parallelBlocks_matchSingleThread() throws Exception {
+        File session = writeSession();
+        SessionReport sequential = analyze(session, 1, 100000);
+        // Odd block sizes put chunk edges inside the gestures and the dropout
+        assertSameReport(sequential, analyze(session, 4, 37));
+        assertSameReport(sequential, analyze(session, 3, 1000));
+    }
+
+    @Test
+    public void archive_matchesJsonLines() throws Exception {
+        File session = writeSession();
+        File archive = new File(folder.getRoot(), "ride.gsxa");
+        TelemetryArchiveImporter.convert(session, archive);
+
+        SessionReport fromLines = analyze(session, 1, 100000);
+        SessionReport fromArchive = analyze(archive, 4, 1);
+        assertEquals(0, fromArchive.skippedLines);
+        assertSameReport(fromLines, fromArchive);
+
+        StringWriter json = new StringWriter();
+        fromArchive.writeJson(json);
+        assertTrue(json.toString().startsWith("{\"session\":\"ride\",\"frames\":5975,"));
+        StringWriter laps = new StringWriter();
+        fromArchive.writeLapsCsv(laps);
+        assertEquals(3, laps.toString().split("\n").length);
+        StringWriter trace = new StringWriter();
+        fromArchive.writeTraceCsv(trace);
+        assertEquals(121, trace.toString().split("\n").length);
+    }
+}
@@ -30,6 +30,7 @@ public class ArcView extends View {
     private float shadowRadius = 18f;
     private float shadowDx = 0f;
     private float shadowDy = 0f;
+    private boolean glowEnabled = true;
 
     public ArcView(Context context) {
         super(context);
@@ -78,7 +79,11 @@ public class ArcView extends View {
     }
 
     private void applyShadow() {
-        paint.setShadowLayer(shadowRadius, shadowDx, shadowDy, shadowColor);
+        if (glowEnabled) {
+            paint.setShadowLayer(shadowRadius, shadowDx, shadowDy, shadowColor);
+        } else {
+            paint.clearShadowLayer();
+        }
     }
 
     @Override
@@ -123,6 +128,14 @@ public class ArcView extends View {
         invalidate();
     }
 
+    /** Glow needs a software layer; without it the view can stay hardware accelerated */
+    public void setGlowEnabled(boolean enabled) {
+        this.glowEnabled = enabled;
+        setLayerType(enabled ? LAYER_TYPE_SOFTWARE : LAYER_TYPE_NONE, enabled ? paint : null);
+        applyShadow();
+        invalidate();
+    }
+
     public void setArcSweepAngle(float angle){
         this.sweepAngle = angle;
         invalidate();
@@ -7,16 +7,23 @@ import static android.widget.Toast.LENGTH_SHORT;
 
 import android.content.Context;
 import android.content.pm.ActivityInfo;
+import android.graphics.PorterDuff;
 import android.hardware.Sensor;
 import android.hardware.SensorEvent;
 import android.hardware.SensorEventListener;
 import android.hardware.SensorManager;
 import android.net.Uri;
+import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
 import android.os.Message;
+import android.os.PowerManager;
+import android.os.Process;
 import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+import android.view.Choreographer;
 import android.view.View;
 import android.view.Window;
 import android.view.WindowManager;
@@ -31,12 +38,50 @@ import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.constraintlayout.widget.ConstraintLayout;
 
+import com.example.gxxr.telemetry.AlertEngine;
+import com.example.gxxr.telemetry.AlertRules;
+import com.example.gxxr.telemetry.AtomicFileWriter;
+import com.example.gxxr.telemetry.ChannelScheduler;
+import com.example.gxxr.telemetry.ClockOffsetEstimator;
+import com.example.gxxr.telemetry.CornerSegmenter;
+import com.example.gxxr.telemetry.CornerTable;
+import com.example.gxxr.telemetry.DashboardSharedState;
+import com.example.gxxr.telemetry.DashboardSnapshot;
+import com.example.gxxr.telemetry.DerivedChannelProcessor;
+import com.example.gxxr.telemetry.FrameAgeTracker;
+import com.example.gxxr.telemetry.FrameBoard;
+import com.example.gxxr.telemetry.FramePublisher;
+import com.example.gxxr.telemetry.FrameSubscription;
+import com.example.gxxr.telemetry.GaugeCalibrator;
+import com.example.gxxr.telemetry.GestureRecognizer;
+import com.example.gxxr.telemetry.HttpUploadEndpoint;
+import com.example.gxxr.telemetry.LapDeltaTracker;
+import com.example.gxxr.telemetry.LapGestures;
+import com.example.gxxr.telemetry.LeanEstimator;
+import com.example.gxxr.telemetry.LoggerDiscovery;
+import com.example.gxxr.telemetry.MulticastFramePublisher;
+import com.example.gxxr.telemetry.PipelineStage;
+import com.example.gxxr.telemetry.QualityGovernor;
+import com.example.gxxr.telemetry.RecordingFrameHold;
+import com.example.gxxr.telemetry.SessionRecorder;
+import com.example.gxxr.telemetry.SessionStatistics;
+import com.example.gxxr.telemetry.SessionUploader;
+import com.example.gxxr.telemetry.TelemetryChannels;
+import com.example.gxxr.telemetry.TelemetryFrame;
+import com.example.gxxr.telemetry.TelemetryPipeline;
+import com.example.gxxr.telemetry.UploadCursorStore;
+import com.example.gxxr.telemetry.WebSocketFramePublisher;
+
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.File;
+import java.io.IOException;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
 import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -55,23 +100,41 @@ public class DashboardActivity extends AppCompatActivity implements SensorEventL
     private ParallelogramView frontSuspensionOffset, rearSuspensionOffset;
     private ParallelogramView leftTireSectionTempIndicator, centerTireSectionTempIndicator;
     private ParallelogramView frontRightBrakeDiskTempIndicator, coolantTempIndicator;
+    private StripChartView frontSuspensionChart, rearSuspensionChart, frontBrakeDiskTempChart;
     private TextView dashboardClockTimer, lapTimer, speedCounter, gearIndicator, coolantTemperatureValue;
-    private TextView leanAngleTxt;
+    private TextView leanAngleTxt, lapDeltaTxt;
     private TextView maxLeftLeanAngleTxt, maxRightLeanAngleTxt;
-    private DatagramSocket sensorDatagramSocket;
+    // Opened on the receiver stage, closed from the UI thread to unblock it
+    private volatile DatagramSocket sensorDatagramSocket;
     private byte[] messageBuf;
     private byte[] rawSensorDataBuff;
     private String systemSensorParameters;
-    private final String subscribeMessage = "REQ";
     private InetAddress dataLoggerAddress;
-    private final int dataLoggerPort = 9100;
+    // Discovery probes go here; it is also the REQ port until discovery says otherwise
+    private final int LOGGER_PORT = 9100;
+    private int dataLoggerPort = LOGGER_PORT;
+    // Sized for full frames from loggers that don't support subscriptions
     private final int MAX_FRAME_SIZE = 1880;
+    private final int LOGGER_SUBSCRIBE_TIMEOUT = 500;
+    private final int LOGGER_RECEIVE_TIMEOUT = 250;
+    private final int LOGGER_DISCOVERY_TIMEOUT = 500;
+    // Consecutive unanswered requests before looking for the logger again
+    private final int LOGGER_REDISCOVERY_TIMEOUTS = 8;
+    private LoggerDiscovery loggerDiscovery;
+    private int loggerTimeouts;
+    private boolean hasRememberedLoggerEndpoint;
+    // Phone reading with the bike upright, until the bike IMU has taught the estimator better
     private final int CALIBRATION_OFFSET_ANGLE = 5;
+    private final LeanEstimator leanEstimator = new LeanEstimator(CALIBRATION_OFFSET_ANGLE);
     private DatagramPacket messagePacket;
     private Handler dashboardInstrumentUIHandler_h1, dashboardInstrumentUIHandler_h2;
     private float[] rotationMatrix = new float[9];
     private float[] orientation = new float[3];
-    private List<Integer> activeErrorCodes;
+    private AlertEngine alertEngine;
+    private int displayedAlert = -1;
+    // Shown when the rules have nothing but the link to the logger is failing
+    private static final int LINK_FAULT_ALERT = -2;
+    private final long ALERT_DISPLAY_TICK = 100;
     private final double TEST_START_POINT = 0, TEST_END_POINT = 100;
     private final double MIN_BRAKE_DISK_TEMP = 0,  MAX_BRAKE_DISK_TEMP = 100;
     private final double MIN_COOLANT_TEMP = 20,  MAX_COOLANT_TEMP = 120;
@@ -83,23 +146,99 @@ public class DashboardActivity extends AppCompatActivity implements SensorEventL
     private final int BOOT_UP_MODE = 0, SHUTDOWN_MODE = 1;
     private final int SYSTEM_INIT = 1;
     private final int DASH_CLOCK_UPDATE = 2;
+    private final int PERSIST_DASH_STATE = 6;
     private static final int UPDATE_INSTRUMENTS = 3 ;
     private static final int UPDATE_LAP_TIMER = 4;
     private static final int UPDATE_ERROR_CODES = 5;
-    private boolean hasEnabledDataStreamUpdates = false;
+    // Streaming flag, lap timer, link faults and frame handoff, shared with the pipeline workers
+    private final DashboardSharedState sharedState = new DashboardSharedState();
+    private boolean hasReportedFullyDrawn = false;
     private DatagramPacket rawSensorDataPacket;
+    // While projecting, one poll per interval asks for the whole frame for the recording
+    private final long FULL_FRAME_SNAPSHOT_INTERVAL_MICROS = 1_000_000;
+    private final RecordingFrameHold recordingFrameHold = new RecordingFrameHold(FULL_FRAME_SNAPSHOT_INTERVAL_MICROS);
     private double LTS, CTS, FrBD, frontSuspensionStateValue, rearSuspensionStateValue;
     private Sensor gyroScopeSensor, linearAccerlerationSensor;;
     private int leanAngle, maxLeftLeanAngle = 0, maxRightLeanAngle = 0, frontBrakes, rearBrakes;;
-    private int hasGPSLocked = 0, speedKph, isHeadLightTriggerOn;
-    private boolean isLapTimerArmed = false, isLapModeEnabled = false;
-    private final int LAP_MODE_DELAY_COUNTER = 1000;
-    private int lapModeTrackCounter = 0;
-    private long lapTimerStartPoint, elapsedLapTime;
+    private int hasGPSLocked = 0, isHeadLightTriggerOn;
+    // Written on the main thread, read by the upload gate
+    private volatile int speedKph;
+    private boolean isLapModeEnabled = false;
     private double coolantTemperature;
     private float frontSuspensionMapValue, rearSuspensionMapValue;
     private VideoView spashVideoView;
     private Uri bootUpAnimationUri, shutdownAnimationUri;
+    private final TelemetryFrame liveFrame = new TelemetryFrame();
+    private final SessionStatistics sessionStatistics = new SessionStatistics();
+    private final DerivedChannelProcessor derivedChannels = new DerivedChannelProcessor();
+    private final LapDeltaTracker lapDeltaTracker = new LapDeltaTracker();
+    private final CornerSegmenter cornerSegmenter = new CornerSegmenter();
+    private final GestureRecognizer gestureRecognizer = LapGestures.newRecognizer();
+    private long displayedLapDeltaCentis = Long.MIN_VALUE;
+    private File dashboardStateFile, previousSessionStatisticsFile, gaugeCalibrationFile;
+    private final AtomicFileWriter fileWriter = new AtomicFileWriter();
+    private TelemetryPipeline telemetryPipeline;
+    private final long LOGGER_STARTUP_DELAY = 5000;
+    // Everything the dash reads from the logger; the rear disc temperature and bike IMU have no channels of their own
+    private final FrameSubscription frameSubscription =
+            FrameSubscription.forChannels(FrameSubscription.loggerChannels(), "rear_brake_gps_S1",
+                    LeanEstimator.BIKE_ACCEL_Y_KEY, LeanEstimator.BIKE_ACCEL_Z_KEY,
+                    LeanEstimator.BIKE_GYRO_X_KEY, LeanEstimator.BIKE_GYRO_Y_KEY, LeanEstimator.BIKE_GYRO_Z_KEY);
+    private final long LAP_TIMER_IDLE_DELAY = 20;
+    private final long DASH_STATE_SNAPSHOT_DELAY = 30000;
+    private final long WARM_RESUME_WINDOW = 10 * 60 * 1000;
+    private File sessionArchiveDirectory, cornerTableDirectory;
+    private SessionRecorder sessionRecorder;
+    private volatile long lastMovingTimestamp = 0;
+    private final long PARKED_HOLD_DELAY = 60000;
+    private final long UPLOAD_POLL_DELAY = 60000;
+    // Uploaded archives are deleted; this bounds the ones that can't be sent
+    private final long SESSION_ARCHIVE_MAX_BYTES = 256L * 1024 * 1024;
+    private final int UPLOAD_CHUNKS_PER_BATCH = 8;
+    private final long UPLOAD_MAX_BYTES_PER_SECOND = 64 * 1024;
+    private final List<FramePublisher> framePublishers = new ArrayList<>();
+    private FrameAgeTracker frameAgeTracker;
+    // Shared with other apps through FrameBoardProvider, null when disabled
+    private FrameBoard frameBoard;
+    private static final String TAG = "DashboardActivity";
+    private QualityGovernor qualityGovernor;
+    private Choreographer.FrameCallback frameTimeMonitor;
+    private PowerManager.OnThermalStatusChangedListener thermalStatusListener;
+    private int sensorSamplingDelay = SensorManager.SENSOR_DELAY_FASTEST;
+    private final long NORMAL_CHANNEL_DELAY = 50;
+    private final long SLOW_CHANNEL_DELAY = 500;
+    private final long MINIMAL_TIER_NORMAL_CHANNEL_DELAY = 100;
+    private final long MINIMAL_TIER_SLOW_CHANNEL_DELAY = 2000;
+    // Widget redraw budgets; brakes, headlight and speed are critical and drawn every frame.
+    // The urgent deltas let a sudden jump through straight away
+    private final ChannelScheduler channelScheduler = new ChannelScheduler(NORMAL_CHANNEL_DELAY, SLOW_CHANNEL_DELAY, 1)
+            .assign(TelemetryChannels.FRONT_SUSPENSION, ChannelScheduler.RATE_NORMAL, 15)
+            .assign(TelemetryChannels.REAR_SUSPENSION, ChannelScheduler.RATE_NORMAL, 20)
+            .assign(TelemetryChannels.GPS_FIX, ChannelScheduler.RATE_NORMAL, 0.5)
+            .assign(TelemetryChannels.FRONT_TYRE_S1, ChannelScheduler.RATE_SLOW, 10)
+            .assign(TelemetryChannels.FRONT_TYRE_S2, ChannelScheduler.RATE_SLOW, 10)
+            .assign(TelemetryChannels.FRONT_BRAKE_DISK_TEMP, ChannelScheduler.RATE_SLOW, 40)
+            .assign(TelemetryChannels.COOLANT_TEMP, ChannelScheduler.RATE_SLOW, 5);
+    // Stock sonar readings in mm, fully compressed to fully extended, until a session recalibrates them
+    private final double DEFAULT_FRONT_SUSPENSION_MIN = 16, DEFAULT_FRONT_SUSPENSION_MAX = 80;
+    private final double DEFAULT_REAR_SUSPENSION_MIN = 32, DEFAULT_REAR_SUSPENSION_MAX = 128;
+    // About a minute of frames before a session may recalibrate the gauges
+    private final long GAUGE_CALIBRATION_SAMPLES = 3000;
+    // Sonar ranges follow a remounted sensor; temperature ranges only grow so a full bar stays hot
+    private final GaugeCalibrator gaugeCalibrator = new GaugeCalibrator(0.02, 0.98, GAUGE_CALIBRATION_SAMPLES)
+            .calibrate(TelemetryChannels.FRONT_SUSPENSION, DEFAULT_FRONT_SUSPENSION_MIN, DEFAULT_FRONT_SUSPENSION_MAX)
+            .calibrate(TelemetryChannels.REAR_SUSPENSION, DEFAULT_REAR_SUSPENSION_MIN, DEFAULT_REAR_SUSPENSION_MAX)
+            .widen(TelemetryChannels.FRONT_TYRE_S1, MIN_TYRE_TEMP, MAX_TYRE_TEMP)
+            .widen(TelemetryChannels.FRONT_TYRE_S2, MIN_TYRE_TEMP, MAX_TYRE_TEMP)
+            .widen(TelemetryChannels.FRONT_BRAKE_DISK_TEMP, MIN_BRAKE_DISK_TEMP, MAX_BRAKE_DISK_TEMP)
+            .widen(TelemetryChannels.COOLANT_TEMP, MIN_COOLANT_TEMP, MAX_COOLANT_TEMP);
+    // Channels only aggregated for statistics, the dash has no widget for them
+    private final int[] STATISTICS_ONLY_CHANNELS = {
+            TelemetryChannels.FRONT_TYRE_S3,
+            TelemetryChannels.REAR_TYRE_S1,
+            TelemetryChannels.REAR_TYRE_S2,
+            TelemetryChannels.REAR_TYRE_S3
+    };
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -128,7 +267,11 @@ public class DashboardActivity extends AppCompatActivity implements SensorEventL
         frontSuspensionOffset = findViewById(R.id.front_suspension_state);
         rearSuspensionOffset = findViewById(R.id.rear_suspension_state);
 
+        frontSuspensionChart = findViewById(R.id.front_suspension_chart);
+        rearSuspensionChart = findViewById(R.id.rear_suspension_chart);
+
         frontRightBrakeDiskTempIndicator = findViewById(R.id.front_brake_disk_temp);
+        frontBrakeDiskTempChart = findViewById(R.id.front_brake_disk_temp_chart);
         coolantTempIndicator = findViewById(R.id.coolant_temp);
         frontBrakeTriggerIndicator = findViewById(R.id.front_brake_trigger);
         rearBrakeTriggerIndicator = findViewById(R.id.rear_brake_trigger);
@@ -146,13 +289,22 @@ public class DashboardActivity extends AppCompatActivity implements SensorEventL
         lapModeIndicator = findViewById(R.id.lap_mode_indicator);
         lapTimerView = findViewById(R.id.lap_timer_view);
         lapTimer = findViewById(R.id.lap_timer_clk);
+        lapDeltaTxt = findViewById(R.id.lap_delta_txt);
 
-        activeErrorCodes = new ArrayList<>();
         sensorManager = (SensorManager) getSystemService(Context.SENSOR_SERVICE);
         gyroScopeSensor = sensorManager.getDefaultSensor(Sensor.TYPE_ROTATION_VECTOR);
         linearAccerlerationSensor = sensorManager.getDefaultSensor(Sensor.TYPE_LINEAR_ACCELERATION);
-        sensorManager.registerListener(this, gyroScopeSensor, SensorManager.SENSOR_DELAY_FASTEST);
-        sensorManager.registerListener(this, linearAccerlerationSensor, SensorManager.SENSOR_DELAY_FASTEST);
+        initializeQualityGovernor();
+
+        dashboardStateFile = new File(getFilesDir(), "dashboard_state.bin");
+        previousSessionStatisticsFile = new File(getFilesDir(), "session_stats_previous.bin");
+        gaugeCalibrationFile = new File(getFilesDir(), "gauge_ranges.bin");
+        restoreGaugeCalibration();
+        applyGaugeCalibration();
+        openFrameBoard();
+        sessionArchiveDirectory = new File(getFilesDir(), "sessions");
+        cornerTableDirectory = new File(getFilesDir(), "corners");
+        sessionRecorder = new SessionRecorder(sessionArchiveDirectory, SESSION_ARCHIVE_MAX_BYTES);
 
         bootUpAnimationUri = Uri.parse("android.resource://" + getPackageName() + "/" + R.raw.gsxr_boot_splash_v7);
         shutdownAnimationUri = Uri.parse("android.resource://" + getPackageName() + "/" + R.raw.gsxr_shutdown_splash_v7);
@@ -161,48 +313,52 @@ public class DashboardActivity extends AppCompatActivity implements SensorEventL
             @Override
             public void handleMessage(@NonNull Message msg) {
                 int cmd = msg.arg1;
-                if (hasEnabledDataStreamUpdates) {
+                DashboardSharedState.PendingFrame pendingFrame = null;
+                if (cmd == UPDATE_INSTRUMENTS) {
+                    pendingFrame = sharedState.takeFrame();
+                    if (pendingFrame == null) {
+                        // Taken along with an earlier wake-up
+                        return;
+                    }
+                }
+                if (sharedState.isStreaming()) {
                     switch (cmd) {
                         case UPDATE_INSTRUMENTS:
                             try {
-                                JSONObject data = new JSONObject(msg.obj.toString());
+                                JSONObject data = new JSONObject(pendingFrame.json);
+                                liveFrame.clear();
+                                liveFrame.timestampMillis = getFrameTimestamp(data);
+                                // Frame age in ms, -1 until the clock offset is known
+                                liveFrame.set(TelemetryChannels.FRAME_AGE, pendingFrame.ageMillis >= 0 ? pendingFrame.ageMillis : Double.NaN);
+                                channelScheduler.beginFrame(SystemClock.elapsedRealtime());
 
                                 try {
                                     LTS = data.getDouble("front_tyre_S1");
-                                    leftTireSectionTempIndicator.setScaleAmount((float) mapWidgetValue(LTS, MIN_TYRE_TEMP, MAX_TYRE_TEMP, 0, 1.43));
-                                    if (activeErrorCodes.contains(R.mipmap.warning_e1)) {
-                                        activeErrorCodes.remove(R.mipmap.warning_e1);
+                                    liveFrame.set(TelemetryChannels.FRONT_TYRE_S1, LTS);
+                                    if (channelScheduler.shouldDraw(TelemetryChannels.FRONT_TYRE_S1, LTS)) {
+                                        leftTireSectionTempIndicator.setScaleAmount((float) mapWidgetValue(LTS, gaugeCalibrator.min(TelemetryChannels.FRONT_TYRE_S1), gaugeCalibrator.max(TelemetryChannels.FRONT_TYRE_S1), 0, 1.43));
                                     }
                                 } catch (Exception ignored) {
-                                    if (!activeErrorCodes.contains(R.mipmap.warning_e1)) {
-                                        activeErrorCodes.add(R.mipmap.warning_e1);
-                                    }
                                     leftTireSectionTempIndicator.setScaleAmount(0f);
                                 }
 
                                 try {
                                     CTS = data.getDouble("front_tyre_S2");
-                                    centerTireSectionTempIndicator.setScaleAmount((float) mapWidgetValue(CTS, MIN_TYRE_TEMP, MAX_TYRE_TEMP, 0, 1.43));
-                                    if (activeErrorCodes.contains(R.mipmap.warning_e2)) {
-                                        activeErrorCodes.remove(R.mipmap.warning_e2);
+                                    liveFrame.set(TelemetryChannels.FRONT_TYRE_S2, CTS);
+                                    if (channelScheduler.shouldDraw(TelemetryChannels.FRONT_TYRE_S2, CTS)) {
+                                        centerTireSectionTempIndicator.setScaleAmount((float) mapWidgetValue(CTS, gaugeCalibrator.min(TelemetryChannels.FRONT_TYRE_S2), gaugeCalibrator.max(TelemetryChannels.FRONT_TYRE_S2), 0, 1.43));
                                     }
                                 } catch (Exception ignored) {
-                                    if (!activeErrorCodes.contains(R.mipmap.warning_e2)) {
-                                        activeErrorCodes.add(R.mipmap.warning_e2);
-                                    }
                                     centerTireSectionTempIndicator.setScaleAmount(0f);
                                 }
 
                                 try {
                                     FrBD = data.getDouble("front_brakes_tps_S1");
-                                    frontRightBrakeDiskTempIndicator.setScaleAmount((float) mapWidgetValue(FrBD, MIN_BRAKE_DISK_TEMP, MAX_BRAKE_DISK_TEMP, 0, 1.1));
-                                    if (activeErrorCodes.contains(R.mipmap.warning_e3)) {
-                                        activeErrorCodes.remove(R.mipmap.warning_e3);
+                                    liveFrame.set(TelemetryChannels.FRONT_BRAKE_DISK_TEMP, FrBD);
+                                    if (channelScheduler.shouldDraw(TelemetryChannels.FRONT_BRAKE_DISK_TEMP, FrBD)) {
+                                        frontRightBrakeDiskTempIndicator.setScaleAmount((float) mapWidgetValue(FrBD, gaugeCalibrator.min(TelemetryChannels.FRONT_BRAKE_DISK_TEMP), gaugeCalibrator.max(TelemetryChannels.FRONT_BRAKE_DISK_TEMP), 0, 1.1));
                                     }
                                 } catch (Exception ignored) {
-                                    if (!activeErrorCodes.contains(R.mipmap.warning_e3)) {
-                                        activeErrorCodes.add(R.mipmap.warning_e3);
-                                    }
                                     frontRightBrakeDiskTempIndicator.setScaleAmount(0f);
                                 }
 
@@ -219,173 +375,129 @@ public class DashboardActivity extends AppCompatActivity implements SensorEventL
                                     frontBrakeTriggerIndicator.setVisibility((frontBrakes == 1 ? INVISIBLE : VISIBLE));
 
                                     rearBrakes = data.getInt("brakes_imu_in_d6");
+                                    liveFrame.set(TelemetryChannels.FRONT_BRAKE, frontBrakes);
+                                    liveFrame.set(TelemetryChannels.REAR_BRAKE, rearBrakes);
                                     rearBrakeTriggerIndicator.setVisibility((rearBrakes == 1 ? INVISIBLE : VISIBLE));
 
-                                    // lap-mode logic to activate laptimer
-                                    if (frontBrakes == 0 && rearBrakes == 0 && !isLapModeEnabled) {
-                                        if (lapModeTrackCounter == LAP_MODE_DELAY_COUNTER) {
-                                            lapTimerView.setVisibility(VISIBLE);
-                                            lapModeIndicator.setVisibility(VISIBLE);
-                                            isLapModeEnabled = true;
-                                        } else {
-                                            lapModeTrackCounter++;
-                                        }
-                                    }
-
                                     // Shutdown dashboard and go into standby mode
-                                    if (rearBrakes == 1 && hasEnabledDataStreamUpdates) {
+                                    if (rearBrakes == 1 && sharedState.isStreaming()) {
                                         handleDashboardBootAnimations(SHUTDOWN_MODE);
                                     }
-
-                                    // lap-mode logic to disable timer
-                                    if (frontBrakes == 0 && rearBrakes == 0 && isLapModeEnabled) {
-                                        if (lapModeTrackCounter == 0) {
-
-                                            isLapTimerArmed = false;
-                                            dashboardClockTimer.setVisibility(VISIBLE);
-                                            lapTimer.setTextColor(getColor(R.color.default_theme_color));
-                                            lapTimer.setShadowLayer(0f, 0f, 0f, getColor(R.color.default_theme_color));
-                                            stopWatchText.setImageResource(R.mipmap.gsxr_laptimer);
-                                            lapTimerStartPoint = 0;
-
-                                            lapTimerView.setVisibility(INVISIBLE);
-                                            lapModeIndicator.setVisibility(INVISIBLE);
-                                            isLapModeEnabled = false;
-                                        } else {
-                                            lapModeTrackCounter--;
-                                        }
-                                    }
-
-                                    if (activeErrorCodes.contains(R.mipmap.warning_e4)) {
-                                        activeErrorCodes.remove(R.mipmap.warning_e4);
-                                    }
                                 } catch (Exception ignored) {
-                                    if (!activeErrorCodes.contains(R.mipmap.warning_e4)) {
-                                        activeErrorCodes.add(R.mipmap.warning_e4);
-                                    }
+                                    // Missing channels are reported by the alert rules
                                 }
 
                                 try {
                                     frontSuspensionStateValue = data.getDouble("front_imu_sonar_mm");
-                                    frontSuspensionMapValue = 1 - ((float) mapWidgetValue(frontSuspensionStateValue, 16, 80, MIN_SUSPENSION_LEVEL, MAX_SUSPENSION_LEVEL));
-                                    if (frontSuspensionMapValue >= 0) {
+                                    liveFrame.set(TelemetryChannels.FRONT_SUSPENSION, frontSuspensionStateValue);
+                                    frontSuspensionMapValue = 1 - ((float) mapWidgetValue(frontSuspensionStateValue, gaugeCalibrator.min(TelemetryChannels.FRONT_SUSPENSION), gaugeCalibrator.max(TelemetryChannels.FRONT_SUSPENSION), MIN_SUSPENSION_LEVEL, MAX_SUSPENSION_LEVEL));
+                                    if (frontSuspensionMapValue >= 0 && channelScheduler.shouldDraw(TelemetryChannels.FRONT_SUSPENSION, frontSuspensionStateValue)) {
                                         frontSuspensionOffset.setScaleAmount(frontSuspensionMapValue);
                                     }
-
-                                    if (activeErrorCodes.contains(R.mipmap.warning_e5)) {
-                                        activeErrorCodes.remove(R.mipmap.warning_e5);
-                                    }
                                 } catch (Exception ignored) {
-                                    if (!activeErrorCodes.contains(R.mipmap.warning_e5)) {
-                                        activeErrorCodes.add(R.mipmap.warning_e5);
-                                    }
                                     frontSuspensionOffset.setScaleAmount(0f);
                                 }
 
                                 try {
                                     rearSuspensionStateValue = data.getDouble("rear_brake_gps_rear_ss_mm");
-                                    rearSuspensionMapValue = 1 - ((float) mapWidgetValue(rearSuspensionStateValue, 32, 128, MIN_SUSPENSION_LEVEL, MAX_SUSPENSION_LEVEL));
-                                    if (rearSuspensionMapValue >= 0) {
+                                    liveFrame.set(TelemetryChannels.REAR_SUSPENSION, rearSuspensionStateValue);
+                                    rearSuspensionMapValue = 1 - ((float) mapWidgetValue(rearSuspensionStateValue, gaugeCalibrator.min(TelemetryChannels.REAR_SUSPENSION), gaugeCalibrator.max(TelemetryChannels.REAR_SUSPENSION), MIN_SUSPENSION_LEVEL, MAX_SUSPENSION_LEVEL));
+                                    if (rearSuspensionMapValue >= 0 && channelScheduler.shouldDraw(TelemetryChannels.REAR_SUSPENSION, rearSuspensionStateValue)) {
                                         rearSuspensionOffset.setScaleAmount(rearSuspensionMapValue);
                                     }
-
-                                    if (activeErrorCodes.contains(R.mipmap.warning_e6)) {
-                                        activeErrorCodes.remove(R.mipmap.warning_e6);
-                                    }
                                 } catch (Exception ignored) {
-                                    if (!activeErrorCodes.contains(R.mipmap.warning_e6)) {
-                                        activeErrorCodes.add(R.mipmap.warning_e6);
-                                    }
                                     rearSuspensionOffset.setScaleAmount(0f);
                                 }
 
                                 try {
                                     hasGPSLocked = data.getInt("rear_brake_gps_gps_fix");
-                                    if (hasGPSLocked == 1) {
-                                        gpsSignalIndicator.setVisibility(VISIBLE);
-                                    } else {
-                                        gpsSignalIndicator.setVisibility(INVISIBLE);
-                                    }
-
-                                    if (activeErrorCodes.contains(R.mipmap.warning_e7)) {
-                                        activeErrorCodes.remove(R.mipmap.warning_e7);
+                                    liveFrame.set(TelemetryChannels.GPS_FIX, hasGPSLocked);
+                                    liveFrame.set(TelemetryChannels.GPS_LATITUDE, data.optDouble("rear_brake_gps_gps_lat"));
+                                    liveFrame.set(TelemetryChannels.GPS_LONGITUDE, data.optDouble("rear_brake_gps_gps_lon"));
+                                    if (channelScheduler.shouldDraw(TelemetryChannels.GPS_FIX, hasGPSLocked)) {
+                                        gpsSignalIndicator.setVisibility(hasGPSLocked == 1 ? VISIBLE : INVISIBLE);
                                     }
                                 } catch (Exception ignored) {
-                                    if (!activeErrorCodes.contains(R.mipmap.warning_e7)) {
-                                        activeErrorCodes.add(R.mipmap.warning_e7);
-                                    }
+                                    // Missing channels are reported by the alert rules
                                 }
 
                                 try {
                                     speedKph = (int) data.getDouble("rear_brake_gps_wheel_kmh");
+                                    liveFrame.set(TelemetryChannels.WHEEL_SPEED, data.getDouble("rear_brake_gps_wheel_kmh"));
+                                    if (speedKph > 0) {
+                                        lastMovingTimestamp = SystemClock.elapsedRealtime();
+                                    }
                                     if (speedKph >= 0 && speedKph < 300) {
                                         speedCounter.setText(String.format(Locale.ENGLISH, "%03d", speedKph));
                                     }
-
-                                    if (activeErrorCodes.contains(R.mipmap.warning_e8)) {
-                                        activeErrorCodes.remove(R.mipmap.warning_e8);
-                                    }
                                 } catch (Exception ignored) {
-                                    if (!activeErrorCodes.contains(R.mipmap.warning_e8)) {
-                                        activeErrorCodes.add(R.mipmap.warning_e8);
-                                    }
+                                    // Missing channels are reported by the alert rules
                                 }
 
                                 try {
                                     coolantTemperature = data.getDouble("port4_d6_int_tempC");
-                                    if (coolantTemperature > MIN_COOLANT_TEMP) {
-                                        coolantTempIndicator.setScaleAmount((float) mapWidgetValue(coolantTemperature, MIN_COOLANT_TEMP, MAX_COOLANT_TEMP, 0, 1.1));
+                                    liveFrame.set(TelemetryChannels.COOLANT_TEMP, coolantTemperature);
+                                    if (coolantTemperature > MIN_COOLANT_TEMP && channelScheduler.shouldDraw(TelemetryChannels.COOLANT_TEMP, coolantTemperature)) {
+                                        coolantTempIndicator.setScaleAmount((float) mapWidgetValue(coolantTemperature, gaugeCalibrator.min(TelemetryChannels.COOLANT_TEMP), gaugeCalibrator.max(TelemetryChannels.COOLANT_TEMP), 0, 1.1));
                                         coolantTemperatureValue.setText(String.format(Locale.ENGLISH, "%03d", (int) coolantTemperature));
                                     }
-
-                                    if (activeErrorCodes.contains(R.mipmap.warning_e9)) {
-                                        activeErrorCodes.remove(R.mipmap.warning_e9);
-                                    }
                                 } catch (Exception ignored) {
-                                    if (!activeErrorCodes.contains(R.mipmap.warning_e9)) {
-                                        activeErrorCodes.add(R.mipmap.warning_e9);
-                                    }
                                     coolantTempIndicator.setScaleAmount(0f);
                                 }
 
                                 try {
                                     isHeadLightTriggerOn = data.getInt("port4_d6_int_d6");
-
-                                    if (isLapModeEnabled) {
-                                        if (isHeadLightTriggerOn == 1 && rearBrakes == 1 && frontBrakes == 0 && !isLapTimerArmed) {
-                                            isLapTimerArmed = true;
-                                            lapTimerStartPoint = SystemClock.elapsedRealtime();
-                                            dashboardClockTimer.setVisibility(INVISIBLE);
-                                            lapTimer.setTextColor(0xff000000);
-                                            lapTimer.setShadowLayer(0f, 0f, 0f, 0x00000000);
-                                            stopWatchText.setImageResource(R.mipmap.gsxr_laptimer_on);
-
-                                        } else if (isHeadLightTriggerOn == 1 && rearBrakes == 0 && frontBrakes == 1 && isLapTimerArmed) {
-                                            isLapTimerArmed = false;
-                                            dashboardClockTimer.setVisibility(VISIBLE);
-                                            lapTimer.setTextColor(getColor(R.color.default_theme_color));
-                                            lapTimer.setShadowLayer(0f, 0f, 0f, getColor(R.color.default_theme_color));
-                                            stopWatchText.setImageResource(R.mipmap.gsxr_laptimer);
-                                            lapTimerStartPoint = 0;
-                                        }
-                                    }
+                                    liveFrame.set(TelemetryChannels.HEADLIGHT, isHeadLightTriggerOn);
 
                                     if (isHeadLightTriggerOn == 1) {
                                         headlightIndicator.setVisibility(VISIBLE);
                                     } else {
                                         headlightIndicator.setVisibility(INVISIBLE);
                                     }
-
-                                    if (activeErrorCodes.contains(R.mipmap.warning_e10)) {
-                                        activeErrorCodes.remove(R.mipmap.warning_e10);
-                                    }
                                 } catch (Exception ignored) {
-                                    ;
-                                    if (!activeErrorCodes.contains(R.mipmap.warning_e10)) {
-                                        activeErrorCodes.add(R.mipmap.warning_e10);
+                                    // Missing channels are reported by the alert rules
+                                }
+
+                                for (int channel : STATISTICS_ONLY_CHANNELS) {
+                                    liveFrame.set(channel, data.optDouble(TelemetryChannels.key(channel)));
+                                }
+                                // Sampled a frame age ago on our clock; right-hand roll about x forward is a lean to the right
+                                leanEstimator.onBikeImu(liveFrame.timestampMillis, SystemClock.elapsedRealtime() - Math.max(0, pendingFrame.ageMillis),
+                                        -data.optDouble(LeanEstimator.BIKE_GYRO_X_KEY), data.optDouble(LeanEstimator.BIKE_GYRO_Y_KEY),
+                                        data.optDouble(LeanEstimator.BIKE_GYRO_Z_KEY),
+                                        data.optDouble(LeanEstimator.BIKE_ACCEL_Y_KEY), data.optDouble(LeanEstimator.BIKE_ACCEL_Z_KEY),
+                                        liveFrame.get(TelemetryChannels.WHEEL_SPEED));
+                                liveFrame.set(TelemetryChannels.LEAN_ANGLE, leanAngle);
+                                derivedChannels.process(liveFrame);
+                                handleLapGestures(gestureRecognizer.process(liveFrame), pendingFrame.ageMillis);
+                                lapDeltaTracker.process(liveFrame);
+                                cornerSegmenter.process(liveFrame);
+                                if (sharedState.isLapArmed()) {
+                                    showLapDelta(liveFrame.get(TelemetryChannels.LAP_DELTA));
+                                }
+                                sessionStatistics.onFrame(liveFrame);
+                                gaugeCalibrator.process(liveFrame);
+                                if (frameBoard != null) {
+                                    frameBoard.publish(liveFrame);
+                                }
+                                if (alertEngine.evaluate(liveFrame)) {
+                                    // Show the channel an alert is about without waiting for its budget
+                                    for (int rule = 0; rule < alertEngine.ruleCount(); rule++) {
+                                        if (alertEngine.isActive(rule)) {
+                                            channelScheduler.requestUpdate(alertEngine.channel(rule));
+                                        }
                                     }
                                 }
 
+                                frontSuspensionChart.addSample(liveFrame.timestampMillis, liveFrame.get(TelemetryChannels.FRONT_SUSPENSION_TRAVEL));
+                                rearSuspensionChart.addSample(liveFrame.timestampMillis, liveFrame.get(TelemetryChannels.REAR_SUSPENSION_TRAVEL));
+                                frontBrakeDiskTempChart.addSample(liveFrame.timestampMillis, liveFrame.get(TelemetryChannels.FRONT_BRAKE_DISK_TEMP));
+                                if (!hasReportedFullyDrawn && mainDashboardLayoutView.getVisibility() == VISIBLE) {
+                                    // Startup ends at the first live frame on the dashboard, for the startup benchmark
+                                    hasReportedFullyDrawn = true;
+                                    reportFullyDrawn();
+                                }
+
                             } catch (JSONException ignored) {
                                 //ignored.printStackTrace();
                             }
@@ -420,13 +532,25 @@ public class DashboardActivity extends AppCompatActivity implements SensorEventL
 
                         case UPDATE_ERROR_CODES:
                             try {
-                                int errorCodeId = (int) msg.obj;
-                                if (errorCodeId != -1) {
-                                    sensorFaultIndicator.setVisibility(VISIBLE);
-                                    sensorFaultIndicator.setImageResource(errorCodeId);
-                                } else {
-                                    sensorFaultIndicator.setVisibility(INVISIBLE);
-                                    sensorFaultIndicator.setImageResource(R.mipmap.warning);
+                                int alert = alertEngine.displayAlert(SystemClock.elapsedRealtime());
+                                if (alert == -1 && sharedState.faults() != 0) {
+                                    alert = LINK_FAULT_ALERT;
+                                }
+                                if (alert != displayedAlert) {
+                                    displayedAlert = alert;
+                                    if (alert == LINK_FAULT_ALERT) {
+                                        sensorFaultIndicator.setVisibility(VISIBLE);
+                                        sensorFaultIndicator.setImageResource(R.mipmap.warning);
+                                        applyAlertTint(AlertRules.SEVERITY_FAULT);
+                                    } else if (alert != -1) {
+                                        sensorFaultIndicator.setVisibility(VISIBLE);
+                                        sensorFaultIndicator.setImageResource(alertEngine.code(alert));
+                                        applyAlertTint(alertEngine.severity(alert));
+                                    } else {
+                                        sensorFaultIndicator.setVisibility(INVISIBLE);
+                                        sensorFaultIndicator.setImageResource(R.mipmap.warning);
+                                        sensorFaultIndicator.clearColorFilter();
+                                    }
                                 }
                             } catch (Exception e) {
                                 e.printStackTrace();
@@ -442,10 +566,10 @@ public class DashboardActivity extends AppCompatActivity implements SensorEventL
                     // Control boot and shutdown sequence
                     if (cmd == UPDATE_INSTRUMENTS) {
                         try {
-                            JSONObject data = new JSONObject(msg.obj.toString());
+                            JSONObject data = new JSONObject(pendingFrame.json);
                             int isSystemOnline = data.getInt("brakes_imu_in_d6");
                             if (isSystemOnline == 0) {
-                                hasEnabledDataStreamUpdates = true;
+                                sharedState.setStreaming(true);
                                 handleDashboardBootAnimations(BOOT_UP_MODE);
                             }
 
@@ -510,6 +634,11 @@ public class DashboardActivity extends AppCompatActivity implements SensorEventL
                     case DASH_CLOCK_UPDATE:
                         String clockData = msg.obj.toString();
                         dashboardClockTimer.setText(clockData);
+                        break;
+
+                    case PERSIST_DASH_STATE:
+                        persistDashboardState();
+                        break;
 
                     default:
                         break;
@@ -518,9 +647,17 @@ public class DashboardActivity extends AppCompatActivity implements SensorEventL
             }
         };
 
-        runSensorDataStreamReceiverThread();
-        runLapTimerClockThread();
-        runErrorCodeHandlerThread();
+        telemetryPipeline = new TelemetryPipeline();
+        telemetryPipeline.add(createSensorDataStreamReceiverStage());
+        telemetryPipeline.add(createLapTimerClockStage());
+        telemetryPipeline.add(createErrorCodeHandlerStage());
+        telemetryPipeline.add(createDashClockStage());
+        PipelineStage sessionUploadStage = createSessionUploadStage();
+        if (sessionUploadStage != null) {
+            telemetryPipeline.add(sessionUploadStage);
+        }
+
+        restoreDashboardState();
     }
 
     private void  handleDashboardBootAnimations(int mode) {
@@ -540,7 +677,25 @@ public class DashboardActivity extends AppCompatActivity implements SensorEventL
                 break;
 
             case SHUTDOWN_MODE:
-                hasEnabledDataStreamUpdates = false;
+                sharedState.setStreaming(false);
+                sessionStatistics.completeLap();
+                persistSessionStatistics(previousSessionStatisticsFile);
+                sessionStatistics.resetSession(System.currentTimeMillis());
+                // Next ride's gauges use the ranges this one's readings suggest
+                if (gaugeCalibrator.accept() > 0) {
+                    persistGaugeCalibration();
+                    applyGaugeCalibration();
+                }
+                alertEngine.reset();
+                derivedChannels.reset();
+                lapDeltaTracker.reset();
+                cornerSegmenter.reset();
+                gestureRecognizer.reset();
+                showLapDelta(Double.NaN);
+                frontSuspensionChart.clear();
+                rearSuspensionChart.clear();
+                frontBrakeDiskTempChart.clear();
+                sessionRecorder.stop();
                 spashVideoView.setVisibility(VISIBLE);
                 mainDashboardLayoutView.setVisibility(INVISIBLE);
                 spashVideoView.setVideoURI(shutdownAnimationUri);
@@ -555,97 +710,325 @@ public class DashboardActivity extends AppCompatActivity implements SensorEventL
 
     }
 
-    private void runSensorDataStreamReceiverThread(){
-        Thread sensorDataStreamReceiver = new Thread(new Runnable() {
+    private PipelineStage createSensorDataStreamReceiverStage(){
+        return new PipelineStage("logger-receiver") {
             @Override
-            public void run() {
-                try{
-                    Thread.sleep(5000);
-                    sensorDatagramSocket = new DatagramSocket();
-                    messageBuf = subscribeMessage.getBytes();
-                    dataLoggerAddress = InetAddress.getLocalHost();
-                    messagePacket = new DatagramPacket(messageBuf, messageBuf.length, dataLoggerAddress, dataLoggerPort);
-                    rawSensorDataBuff = new byte[MAX_FRAME_SIZE];
-                    rawSensorDataPacket = new DatagramPacket(rawSensorDataBuff, MAX_FRAME_SIZE, dataLoggerAddress, dataLoggerPort);
-
-                    while (true){
-                        Message sensorDataMessage = new Message();
-                        sensorDatagramSocket.send(messagePacket);
-                        sensorDatagramSocket.receive(rawSensorDataPacket);
-                        systemSensorParameters = new String(rawSensorDataPacket.getData(), rawSensorDataPacket.getOffset(), rawSensorDataPacket.getLength(), StandardCharsets.UTF_8);
+            protected void onStart() throws Exception {
+                if (loggerDiscovery == null) {
+                    loggerDiscovery = new LoggerDiscovery(LOGGER_PORT, new File(getFilesDir(), "logger_endpoint.txt"));
+                }
+                InetSocketAddress cachedEndpoint = loggerDiscovery.cachedEndpoint();
+                // Give the logger time to come up on a cold start, unless we already know where it is
+                if (!sharedState.isStreaming() && cachedEndpoint == null) {
+                    Thread.sleep(LOGGER_STARTUP_DELAY);
+                }
+                if (frameAgeTracker == null) {
+                    frameAgeTracker = new FrameAgeTracker(new ClockOffsetEstimator(),
+                            getResources().getInteger(R.integer.telemetry_max_frame_age_ms) * 1000L);
+                }
+                sensorDatagramSocket = new DatagramSocket();
+                sensorDatagramSocket.setBroadcast(true);
+                sensorDatagramSocket.setSoTimeout(LOGGER_RECEIVE_TIMEOUT);
+                messageBuf = frameAgeTracker.request(getLocalMicros()).getBytes();
+                messagePacket = new DatagramPacket(messageBuf, messageBuf.length);
+                rawSensorDataBuff = new byte[MAX_FRAME_SIZE];
+                rawSensorDataPacket = new DatagramPacket(rawSensorDataBuff, MAX_FRAME_SIZE);
+                InetSocketAddress endpoint = cachedEndpoint != null ? cachedEndpoint : discoverLogger();
+                // Nothing answered yet; the logger on this phone is the best guess, rediscovery follows
+                useLoggerEndpoint(endpoint != null ? endpoint : new InetSocketAddress(InetAddress.getLoopbackAddress(), LOGGER_PORT));
+                startFramePublishers();
+            }
+
+            @Override
+            protected void runOnce() throws Exception {
+                Message sensorDataMessage = new Message();
+                long requestMicros = getLocalMicros();
+                boolean isFullFramePoll = !frameAgeTracker.isProjecting() || recordingFrameHold.isFullFrameDue(requestMicros);
+                messageBuf = frameAgeTracker.request(requestMicros, isFullFramePoll).getBytes();
+                messagePacket.setData(messageBuf);
+                sensorDatagramSocket.send(messagePacket);
+                try {
+                    sensorDatagramSocket.receive(rawSensorDataPacket);
+                } catch (SocketTimeoutException e) {
+                    if (++loggerTimeouts >= LOGGER_REDISCOVERY_TIMEOUTS) {
+                        loggerTimeouts = 0;
+                        sharedState.raiseFault(DashboardSharedState.FAULT_LOGGER_SILENT);
+                        InetSocketAddress endpoint = discoverLogger();
+                        if (endpoint != null) {
+                            useLoggerEndpoint(endpoint);
+                        }
+                    }
+                    return;
+                }
+                long receiveMicros = getLocalMicros();
+                loggerTimeouts = 0;
+                sharedState.clearFault(DashboardSharedState.FAULT_LOGGER_SILENT);
+                if (!hasRememberedLoggerEndpoint) {
+                    // Only an endpoint that actually delivered frames is worth reusing next start
+                    hasRememberedLoggerEndpoint = true;
+                    try {
+                        loggerDiscovery.remember(new InetSocketAddress(dataLoggerAddress, dataLoggerPort));
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                }
+                systemSensorParameters = new String(rawSensorDataPacket.getData(), rawSensorDataPacket.getOffset(), rawSensorDataPacket.getLength(), StandardCharsets.UTF_8);
+                long frameAgeMicros = frameAgeTracker.onReply(systemSensorParameters, receiveMicros);
+                boolean isFullFrame = isFullFramePoll;
+                if (FrameSubscription.isRejected(systemSensorParameters)) {
+                    // Logger restarted and lost our projection, this frame is a full one
+                    isFullFrame = true;
+                    subscribeToLoggerFrames();
+                }
+                // Polled faster than the logger makes frames; a frame seen before is not recorded, sent or drawn again
+                if (frameAgeTracker.isRepeat(systemSensorParameters)) {
+                    // Though a full snapshot of it still takes the projected copy's place in the recording
+                    recordFrame(recordingFrameHold.onFrame(systemSensorParameters, isFullFrame, receiveMicros));
+                    Thread.sleep(1);
+                    return;
+                }
+                // A stale frame is not worth drawing, but is still recorded and re-published
+                if (frameAgeTracker.isStale(frameAgeMicros)) {
+                    sharedState.raiseFault(DashboardSharedState.FAULT_STALE_FRAMES);
+                } else {
+                    sharedState.clearFault(DashboardSharedState.FAULT_STALE_FRAMES);
+                    // A frame the main thread has not drawn yet is replaced; only filling an empty slot needs a wake-up
+                    if (sharedState.offerFrame(new DashboardSharedState.PendingFrame(systemSensorParameters,
+                            frameAgeMicros < 0 ? -1 : (int) (frameAgeMicros / 1000)))) {
                         sensorDataMessage.arg1 = UPDATE_INSTRUMENTS;
-                        sensorDataMessage.obj = systemSensorParameters;
                         dashboardInstrumentUIHandler_h2.sendMessage(sensorDataMessage);
-                        Thread.sleep(1);
                     }
-                }catch (Exception e){
-                    e.printStackTrace();
                 }
+                // Recording and pit-side viewers only after the display has the frame
+                recordFrame(recordingFrameHold.onFrame(systemSensorParameters, isFullFrame, receiveMicros));
+                Thread.sleep(1);
             }
-        });
 
-        sensorDataStreamReceiver.start();
-    }
+            @Override
+            protected void onStop() {
+                if (sensorDatagramSocket != null) {
+                    sensorDatagramSocket.close();
+                }
+                recordFrame(recordingFrameHold.flush());
+                stopFramePublishers();
+            }
 
-    private void runLapTimerClockThread(){
-        Thread lapTimerThread = new Thread(new Runnable() {
             @Override
-            public void run() {
-                while (true){
-                    if(isLapTimerArmed){
-                        try{
-                            elapsedLapTime = SystemClock.elapsedRealtime() - lapTimerStartPoint;
-                            Message timerMessage = new Message();
-                            timerMessage.arg1 = UPDATE_LAP_TIMER;
-                            timerMessage.obj = elapsedLapTime;
-                            dashboardInstrumentUIHandler_h2.sendMessage(timerMessage);
-                            Thread.sleep(1);
-                        }catch (Exception e){
-                            e.printStackTrace();
-                        }
-                    }
+            protected void wakeUp() {
+                // receive() ignores interrupts, closing the socket is what unblocks it
+                if (sensorDatagramSocket != null) {
+                    sensorDatagramSocket.close();
                 }
             }
-        });
+        };
+    }
 
-        lapTimerThread.start();
+    /** Receiver thread; hands a frame released by the recording hold to the recorder and publishers */
+    private void recordFrame(String json) {
+        if (json == null) {
+            return;
+        }
+        sessionRecorder.offer(json);
+        if (!framePublishers.isEmpty()) {
+            byte[] frame = json.getBytes(StandardCharsets.UTF_8);
+            for (int i = 0; i < framePublishers.size(); i++) {
+                framePublishers.get(i).publish(frame, 0, frame.length);
+            }
+        }
     }
 
-    private void runErrorCodeHandlerThread(){
-        Thread errorCodeThread = new Thread(new Runnable() {
+    private InetSocketAddress discoverLogger() throws IOException {
+        return loggerDiscovery.discover(sensorDatagramSocket, LOGGER_DISCOVERY_TIMEOUT,
+                InetAddress.getByAddress(new byte[]{(byte) 255, (byte) 255, (byte) 255, (byte) 255}),
+                InetAddress.getLoopbackAddress());
+    }
+
+    private void useLoggerEndpoint(InetSocketAddress endpoint) throws IOException {
+        dataLoggerAddress = endpoint.getAddress();
+        dataLoggerPort = endpoint.getPort();
+        messagePacket.setSocketAddress(endpoint);
+        hasRememberedLoggerEndpoint = false;
+        subscribeToLoggerFrames();
+    }
+
+    private void subscribeToLoggerFrames() throws IOException {
+        boolean subscribed = frameSubscription.subscribe(sensorDatagramSocket, dataLoggerAddress, dataLoggerPort, LOGGER_SUBSCRIBE_TIMEOUT);
+        // Older loggers don't answer SUB, keep asking them for full frames
+        frameAgeTracker.setProjection(subscribed ? frameSubscription.id() : null);
+    }
+
+    private void startFramePublishers() {
+        // Pit-side viewers get the frames we already received instead of polling the logger too
+        if (getResources().getBoolean(R.bool.telemetry_multicast_enabled)) {
+            try {
+                framePublishers.add(new MulticastFramePublisher(MulticastFramePublisher.DEFAULT_GROUP,
+                        MulticastFramePublisher.DEFAULT_PORT, getResources().getInteger(R.integer.telemetry_multicast_ttl)));
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+
+        int webSocketPort = getResources().getInteger(R.integer.telemetry_websocket_port);
+        if (webSocketPort > 0) {
+            try {
+                framePublishers.add(new WebSocketFramePublisher(webSocketPort));
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void stopFramePublishers() {
+        for (int i = 0; i < framePublishers.size(); i++) {
+            try {
+                framePublishers.get(i).close();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        framePublishers.clear();
+    }
+
+    private PipelineStage createLapTimerClockStage(){
+        return new PipelineStage("lap-timer") {
             @Override
-            public void run() {
-                while (true){
-                    try{
-                        if(hasEnabledDataStreamUpdates) {
-                            if (!activeErrorCodes.isEmpty()) {
-
-                                for (int errorCode : activeErrorCodes) {
-                                    Message errorCodeMessage = new Message();
-                                    errorCodeMessage.arg1 = UPDATE_ERROR_CODES;
-                                    errorCodeMessage.obj = errorCode;
-                                    dashboardInstrumentUIHandler_h2.sendMessage(errorCodeMessage);
-                                    Thread.sleep(500);
-                                }
+            protected void runOnce() throws Exception {
+                // One read, so the start point always belongs to the armed lap
+                long elapsedLapTime = sharedState.lapElapsed(SystemClock.elapsedRealtime());
+                if (elapsedLapTime >= 0) {
+                    Message timerMessage = new Message();
+                    timerMessage.arg1 = UPDATE_LAP_TIMER;
+                    timerMessage.obj = elapsedLapTime;
+                    dashboardInstrumentUIHandler_h2.sendMessage(timerMessage);
+                    Thread.sleep(1);
+                } else {
+                    Thread.sleep(LAP_TIMER_IDLE_DELAY);
+                }
+            }
+        };
+    }
 
-                                activeErrorCodes.clear();
+    private PipelineStage createErrorCodeHandlerStage(){
+        // Only ticks the indicator; which alert to show and for how long is up to the alert engine
+        return new PipelineStage("alert-display") {
+            @Override
+            protected void runOnce() throws Exception {
+                if(sharedState.isStreaming()) {
+                    Message errorCodeMessage = new Message();
+                    errorCodeMessage.arg1 = UPDATE_ERROR_CODES;
+                    dashboardInstrumentUIHandler_h2.sendMessage(errorCodeMessage);
+                }
+                Thread.sleep(ALERT_DISPLAY_TICK);
+            }
+        };
+    }
 
-                            } else {
-                                Message errorCodeMessage = new Message();
-                                errorCodeMessage.arg1 = UPDATE_ERROR_CODES;
-                                errorCodeMessage.obj = -1;
-                                dashboardInstrumentUIHandler_h2.sendMessage(errorCodeMessage);
-                                Thread.sleep(500);
-                            }
-                        }
-                    }catch (Exception e){
-                        e.printStackTrace();
+    private AlertEngine compileAlertRules() {
+        AlertRules rules = new AlertRules()
+                // Sensors missing from the frame, same codes the dash always showed
+                .missing(TelemetryChannels.FRONT_TYRE_S1, 0, AlertRules.SEVERITY_FAULT, R.mipmap.warning_e1)
+                .missing(TelemetryChannels.FRONT_TYRE_S2, 0, AlertRules.SEVERITY_FAULT, R.mipmap.warning_e2)
+                .missing(TelemetryChannels.FRONT_BRAKE_DISK_TEMP, 0, AlertRules.SEVERITY_FAULT, R.mipmap.warning_e3)
+                .missing(TelemetryChannels.FRONT_BRAKE, 0, AlertRules.SEVERITY_FAULT, R.mipmap.warning_e4)
+                .missing(TelemetryChannels.FRONT_SUSPENSION, 0, AlertRules.SEVERITY_FAULT, R.mipmap.warning_e5)
+                .missing(TelemetryChannels.REAR_SUSPENSION, 0, AlertRules.SEVERITY_FAULT, R.mipmap.warning_e6)
+                .missing(TelemetryChannels.GPS_FIX, 0, AlertRules.SEVERITY_FAULT, R.mipmap.warning_e7)
+                .missing(TelemetryChannels.WHEEL_SPEED, 0, AlertRules.SEVERITY_FAULT, R.mipmap.warning_e8)
+                .missing(TelemetryChannels.COOLANT_TEMP, 0, AlertRules.SEVERITY_FAULT, R.mipmap.warning_e9)
+                .missing(TelemetryChannels.HEADLIGHT, 0, AlertRules.SEVERITY_FAULT, R.mipmap.warning_e10)
+                // Coolant
+                .above(TelemetryChannels.COOLANT_TEMP, 105, 100, 2000, AlertRules.SEVERITY_WARNING, R.mipmap.warning_e9)
+                .above(TelemetryChannels.COOLANT_TEMP, 115, 110, 0, AlertRules.SEVERITY_CRITICAL, R.mipmap.warning_e9)
+                .rateAbove(TelemetryChannels.COOLANT_TEMP, 2, 0.5, 5000, AlertRules.SEVERITY_WARNING, R.mipmap.warning_e9)
+                // Brake disc
+                .above(TelemetryChannels.FRONT_BRAKE_DISK_TEMP, 300, 280, 1000, AlertRules.SEVERITY_WARNING, R.mipmap.warning_e3)
+                // Tyres out of their working window
+                .below(TelemetryChannels.FRONT_TYRE_S1, 40, 45, 30000, AlertRules.SEVERITY_WARNING, R.mipmap.warning_e1)
+                .below(TelemetryChannels.FRONT_TYRE_S2, 40, 45, 30000, AlertRules.SEVERITY_WARNING, R.mipmap.warning_e2)
+                .above(TelemetryChannels.FRONT_TYRE_S1, 100, 95, 5000, AlertRules.SEVERITY_WARNING, R.mipmap.warning_e1)
+                .above(TelemetryChannels.FRONT_TYRE_S2, 100, 95, 5000, AlertRules.SEVERITY_WARNING, R.mipmap.warning_e2)
+                // Suspension bottoming out, the sonar reads short when compressed; spike-rejected so echoes don't trip it.
+                // Set against the stock ranges and moved with the calibration, so a remounted sensor still trips them
+                .below(TelemetryChannels.FRONT_SUSPENSION_TRAVEL,
+                        scaleToCalibratedRange(TelemetryChannels.FRONT_SUSPENSION, DEFAULT_FRONT_SUSPENSION_MIN, DEFAULT_FRONT_SUSPENSION_MAX, 18),
+                        scaleToCalibratedRange(TelemetryChannels.FRONT_SUSPENSION, DEFAULT_FRONT_SUSPENSION_MIN, DEFAULT_FRONT_SUSPENSION_MAX, 22),
+                        0, AlertRules.SEVERITY_WARNING, R.mipmap.warning_e5)
+                .below(TelemetryChannels.REAR_SUSPENSION_TRAVEL,
+                        scaleToCalibratedRange(TelemetryChannels.REAR_SUSPENSION, DEFAULT_REAR_SUSPENSION_MIN, DEFAULT_REAR_SUSPENSION_MAX, 36),
+                        scaleToCalibratedRange(TelemetryChannels.REAR_SUSPENSION, DEFAULT_REAR_SUSPENSION_MIN, DEFAULT_REAR_SUSPENSION_MAX, 44),
+                        0, AlertRules.SEVERITY_WARNING, R.mipmap.warning_e6);
+        return rules.compile();
+    }
+
+    private void applyAlertTint(int severity) {
+        if (severity == AlertRules.SEVERITY_CRITICAL) {
+            sensorFaultIndicator.setColorFilter(getColor(R.color.alert_critical), PorterDuff.Mode.MULTIPLY);
+        } else if (severity == AlertRules.SEVERITY_WARNING) {
+            sensorFaultIndicator.setColorFilter(getColor(R.color.alert_warning), PorterDuff.Mode.MULTIPLY);
+        } else {
+            sensorFaultIndicator.clearColorFilter();
+        }
+    }
+
+    /**
+     * Uploads finished sessions while the dash is open, which on the bike is the whole
+     * ride and the standby screen after shutdown. Nothing is sent once the activity is
+     * paused; the cursors resume the upload when it comes back.
+     */
+    private PipelineStage createSessionUploadStage(){
+        final String uploadUrl = getString(R.string.session_upload_url);
+        if (uploadUrl.isEmpty()) {
+            return null;
+        }
+
+        return new PipelineStage("session-upload") {
+            private SessionUploader uploader;
+            // Set on the worker, cancelled from the UI thread on pause
+            private volatile HttpUploadEndpoint endpoint;
+
+            @Override
+            protected void onStart() throws Exception {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                UploadCursorStore cursors = new UploadCursorStore(new File(getFilesDir(), "upload_cursors.properties"));
+                endpoint = new HttpUploadEndpoint(uploadUrl);
+                uploader = new SessionUploader(endpoint, cursors, new SessionUploader.UploadGate() {
+                    @Override
+                    public boolean isUploadAllowed() {
+                        return isBikeParked();
                     }
+                }, UPLOAD_CHUNKS_PER_BATCH, UPLOAD_MAX_BYTES_PER_SECOND);
+            }
+
+            @Override
+            protected void runOnce() throws Exception {
+                try {
+                    if (isBikeParked()) {
+                        uploader.uploadPending(sessionArchiveDirectory);
+                    }
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    // Endpoint unreachable, the cursor keeps our place until the next attempt
+                    e.printStackTrace();
                 }
+                Thread.sleep(UPLOAD_POLL_DELAY);
             }
-        });
 
-        errorCodeThread.start();
+            @Override
+            protected void wakeUp() {
+                // Don't sit out the connect and read timeouts; the cursor resumes the batch
+                HttpUploadEndpoint current = endpoint;
+                if (current != null) {
+                    current.cancel();
+                }
+            }
+        };
+    }
+
+    private boolean isBikeParked() {
+        // Standby after shutdown, or stationary long enough to not be a traffic stop
+        return !sessionRecorder.isRecording()
+                || (speedKph == 0 && SystemClock.elapsedRealtime() - lastMovingTimestamp > PARKED_HOLD_DELAY);
     }
 
     private void runDashboardTestThread(){
@@ -697,30 +1080,34 @@ public class DashboardActivity extends AppCompatActivity implements SensorEventL
         counterThread.start();
     }
 
-    private void runDashClock(){
-        Thread dashClockThread = new Thread(new Runnable() {
+    private PipelineStage createDashClockStage(){
+        return new PipelineStage("dash-clock") {
+            private final SimpleDateFormat clockFormat = new SimpleDateFormat("HH:mm:ss", Locale.getDefault());
+            private long lastSnapshot = SystemClock.elapsedRealtime();
+
             @Override
-            public void run() {
-                while (true){
-                    try{
-                        Message dashClockMessage = new Message();
-                        String currentTime = new SimpleDateFormat("HH:mm:ss", Locale.getDefault()).format(new Date());
-                        dashClockMessage.arg1 = DASH_CLOCK_UPDATE;
-                        dashClockMessage.obj = currentTime;
-                        dashboardInstrumentUIHandler_h1.handleMessage(dashClockMessage);
-                        Thread.sleep(999);
-                    }catch (Exception e){
-                        e.printStackTrace();
-                    }
+            protected void runOnce() throws Exception {
+                Message dashClockMessage = new Message();
+                dashClockMessage.arg1 = DASH_CLOCK_UPDATE;
+                dashClockMessage.obj = clockFormat.format(new Date());
+                dashboardInstrumentUIHandler_h1.sendMessage(dashClockMessage);
+
+                // Periodic snapshot so a crash loses at most this much of the session
+                if (sharedState.isStreaming() && SystemClock.elapsedRealtime() - lastSnapshot >= DASH_STATE_SNAPSHOT_DELAY) {
+                    lastSnapshot = SystemClock.elapsedRealtime();
+                    Message snapshotMessage = new Message();
+                    snapshotMessage.arg1 = PERSIST_DASH_STATE;
+                    dashboardInstrumentUIHandler_h1.sendMessage(snapshotMessage);
                 }
+                Thread.sleep(999);
             }
-        });
-
-        dashClockThread.start();
+        };
     }
 
     private void initializeDashboardInstruments() {
 
+        // Widgets go back to their defaults, so nothing drawn before counts
+        channelScheduler.reset();
         lapTimer.setText(R.string.zero_timer_state);
         lapTimer.setTextColor(getColor(R.color.default_theme_color));
         lapTimer.setShadowLayer(10f, 0f, 0f, getColor(R.color.default_theme_color));
@@ -743,6 +1130,7 @@ public class DashboardActivity extends AppCompatActivity implements SensorEventL
         headlightIndicator.setVisibility(INVISIBLE);
         lapModeIndicator.setVisibility(INVISIBLE);
         sensorFaultIndicator.setVisibility(INVISIBLE);
+        displayedAlert = -1;
         coolantTemperatureValue.setText(R.string.default_temp);
 
         maxRightLeanAngleMeter.setArcSweepAngle(0);
@@ -750,10 +1138,298 @@ public class DashboardActivity extends AppCompatActivity implements SensorEventL
         gpsSignalIndicator.setVisibility(INVISIBLE);
         lapTimerView.setVisibility(INVISIBLE);
 
-        hasEnabledDataStreamUpdates = true;
+        sharedState.setStreaming(true);
+        sessionRecorder.start(new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.ENGLISH).format(new Date()));
+    }
+
+    private void handleLapGestures(int gestures, int frameAgeMillis) {
+        if ((gestures & (1 << LapGestures.LAP_MODE)) != 0) {
+            if (!isLapModeEnabled) {
+                lapTimerView.setVisibility(VISIBLE);
+                lapModeIndicator.setVisibility(VISIBLE);
+                isLapModeEnabled = true;
+            } else {
+                if (sharedState.isLapArmed()) {
+                    sharedState.disarmLap();
+                    sessionStatistics.completeLap();
+                    lapDeltaTracker.abandonLap();
+                    cornerSegmenter.abandonLap();
+                }
+                showLapTimerStopped();
+                lapTimerView.setVisibility(INVISIBLE);
+                lapModeIndicator.setVisibility(INVISIBLE);
+                isLapModeEnabled = false;
+            }
+        }
+        if (!isLapModeEnabled) {
+            return;
+        }
+
+        if ((gestures & (1 << LapGestures.LAP_ARM)) != 0 && !sharedState.isLapArmed()) {
+            long startedAt = gestureRecognizer.startedAtMillis(LapGestures.LAP_ARM);
+            // Start the lap when the trigger happened on the bike, not when we saw it
+            sharedState.armLap(SystemClock.elapsedRealtime() - Math.max(0, frameAgeMillis) - (liveFrame.timestampMillis - startedAt));
+            sessionStatistics.beginLap(startedAt);
+            lapDeltaTracker.beginLap(startedAt);
+            cornerSegmenter.beginLap(startedAt);
+            showLapTimerArmed();
+        } else if ((gestures & (1 << LapGestures.LAP_STOP)) != 0 && sharedState.isLapArmed()) {
+            sharedState.disarmLap();
+            sessionStatistics.completeLap();
+            lapDeltaTracker.completeLap(gestureRecognizer.startedAtMillis(LapGestures.LAP_STOP));
+            persistCornerTable(cornerSegmenter.completeLap(gestureRecognizer.startedAtMillis(LapGestures.LAP_STOP)));
+            showLapTimerStopped();
+        }
+    }
+
+    private void showLapTimerStopped() {
+        showLapDelta(Double.NaN);
+        dashboardClockTimer.setVisibility(VISIBLE);
+        lapTimer.setTextColor(getColor(R.color.default_theme_color));
+        lapTimer.setShadowLayer(0f, 0f, 0f, getColor(R.color.default_theme_color));
+        stopWatchText.setImageResource(R.mipmap.gsxr_laptimer);
+    }
+
+    private void showLapTimerArmed() {
+        dashboardClockTimer.setVisibility(INVISIBLE);
+        lapTimer.setTextColor(0xff000000);
+        lapTimer.setShadowLayer(0f, 0f, 0f, 0x00000000);
+        stopWatchText.setImageResource(R.mipmap.gsxr_laptimer_on);
+    }
+
+    private void showLapDelta(double deltaMillis) {
+        if (Double.isNaN(deltaMillis)) {
+            displayedLapDeltaCentis = Long.MIN_VALUE;
+            lapDeltaTxt.setVisibility(INVISIBLE);
+            return;
+        }
+        // Only touch the view when the shown hundredths change
+        long centis = Math.round(deltaMillis / 10);
+        if (centis == displayedLapDeltaCentis) {
+            return;
+        }
+        displayedLapDeltaCentis = centis;
+        lapDeltaTxt.setText(String.format(Locale.ENGLISH, "%+.2f", centis / 100.0));
+        lapDeltaTxt.setTextColor(getColor(centis <= 0 ? R.color.lap_delta_ahead : R.color.lap_delta_behind));
+        lapDeltaTxt.setVisibility(VISIBLE);
+    }
+
+    private void registerMotionSensors() {
+        if (gyroScopeSensor != null) {
+            sensorManager.registerListener(this, gyroScopeSensor, sensorSamplingDelay);
+        }
+        if (linearAccerlerationSensor != null) {
+            sensorManager.registerListener(this, linearAccerlerationSensor, sensorSamplingDelay);
+        }
+    }
+    private void initializeQualityGovernor() {
+        float refreshRate = getWindowManager().getDefaultDisplay().getRefreshRate();
+        long frameBudgetNanos = (long) (1e9 / (refreshRate > 0 ? refreshRate : 60));
+        qualityGovernor = new QualityGovernor(frameBudgetNanos, new QualityGovernor.Listener() {
+            @Override
+            public void onTierChanged(int tier, String reason) {
+                applyQualityTier(tier, reason);
+            }
+        });
+
+        frameTimeMonitor = new Choreographer.FrameCallback() {
+            @Override
+            public void doFrame(long frameTimeNanos) {
+                qualityGovernor.onFrame(frameTimeNanos);
+                Choreographer.getInstance().postFrameCallback(this);
+            }
+        };
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            thermalStatusListener = new PowerManager.OnThermalStatusChangedListener() {
+                @Override
+                public void onThermalStatusChanged(int status) {
+                    // Choreographer frame times are System.nanoTime, which stops in deep sleep
+                    qualityGovernor.onThermalStatus(status, System.nanoTime() / 1_000_000);
+                }
+            };
+        }
+    }
+
+    private void startQualityMonitoring() {
+        Choreographer.getInstance().removeFrameCallback(frameTimeMonitor);
+        Choreographer.getInstance().postFrameCallback(frameTimeMonitor);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            PowerManager powerManager = (PowerManager) getSystemService(Context.POWER_SERVICE);
+            powerManager.addThermalStatusListener(thermalStatusListener);
+        }
+    }
+
+    private void stopQualityMonitoring() {
+        Choreographer.getInstance().removeFrameCallback(frameTimeMonitor);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            PowerManager powerManager = (PowerManager) getSystemService(Context.POWER_SERVICE);
+            powerManager.removeThermalStatusListener(thermalStatusListener);
+        }
+    }
+
+    private void applyQualityTier(int tier, String reason) {
+        Log.i(TAG, "Quality tier " + QualityGovernor.tierName(tier) + " (" + reason + ")");
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.setCounter("gsxr_quality_tier", tier);
+        }
+
+        boolean glowEnabled = tier < QualityGovernor.TIER_NO_GLOW;
+        View[] glowViews = {
+                frontBrakeTriggerIndicator, rearBrakeTriggerIndicator, tachometerBar,
+                leftLeanAngleMeter, rightLeanAngleMeter, maxLeftLeanAngleMeter, maxRightLeanAngleMeter,
+                frontSuspensionOffset, rearSuspensionOffset,
+                leftTireSectionTempIndicator, centerTireSectionTempIndicator,
+                frontRightBrakeDiskTempIndicator, coolantTempIndicator
+        };
+        for (View view : glowViews) {
+            if (view instanceof ArcView) {
+                ((ArcView) view).setGlowEnabled(glowEnabled);
+            } else if (view instanceof ParallelogramView) {
+                ((ParallelogramView) view).setGlowEnabled(glowEnabled);
+            }
+        }
 
-        runDashClock();
+        int samplingDelay = tier < QualityGovernor.TIER_REDUCED_SENSORS ? SensorManager.SENSOR_DELAY_FASTEST : SensorManager.SENSOR_DELAY_GAME;
+        if (samplingDelay != sensorSamplingDelay) {
+            sensorSamplingDelay = samplingDelay;
+            sensorManager.unregisterListener(this);
+            registerMotionSensors();
+        }
+
+        if (tier < QualityGovernor.TIER_MINIMAL) {
+            channelScheduler.setIntervals(NORMAL_CHANNEL_DELAY, SLOW_CHANNEL_DELAY);
+        } else {
+            channelScheduler.setIntervals(MINIMAL_TIER_NORMAL_CHANNEL_DELAY, MINIMAL_TIER_SLOW_CHANNEL_DELAY);
+        }
+    }
+
+    private long getLocalMicros() {
+        // Monotonic, so wall clock adjustments on the phone don't look like clock drift
+        return SystemClock.elapsedRealtimeNanos() / 1000;
+    }
+
+    private long getFrameTimestamp(JSONObject data) {
+        // frame_ts is the logger's epoch time in seconds
+        double frameTimestamp = data.optDouble("frame_ts", Double.NaN);
+        if (Double.isNaN(frameTimestamp)) {
+            return System.currentTimeMillis();
+        }
+        return (long) (frameTimestamp * 1000);
+    }
+
+    private void restoreDashboardState() {
+        if (!dashboardStateFile.exists()) {
+            return;
+        }
+        try {
+            DashboardSnapshot snapshot = DashboardSnapshot.read(dashboardStateFile);
+            if (!snapshot.isDashboardActive || System.currentTimeMillis() - snapshot.savedAtMillis > WARM_RESUME_WINDOW) {
+                // A new ride; an old snapshot's statistics would be counted into it
+                return;
+            }
+            sessionStatistics.restore(snapshot.sessionStatistics);
+
+            // Warm resume: skip the boot splash and put the instruments straight back
+            spashVideoView.setVisibility(GONE);
+            mainDashboardLayoutView.setVisibility(VISIBLE);
+            initializeDashboardInstruments();
+
+            maxLeftLeanAngle = snapshot.maxLeftLeanAngle;
+            maxRightLeanAngle = snapshot.maxRightLeanAngle;
+            maxLeftLeanAngleTxt.setText(String.format(Locale.ENGLISH, "°%02d", maxLeftLeanAngle));
+            maxLeftLeanAngleMeter.setArcSweepAngle(-((float) maxLeftLeanAngle));
+            maxRightLeanAngleTxt.setText(String.format(Locale.ENGLISH, "%02d°", maxRightLeanAngle));
+            maxRightLeanAngleMeter.setArcSweepAngle((float) maxRightLeanAngle);
+
+            isLapModeEnabled = snapshot.isLapModeEnabled;
+            if (isLapModeEnabled) {
+                lapTimerView.setVisibility(VISIBLE);
+                lapModeIndicator.setVisibility(VISIBLE);
+            }
+            if (snapshot.isLapTimerArmed) {
+                sharedState.armLap(SystemClock.elapsedRealtime() - (System.currentTimeMillis() - snapshot.lapStartMillis));
+                showLapTimerArmed();
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
     }
+
+    private void persistDashboardState() {
+        DashboardSnapshot snapshot = new DashboardSnapshot();
+        snapshot.savedAtMillis = System.currentTimeMillis();
+        snapshot.isDashboardActive = sharedState.isStreaming();
+        snapshot.maxLeftLeanAngle = maxLeftLeanAngle;
+        snapshot.maxRightLeanAngle = maxRightLeanAngle;
+        snapshot.isLapModeEnabled = isLapModeEnabled;
+        snapshot.isLapTimerArmed = sharedState.isLapArmed();
+        snapshot.lapStartMillis = snapshot.savedAtMillis - (SystemClock.elapsedRealtime() - sharedState.lapStartPoint());
+        snapshot.sessionStatistics = sessionStatistics.toByteArray();
+
+        fileWriter.submit(dashboardStateFile, snapshot.toByteArray());
+    }
+
+    private void persistSessionStatistics(File file) {
+        fileWriter.submit(file, sessionStatistics.toByteArray());
+    }
+
+    private void persistCornerTable(CornerTable table) {
+        if (table == null) {
+            return;
+        }
+        // One CSV per lap, named by the lap's start, for the notebooks to pick up
+        StringBuilder csv = new StringBuilder(4096);
+        try {
+            table.writeCsv(csv);
+        } catch (IOException e) {
+            return;
+        }
+        fileWriter.submit(new File(cornerTableDirectory, "lap_" + table.lapStartMillis() + ".csv"),
+                csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void openFrameBoard() {
+        if (!getResources().getBoolean(R.bool.telemetry_frame_board_enabled)) {
+            return;
+        }
+        try {
+            frameBoard = FrameBoard.create(new File(getFilesDir(), FrameBoardProvider.BOARD_FILE));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void persistGaugeCalibration() {
+        fileWriter.submit(gaugeCalibrationFile, gaugeCalibrator.toByteArray());
+    }
+
+    private void restoreGaugeCalibration() {
+        if (!gaugeCalibrationFile.exists()) {
+            return;
+        }
+        try {
+            gaugeCalibrator.readSnapshot(gaugeCalibrationFile);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** UI thread; points the suspension charts and alert thresholds at the gauges' current ranges */
+    private void applyGaugeCalibration() {
+        frontSuspensionChart.setValueRange((float) gaugeCalibrator.min(TelemetryChannels.FRONT_SUSPENSION),
+                (float) gaugeCalibrator.max(TelemetryChannels.FRONT_SUSPENSION));
+        rearSuspensionChart.setValueRange((float) gaugeCalibrator.min(TelemetryChannels.REAR_SUSPENSION),
+                (float) gaugeCalibrator.max(TelemetryChannels.REAR_SUSPENSION));
+        alertEngine = compileAlertRules();
+    }
+
+    /** Moves {@code value}, given against the channel's default range, to the same place in its calibrated range */
+    private double scaleToCalibratedRange(int channel, double defaultMin, double defaultMax, double value) {
+        double min = gaugeCalibrator.min(channel);
+        return min + (value - defaultMin) * (gaugeCalibrator.max(channel) - min) / (defaultMax - defaultMin);
+    }
+
     private double mapWidgetValue(double a, double inputMin, double inputMax, double outputMin, double outputMax){
         return (a - inputMin) * (outputMax - outputMin) / (inputMax - inputMin) - outputMin;
     }
@@ -776,13 +1452,15 @@ public class DashboardActivity extends AppCompatActivity implements SensorEventL
     public void onSensorChanged(SensorEvent event) {
         int typeOfSensor = event.sensor.getType();
 
-        if (hasEnabledDataStreamUpdates) {
+        if (sharedState.isStreaming()) {
 
             if (typeOfSensor == Sensor.TYPE_ROTATION_VECTOR) {
                 SensorManager.getRotationMatrixFromVector(rotationMatrix, event.values);
                 SensorManager.getOrientation(rotationMatrix, orientation);
 
-                leanAngle = (int) Math.toDegrees(orientation[1]) - CALIBRATION_OFFSET_ANGLE; // Compensate for dashboard mounting
+                long now = SystemClock.elapsedRealtime();
+                leanEstimator.onPhoneLean(now, Math.toDegrees(orientation[1]));
+                leanAngle = (int) Math.round(leanEstimator.lean(now)); // Bike IMU if it is streaming, else the phone less its mount offset
 
                 if (leanAngle >= 0) {
                     leftLeanAngleMeter.setArcSweepAngle(-((float) leanAngle));
@@ -820,14 +1498,33 @@ public class DashboardActivity extends AppCompatActivity implements SensorEventL
     @Override
     protected void onResume() {
         super.onResume();
-        if(gyroScopeSensor != null){
-            sensorManager.registerListener(this, gyroScopeSensor, SensorManager.SENSOR_DELAY_FASTEST);
-        }
+        registerMotionSensors();
+        startQualityMonitoring();
+        telemetryPipeline.start();
     }
 
     @Override
     protected void onPause() {
         super.onPause();
         sensorManager.unregisterListener(this);
+        stopQualityMonitoring();
+        telemetryPipeline.stop();
+        persistDashboardState();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        sessionRecorder.stop();
+        // Queued writes still finish, on the writer's own thread
+        fileWriter.shutdown();
+        if (frameBoard != null) {
+            try {
+                frameBoard.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            frameBoard = null;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.example.gxxr;
+
+import android.content.ContentProvider;
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+
+/**
+ * Hands the live frame board to other apps on the phone. A reader opens
+ * content://com.example.gxxr.frameboard/ read-only and maps the descriptor with
+ * {@code FrameBoard.open(new FileInputStream(fd.getFileDescriptor()).getChannel())};
+ * after that every read is a plain memory load. Needs READ_FRAME_BOARD, which only
+ * apps signed with our key get.
+ */
+public class FrameBoardProvider extends ContentProvider {
+
+    static final String BOARD_FILE = "frame_board.bin";
+
+    @Override
+    public boolean onCreate() {
+        return true;
+    }
+
+    @Nullable
+    @Override
+    public ParcelFileDescriptor openFile(@NonNull Uri uri, @NonNull String mode) throws FileNotFoundException {
+        if (!"r".equals(mode)) {
+            throw new FileNotFoundException("The frame board is read-only");
+        }
+        File board = new File(getContext().getFilesDir(), BOARD_FILE);
+        if (!board.exists()) {
+            throw new FileNotFoundException("The dashboard is not publishing frames");
+        }
+        return ParcelFileDescriptor.open(board, ParcelFileDescriptor.MODE_READ_ONLY);
+    }
+
+    @Nullable
+    @Override
+    public String getType(@NonNull Uri uri) {
+        return "application/octet-stream";
+    }
+
+    @Nullable
+    @Override
+    public Cursor query(@NonNull Uri uri, @Nullable String[] projection, @Nullable String selection,
+                        @Nullable String[] selectionArgs, @Nullable String sortOrder) {
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public Uri insert(@NonNull Uri uri, @Nullable ContentValues values) {
+        return null;
+    }
+
+    @Override
+    public int delete(@NonNull Uri uri, @Nullable String selection, @Nullable String[] selectionArgs) {
+        return 0;
+    }
+
+    @Override
+    public int update(@NonNull Uri uri, @Nullable ContentValues values, @Nullable String selection,
+                      @Nullable String[] selectionArgs) {
+        return 0;
+    }
+}
@@ -20,6 +20,7 @@ public class ParallelogramView extends View {
     private float shadowRadius = 18f;
     private float shadowDx = 0f;
     private float shadowDy = 0f;
+    private boolean glowEnabled = true;
     private float cornerRadius = 24f;
 
     // Horizontal skew config
@@ -84,7 +85,11 @@ public class ParallelogramView extends View {
     }
 
     private void applyShadow() {
-        paint.setShadowLayer(shadowRadius, shadowDx, shadowDy, shadowColor);
+        if (glowEnabled) {
+            paint.setShadowLayer(shadowRadius, shadowDx, shadowDy, shadowColor);
+        } else {
+            paint.clearShadowLayer();
+        }
     }
 
     @Override
@@ -154,6 +159,14 @@ public class ParallelogramView extends View {
         invalidate();
     }
 
+    /** Glow needs a software layer; without it the view can stay hardware accelerated */
+    public void setGlowEnabled(boolean enabled) {
+        this.glowEnabled = enabled;
+        setLayerType(enabled ? LAYER_TYPE_SOFTWARE : LAYER_TYPE_NONE, enabled ? paint : null);
+        applyShadow();
+        invalidate();
+    }
+
     public void setSkewAmount(float amount) {
         this.skewAmount = amount;
         requestLayout();
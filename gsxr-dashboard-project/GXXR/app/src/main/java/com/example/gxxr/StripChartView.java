@@ -0,0 +1,191 @@
+package com.example.gxxr;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffXfermode;
+import android.util.AttributeSet;
+import android.view.View;
+
+import com.example.gxxr.telemetry.StripChartHistory;
+
+/**
+ * Scrolling strip chart of the last few seconds of one channel.
+ *
+ * History is decimated to a min/max pair per pixel column, and the trace is kept in
+ * a cached bitmap that is shifted left by the number of new columns on each draw,
+ * so only the newest columns are painted. Drawing cost follows the pixel width,
+ * not the sample rate.
+ */
+public class StripChartView extends View {
+
+    // Raw samples kept per second of window, only needed to rebuild after a resize
+    private static final int SAMPLES_PER_SECOND = 100;
+
+    private Paint linePaint;
+    private Paint clearPaint;
+
+    private int lineColor = Color.parseColor("#00E5FF");
+    private float lineWidth = 2f;
+    private float minValue = 0f;
+    private float maxValue = 100f;
+    private float windowSeconds = 10f;
+
+    private StripChartHistory history;
+
+    // Two bitmaps so the shift never draws a bitmap onto itself
+    private Bitmap frontBitmap, backBitmap;
+    private Canvas frontCanvas, backCanvas;
+    private long drawnColumn = -1;
+
+    public StripChartView(Context context) {
+        super(context);
+        init(null);
+    }
+
+    public StripChartView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        init(attrs);
+    }
+
+    public StripChartView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init(attrs);
+    }
+
+    private void init(AttributeSet attrs) {
+        if (attrs != null) {
+            TypedArray a = getContext().obtainStyledAttributes(attrs, R.styleable.StripChartView);
+
+            lineColor     = a.getColor(R.styleable.StripChartView_stripLineColor, lineColor);
+            lineWidth     = a.getDimension(R.styleable.StripChartView_stripLineWidth, lineWidth);
+            minValue      = a.getFloat(R.styleable.StripChartView_stripMinValue, minValue);
+            maxValue      = a.getFloat(R.styleable.StripChartView_stripMaxValue, maxValue);
+            windowSeconds = a.getFloat(R.styleable.StripChartView_stripWindowSeconds, windowSeconds);
+
+            a.recycle();
+        }
+
+        linePaint = new Paint();
+        linePaint.setStyle(Paint.Style.FILL);
+        linePaint.setColor(lineColor);
+
+        clearPaint = new Paint();
+        clearPaint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.CLEAR));
+
+        history = new StripChartHistory((int) (windowSeconds * SAMPLES_PER_SECOND), (long) (windowSeconds * 1000));
+    }
+
+    /** Adds one sample; NaN (channel missing) leaves a gap in the trace */
+    public void addSample(long timestampMillis, double value) {
+        history.add(timestampMillis, (float) value);
+        invalidate();
+    }
+
+    public void clear() {
+        history.clear();
+        drawnColumn = -1;
+        if (frontBitmap != null) {
+            frontBitmap.eraseColor(Color.TRANSPARENT);
+        }
+        invalidate();
+    }
+
+    public void setValueRange(float minValue, float maxValue) {
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+        drawnColumn = -1;
+        invalidate();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+
+        if (w <= 0 || h <= 0) {
+            return;
+        }
+        frontBitmap = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+        backBitmap = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+        frontCanvas = new Canvas(frontBitmap);
+        backCanvas = new Canvas(backBitmap);
+
+        history.setColumns(w);
+        drawnColumn = -1;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        if (frontBitmap == null) {
+            return;
+        }
+        long newest = history.newestColumn();
+        if (newest >= 0 && newest != drawnColumn) {
+            int width = frontBitmap.getWidth();
+            long firstDirty;
+            if (drawnColumn < 0 || newest - drawnColumn >= width) {
+                frontBitmap.eraseColor(Color.TRANSPARENT);
+                firstDirty = newest - width + 1;
+            } else {
+                int shift = (int) (newest - drawnColumn);
+                backBitmap.eraseColor(Color.TRANSPARENT);
+                backCanvas.drawBitmap(frontBitmap, -shift, 0, null);
+
+                Bitmap bitmap = frontBitmap;
+                frontBitmap = backBitmap;
+                backBitmap = bitmap;
+                Canvas swap = frontCanvas;
+                frontCanvas = backCanvas;
+                backCanvas = swap;
+
+                // The last drawn column may have picked up more samples since
+                firstDirty = drawnColumn;
+            }
+            frontCanvas.drawRect(columnX(firstDirty, newest), 0, width, frontBitmap.getHeight(), clearPaint);
+            for (long column = firstDirty; column <= newest; column++) {
+                drawColumn(column, newest);
+            }
+            drawnColumn = newest;
+        } else if (newest >= 0) {
+            // Same column, it may still have widened
+            frontCanvas.drawRect(columnX(newest, newest), 0, frontBitmap.getWidth(), frontBitmap.getHeight(), clearPaint);
+            drawColumn(newest, newest);
+        }
+
+        canvas.drawBitmap(frontBitmap, 0, 0, null);
+    }
+
+    private float columnX(long column, long newest) {
+        return frontBitmap.getWidth() - 1 - (newest - column);
+    }
+
+    private void drawColumn(long column, long newest) {
+        if (!history.hasColumn(column)) {
+            return;
+        }
+        float low = history.columnMin(column);
+        float high = history.columnMax(column);
+        // Stretch to meet the previous column so the trace stays continuous
+        if (history.hasColumn(column - 1)) {
+            low = Math.min(low, history.columnMax(column - 1));
+            high = Math.max(high, history.columnMin(column - 1));
+        }
+        float x = columnX(column, newest);
+        float top = valueY(high) - lineWidth / 2;
+        float bottom = valueY(low) + lineWidth / 2;
+        frontCanvas.drawRect(x, top, x + 1, bottom, linePaint);
+    }
+
+    private float valueY(float value) {
+        float height = frontBitmap.getHeight() - lineWidth;
+        float ratio = (value - minValue) / (maxValue - minValue);
+        ratio = Math.max(0f, Math.min(1f, ratio));
+        return lineWidth / 2 + (1 - ratio) * height;
+    }
+}
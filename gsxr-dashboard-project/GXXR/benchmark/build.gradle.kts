@@ -0,0 +1,37 @@
+plugins {
+    alias(libs.plugins.androidTest)
+    alias(libs.plugins.baselineprofile)
+}
+
+android {
+    namespace = "com.example.gxxr.benchmark"
+    compileSdk = 34
+
+    defaultConfig {
+        // Macrobenchmark and baseline profile collection need API 28
+        minSdk = 28
+        targetSdk = 34
+
+        testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+    }
+
+    targetProjectPath = ":app"
+
+    compileOptions {
+        sourceCompatibility = JavaVersion.VERSION_1_8
+        targetCompatibility = JavaVersion.VERSION_1_8
+    }
+}
+
+baselineProfile {
+    // Run on whatever device is connected rather than a managed emulator
+    useConnectedDevices = true
+}
+
+dependencies {
+
+    implementation(project(":telemetry"))
+    implementation(libs.ext.junit)
+    implementation(libs.uiautomator)
+    implementation(libs.benchmark.macro.junit4)
+}
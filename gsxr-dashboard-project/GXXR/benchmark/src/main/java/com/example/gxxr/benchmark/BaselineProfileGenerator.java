@@ -0,0 +1,62 @@
+package com.example.gxxr.benchmark;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+/**
+ * Collects the classes and methods the dash runs from launch to a few seconds of live
+ * frames: frame decode, the instrument handler and the widget draw code. Run with
+ * {@code ./gradlew :app:generateBaselineProfile} on a rooted device or API 33+ emulator;
+ * the result is written into the app's release sources.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+
+    private static final long LIVE_FRAMES_DELAY = 10000;
+
+    @Rule
+    public BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+
+    private StandInFrameSource frameSource;
+
+    @Before
+    public void startFrameSource() throws Exception {
+        frameSource = new StandInFrameSource();
+    }
+
+    @After
+    public void stopFrameSource() {
+        frameSource.close();
+    }
+
+    @Test
+    public void generate() {
+        baselineProfileRule.collect(
+                DashboardJourney.PACKAGE_NAME,
+                15,
+                3,
+                null,
+                true,
+                false,
+                name -> true,
+                scope -> {
+                    try {
+                        // Through the boot splash every time, not a warm resume
+                        DashboardJourney.forgetDashboardState();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    DashboardJourney.startDashboard(scope);
+                    DashboardJourney.sleep(LIVE_FRAMES_DELAY);
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.gxxr.benchmark;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.Until;
+
+import java.io.IOException;
+
+/** Steps shared by the benchmarks and the baseline profile generator */
+final class DashboardJourney {
+
+    static final String PACKAGE_NAME = "com.example.gxxr";
+
+    // Logger startup delay, boot video and gauge sweep, with room to spare
+    private static final long DASHBOARD_TIMEOUT = 30000;
+    private static final long SETTLE_DELAY = 1000;
+
+    private DashboardJourney() {
+    }
+
+    /**
+     * Wipes the saved dashboard state so the next launch is a true cold start through
+     * the boot splash rather than a warm resume of the last run.
+     */
+    static void forgetDashboardState() throws IOException {
+        UiDevice device = UiDevice.getInstance(InstrumentationRegistry.getInstrumentation());
+        device.executeShellCommand("pm clear " + PACKAGE_NAME);
+    }
+
+    /** Launches the dash and waits until it is showing live frames */
+    static void startDashboard(MacrobenchmarkScope scope) {
+        scope.pressHome();
+        scope.startActivityAndWait();
+        awaitDashboard(scope);
+    }
+
+    static void awaitDashboard(MacrobenchmarkScope scope) {
+        if (!scope.getDevice().wait(Until.hasObject(By.res(PACKAGE_NAME, "main_dashboard_view")), DASHBOARD_TIMEOUT)) {
+            throw new IllegalStateException("Dashboard did not come up; is the stand-in frame source running?");
+        }
+        scope.getDevice().waitForIdle();
+        sleep(SETTLE_DELAY);
+    }
+
+    static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.gxxr.benchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Frame time percentiles of the running dashboard while the stand-in logger answers
+ * every request, i.e. under as much telemetry as the receiver can pull.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FrameTimingBenchmark {
+
+    private static final int ITERATIONS = 3;
+    private static final long SUSTAINED_LOAD_DELAY = 20000;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    private StandInFrameSource frameSource;
+
+    @Before
+    public void startFrameSource() throws Exception {
+        frameSource = new StandInFrameSource();
+    }
+
+    @After
+    public void stopFrameSource() {
+        frameSource.close();
+    }
+
+    @Test
+    public void liveFramesWithoutCompilation() {
+        liveFrames(new CompilationMode.None());
+    }
+
+    @Test
+    public void liveFramesWithBaselineProfile() {
+        liveFrames(new CompilationMode.Partial());
+    }
+
+    private void liveFrames(CompilationMode compilationMode) {
+        benchmarkRule.measureRepeated(
+                DashboardJourney.PACKAGE_NAME,
+                Collections.singletonList(new FrameTimingMetric()),
+                compilationMode,
+                StartupMode.COLD,
+                ITERATIONS,
+                scope -> {
+                    // Boot outside the measurement so only steady-state frames are counted
+                    DashboardJourney.startDashboard(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    DashboardJourney.sleep(SUSTAINED_LOAD_DELAY);
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.gxxr.benchmark;
+
+import com.example.gxxr.telemetry.FrameSubscription;
+import com.example.gxxr.telemetry.LoggerDiscovery;
+import com.example.gxxr.telemetry.TelemetryChannels;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * On-device stand-in for gsxr_logger_v5.py, listening on the logger port on localhost
+ * so the dashboard under test boots and runs without the bike. Every REQ is answered
+ * with a fresh full frame of a lap being ridden: suspension working, speed and lean
+ * swinging, temperatures creeping up. Brakes stay released so the dash never shuts
+ * down, and subscriptions are acknowledged but answered with full frames, which the
+ * dash accepts.
+ */
+final class StandInFrameSource implements AutoCloseable {
+
+    static final int LOGGER_PORT = 9100;
+
+    private final DatagramSocket socket;
+    private final Thread thread;
+    private final long startMillis = System.currentTimeMillis();
+    private long frameIndex;
+
+    StandInFrameSource() throws SocketException {
+        socket = new DatagramSocket(LOGGER_PORT, InetAddress.getLoopbackAddress());
+        thread = new Thread(this::serve, "stand-in-frame-source");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void serve() {
+        byte[] buffer = new byte[4096];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        try {
+            while (true) {
+                packet.setLength(buffer.length);
+                socket.receive(packet);
+                String message = new String(packet.getData(), 0, packet.getLength(), StandardCharsets.UTF_8).trim();
+                String reply = handle(message);
+                if (reply != null) {
+                    byte[] bytes = reply.getBytes(StandardCharsets.UTF_8);
+                    socket.send(new DatagramPacket(bytes, bytes.length, packet.getSocketAddress()));
+                }
+            }
+        } catch (IOException e) {
+            // Closed
+        }
+    }
+
+    private String handle(String message) {
+        String[] parts = message.split(" ", 3);
+        if (parts[0].equals(LoggerDiscovery.PROBE)) {
+            return "{\"" + LoggerDiscovery.REPLY_KEY + "\": 5, \"" + LoggerDiscovery.PORT_KEY + "\": " + LOGGER_PORT + "}";
+        }
+        if (parts[0].equals("SUB") && parts.length == 3) {
+            return "{\"" + FrameSubscription.ACK_KEY + "\": \"" + parts[1] + "\", \"sub_keys\": "
+                    + parts[2].split(",").length + "}";
+        }
+        if (!parts[0].equals("REQ")) {
+            return null;
+        }
+        String t0 = null;
+        for (String part : message.split(" ")) {
+            if (!part.isEmpty() && Character.isDigit(part.charAt(0))) {
+                t0 = part;
+            }
+        }
+
+        long nowMillis = System.currentTimeMillis();
+        double t = (nowMillis - startMillis) / 1000.0;
+        StringBuilder reply = new StringBuilder(1024);
+        reply.append(String.format(Locale.ROOT, "{\"frame_ts\": %.3f, \"frame_idx\": %d", nowMillis / 1000.0, frameIndex++));
+        for (int channel = 0; channel < TelemetryChannels.COUNT; channel++) {
+            if (TelemetryChannels.isLoggerChannel(channel)) {
+                append(reply, TelemetryChannels.key(channel), value(channel, t));
+            }
+        }
+        append(reply, "rear_brake_gps_S1", 45 + t / 20);
+        if (t0 != null) {
+            double now = nowMillis / 1000.0;
+            reply.append(String.format(Locale.ROOT, ", \"req_t0\": %s, \"srv_rx_ts\": %.6f, \"srv_tx_ts\": %.6f", t0, now, now));
+        }
+        return reply.append('}').toString();
+    }
+
+    /** A 90 second lap of {@code channel} at {@code t} seconds into the run */
+    private static double value(int channel, double t) {
+        double lap = 2 * Math.PI * t / 90;
+        switch (channel) {
+            case TelemetryChannels.FRONT_TYRE_S1:
+            case TelemetryChannels.FRONT_TYRE_S2:
+            case TelemetryChannels.FRONT_TYRE_S3:
+                return 55 + 5 * Math.sin(lap + channel) + t / 30;
+            case TelemetryChannels.REAR_TYRE_S1:
+            case TelemetryChannels.REAR_TYRE_S2:
+            case TelemetryChannels.REAR_TYRE_S3:
+                return 60 + 5 * Math.sin(lap + channel) + t / 30;
+            case TelemetryChannels.FRONT_BRAKE_DISK_TEMP:
+                return 150 + 60 * Math.sin(lap * 6) + t / 5;
+            case TelemetryChannels.FRONT_BRAKE:
+            case TelemetryChannels.REAR_BRAKE:
+            case TelemetryChannels.HEADLIGHT:
+                return 0;
+            case TelemetryChannels.FRONT_SUSPENSION:
+                return 48 + 20 * Math.sin(t * 3) + 4 * Math.sin(t * 17);
+            case TelemetryChannels.REAR_SUSPENSION:
+                return 80 + 25 * Math.cos(t * 2.5) + 5 * Math.sin(t * 13);
+            case TelemetryChannels.GPS_FIX:
+                return 1;
+            case TelemetryChannels.WHEEL_SPEED:
+                return 140 + 90 * Math.sin(lap * 4);
+            case TelemetryChannels.COOLANT_TEMP:
+                return 85 + 10 * Math.sin(lap);
+            case TelemetryChannels.GPS_LATITUDE:
+                return 52.0786 + 0.004 * Math.sin(lap);
+            case TelemetryChannels.GPS_LONGITUDE:
+                return -1.0169 + 0.006 * Math.cos(lap);
+            default:
+                return 0;
+        }
+    }
+
+    private static void append(StringBuilder json, String key, double value) {
+        json.append(", \"").append(key).append("\": ").append(String.format(Locale.ROOT, "%.3f", value));
+    }
+
+    @Override
+    public void close() {
+        socket.close();
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.gxxr.benchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Cold start through the boot splash to the first live frame on the dashboard
+ * (timeToFullDisplay, reported by the activity), without and with the baseline profile.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StartupBenchmark {
+
+    private static final int ITERATIONS = 5;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    private StandInFrameSource frameSource;
+
+    @Before
+    public void startFrameSource() throws Exception {
+        frameSource = new StandInFrameSource();
+    }
+
+    @After
+    public void stopFrameSource() {
+        frameSource.close();
+    }
+
+    @Test
+    public void startupWithoutCompilation() {
+        startup(new CompilationMode.None());
+    }
+
+    @Test
+    public void startupWithBaselineProfile() {
+        startup(new CompilationMode.Partial());
+    }
+
+    private void startup(CompilationMode compilationMode) {
+        benchmarkRule.measureRepeated(
+                DashboardJourney.PACKAGE_NAME,
+                Collections.singletonList(new StartupTimingMetric()),
+                compilationMode,
+                StartupMode.COLD,
+                ITERATIONS,
+                scope -> {
+                    try {
+                        DashboardJourney.forgetDashboardState();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    DashboardJourney.startDashboard(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -21,4 +21,7 @@ dependencyResolutionManagement {
 
 rootProject.name = "GXXR"
 include(":app")
- 
\ No newline at end of file
+include(":telemetry")
+include(":analytics")
+include(":benchmark")
+include(":stress")
@@ -0,0 +1,31 @@
+plugins {
+    application
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+application {
+    mainClass.set("com.example.gxxr.stress.StressHarness")
+}
+
+dependencies {
+
+    implementation(project(":telemetry"))
+    testImplementation(libs.junit)
+}
+
+// The unit tests only smoke the scenarios; this gives each one long enough to find races
+tasks.register<JavaExec>("stress") {
+    group = "verification"
+    description = "Stress-tests the dashboard's cross-thread state and reports races and throughput"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.example.gxxr.stress.StressHarness")
+    args("--millis", "5000")
+}
@@ -0,0 +1,103 @@
+package com.example.gxxr.stress;
+
+import com.example.gxxr.telemetry.DashboardSharedState;
+
+/**
+ * The receiver raises one link fault while another thread clears a different one
+ * that was already raised. Both updates must land: afterwards only the newly raised
+ * fault is left, and each call reports that it changed the register.
+ */
+public final class FaultRegisterStress extends StressTest<DashboardSharedState> {
+
+    private static final int RAISED = DashboardSharedState.FAULT_LOGGER_SILENT;
+    private static final int CLEARED = DashboardSharedState.FAULT_STALE_FRAMES;
+    static final int EXPECTED = 1 << RAISED;
+
+    public FaultRegisterStress() {
+        super("fault-register", 2);
+    }
+
+    @Override
+    protected DashboardSharedState newState() {
+        DashboardSharedState state = new DashboardSharedState();
+        state.raiseFault(CLEARED);
+        return state;
+    }
+
+    @Override
+    protected void actor(int actor, DashboardSharedState state, StressResult result) {
+        if (actor == 0) {
+            result.r1 = state.raiseFault(RAISED) ? 1 : 0;
+        } else {
+            result.r2 = state.clearFault(CLEARED) ? 1 : 0;
+        }
+    }
+
+    @Override
+    protected void arbiter(DashboardSharedState state, StressResult result) {
+        result.r3 = state.faults();
+    }
+
+    @Override
+    protected Grade grade(StressResult result) {
+        return result.r1 == 1 && result.r2 == 1 && result.r3 == EXPECTED ? Grade.ACCEPTABLE : Grade.FORBIDDEN;
+    }
+
+    @Override
+    protected String describe(StressResult result) {
+        return describe(result.r3);
+    }
+
+    static String describe(long faults) {
+        if (faults == EXPECTED) {
+            return "both updates landed";
+        }
+        return (faults & (1 << RAISED)) == 0 ? "raise lost" : "clear lost";
+    }
+
+    /** A plain int updated with |= and &=, as a bare field would be */
+    public static final class Unsynchronized extends StressTest<Unsynchronized.Register> {
+
+        static final class Register {
+            int faults = 1 << CLEARED;
+        }
+
+        public Unsynchronized() {
+            super("fault-register-unsynchronized", 2);
+        }
+
+        @Override
+        public boolean isBaseline() {
+            return true;
+        }
+
+        @Override
+        protected Register newState() {
+            return new Register();
+        }
+
+        @Override
+        protected void actor(int actor, Register state, StressResult result) {
+            if (actor == 0) {
+                state.faults |= 1 << RAISED;
+            } else {
+                state.faults &= ~(1 << CLEARED);
+            }
+        }
+
+        @Override
+        protected void arbiter(Register state, StressResult result) {
+            result.r3 = state.faults;
+        }
+
+        @Override
+        protected Grade grade(StressResult result) {
+            return result.r3 == EXPECTED ? Grade.ACCEPTABLE : Grade.FORBIDDEN;
+        }
+
+        @Override
+        protected String describe(StressResult result) {
+            return FaultRegisterStress.describe(result.r3);
+        }
+    }
+}
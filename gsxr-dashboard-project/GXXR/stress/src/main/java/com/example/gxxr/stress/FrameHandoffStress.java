@@ -0,0 +1,140 @@
+package com.example.gxxr.stress;
+
+import com.example.gxxr.telemetry.DashboardSharedState;
+
+/**
+ * The receiver offers frame 1 then frame 2 while the main thread takes once; the
+ * arbiter takes whatever is left. Result: wake-ups the receiver asked for, the
+ * frame the main thread took and the one left over (0 for none).
+ *
+ * Frame 2 must always reach the main thread, frames must never go backwards, and a
+ * frame may only be left waiting if a wake-up for it is still outstanding: one more
+ * wake-up asked for than frames taken. Anything else is a lost frame or a lost
+ * wake-up, and a dash that stops drawing until the next frame comes in.
+ */
+public final class FrameHandoffStress extends StressTest<FrameHandoffStress.Handoff> {
+
+    static final class Handoff {
+        final DashboardSharedState state = new DashboardSharedState();
+        final DashboardSharedState.PendingFrame first = new DashboardSharedState.PendingFrame("{}", 1);
+        final DashboardSharedState.PendingFrame second = new DashboardSharedState.PendingFrame("{}", 2);
+
+        long number(DashboardSharedState.PendingFrame frame) {
+            return frame == null ? 0 : frame.ageMillis;
+        }
+    }
+
+    public FrameHandoffStress() {
+        super("frame-handoff", 2);
+    }
+
+    @Override
+    protected Handoff newState() {
+        return new Handoff();
+    }
+
+    @Override
+    protected void actor(int actor, Handoff handoff, StressResult result) {
+        if (actor == 0) {
+            int wakeUps = handoff.state.offerFrame(handoff.first) ? 1 : 0;
+            wakeUps += handoff.state.offerFrame(handoff.second) ? 1 : 0;
+            result.r1 = wakeUps;
+        } else {
+            result.r2 = handoff.number(handoff.state.takeFrame());
+        }
+    }
+
+    @Override
+    protected void arbiter(Handoff handoff, StressResult result) {
+        result.r3 = handoff.number(handoff.state.takeFrame());
+    }
+
+    @Override
+    protected Grade grade(StressResult result) {
+        return grade(result.r1, result.r2, result.r3);
+    }
+
+    @Override
+    protected String describe(StressResult result) {
+        return describe(result.r1, result.r2, result.r3);
+    }
+
+    static Grade grade(long wakeUps, long taken, long leftOver) {
+        boolean newestDelivered = taken == 2 || leftOver == 2;
+        boolean inOrder = leftOver == 0 || leftOver > taken;
+        boolean wakeUpOutstanding = wakeUps - (taken == 0 ? 0 : 1) == 1;
+        return newestDelivered && inOrder && (leftOver != 0) == wakeUpOutstanding
+                ? Grade.ACCEPTABLE : Grade.FORBIDDEN;
+    }
+
+    static String describe(long wakeUps, long taken, long leftOver) {
+        if (grade(wakeUps, taken, leftOver) == Grade.ACCEPTABLE) {
+            if (taken == 0) {
+                return "taken before anything was offered";
+            }
+            return taken == 1 ? "taken between the offers" : "taken after both offers, frame 1 superseded";
+        }
+        if (taken != 2 && leftOver != 2) {
+            return "frame 2 lost";
+        }
+        return leftOver != 0 && leftOver <= taken ? "frames out of order" : "wake-up lost or doubled";
+    }
+
+    /** A plain slot, checked and then written, as a bare field would be */
+    public static final class Unsynchronized extends StressTest<Unsynchronized.Slot> {
+
+        static final class Slot {
+            long frame;
+        }
+
+        public Unsynchronized() {
+            super("frame-handoff-unsynchronized", 2);
+        }
+
+        @Override
+        public boolean isBaseline() {
+            return true;
+        }
+
+        @Override
+        protected Slot newState() {
+            return new Slot();
+        }
+
+        private static boolean offer(Slot slot, long frame) {
+            boolean wakeUp = slot.frame == 0;
+            slot.frame = frame;
+            return wakeUp;
+        }
+
+        private static long take(Slot slot) {
+            long frame = slot.frame;
+            slot.frame = 0;
+            return frame;
+        }
+
+        @Override
+        protected void actor(int actor, Slot slot, StressResult result) {
+            if (actor == 0) {
+                result.r1 = (offer(slot, 1) ? 1 : 0) + (offer(slot, 2) ? 1 : 0);
+            } else {
+                result.r2 = take(slot);
+            }
+        }
+
+        @Override
+        protected void arbiter(Slot slot, StressResult result) {
+            result.r3 = take(slot);
+        }
+
+        @Override
+        protected Grade grade(StressResult result) {
+            return FrameHandoffStress.grade(result.r1, result.r2, result.r3);
+        }
+
+        @Override
+        protected String describe(StressResult result) {
+            return FrameHandoffStress.describe(result.r1, result.r2, result.r3);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.gxxr.stress;
+
+import com.example.gxxr.telemetry.DashboardSharedState;
+
+/**
+ * The main thread arms the lap timer while the lap-timer worker reads the time on
+ * the lap. The worker must see either no lap or the armed lap with its own start
+ * point, never the timer armed against a start point it cannot see yet.
+ */
+public final class LapArmingStress extends StressTest<DashboardSharedState> {
+
+    static final long START_POINT = 1000;
+    static final long NOW = 1500;
+
+    public LapArmingStress() {
+        super("lap-arming", 2);
+    }
+
+    @Override
+    protected DashboardSharedState newState() {
+        return new DashboardSharedState();
+    }
+
+    @Override
+    protected void actor(int actor, DashboardSharedState state, StressResult result) {
+        if (actor == 0) {
+            state.armLap(START_POINT);
+        } else {
+            result.r1 = state.lapElapsed(NOW);
+        }
+    }
+
+    @Override
+    protected Grade grade(StressResult result) {
+        return grade(result.r1);
+    }
+
+    @Override
+    protected String describe(StressResult result) {
+        return describe(result.r1);
+    }
+
+    static Grade grade(long elapsed) {
+        return elapsed == -1 || elapsed == NOW - START_POINT ? Grade.ACCEPTABLE : Grade.FORBIDDEN;
+    }
+
+    static String describe(long elapsed) {
+        if (elapsed == -1) {
+            return "read before arming";
+        }
+        return elapsed == NOW - START_POINT ? "armed with its start point" : "armed, start point not visible";
+    }
+
+    /** The activity's former pair of plain fields, armed flag written first */
+    public static final class Unsynchronized extends StressTest<Unsynchronized.Fields> {
+
+        static final class Fields {
+            boolean armed;
+            long startPoint;
+        }
+
+        public Unsynchronized() {
+            super("lap-arming-unsynchronized", 2);
+        }
+
+        @Override
+        public boolean isBaseline() {
+            return true;
+        }
+
+        @Override
+        protected Fields newState() {
+            return new Fields();
+        }
+
+        @Override
+        protected void actor(int actor, Fields state, StressResult result) {
+            if (actor == 0) {
+                state.armed = true;
+                state.startPoint = START_POINT;
+            } else {
+                result.r1 = state.armed ? NOW - state.startPoint : -1;
+            }
+        }
+
+        @Override
+        protected Grade grade(StressResult result) {
+            return LapArmingStress.grade(result.r1);
+        }
+
+        @Override
+        protected String describe(StressResult result) {
+            return LapArmingStress.describe(result.r1);
+        }
+    }
+}
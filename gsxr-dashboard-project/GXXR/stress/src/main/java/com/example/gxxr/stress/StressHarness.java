@@ -0,0 +1,93 @@
+package com.example.gxxr.stress;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Stress-tests the dashboard's cross-thread state:
+ *
+ * <pre>stress [--millis N] [--batch N] [TEST...]</pre>
+ *
+ * Runs the named scenarios (all of them by default) for N ms each and prints every
+ * outcome with its count and grade, the races seen and the samples per second. Each
+ * scenario has an unsynchronized baseline next to it, modelled on the plain fields
+ * the activity used to share; its races are expected and only reported. Exits 1 if
+ * any other scenario saw a forbidden outcome.
+ */
+public final class StressHarness {
+
+    private StressHarness() {
+    }
+
+    static List<StressTest<?>> allTests() {
+        return Arrays.<StressTest<?>>asList(
+                new LapArmingStress(),
+                new LapArmingStress.Unsynchronized(),
+                new FaultRegisterStress(),
+                new FaultRegisterStress.Unsynchronized(),
+                new FrameHandoffStress(),
+                new FrameHandoffStress.Unsynchronized());
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        long millis = 1000;
+        int batch = StressRunner.DEFAULT_BATCH_SIZE;
+        List<String> names = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--millis")) {
+                    millis = Long.parseLong(args[++i]);
+                } else if (arg.equals("--batch")) {
+                    batch = Integer.parseInt(args[++i]);
+                } else if (arg.startsWith("--")) {
+                    usage("Unknown option " + arg);
+                    return;
+                } else {
+                    names.add(arg);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            usage("Bad option value");
+            return;
+        }
+        if (millis <= 0 || batch <= 0) {
+            usage("Bad option value");
+            return;
+        }
+
+        List<StressTest<?>> tests = new ArrayList<>();
+        for (StressTest<?> test : allTests()) {
+            if (names.isEmpty() || names.remove(test.name())) {
+                tests.add(test);
+            }
+        }
+        if (!names.isEmpty()) {
+            usage("Unknown test " + names.get(0));
+            return;
+        }
+
+        System.out.println(Runtime.getRuntime().availableProcessors() + " processors"
+                + (Runtime.getRuntime().availableProcessors() < 2 ? ", races can only show on preemption" : ""));
+        StressRunner runner = new StressRunner(millis, batch);
+        boolean failed = false;
+        for (StressTest<?> test : tests) {
+            StressReport report = runner.run(test);
+            report.print(System.out);
+            failed |= report.races() > 0 && !report.isBaseline();
+        }
+        System.exit(failed ? 1 : 0);
+    }
+
+    private static void usage(String problem) {
+        System.err.println(problem);
+        StringBuilder names = new StringBuilder();
+        for (StressTest<?> test : allTests()) {
+            names.append(' ').append(test.name());
+        }
+        System.err.println("Usage: stress [--millis N] [--batch N] [TEST...]");
+        System.err.println("Tests:" + names);
+        System.exit(2);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.gxxr.stress;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/** Results of one {@link StressTest} run: every distinct outcome, how often, and its grade */
+public final class StressReport {
+
+    private static final class Outcome {
+        final StressTest.Grade grade;
+        final String description;
+        long count;
+
+        Outcome(StressTest.Grade grade, String description) {
+            this.grade = grade;
+            this.description = description;
+        }
+    }
+
+    private final StressTest<?> test;
+    private final Map<String, Outcome> outcomes = new TreeMap<>();
+    private long samples, forbidden;
+    private long elapsedNanos;
+
+    StressReport(StressTest<?> test) {
+        this.test = test;
+    }
+
+    void add(StressResult result) {
+        String key = result.toString();
+        Outcome outcome = outcomes.get(key);
+        if (outcome == null) {
+            outcome = new Outcome(test.grade(result), test.describe(result));
+            outcomes.put(key, outcome);
+        }
+        outcome.count++;
+        samples++;
+        if (outcome.grade == StressTest.Grade.FORBIDDEN) {
+            forbidden++;
+        }
+    }
+
+    void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public String testName() {
+        return test.name();
+    }
+
+    public boolean isBaseline() {
+        return test.isBaseline();
+    }
+
+    public long samples() {
+        return samples;
+    }
+
+    /** Samples that ended in a forbidden result, i.e. observed races */
+    public long races() {
+        return forbidden;
+    }
+
+    public double samplesPerSecond() {
+        return elapsedNanos == 0 ? 0 : samples * 1e9 / elapsedNanos;
+    }
+
+    /** How often {@code result} (as printed by {@link StressResult#toString()}) was seen */
+    public long count(String result) {
+        Outcome outcome = outcomes.get(result);
+        return outcome == null ? 0 : outcome.count;
+    }
+
+    public void print(PrintStream out) {
+        out.printf(Locale.ROOT, "%s%s: %d samples, %.0f/s, %d races%n", test.name(),
+                test.isBaseline() ? " (baseline)" : "", samples, samplesPerSecond(), forbidden);
+        for (Map.Entry<String, Outcome> entry : outcomes.entrySet()) {
+            Outcome outcome = entry.getValue();
+            out.printf(Locale.ROOT, "  %-14s %12d  %-10s %s%n", "[" + entry.getKey() + "]", outcome.count,
+                    outcome.grade, outcome.description);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.gxxr.stress;
+
+/**
+ * What one sample of a {@link StressTest} observed: each actor and the arbiter
+ * write the slots they own.
+ */
+public final class StressResult {
+
+    public long r1, r2, r3;
+
+    void clear() {
+        r1 = 0;
+        r2 = 0;
+        r3 = 0;
+    }
+
+    @Override
+    public String toString() {
+        return r1 + ", " + r2 + ", " + r3;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.gxxr.stress;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a {@link StressTest} for a while and tallies its results.
+ *
+ * Samples run in batches: the coordinating thread lays out a batch of fresh states,
+ * releases the actor threads together, and every actor walks the batch in the same
+ * order, so on a multi-core machine the actors keep hitting the same state at the
+ * same time. The coordinator then runs the arbiter over the batch and counts the
+ * results. Batch hand-over goes through volatile counters, which also make the
+ * states visible to the actors and the results to the coordinator.
+ */
+public final class StressRunner {
+
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    private final long durationMillis;
+    private final int batchSize;
+
+    public StressRunner(long durationMillis, int batchSize) {
+        if (durationMillis <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Duration and batch size must be positive");
+        }
+        this.durationMillis = durationMillis;
+        this.batchSize = batchSize;
+    }
+
+    public <S> StressReport run(final StressTest<S> test) throws InterruptedException {
+        final Object[] states = new Object[batchSize];
+        final StressResult[] results = new StressResult[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            results[i] = new StressResult();
+        }
+        final AtomicInteger generation = new AtomicInteger();
+        final AtomicInteger finished = new AtomicInteger();
+        final Throwable[] failure = new Throwable[1];
+
+        Thread[] threads = new Thread[test.actors()];
+        for (int a = 0; a < threads.length; a++) {
+            final int actor = a;
+            threads[a] = new Thread(new Runnable() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public void run() {
+                    int seen = 0;
+                    while (true) {
+                        int current;
+                        while ((current = generation.get()) == seen) {
+                            Thread.yield();
+                        }
+                        seen = current;
+                        if (current < 0) {
+                            return;
+                        }
+                        try {
+                            for (int i = 0; i < states.length; i++) {
+                                test.actor(actor, (S) states[i], results[i]);
+                            }
+                        } catch (Throwable t) {
+                            synchronized (failure) {
+                                failure[0] = t;
+                            }
+                        }
+                        finished.incrementAndGet();
+                    }
+                }
+            }, test.name() + "-actor-" + a);
+            threads[a].setDaemon(true);
+            threads[a].start();
+        }
+
+        StressReport report = new StressReport(test);
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        try {
+            do {
+                for (int i = 0; i < batchSize; i++) {
+                    states[i] = test.newState();
+                    results[i].clear();
+                }
+                finished.set(0);
+                generation.incrementAndGet();
+                while (finished.get() < threads.length) {
+                    Thread.yield();
+                }
+                synchronized (failure) {
+                    if (failure[0] != null) {
+                        throw new IllegalStateException(test.name() + " actor failed", failure[0]);
+                    }
+                }
+                for (int i = 0; i < batchSize; i++) {
+                    @SuppressWarnings("unchecked")
+                    S state = (S) states[i];
+                    test.arbiter(state, results[i]);
+                    report.add(results[i]);
+                }
+            } while (System.nanoTime() < deadline);
+        } finally {
+            generation.set(-1);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        report.finish(System.nanoTime() - start);
+        return report;
+    }
+}
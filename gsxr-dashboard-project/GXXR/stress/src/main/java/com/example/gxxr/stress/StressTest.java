@@ -0,0 +1,57 @@
+package com.example.gxxr.stress;
+
+/**
+ * A concurrency scenario in the style of jcstress: a fresh state per sample, a few
+ * actors that each run once against it on their own thread, at the same time as the
+ * others, and an optional arbiter that looks at the state once they are all done.
+ * Every result the sample can end with is graded, and the forbidden ones are the
+ * races the state is meant to rule out.
+ */
+public abstract class StressTest<S> {
+
+    public enum Grade {
+        ACCEPTABLE,
+        FORBIDDEN,
+    }
+
+    private final String name;
+    private final int actors;
+
+    protected StressTest(String name, int actors) {
+        if (actors < 1) {
+            throw new IllegalArgumentException("A stress test needs an actor");
+        }
+        this.name = name;
+        this.actors = actors;
+    }
+
+    public final String name() {
+        return name;
+    }
+
+    public final int actors() {
+        return actors;
+    }
+
+    /**
+     * True for a scenario that reproduces unsynchronised fields on purpose, to show
+     * what the real one rules out; its forbidden results are reported, not failed.
+     */
+    public boolean isBaseline() {
+        return false;
+    }
+
+    protected abstract S newState();
+
+    /** Actor {@code actor}'s turn, on that actor's thread */
+    protected abstract void actor(int actor, S state, StressResult result);
+
+    /** After every actor has run; not concurrent with them */
+    protected void arbiter(S state, StressResult result) {
+    }
+
+    protected abstract Grade grade(StressResult result);
+
+    /** What a result means, for the report */
+    protected abstract String describe(StressResult result);
+}
@@ -0,0 +1,104 @@
+package com.example.gxxr.stress;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.Assert.*;
+
+public class StressRunnerTest {
+
+    private final StressRunner runner = new StressRunner(200, 256);
+
+    @Test
+    public void sharedState_showsNoRaces() throws Exception {
+        for (StressTest<?> test : StressHarness.allTests()) {
+            StressReport report = runner.run(test);
+            assertTrue(test.name(), report.samples() > 0);
+            assertTrue(test.name(), report.samplesPerSecond() > 0);
+            if (!test.isBaseline()) {
+                assertEquals(test.name(), 0, report.races());
+            }
+        }
+    }
+
+    /** Two actors that should each increment a counter, but only the first one does */
+    private static final class Counter extends StressTest<long[]> {
+
+        Counter() {
+            super("counter", 2);
+        }
+
+        @Override
+        protected long[] newState() {
+            return new long[1];
+        }
+
+        @Override
+        protected void actor(int actor, long[] state, StressResult result) {
+            if (actor == 0) {
+                state[0]++;
+            }
+        }
+
+        @Override
+        protected void arbiter(long[] state, StressResult result) {
+            result.r1 = state[0];
+        }
+
+        @Override
+        protected Grade grade(StressResult result) {
+            return result.r1 == 2 ? Grade.ACCEPTABLE : Grade.FORBIDDEN;
+        }
+
+        @Override
+        protected String describe(StressResult result) {
+            return result.r1 == 2 ? "both increments" : "lost update";
+        }
+    }
+
+    @Test
+    public void forbiddenOutcomes_areCountedAsRaces() throws Exception {
+        StressReport report = runner.run(new Counter());
+        assertTrue(report.samples() > 0);
+        assertEquals(report.samples(), report.count("1, 0, 0"));
+        assertEquals(report.samples(), report.races());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        report.print(new PrintStream(out, true, "UTF-8"));
+        String printed = out.toString("UTF-8");
+        assertTrue(printed.startsWith("counter: "));
+        assertTrue(printed.contains("FORBIDDEN  lost update"));
+    }
+
+    @Test
+    public void failingActor_failsTheRun() throws Exception {
+        try {
+            runner.run(new StressTest<Object>("failing", 1) {
+                @Override
+                protected Object newState() {
+                    return new Object();
+                }
+
+                @Override
+                protected void actor(int actor, Object state, StressResult result) {
+                    throw new IllegalStateException("boom");
+                }
+
+                @Override
+                protected Grade grade(StressResult result) {
+                    return Grade.ACCEPTABLE;
+                }
+
+                @Override
+                protected String describe(StressResult result) {
+                    return "";
+                }
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("boom", e.getCause().getMessage());
+        }
+    }
+}
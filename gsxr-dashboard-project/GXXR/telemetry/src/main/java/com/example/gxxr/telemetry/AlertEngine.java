@@ -0,0 +1,258 @@
+package com.example.gxxr.telemetry;
+
+import java.util.Arrays;
+
+/**
+ * Evaluates compiled alert rules once per frame and keeps the active alerts in a
+ * priority queue for display.
+ *
+ * Rules live in parallel primitive arrays and {@link #evaluate} allocates nothing.
+ * The queue is an indexed binary heap ordered by severity, then by when the alert
+ * was last shown, so {@link #displayAlert} always picks the most severe alert and
+ * rotates through alerts of equal severity. Lower severities are not shown while a
+ * higher one is active. Not thread safe; evaluate and display from one thread.
+ */
+public final class AlertEngine {
+
+    // How long an alert stays on the indicator before the next one of equal severity
+    private static final long[] DISPLAY_DWELL_MILLIS = {0, 500, 1000, 2000};
+    // Rates are taken over this long, not frame to frame: a sensor that moves in
+    // steps reads far too high on the step and zero on the frames after it
+    static final long RATE_WINDOW_MILLIS = 1000;
+
+    private final int count;
+    private final int[] kinds;
+    private final int[] channels;
+    private final double[] triggers;
+    private final double[] clears;
+    private final long[] holdMillis;
+    private final int[] severities;
+    private final int[] codes;
+
+    // Per rule state
+    private final boolean[] active;
+    private final long[] pendingSinceMillis;
+    private final double[] previousValues;
+    private final long[] previousMillis;
+    private final double[] rates;
+    private final long[] lastShownMillis;
+
+    // Heap of active rule indices, heapPositions[rule] is -1 when inactive
+    private final int[] heap;
+    private final int[] heapPositions;
+    private int heapSize;
+
+    private int displayedRule = -1;
+    private long displayedSinceMillis;
+
+    AlertEngine(AlertRules rules) {
+        count = rules.count;
+        kinds = Arrays.copyOf(rules.kinds, count);
+        channels = Arrays.copyOf(rules.channels, count);
+        triggers = Arrays.copyOf(rules.triggers, count);
+        clears = Arrays.copyOf(rules.clears, count);
+        holdMillis = Arrays.copyOf(rules.holdMillis, count);
+        severities = Arrays.copyOf(rules.severities, count);
+        codes = Arrays.copyOf(rules.codes, count);
+
+        active = new boolean[count];
+        pendingSinceMillis = new long[count];
+        previousValues = new double[count];
+        previousMillis = new long[count];
+        rates = new double[count];
+        lastShownMillis = new long[count];
+        heap = new int[count];
+        heapPositions = new int[count];
+        reset();
+    }
+
+    public void reset() {
+        Arrays.fill(active, false);
+        Arrays.fill(pendingSinceMillis, -1);
+        Arrays.fill(previousValues, Double.NaN);
+        Arrays.fill(previousMillis, 0);
+        Arrays.fill(rates, Double.NaN);
+        Arrays.fill(lastShownMillis, Long.MIN_VALUE);
+        Arrays.fill(heapPositions, -1);
+        heapSize = 0;
+        displayedRule = -1;
+    }
+
+    /** Updates every rule from one frame; returns true if any alert fired or cleared */
+    public boolean evaluate(TelemetryFrame frame) {
+        long now = frame.timestampMillis;
+        boolean changed = false;
+        for (int rule = 0; rule < count; rule++) {
+            double value = frame.values[channels[rule]];
+            boolean triggered, cleared;
+
+            switch (kinds[rule]) {
+                case AlertRules.KIND_ABOVE:
+                    triggered = value > triggers[rule];
+                    cleared = value <= clears[rule];
+                    break;
+                case AlertRules.KIND_BELOW:
+                    triggered = value < triggers[rule];
+                    cleared = value >= clears[rule];
+                    break;
+                case AlertRules.KIND_RATE_ABOVE:
+                    if (!Double.isNaN(value)) {
+                        long elapsed = now - previousMillis[rule];
+                        if (Double.isNaN(previousValues[rule]) || elapsed < 0) {
+                            previousValues[rule] = value;
+                            previousMillis[rule] = now;
+                        } else if (elapsed >= RATE_WINDOW_MILLIS) {
+                            // The rate holds until the next window closes
+                            rates[rule] = (value - previousValues[rule]) * 1000 / elapsed;
+                            previousValues[rule] = value;
+                            previousMillis[rule] = now;
+                        }
+                    }
+                    triggered = rates[rule] > triggers[rule];
+                    cleared = rates[rule] <= clears[rule];
+                    break;
+                default:
+                    triggered = Double.isNaN(value);
+                    cleared = !triggered;
+                    break;
+            }
+
+            if (active[rule]) {
+                if (cleared) {
+                    active[rule] = false;
+                    pendingSinceMillis[rule] = -1;
+                    heapRemove(rule);
+                    changed = true;
+                }
+            } else if (triggered) {
+                if (pendingSinceMillis[rule] < 0) {
+                    pendingSinceMillis[rule] = now;
+                }
+                if (now - pendingSinceMillis[rule] >= holdMillis[rule]) {
+                    active[rule] = true;
+                    heapInsert(rule);
+                    changed = true;
+                }
+            } else {
+                // Condition has to hold without a break for the full hold time
+                pendingSinceMillis[rule] = -1;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Picks the rule to show on the indicator at {@code nowMillis}, or -1 if nothing
+     * is active. The shown alert is kept for its severity's dwell time unless a more
+     * severe one fires or it clears.
+     */
+    public int displayAlert(long nowMillis) {
+        if (heapSize == 0) {
+            displayedRule = -1;
+            return -1;
+        }
+        int top = heap[0];
+        if (displayedRule >= 0 && active[displayedRule]
+                && severities[displayedRule] >= severities[top]
+                && nowMillis - displayedSinceMillis < DISPLAY_DWELL_MILLIS[severities[displayedRule]]) {
+            return displayedRule;
+        }
+
+        // Marking it shown sinks it below its equal-severity peers for next time
+        lastShownMillis[top] = nowMillis;
+        siftDown(heapPositions[top]);
+        displayedRule = top;
+        displayedSinceMillis = nowMillis;
+        return top;
+    }
+
+    public int activeCount() {
+        return heapSize;
+    }
+
+    public boolean isActive(int rule) {
+        return active[rule];
+    }
+
+    public int ruleCount() {
+        return count;
+    }
+
+    public int channel(int rule) {
+        return channels[rule];
+    }
+
+    public int code(int rule) {
+        return codes[rule];
+    }
+
+    public int severity(int rule) {
+        return severities[rule];
+    }
+
+    private boolean before(int a, int b) {
+        if (severities[a] != severities[b]) {
+            return severities[a] > severities[b];
+        }
+        if (lastShownMillis[a] != lastShownMillis[b]) {
+            return lastShownMillis[a] < lastShownMillis[b];
+        }
+        return a < b;
+    }
+
+    private void heapInsert(int rule) {
+        lastShownMillis[rule] = Long.MIN_VALUE;
+        heap[heapSize] = rule;
+        heapPositions[rule] = heapSize;
+        siftUp(heapSize++);
+    }
+
+    private void heapRemove(int rule) {
+        int position = heapPositions[rule];
+        heapPositions[rule] = -1;
+        int last = heap[--heapSize];
+        if (position == heapSize) {
+            return;
+        }
+        heap[position] = last;
+        heapPositions[last] = position;
+        siftDown(position);
+        siftUp(heapPositions[last]);
+    }
+
+    private void siftUp(int position) {
+        int rule = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (!before(rule, heap[parent])) {
+                break;
+            }
+            heap[position] = heap[parent];
+            heapPositions[heap[position]] = position;
+            position = parent;
+        }
+        heap[position] = rule;
+        heapPositions[rule] = position;
+    }
+
+    private void siftDown(int position) {
+        int rule = heap[position];
+        while (true) {
+            int child = position * 2 + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!before(heap[child], rule)) {
+                break;
+            }
+            heap[position] = heap[child];
+            heapPositions[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = rule;
+        heapPositions[rule] = position;
+    }
+}
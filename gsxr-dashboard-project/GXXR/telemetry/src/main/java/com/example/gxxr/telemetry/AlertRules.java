@@ -0,0 +1,90 @@
+package com.example.gxxr.telemetry;
+
+import java.util.Arrays;
+
+/**
+ * Builder for alert rules. Rules are collected here and {@link #compile() compiled}
+ * into an {@link AlertEngine}, which keeps them as flat primitive arrays.
+ *
+ * Every rule has a trigger and a clear threshold (hysteresis), a hold time the
+ * trigger condition must last before the alert fires, a severity, and a code the
+ * caller uses to present it (the dash uses the warning icon resource).
+ */
+public final class AlertRules {
+
+    public static final int SEVERITY_FAULT = 1;     // sensor missing from the frame
+    public static final int SEVERITY_WARNING = 2;
+    public static final int SEVERITY_CRITICAL = 3;
+
+    static final int KIND_ABOVE = 0;
+    static final int KIND_BELOW = 1;
+    static final int KIND_RATE_ABOVE = 2;
+    static final int KIND_MISSING = 3;
+
+    int count;
+    int[] kinds = new int[16];
+    int[] channels = new int[16];
+    double[] triggers = new double[16];
+    double[] clears = new double[16];
+    long[] holdMillis = new long[16];
+    int[] severities = new int[16];
+    int[] codes = new int[16];
+
+    /** Fires when the value goes above {@code trigger}, clears once it drops to {@code clear} or below */
+    public AlertRules above(int channel, double trigger, double clear, long hold, int severity, int code) {
+        if (clear > trigger) {
+            throw new IllegalArgumentException("Clear level must not be above the trigger");
+        }
+        return add(KIND_ABOVE, channel, trigger, clear, hold, severity, code);
+    }
+
+    /** Fires when the value goes below {@code trigger}, clears once it rises to {@code clear} or above */
+    public AlertRules below(int channel, double trigger, double clear, long hold, int severity, int code) {
+        if (clear < trigger) {
+            throw new IllegalArgumentException("Clear level must not be below the trigger");
+        }
+        return add(KIND_BELOW, channel, trigger, clear, hold, severity, code);
+    }
+
+    /** Fires when the value rises faster than {@code trigger} per second, measured over a second */
+    public AlertRules rateAbove(int channel, double trigger, double clear, long hold, int severity, int code) {
+        if (clear > trigger) {
+            throw new IllegalArgumentException("Clear rate must not be above the trigger");
+        }
+        return add(KIND_RATE_ABOVE, channel, trigger, clear, hold, severity, code);
+    }
+
+    /** Fires when the channel is absent from frames, clears as soon as it is back */
+    public AlertRules missing(int channel, long hold, int severity, int code) {
+        return add(KIND_MISSING, channel, 0, 0, hold, severity, code);
+    }
+
+    private AlertRules add(int kind, int channel, double trigger, double clear, long hold, int severity, int code) {
+        if (channel < 0 || channel >= TelemetryChannels.COUNT) {
+            throw new IllegalArgumentException("Unknown channel " + channel);
+        }
+        if (count == kinds.length) {
+            int capacity = count * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            channels = Arrays.copyOf(channels, capacity);
+            triggers = Arrays.copyOf(triggers, capacity);
+            clears = Arrays.copyOf(clears, capacity);
+            holdMillis = Arrays.copyOf(holdMillis, capacity);
+            severities = Arrays.copyOf(severities, capacity);
+            codes = Arrays.copyOf(codes, capacity);
+        }
+        kinds[count] = kind;
+        channels[count] = channel;
+        triggers[count] = trigger;
+        clears[count] = clear;
+        holdMillis[count] = hold;
+        severities[count] = severity;
+        codes[count] = code;
+        count++;
+        return this;
+    }
+
+    public AlertEngine compile() {
+        return new AlertEngine(this);
+    }
+}
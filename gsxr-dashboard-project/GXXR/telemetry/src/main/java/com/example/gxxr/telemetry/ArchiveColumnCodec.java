@@ -0,0 +1,219 @@
+package com.example.gxxr.telemetry;
+
+import java.util.Arrays;
+
+/**
+ * Column encodings used inside archive chunks.
+ *
+ * Timestamps are delta-of-delta zigzag varints, so a steady logger grid costs one
+ * byte per row. Value columns carry a presence bitmap (omitted when every row has
+ * a value) followed by either zigzag varint deltas for integral channels such as
+ * brake and GPS flags, or Gorilla style XOR compressed doubles for everything else.
+ */
+final class ArchiveColumnCodec {
+
+    static final int ENCODING_XOR_DOUBLE = 1;
+    static final int ENCODING_VARINT_DELTA = 2;
+
+    private static final int PRESENCE_ALL = 0;
+    private static final int PRESENCE_BITMAP = 1;
+    private static final int PRESENCE_NONE = 2;
+
+    // Largest magnitude a double holds exactly as an integer
+    private static final double MAX_EXACT_INTEGER = 9007199254740992.0;
+
+    private ArchiveColumnCodec() {
+    }
+
+    static void encodeTimestamps(long[] timestamps, int rows, ByteBuilder out) {
+        long previous = 0, previousDelta = 0;
+        for (int i = 0; i < rows; i++) {
+            long delta = timestamps[i] - previous;
+            if (i == 0) {
+                out.writeSignedVarLong(timestamps[0]);
+            } else if (i == 1) {
+                out.writeSignedVarLong(delta);
+            } else {
+                out.writeSignedVarLong(delta - previousDelta);
+            }
+            previousDelta = delta;
+            previous = timestamps[i];
+        }
+    }
+
+    static void decodeTimestamps(ByteCursor in, int rows, long[] out) {
+        long previous = 0, previousDelta = 0;
+        for (int i = 0; i < rows; i++) {
+            long delta;
+            if (i == 0) {
+                out[0] = in.readSignedVarLong();
+                previous = out[0];
+                continue;
+            } else if (i == 1) {
+                delta = in.readSignedVarLong();
+            } else {
+                delta = previousDelta + in.readSignedVarLong();
+            }
+            out[i] = previous + delta;
+            previousDelta = delta;
+            previous = out[i];
+        }
+    }
+
+    static void encodeColumn(double[] values, int rows, ByteBuilder out) {
+        int present = 0;
+        boolean isIntegral = true;
+        for (int i = 0; i < rows; i++) {
+            double value = values[i];
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            present++;
+            if (isIntegral && (value != Math.rint(value) || Math.abs(value) > MAX_EXACT_INTEGER
+                    || (value == 0 && 1 / value < 0))) {
+                isIntegral = false;
+            }
+        }
+
+        out.writeByte(isIntegral ? ENCODING_VARINT_DELTA : ENCODING_XOR_DOUBLE);
+        if (present == 0) {
+            out.writeByte(PRESENCE_NONE);
+            return;
+        }
+        if (present == rows) {
+            out.writeByte(PRESENCE_ALL);
+        } else {
+            out.writeByte(PRESENCE_BITMAP);
+            int bits = 0, used = 0;
+            for (int i = 0; i < rows; i++) {
+                bits = (bits << 1) | (Double.isNaN(values[i]) ? 0 : 1);
+                if (++used == 8) {
+                    out.writeByte(bits);
+                    bits = 0;
+                    used = 0;
+                }
+            }
+            if (used > 0) {
+                out.writeByte(bits << (8 - used));
+            }
+        }
+
+        if (isIntegral) {
+            long previous = 0;
+            for (int i = 0; i < rows; i++) {
+                if (!Double.isNaN(values[i])) {
+                    long value = (long) values[i];
+                    out.writeSignedVarLong(value - previous);
+                    previous = value;
+                }
+            }
+        } else {
+            encodeXor(values, rows, out);
+        }
+    }
+
+    private static void encodeXor(double[] values, int rows, ByteBuilder out) {
+        BitWriter bits = new BitWriter(out);
+        boolean isFirst = true;
+        long previousBits = 0;
+        int previousLeading = -1, previousTrailing = 0;
+
+        for (int i = 0; i < rows; i++) {
+            if (Double.isNaN(values[i])) {
+                continue;
+            }
+            long valueBits = Double.doubleToRawLongBits(values[i]);
+            if (isFirst) {
+                bits.writeBits(valueBits, 64);
+                isFirst = false;
+                previousBits = valueBits;
+                continue;
+            }
+
+            long xor = valueBits ^ previousBits;
+            previousBits = valueBits;
+            if (xor == 0) {
+                bits.writeBit(false);
+                continue;
+            }
+            bits.writeBit(true);
+
+            int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                // Meaningful bits fit inside the previous window, reuse it
+                bits.writeBit(false);
+                bits.writeBits(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+            } else {
+                int significant = 64 - leading - trailing;
+                bits.writeBit(true);
+                bits.writeBits(leading, 5);
+                bits.writeBits(significant - 1, 6);
+                bits.writeBits(xor >>> trailing, significant);
+                previousLeading = leading;
+                previousTrailing = trailing;
+            }
+        }
+        bits.finish();
+    }
+
+    static void decodeColumn(byte[] block, int offset, int length, int rows, double[] out) {
+        ByteCursor in = new ByteCursor(block, offset, length);
+        int encoding = in.readByte();
+        int presence = in.readByte();
+
+        Arrays.fill(out, 0, rows, Double.NaN);
+        if (presence == PRESENCE_NONE) {
+            return;
+        }
+
+        boolean[] isPresent = null;
+        if (presence == PRESENCE_BITMAP) {
+            isPresent = new boolean[rows];
+            int bits = 0;
+            for (int i = 0; i < rows; i++) {
+                if ((i & 7) == 0) {
+                    bits = in.readByte();
+                }
+                isPresent[i] = ((bits >>> (7 - (i & 7))) & 1) != 0;
+            }
+        }
+
+        if (encoding == ENCODING_VARINT_DELTA) {
+            long previous = 0;
+            for (int i = 0; i < rows; i++) {
+                if (isPresent == null || isPresent[i]) {
+                    previous += in.readSignedVarLong();
+                    out[i] = previous;
+                }
+            }
+        } else if (encoding == ENCODING_XOR_DOUBLE) {
+            int start = in.position();
+            BitReader bits = new BitReader(block, start, offset + length - start);
+            boolean isFirst = true;
+            long previousBits = 0;
+            int leading = 0, trailing = 0;
+
+            for (int i = 0; i < rows; i++) {
+                if (isPresent != null && !isPresent[i]) {
+                    continue;
+                }
+                if (isFirst) {
+                    previousBits = bits.readBits(64);
+                    isFirst = false;
+                } else if (bits.readBit()) {
+                    if (bits.readBit()) {
+                        leading = (int) bits.readBits(5);
+                        int significant = (int) bits.readBits(6) + 1;
+                        trailing = 64 - leading - significant;
+                    }
+                    long xor = bits.readBits(64 - leading - trailing) << trailing;
+                    previousBits ^= xor;
+                }
+                out[i] = Double.longBitsToDouble(previousBits);
+            }
+        } else {
+            throw new IllegalStateException("Unknown column encoding " + encoding);
+        }
+    }
+}
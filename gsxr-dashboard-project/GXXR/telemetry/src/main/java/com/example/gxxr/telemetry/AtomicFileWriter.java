@@ -0,0 +1,71 @@
+package com.example.gxxr.telemetry;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes small state files (snapshots, calibration, corner tables) off the caller's
+ * thread.
+ *
+ * Every file is written next to its target and renamed over it, so a crash never
+ * leaves a torn file. {@link #submit} queues the write on one writer thread: writes
+ * land in the order they were submitted, and two writes of the same file never race
+ * on its temp file. A failed write is logged and dropped.
+ */
+public final class AtomicFileWriter {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            return new Thread(runnable, "file-writer");
+        }
+    });
+
+    /** Replaces {@code file} with {@code data} on the calling thread */
+    public static void write(File file, byte[] data) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        FileOutputStream out = new FileOutputStream(temp);
+        try {
+            out.write(data);
+            out.getFD().sync();
+        } finally {
+            out.close();
+        }
+        if (!temp.renameTo(file)) {
+            throw new IOException("Could not replace " + file);
+        }
+    }
+
+    /** Queues a write of {@code data}, which must not change afterwards; creates missing parents */
+    public void submit(final File file, final byte[] data) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    File parent = file.getParentFile();
+                    if (parent != null) {
+                        parent.mkdirs();
+                    }
+                    write(file, data);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        });
+    }
+
+    /** Finishes the queued writes in the background and accepts no more */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /** After {@link #shutdown()}; returns false if writes were still pending at the timeout */
+    public boolean awaitTermination(long timeoutMillis) throws InterruptedException {
+        return executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+}
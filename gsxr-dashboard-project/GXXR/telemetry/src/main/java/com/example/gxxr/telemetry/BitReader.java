@@ -0,0 +1,39 @@
+package com.example.gxxr.telemetry;
+
+/**
+ * Reads bits written by {@link BitWriter}.
+ */
+final class BitReader {
+
+    private final byte[] bytes;
+    private final int offset;
+    private final int bitLimit;
+    private int bitPosition;
+
+    BitReader(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.bitLimit = length * 8;
+    }
+
+    boolean readBit() {
+        return readBits(1) != 0;
+    }
+
+    long readBits(int count) {
+        if (bitPosition + count > bitLimit) {
+            throw new IllegalStateException("Read past end of bit stream");
+        }
+        long result = 0;
+        while (count > 0) {
+            int current = bytes[offset + (bitPosition >>> 3)] & 0xFF;
+            int available = 8 - (bitPosition & 7);
+            int take = Math.min(available, count);
+            int bits = (current >>> (available - take)) & ((1 << take) - 1);
+            result = (result << take) | bits;
+            bitPosition += take;
+            count -= take;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.gxxr.telemetry;
+
+/**
+ * MSB-first bit packer backed by a {@link ByteBuilder}, used by the XOR float encoding.
+ */
+final class BitWriter {
+
+    private final ByteBuilder out;
+    private long word;
+    private int wordBits;
+
+    BitWriter(ByteBuilder out) {
+        this.out = out;
+    }
+
+    void writeBit(boolean bit) {
+        writeBits(bit ? 1 : 0, 1);
+    }
+
+    /** Writes the low {@code count} bits of {@code value}, most significant first */
+    void writeBits(long value, int count) {
+        if (count == 0) {
+            return;
+        }
+        if (count < 64) {
+            value &= (1L << count) - 1;
+        }
+
+        int free = 64 - wordBits;
+        if (count <= free) {
+            word |= value << (free - count);
+            wordBits += count;
+            if (wordBits == 64) {
+                flushWord();
+            }
+        } else {
+            int overflow = count - free;
+            word |= value >>> overflow;
+            wordBits = 64;
+            flushWord();
+            word = value << (64 - overflow);
+            wordBits = overflow;
+        }
+    }
+
+    /** Pads the last partial byte with zeros */
+    void finish() {
+        int remaining = (wordBits + 7) / 8;
+        for (int i = 0; i < remaining; i++) {
+            out.writeByte((int) (word >>> (56 - i * 8)));
+        }
+        word = 0;
+        wordBits = 0;
+    }
+
+    private void flushWord() {
+        for (int i = 0; i < 8; i++) {
+            out.writeByte((int) (word >>> (56 - i * 8)));
+        }
+        word = 0;
+        wordBits = 0;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.gxxr.telemetry;
+
+/**
+ * Sequential reader over a byte array written by {@link ByteBuilder}.
+ */
+final class ByteCursor {
+
+    private final byte[] bytes;
+    private int position;
+    private final int end;
+
+    ByteCursor(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.position = offset;
+        this.end = offset + length;
+    }
+
+    int position() {
+        return position;
+    }
+
+    int readByte() {
+        if (position >= end) {
+            throw new IllegalStateException("Read past end of block");
+        }
+        return bytes[position++] & 0xFF;
+    }
+
+    void skip(int count) {
+        position += count;
+    }
+
+    long readVarLong() {
+        long result = 0;
+        int shift = 0;
+        while (true) {
+            int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+            if (shift > 63) {
+                throw new IllegalStateException("Malformed varint");
+            }
+        }
+    }
+
+    long readSignedVarLong() {
+        long raw = readVarLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    int readVarInt() {
+        return (int) readVarLong();
+    }
+}
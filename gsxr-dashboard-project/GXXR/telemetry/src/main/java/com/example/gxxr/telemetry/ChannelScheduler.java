@@ -0,0 +1,143 @@
+package com.example.gxxr.telemetry;
+
+import java.util.Arrays;
+
+/**
+ * Decides which channel widgets get redrawn on a display frame, by update-rate class:
+ * critical channels every frame, normal ones at most every normal interval and slow
+ * ones at most every slow interval. Channels not assigned a class are critical.
+ *
+ * Slow channels that fall due together are spread over consecutive frames, at most
+ * {@code maxSlowPerFrame} per frame and most overdue first, so they settle into a
+ * staggered rhythm instead of all redrawing on the same frame. A channel skips its
+ * budget when its value has moved by its urgent delta since it was last drawn, or
+ * when {@link #requestUpdate} was called for it (an alert firing on it, say).
+ *
+ * Usage per frame: {@link #beginFrame}, then {@link #shouldDraw} for each widget
+ * right before drawing it. Not thread safe; allocates nothing per frame.
+ */
+public final class ChannelScheduler {
+
+    public static final int RATE_CRITICAL = 0;
+    public static final int RATE_NORMAL = 1;
+    public static final int RATE_SLOW = 2;
+
+    private final int maxSlowPerFrame;
+    private long normalIntervalMillis, slowIntervalMillis;
+
+    private final int[] rateClasses = new int[TelemetryChannels.COUNT];
+    private final double[] urgentDeltas = new double[TelemetryChannels.COUNT];
+    private final double[] drawnValues = new double[TelemetryChannels.COUNT];
+    private final long[] drawnAtMillis = new long[TelemetryChannels.COUNT];
+    private final boolean[] granted = new boolean[TelemetryChannels.COUNT];
+    private final boolean[] requested = new boolean[TelemetryChannels.COUNT];
+
+    // Slow channels in assignment order, for picking the most overdue
+    private final int[] slowChannels = new int[TelemetryChannels.COUNT];
+    private int slowCount;
+
+    private long nowMillis;
+
+    public ChannelScheduler(long normalIntervalMillis, long slowIntervalMillis, int maxSlowPerFrame) {
+        if (maxSlowPerFrame < 1) {
+            throw new IllegalArgumentException("At least one slow channel per frame");
+        }
+        this.maxSlowPerFrame = maxSlowPerFrame;
+        setIntervals(normalIntervalMillis, slowIntervalMillis);
+        Arrays.fill(urgentDeltas, Double.POSITIVE_INFINITY);
+        reset();
+    }
+
+    /**
+     * Puts {@code channel} in {@code rateClass}; a change of at least {@code urgentDelta}
+     * from the drawn value is drawn straight away (infinity to never bypass).
+     */
+    public ChannelScheduler assign(int channel, int rateClass, double urgentDelta) {
+        if (channel < 0 || channel >= TelemetryChannels.COUNT) {
+            throw new IllegalArgumentException("Unknown channel " + channel);
+        }
+        if (rateClass < RATE_CRITICAL || rateClass > RATE_SLOW || rateClasses[channel] != RATE_CRITICAL) {
+            throw new IllegalArgumentException("Bad or repeated rate class for channel " + channel);
+        }
+        rateClasses[channel] = rateClass;
+        urgentDeltas[channel] = urgentDelta;
+        if (rateClass == RATE_SLOW) {
+            slowChannels[slowCount++] = channel;
+        }
+        return this;
+    }
+
+    /** The quality governor stretches these when the phone is struggling */
+    public void setIntervals(long normalIntervalMillis, long slowIntervalMillis) {
+        this.normalIntervalMillis = normalIntervalMillis;
+        this.slowIntervalMillis = slowIntervalMillis;
+    }
+
+    public int rateClass(int channel) {
+        return rateClasses[channel];
+    }
+
+    public void beginFrame(long nowMillis) {
+        this.nowMillis = nowMillis;
+        for (int i = 0; i < slowCount; i++) {
+            granted[slowChannels[i]] = false;
+        }
+        for (int n = 0; n < maxSlowPerFrame; n++) {
+            int pick = -1;
+            for (int i = 0; i < slowCount; i++) {
+                int channel = slowChannels[i];
+                if (granted[channel] || nowMillis - drawnAtMillis[channel] < slowIntervalMillis) {
+                    continue;
+                }
+                if (pick < 0 || drawnAtMillis[channel] < drawnAtMillis[pick]) {
+                    pick = channel;
+                }
+            }
+            if (pick < 0) {
+                break;
+            }
+            // The slot is used up even if the widget is not drawn (channel missing this frame),
+            // so a channel that keeps going missing cannot starve the others
+            granted[pick] = true;
+            drawnAtMillis[pick] = nowMillis;
+        }
+    }
+
+    /** Whether to redraw {@code channel} showing {@code value} this frame; a true answer counts as drawn */
+    public boolean shouldDraw(int channel, double value) {
+        boolean draw;
+        switch (rateClasses[channel]) {
+            case RATE_NORMAL:
+                draw = nowMillis - drawnAtMillis[channel] >= normalIntervalMillis;
+                break;
+            case RATE_SLOW:
+                draw = granted[channel];
+                break;
+            default:
+                draw = true;
+                break;
+        }
+        // NaN on either side compares false, so a first or missing value waits its turn
+        draw |= requested[channel] || Math.abs(value - drawnValues[channel]) >= urgentDeltas[channel];
+        if (draw) {
+            drawnValues[channel] = value;
+            drawnAtMillis[channel] = nowMillis;
+            granted[channel] = false;
+            requested[channel] = false;
+        }
+        return draw;
+    }
+
+    /** Draws {@code channel} the next time it is asked about, whatever its budget */
+    public void requestUpdate(int channel) {
+        requested[channel] = true;
+    }
+
+    /** Forgets what was drawn, so every channel is due on the next frame */
+    public void reset() {
+        Arrays.fill(drawnValues, Double.NaN);
+        Arrays.fill(drawnAtMillis, Long.MIN_VALUE / 2);
+        Arrays.fill(granted, false);
+        Arrays.fill(requested, false);
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.gxxr.telemetry;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Running min/max/mean/variance (Welford) plus a time-in-band histogram for one channel.
+ * Every update is O(1) and nothing is allocated after construction.
+ */
+public final class ChannelStatistics {
+
+    // Gaps longer than this are treated as dropouts and not credited to any band
+    private static final long MAX_SAMPLE_GAP_MILLIS = 1000;
+
+    private final double[] bandEdges;
+    private final long[] bandMillis;
+
+    private long count;
+    private double min, max, mean, m2;
+    private long lastTimestampMillis = -1;
+    private double lastValue;
+
+    /**
+     * @param bandEdges ascending band boundaries; n edges give n + 1 bands,
+     *                  band 0 being everything below the first edge
+     */
+    public ChannelStatistics(double[] bandEdges) {
+        this.bandEdges = bandEdges.clone();
+        this.bandMillis = new long[bandEdges.length + 1];
+        reset();
+    }
+
+    public void reset() {
+        count = 0;
+        min = Double.NaN;
+        max = Double.NaN;
+        mean = 0;
+        m2 = 0;
+        lastTimestampMillis = -1;
+        lastValue = Double.NaN;
+        for (int i = 0; i < bandMillis.length; i++) {
+            bandMillis[i] = 0;
+        }
+    }
+
+    public void add(long timestampMillis, double value) {
+        if (Double.isNaN(value)) {
+            lastTimestampMillis = -1;
+            return;
+        }
+
+        // Credit the time since the previous sample to the band that sample was in
+        if (lastTimestampMillis >= 0) {
+            long dt = timestampMillis - lastTimestampMillis;
+            if (dt > 0 && dt <= MAX_SAMPLE_GAP_MILLIS) {
+                bandMillis[bandOf(lastValue)] += dt;
+            }
+        }
+        lastTimestampMillis = timestampMillis;
+        lastValue = value;
+
+        count++;
+        if (count == 1) {
+            min = value;
+            max = value;
+        } else {
+            if (value < min) min = value;
+            if (value > max) max = value;
+        }
+
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    public int bandOf(double value) {
+        int band = 0;
+        while (band < bandEdges.length && value >= bandEdges[band]) {
+            band++;
+        }
+        return band;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double min() {
+        return min;
+    }
+
+    public double max() {
+        return max;
+    }
+
+    public double mean() {
+        return count > 0 ? mean : Double.NaN;
+    }
+
+    /** Sample variance, NaN until two samples have been seen */
+    public double variance() {
+        return count > 1 ? m2 / (count - 1) : Double.NaN;
+    }
+
+    public int bandCount() {
+        return bandMillis.length;
+    }
+
+    public double bandEdge(int index) {
+        return bandEdges[index];
+    }
+
+    public long timeInBandMillis(int band) {
+        return bandMillis[band];
+    }
+
+    public void copyFrom(ChannelStatistics other) {
+        count = other.count;
+        min = other.min;
+        max = other.max;
+        mean = other.mean;
+        m2 = other.m2;
+        lastTimestampMillis = other.lastTimestampMillis;
+        lastValue = other.lastValue;
+        System.arraycopy(other.bandMillis, 0, bandMillis, 0, bandMillis.length);
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(count);
+        out.writeDouble(min);
+        out.writeDouble(max);
+        out.writeDouble(mean);
+        out.writeDouble(m2);
+        out.writeByte(bandMillis.length);
+        for (long millis : bandMillis) {
+            out.writeLong(millis);
+        }
+    }
+
+    void readFrom(DataInput in) throws IOException {
+        reset();
+        count = in.readLong();
+        min = in.readDouble();
+        max = in.readDouble();
+        mean = in.readDouble();
+        m2 = in.readDouble();
+        int bands = in.readUnsignedByte();
+        for (int i = 0; i < bands; i++) {
+            long millis = in.readLong();
+            if (i < bandMillis.length) {
+                bandMillis[i] = millis;
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.gxxr.telemetry;
+
+/**
+ * NTP style offset and drift estimate between the logger clock and the dash clock.
+ *
+ * Each REQ/reply exchange gives t0 (dash send), t1/t2 (logger receive/transmit) and
+ * t3 (dash receive). Samples with the smallest round trip carry the least queueing
+ * error, so only the lowest-delay exchange of each one second bucket is kept, and the
+ * estimate is a least squares line through the good buckets of the last half minute:
+ * offset(t) = offset + drift * (t - reference).
+ *
+ * All times are microseconds; the two clocks may have unrelated epochs.
+ */
+public final class ClockOffsetEstimator {
+
+    private static final int WINDOW = 32;
+    private static final long BUCKET_MICROS = 1_000_000;
+    private static final double DELAY_TOLERANCE_MICROS = 2000;
+    private static final double MIN_FIT_SPAN_MICROS = 2e6;
+    private static final double MAX_DRIFT = 500e-6;
+
+    private final double[] sampleTimes = new double[WINDOW];
+    private final double[] sampleOffsets = new double[WINDOW];
+    private final double[] sampleDelays = new double[WINDOW];
+    private int samples, next = -1;
+    private long bucketStart;
+
+    private boolean hasEstimate = false;
+    private double offset, drift, reference;
+    private double lastDelay, minDelay;
+
+    /**
+     * @param t0 dash clock when the request was sent
+     * @param t1 logger clock when the request arrived
+     * @param t2 logger clock when the reply left
+     * @param t3 dash clock when the reply arrived
+     */
+    public synchronized void addSample(long t0, long t1, long t2, long t3) {
+        double sampleOffset = ((double) (t1 - t0) + (double) (t2 - t3)) / 2;
+        double delay = Math.max(0, (double) (t3 - t0) - (double) (t2 - t1));
+        double midpoint = t0 + (t3 - t0) / 2.0;
+
+        lastDelay = delay;
+
+        if (next < 0 || t0 - bucketStart >= BUCKET_MICROS) {
+            next = (next + 1) % WINDOW;
+            if (samples < WINDOW) {
+                samples++;
+            }
+            bucketStart = t0;
+        } else if (delay >= sampleDelays[next]) {
+            // Current bucket already holds a better exchange
+            return;
+        }
+        sampleTimes[next] = midpoint;
+        sampleOffsets[next] = sampleOffset;
+        sampleDelays[next] = delay;
+        estimate();
+    }
+
+    private void estimate() {
+        minDelay = Double.MAX_VALUE;
+        int best = 0;
+        for (int i = 0; i < samples; i++) {
+            if (sampleDelays[i] < minDelay) {
+                minDelay = sampleDelays[i];
+                best = i;
+            }
+        }
+        double threshold = minDelay + Math.max(DELAY_TOLERANCE_MICROS, minDelay / 2);
+
+        // Least squares over the good samples, centred on their mean time to keep precision
+        int count = 0;
+        double meanTime = 0, meanOffset = 0, earliest = Double.MAX_VALUE, latest = -Double.MAX_VALUE;
+        for (int i = 0; i < samples; i++) {
+            if (sampleDelays[i] <= threshold) {
+                count++;
+                meanTime += sampleTimes[i];
+                meanOffset += sampleOffsets[i];
+                earliest = Math.min(earliest, sampleTimes[i]);
+                latest = Math.max(latest, sampleTimes[i]);
+            }
+        }
+        meanTime /= count;
+        meanOffset /= count;
+
+        if (count >= 3 && latest - earliest >= MIN_FIT_SPAN_MICROS) {
+            double covariance = 0, variance = 0;
+            for (int i = 0; i < samples; i++) {
+                if (sampleDelays[i] <= threshold) {
+                    double dt = sampleTimes[i] - meanTime;
+                    covariance += dt * (sampleOffsets[i] - meanOffset);
+                    variance += dt * dt;
+                }
+            }
+            drift = Math.max(-MAX_DRIFT, Math.min(MAX_DRIFT, covariance / variance));
+            offset = meanOffset;
+            reference = meanTime;
+        } else {
+            // Not enough spread for a slope yet, trust the single best exchange
+            offset = sampleOffsets[best];
+            reference = sampleTimes[best];
+        }
+        hasEstimate = true;
+    }
+
+    public synchronized boolean hasEstimate() {
+        return hasEstimate;
+    }
+
+    /** Logger clock minus dash clock at the given dash time */
+    public synchronized double offsetMicros(long localMicros) {
+        return offset + drift * (localMicros - reference);
+    }
+
+    /** Estimated drift of the logger clock relative to the dash clock, in parts per million */
+    public synchronized double driftPpm() {
+        return drift * 1e6;
+    }
+
+    public synchronized long toLocalMicros(long remoteMicros) {
+        // Solve local = remote - (offset + drift * (local - reference)) for local
+        return Math.round((remoteMicros - offset + drift * reference) / (1 + drift));
+    }
+
+    /** How old a logger timestamp is at dash time {@code localNowMicros}, or -1 without an estimate */
+    public synchronized long ageMicros(long remoteMicros, long localNowMicros) {
+        if (!hasEstimate) {
+            return -1;
+        }
+        return localNowMicros - toLocalMicros(remoteMicros);
+    }
+
+    public synchronized double lastDelayMicros() {
+        return lastDelay;
+    }
+
+    public synchronized double minDelayMicros() {
+        return minDelay;
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.gxxr.telemetry;
+
+/**
+ * Splits the running lap into braking zones and corners as the frames arrive, and
+ * fills a {@link CornerTable} with each one's brake point, apex speed, lean and drive.
+ *
+ * A braking zone starts on a brake lever edge or when the wheel speed decays hard
+ * enough, and ends once both levers are off and the deceleration has gone. A corner
+ * starts on lean or on the GPS heading turning, and ends after both have settled for
+ * a moment. A corner entered while braking, or shortly after, shares the braking
+ * zone's row. Each frame costs the same few comparisons and the tables are sized
+ * up front, so a lap of any length takes constant memory.
+ *
+ * Not thread safe; feed frames from one thread.
+ */
+public final class CornerSegmenter {
+
+    static final int MAX_SEGMENTS_PER_LAP = 64;
+
+    // Below this nothing counts: the lap gestures use the levers while stopped
+    static final double MIN_SPEED_KPH = 20;
+    static final double BRAKING_G_ENTRY = 0.3;
+    static final double BRAKING_G_RELEASE = 0.1;
+    static final long MIN_BRAKING_MILLIS = 300;
+    // A NaN braking g (a gap in the wheel speed) keeps the last reading this long
+    static final long BRAKING_G_HOLD_MILLIS = 200;
+    static final double CORNER_LEAN_ENTRY = 15;
+    static final double CORNER_LEAN_RELEASE = 8;
+    static final double CORNER_HEADING_RATE_ENTRY = 20;   // deg/s
+    static final double CORNER_HEADING_RATE_RELEASE = 10;
+    static final long CORNER_RELEASE_HOLD_MILLIS = 500;
+    static final long MIN_CORNER_MILLIS = 1000;
+    // A corner entered this soon after the brakes came off belongs to that braking zone
+    static final long BRAKE_LINK_MILLIS = 3000;
+    // Longitudinal g that counts as picking the bike up out of the corner
+    static final double DRIVE_G = 0.05;
+    // Fixes closer than this give a noisy bearing (the GPS repeats between updates)
+    private static final double MIN_HEADING_FIX_SPACING_METRES = 5;
+    private static final long MAX_HEADING_AGE_MILLIS = 2000;
+    private static final double METRES_PER_DEGREE = 6_371_000 * Math.PI / 180;
+
+    private CornerTable running = new CornerTable(MAX_SEGMENTS_PER_LAP);
+    private CornerTable completed = new CornerTable(MAX_SEGMENTS_PER_LAP);
+    private boolean lapRunning, hasCompletedLap;
+
+    private boolean braking;
+    private long brakeStartMillis, brakeEndMillis;
+    private int brakeRow, linkableBrakeRow;
+    private double lastBrakingG;
+    private long lastBrakingGMillis;
+
+    private boolean cornering;
+    private long cornerStartMillis, quietSinceMillis;
+    private int cornerRow;
+
+    private boolean hasFix, hasBearing;
+    private double fixLatitude, fixLongitude, bearing;
+    private double headingRate = Double.NaN;
+    private long bearingMillis, headingRateMillis;
+
+    public void beginLap(long timestampMillis) {
+        running.reset(timestampMillis);
+        lapRunning = true;
+        braking = false;
+        cornering = false;
+        brakeRow = -1;
+        linkableBrakeRow = -1;
+        cornerRow = -1;
+        lastBrakingG = Double.NaN;
+    }
+
+    /**
+     * Ends the running lap, closing any open segment. Returns its table, which stays
+     * valid until the next lap completes, or null if no lap was running.
+     */
+    public CornerTable completeLap(long timestampMillis) {
+        if (!lapRunning) {
+            return null;
+        }
+        long lapMillis = timestampMillis - running.lapStartMillis();
+        if (braking) {
+            endBraking(lapMillis);
+        }
+        if (cornering) {
+            endCorner(quietSinceMillis == Long.MIN_VALUE ? lapMillis : quietSinceMillis);
+        }
+        lapRunning = false;
+        CornerTable table = completed;
+        completed = running;
+        running = table;
+        hasCompletedLap = true;
+        return completed;
+    }
+
+    /** Drops the running lap, keeping the last completed one */
+    public void abandonLap() {
+        lapRunning = false;
+    }
+
+    /** The last completed lap's table, or null if none completed yet */
+    public CornerTable lastLap() {
+        return hasCompletedLap ? completed : null;
+    }
+
+    public void reset() {
+        lapRunning = false;
+        hasCompletedLap = false;
+        hasFix = false;
+        hasBearing = false;
+        headingRate = Double.NaN;
+    }
+
+    public void process(TelemetryFrame frame) {
+        long now = frame.timestampMillis;
+        updateHeading(frame, now);
+        if (!lapRunning) {
+            return;
+        }
+        long lapMillis = now - running.lapStartMillis();
+        double speed = frame.values[TelemetryChannels.WHEEL_SPEED];
+        double lean = frame.values[TelemetryChannels.LEAN_ANGLE];
+        double brakingG = frame.values[TelemetryChannels.BRAKING_G];
+        if (!Double.isNaN(brakingG)) {
+            lastBrakingG = brakingG;
+            lastBrakingGMillis = now;
+        } else if (now - lastBrakingGMillis <= BRAKING_G_HOLD_MILLIS) {
+            brakingG = lastBrakingG;
+        }
+        double turnRate = now - headingRateMillis <= MAX_HEADING_AGE_MILLIS ? headingRate : Double.NaN;
+        boolean moving = speed >= MIN_SPEED_KPH;
+        boolean lever = frame.values[TelemetryChannels.FRONT_BRAKE] == TelemetryChannels.BRAKE_APPLIED
+                || frame.values[TelemetryChannels.REAR_BRAKE] == TelemetryChannels.BRAKE_APPLIED;
+
+        if (!braking) {
+            if (moving && (lever || brakingG >= BRAKING_G_ENTRY)) {
+                startBraking(frame, lapMillis, speed, brakingG);
+            }
+        } else if (lever || brakingG >= BRAKING_G_RELEASE) {
+            if (brakeRow >= 0 && brakingG > running.cell(brakeRow, CornerTable.PEAK_BRAKING_G)) {
+                running.set(brakeRow, CornerTable.PEAK_BRAKING_G, brakingG);
+            }
+        } else {
+            endBraking(lapMillis);
+        }
+
+        if (!cornering) {
+            if (moving && (Math.abs(lean) >= CORNER_LEAN_ENTRY || Math.abs(turnRate) >= CORNER_HEADING_RATE_ENTRY)) {
+                startCorner(lapMillis, speed, lean);
+            }
+            return;
+        }
+        boolean quiet = !moving
+                || !(Math.abs(lean) >= CORNER_LEAN_RELEASE || Math.abs(turnRate) >= CORNER_HEADING_RATE_RELEASE);
+        if (!quiet) {
+            quietSinceMillis = Long.MIN_VALUE;
+        } else if (quietSinceMillis == Long.MIN_VALUE) {
+            quietSinceMillis = lapMillis;
+        } else if (lapMillis - quietSinceMillis >= CORNER_RELEASE_HOLD_MILLIS) {
+            endCorner(quietSinceMillis);
+            return;
+        }
+        if (cornerRow >= 0) {
+            updateCorner(lapMillis, speed, lean, frame.values[TelemetryChannels.LONGITUDINAL_G]);
+        }
+    }
+
+    private void startBraking(TelemetryFrame frame, long lapMillis, double speed, double brakingG) {
+        braking = true;
+        brakeStartMillis = lapMillis;
+        if (cornering && cornerRow >= 0 && Double.isNaN(running.cell(cornerRow, CornerTable.BRAKE_START))) {
+            // Braking only once already leaned over, still this corner's braking
+            brakeRow = cornerRow;
+        } else if (cornering) {
+            // A second application in the same corner adds nothing to the table
+            brakeRow = -1;
+            return;
+        } else {
+            brakeRow = running.addRow();
+            if (brakeRow < 0) {
+                return;
+            }
+        }
+        running.set(brakeRow, CornerTable.BRAKE_START, lapMillis);
+        running.set(brakeRow, CornerTable.BRAKE_SPEED, speed);
+        if (frame.values[TelemetryChannels.GPS_FIX] == 1) {
+            running.set(brakeRow, CornerTable.BRAKE_LATITUDE, frame.values[TelemetryChannels.GPS_LATITUDE]);
+            running.set(brakeRow, CornerTable.BRAKE_LONGITUDE, frame.values[TelemetryChannels.GPS_LONGITUDE]);
+        }
+        running.set(brakeRow, CornerTable.PEAK_BRAKING_G, Double.isNaN(brakingG) ? 0 : brakingG);
+    }
+
+    private void endBraking(long lapMillis) {
+        braking = false;
+        if (brakeRow < 0) {
+            return;
+        }
+        if (lapMillis - brakeStartMillis < MIN_BRAKING_MILLIS) {
+            // A dab of the lever, not a braking zone
+            if (Double.isNaN(running.cell(brakeRow, CornerTable.CORNER_ENTRY)) && brakeRow == running.rows() - 1) {
+                running.removeLastRow();
+            } else {
+                clear(brakeRow, CornerTable.BRAKE_START, CornerTable.PEAK_BRAKING_G);
+            }
+        } else {
+            running.set(brakeRow, CornerTable.BRAKE_DURATION, lapMillis - brakeStartMillis);
+            if (brakeRow != cornerRow && Double.isNaN(running.cell(brakeRow, CornerTable.CORNER_ENTRY))) {
+                linkableBrakeRow = brakeRow;
+                brakeEndMillis = lapMillis;
+            }
+        }
+        brakeRow = -1;
+    }
+
+    private void startCorner(long lapMillis, double speed, double lean) {
+        cornering = true;
+        cornerStartMillis = lapMillis;
+        quietSinceMillis = Long.MIN_VALUE;
+        if (braking) {
+            // Shares the braking zone's row, or has none if the table filled up
+            cornerRow = brakeRow;
+        } else if (linkableBrakeRow >= 0 && lapMillis - brakeEndMillis <= BRAKE_LINK_MILLIS) {
+            cornerRow = linkableBrakeRow;
+        } else {
+            cornerRow = running.addRow();
+        }
+        linkableBrakeRow = -1;
+        if (cornerRow < 0) {
+            return;
+        }
+        running.set(cornerRow, CornerTable.CORNER_ENTRY, lapMillis);
+        running.set(cornerRow, CornerTable.APEX, lapMillis);
+        running.set(cornerRow, CornerTable.MIN_SPEED, speed);
+        running.set(cornerRow, CornerTable.MAX_LEAN, lean);
+    }
+
+    private void updateCorner(long lapMillis, double speed, double lean, double longitudinalG) {
+        if (speed < running.cell(cornerRow, CornerTable.MIN_SPEED)) {
+            running.set(cornerRow, CornerTable.MIN_SPEED, speed);
+            running.set(cornerRow, CornerTable.APEX, lapMillis);
+            // Still slowing, any pickup seen so far was not the drive out
+            running.set(cornerRow, CornerTable.DRIVE, Double.NaN);
+        } else if (longitudinalG >= DRIVE_G && Double.isNaN(running.cell(cornerRow, CornerTable.DRIVE))) {
+            running.set(cornerRow, CornerTable.DRIVE, lapMillis);
+        }
+        double maxLean = running.cell(cornerRow, CornerTable.MAX_LEAN);
+        if (Math.abs(lean) > Math.abs(maxLean) || Double.isNaN(maxLean)) {
+            running.set(cornerRow, CornerTable.MAX_LEAN, lean);
+        }
+    }
+
+    private void endCorner(long exitMillis) {
+        cornering = false;
+        if (cornerRow < 0) {
+            return;
+        }
+        if (exitMillis - cornerStartMillis < MIN_CORNER_MILLIS) {
+            // A flick or a wobble on the straight
+            if (Double.isNaN(running.cell(cornerRow, CornerTable.BRAKE_START)) && cornerRow == running.rows() - 1) {
+                running.removeLastRow();
+            } else {
+                clear(cornerRow, CornerTable.CORNER_ENTRY, CornerTable.CORNER_EXIT);
+            }
+        } else {
+            running.set(cornerRow, CornerTable.CORNER_EXIT, exitMillis);
+        }
+        cornerRow = -1;
+    }
+
+    private void clear(int row, int firstColumn, int lastColumn) {
+        for (int column = firstColumn; column <= lastColumn; column++) {
+            running.set(row, column, Double.NaN);
+        }
+    }
+
+    /** Heading rate from bearings between spaced-out GPS fixes, positive turning left */
+    private void updateHeading(TelemetryFrame frame, long now) {
+        double latitude = frame.values[TelemetryChannels.GPS_LATITUDE];
+        double longitude = frame.values[TelemetryChannels.GPS_LONGITUDE];
+        if (frame.values[TelemetryChannels.GPS_FIX] != 1 || Double.isNaN(latitude) || Double.isNaN(longitude)) {
+            return;
+        }
+        if (!hasFix) {
+            fixLatitude = latitude;
+            fixLongitude = longitude;
+            hasFix = true;
+            return;
+        }
+        double dy = (latitude - fixLatitude) * METRES_PER_DEGREE;
+        double dx = (longitude - fixLongitude) * METRES_PER_DEGREE * Math.cos(Math.toRadians(latitude));
+        if (Math.hypot(dx, dy) < MIN_HEADING_FIX_SPACING_METRES) {
+            return;
+        }
+        fixLatitude = latitude;
+        fixLongitude = longitude;
+        // Compass bearing, clockwise from north
+        double next = Math.toDegrees(Math.atan2(dx, dy));
+        if (hasBearing && now > bearingMillis) {
+            double change = next - bearing;
+            change -= 360 * Math.rint(change / 360);
+            headingRate = -change * 1000 / (now - bearingMillis);
+            headingRateMillis = now;
+        }
+        bearing = next;
+        bearingMillis = now;
+        hasBearing = true;
+    }
+}
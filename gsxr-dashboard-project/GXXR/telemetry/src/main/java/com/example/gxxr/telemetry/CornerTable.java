@@ -0,0 +1,148 @@
+package com.example.gxxr.telemetry;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * One lap's corners and braking zones, a row each, in the order they were ridden.
+ * A braking zone that leads into a corner shares its row; a braking zone with no
+ * corner after it, or a corner taken without braking, leaves the other columns NaN.
+ * Times are ms since the lap started. Fixed capacity, filled by {@link CornerSegmenter}.
+ */
+public final class CornerTable {
+
+    public static final int BRAKE_START = 0;
+    public static final int BRAKE_DURATION = 1;
+    public static final int BRAKE_SPEED = 2;          // km/h at the brake point
+    public static final int BRAKE_LATITUDE = 3;
+    public static final int BRAKE_LONGITUDE = 4;
+    public static final int PEAK_BRAKING_G = 5;
+    public static final int CORNER_ENTRY = 6;
+    public static final int APEX = 7;                 // where the speed bottomed out
+    public static final int MIN_SPEED = 8;
+    public static final int MAX_LEAN = 9;             // degrees, positive left
+    public static final int DRIVE = 10;               // first pickup of speed after the apex
+    public static final int CORNER_EXIT = 11;
+
+    public static final int COLUMNS = 12;
+
+    private static final String[] NAMES = {
+            "brake_start_ms",
+            "brake_duration_ms",
+            "brake_speed_kmh",
+            "brake_lat",
+            "brake_lon",
+            "peak_braking_g",
+            "corner_entry_ms",
+            "apex_ms",
+            "min_speed_kmh",
+            "max_lean_deg",
+            "drive_ms",
+            "corner_exit_ms",
+    };
+
+    private final double[] cells;
+    private final int capacity;
+    private int rows;
+    private int droppedRows;
+    private long lapStartMillis;
+
+    public CornerTable(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        cells = new double[capacity * COLUMNS];
+    }
+
+    public static String columnName(int column) {
+        return NAMES[column];
+    }
+
+    public void reset(long lapStartMillis) {
+        this.lapStartMillis = lapStartMillis;
+        rows = 0;
+        droppedRows = 0;
+    }
+
+    public long lapStartMillis() {
+        return lapStartMillis;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    /** Braking zones and corners that did not fit, counted apart since they could not be paired */
+    public int droppedRows() {
+        return droppedRows;
+    }
+
+    public double get(int row, int column) {
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + rows);
+        }
+        return cells[row * COLUMNS + column];
+    }
+
+    /** Adds an all-NaN row, returning its index or -1 if the table is full */
+    int addRow() {
+        if (rows == capacity) {
+            droppedRows++;
+            return -1;
+        }
+        Arrays.fill(cells, rows * COLUMNS, (rows + 1) * COLUMNS, Double.NaN);
+        return rows++;
+    }
+
+    /** Drops the last row, e.g. a segment that turned out too short to count */
+    void removeLastRow() {
+        rows--;
+    }
+
+    void set(int row, int column, double value) {
+        cells[row * COLUMNS + column] = value;
+    }
+
+    double cell(int row, int column) {
+        return cells[row * COLUMNS + column];
+    }
+
+    public void copyFrom(CornerTable other) {
+        if (other.rows > capacity) {
+            throw new IllegalArgumentException("Table holds " + other.rows + " rows, capacity is " + capacity);
+        }
+        System.arraycopy(other.cells, 0, cells, 0, other.rows * COLUMNS);
+        rows = other.rows;
+        droppedRows = other.droppedRows;
+        lapStartMillis = other.lapStartMillis;
+    }
+
+    /** Writes the table as CSV with a header line, empty cells for NaN */
+    public void writeCsv(Appendable out) throws IOException {
+        for (int column = 0; column < COLUMNS; column++) {
+            out.append(column == 0 ? "" : ",").append(NAMES[column]);
+        }
+        out.append('\n');
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < COLUMNS; column++) {
+                if (column > 0) {
+                    out.append(',');
+                }
+                double value = cells[row * COLUMNS + column];
+                if (Double.isNaN(value)) {
+                    continue;
+                }
+                if (column == BRAKE_LATITUDE || column == BRAKE_LONGITUDE) {
+                    out.append(String.format(Locale.ROOT, "%.6f", value));
+                } else if (value == Math.rint(value)) {
+                    out.append(Long.toString((long) value));
+                } else {
+                    out.append(String.format(Locale.ROOT, "%.2f", value));
+                }
+            }
+            out.append('\n');
+        }
+    }
+}
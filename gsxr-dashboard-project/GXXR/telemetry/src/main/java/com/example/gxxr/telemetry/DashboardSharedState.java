@@ -0,0 +1,138 @@
+package com.example.gxxr.telemetry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The dashboard state that crosses threads: the receiver and timer workers read and
+ * write it alongside the main thread. Each piece is one volatile or atomic word, so
+ * every protocol here is lock-free and its guarantees follow from the memory model
+ * alone; the stress module checks them under contention.
+ *
+ * <ul>
+ *   <li>Streaming flag: a plain volatile, written on the main thread.</li>
+ *   <li>Lap timer: armed-ness and start point in one word, so a reader can never see
+ *       the timer armed with the previous lap's (or no) start point.</li>
+ *   <li>Link faults: a bit per fault, raised and cleared with compare-and-set so
+ *       concurrent updates to different bits are never lost.</li>
+ *   <li>Frame handoff: a single slot the receiver overwrites and the main thread
+ *       empties. Only the offer that fills an empty slot has to wake the consumer,
+ *       so a lagging UI draws the newest frame once instead of a queue of old ones.</li>
+ * </ul>
+ */
+public final class DashboardSharedState {
+
+    public static final int FAULT_LOGGER_SILENT = 0;
+    public static final int FAULT_STALE_FRAMES = 1;
+
+    private static final long DISARMED = Long.MIN_VALUE;
+
+    /** A received frame waiting for the main thread */
+    public static final class PendingFrame {
+        public final String json;
+        public final int ageMillis;     // -1 until the clock offset is known
+
+        public PendingFrame(String json, int ageMillis) {
+            this.json = json;
+            this.ageMillis = ageMillis;
+        }
+    }
+
+    private volatile boolean streaming;
+    private volatile long lapStartPoint = DISARMED;
+    private final AtomicInteger faults = new AtomicInteger();
+    private final AtomicReference<PendingFrame> pendingFrame = new AtomicReference<>();
+    private final AtomicLong supersededFrames = new AtomicLong();
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /** Arms the lap timer from {@code startPoint} (elapsed realtime, ms) */
+    public void armLap(long startPoint) {
+        if (startPoint == DISARMED) {
+            throw new IllegalArgumentException("Start point out of range");
+        }
+        lapStartPoint = startPoint;
+    }
+
+    public void disarmLap() {
+        lapStartPoint = DISARMED;
+    }
+
+    public boolean isLapArmed() {
+        return lapStartPoint != DISARMED;
+    }
+
+    /** Start point of the armed lap, 0 if disarmed */
+    public long lapStartPoint() {
+        long startPoint = lapStartPoint;
+        return startPoint == DISARMED ? 0 : startPoint;
+    }
+
+    /** Time on the armed lap at {@code nowMillis}, -1 if disarmed */
+    public long lapElapsed(long nowMillis) {
+        long startPoint = lapStartPoint;
+        return startPoint == DISARMED ? -1 : nowMillis - startPoint;
+    }
+
+    /** Returns true if the fault was not raised before */
+    public boolean raiseFault(int fault) {
+        int bit = 1 << fault;
+        while (true) {
+            int current = faults.get();
+            if ((current & bit) != 0) {
+                return false;
+            }
+            if (faults.compareAndSet(current, current | bit)) {
+                return true;
+            }
+        }
+    }
+
+    /** Returns true if the fault was raised */
+    public boolean clearFault(int fault) {
+        int bit = 1 << fault;
+        while (true) {
+            int current = faults.get();
+            if ((current & bit) == 0) {
+                return false;
+            }
+            if (faults.compareAndSet(current, current & ~bit)) {
+                return true;
+            }
+        }
+    }
+
+    /** Raised faults, bit {@code 1 << fault} each */
+    public int faults() {
+        return faults.get();
+    }
+
+    /**
+     * Receiver side; makes {@code frame} the next one to draw, replacing one not yet
+     * taken. Returns true if the slot was empty, i.e. the consumer must be woken.
+     */
+    public boolean offerFrame(PendingFrame frame) {
+        if (pendingFrame.getAndSet(frame) == null) {
+            return true;
+        }
+        supersededFrames.incrementAndGet();
+        return false;
+    }
+
+    /** Consumer side; the newest frame offered since the last take, or null */
+    public PendingFrame takeFrame() {
+        return pendingFrame.getAndSet(null);
+    }
+
+    /** Frames replaced before the consumer took them */
+    public long supersededFrames() {
+        return supersededFrames.get();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.gxxr.telemetry;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Dashboard state worth keeping across a pause, restart or crash: whether the dash
+ * was up, max lean, lap mode/timer state and the session statistics. Times are wall
+ * clock so a lap in progress keeps running across a process restart.
+ */
+public final class DashboardSnapshot {
+
+    private static final int MAGIC = 0x47535844; // "GSXD"
+    private static final int VERSION = 2;
+
+    public long savedAtMillis;
+    public boolean isDashboardActive;
+    public int maxLeftLeanAngle, maxRightLeanAngle;
+    public boolean isLapModeEnabled, isLapTimerArmed;
+    public long lapStartMillis;
+    public byte[] sessionStatistics = new byte[0];
+
+    public byte[] toByteArray() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + sessionStatistics.length);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(savedAtMillis);
+            out.writeBoolean(isDashboardActive);
+            out.writeShort(maxLeftLeanAngle);
+            out.writeShort(maxRightLeanAngle);
+            out.writeBoolean(isLapModeEnabled);
+            out.writeBoolean(isLapTimerArmed);
+            out.writeLong(lapStartMillis);
+            out.writeInt(sessionStatistics.length);
+            out.write(sessionStatistics);
+            out.flush();
+        } catch (IOException e) {
+            // ByteArrayOutputStream does not throw
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static DashboardSnapshot fromByteArray(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a dashboard snapshot");
+        }
+        DashboardSnapshot snapshot = new DashboardSnapshot();
+        snapshot.savedAtMillis = in.readLong();
+        snapshot.isDashboardActive = in.readBoolean();
+        snapshot.maxLeftLeanAngle = in.readShort();
+        snapshot.maxRightLeanAngle = in.readShort();
+        snapshot.isLapModeEnabled = in.readBoolean();
+        snapshot.isLapTimerArmed = in.readBoolean();
+        snapshot.lapStartMillis = in.readLong();
+        snapshot.sessionStatistics = new byte[in.readInt()];
+        in.readFully(snapshot.sessionStatistics);
+        return snapshot;
+    }
+
+    /** Atomic replace, see {@link AtomicFileWriter#write} */
+    public void write(File file) throws IOException {
+        AtomicFileWriter.write(file, toByteArray());
+    }
+
+    public static DashboardSnapshot read(File file) throws IOException {
+        byte[] data = new byte[(int) file.length()];
+        DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            in.readFully(data);
+        } finally {
+            in.close();
+        }
+        return fromByteArray(data);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.gxxr.telemetry;
+
+/**
+ * Rate of change per second over the last {@code window} samples, taken as the
+ * slope between the oldest and newest sample so the cost is constant per frame.
+ */
+public final class DerivativeFilter {
+
+    private final DoubleRingBuffer history;
+
+    public DerivativeFilter(int window) {
+        if (window < 2) {
+            throw new IllegalArgumentException("A derivative needs at least two samples");
+        }
+        history = new DoubleRingBuffer(window);
+    }
+
+    public void reset() {
+        history.clear();
+    }
+
+    /** Returns NaN until there are two samples with distinct timestamps */
+    public double update(long timestampMillis, double value) {
+        if (history.size() > 0 && timestampMillis <= history.timestamp(history.size() - 1)) {
+            // Duplicate or out of order frame, no time has passed
+            return Double.NaN;
+        }
+        history.add(timestampMillis, value);
+        if (history.size() < 2) {
+            return Double.NaN;
+        }
+        long elapsed = timestampMillis - history.timestamp(0);
+        return (value - history.value(0)) * 1000 / elapsed;
+    }
+}
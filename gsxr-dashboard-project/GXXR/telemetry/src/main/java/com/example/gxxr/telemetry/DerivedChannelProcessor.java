@@ -0,0 +1,92 @@
+package com.example.gxxr.telemetry;
+
+/**
+ * Computes the derived channels from the raw ones in a frame, in place.
+ *
+ * Each derived channel has its own fixed-size filters, so a frame costs the same
+ * handful of operations however long the session runs. A derived channel is NaN
+ * whenever its raw input is missing from the frame.
+ */
+public final class DerivedChannelProcessor {
+
+    private static final int SONAR_MEDIAN_WINDOW = 5;
+    private static final int VELOCITY_WINDOW = 3;
+    private static final double VELOCITY_SMOOTHING_MILLIS = 40;
+    private static final int ACCELERATION_WINDOW = 5;
+    private static final double ACCELERATION_SMOOTHING_MILLIS = 100;
+    private static final double DISK_TEMP_SMOOTHING_MILLIS = 250;
+    private static final int HEATING_RATE_WINDOW = 25;
+
+    private static final double STANDARD_GRAVITY = 9.80665;
+    private static final double KPH_TO_MPS = 1 / 3.6;
+
+    private final Suspension front = new Suspension();
+    private final Suspension rear = new Suspension();
+    private final DerivativeFilter speedDerivative = new DerivativeFilter(ACCELERATION_WINDOW);
+    private final EmaFilter accelerationSmoothing = new EmaFilter(ACCELERATION_SMOOTHING_MILLIS);
+    private final EmaFilter diskTempSmoothing = new EmaFilter(DISK_TEMP_SMOOTHING_MILLIS);
+    private final DerivativeFilter diskTempDerivative = new DerivativeFilter(HEATING_RATE_WINDOW);
+
+    public void reset() {
+        front.reset();
+        rear.reset();
+        speedDerivative.reset();
+        accelerationSmoothing.reset();
+        diskTempSmoothing.reset();
+        diskTempDerivative.reset();
+    }
+
+    public void process(TelemetryFrame frame) {
+        long now = frame.timestampMillis;
+
+        front.process(frame, now, TelemetryChannels.FRONT_SUSPENSION,
+                TelemetryChannels.FRONT_SUSPENSION_TRAVEL, TelemetryChannels.FRONT_SUSPENSION_VELOCITY);
+        rear.process(frame, now, TelemetryChannels.REAR_SUSPENSION,
+                TelemetryChannels.REAR_SUSPENSION_TRAVEL, TelemetryChannels.REAR_SUSPENSION_VELOCITY);
+
+        double speed = frame.get(TelemetryChannels.WHEEL_SPEED);
+        double longitudinalG = Double.NaN;
+        if (!Double.isNaN(speed)) {
+            double acceleration = speedDerivative.update(now, speed * KPH_TO_MPS);
+            if (!Double.isNaN(acceleration)) {
+                longitudinalG = accelerationSmoothing.update(now, acceleration / STANDARD_GRAVITY);
+            }
+        }
+        frame.set(TelemetryChannels.LONGITUDINAL_G, longitudinalG);
+        frame.set(TelemetryChannels.BRAKING_G, Double.isNaN(longitudinalG) ? Double.NaN : Math.max(0, -longitudinalG));
+
+        double diskTemp = frame.get(TelemetryChannels.FRONT_BRAKE_DISK_TEMP);
+        double heatingRate = Double.NaN;
+        if (!Double.isNaN(diskTemp)) {
+            // The thermocouple is noisy, smooth before differentiating
+            heatingRate = diskTempDerivative.update(now, diskTempSmoothing.update(now, diskTemp));
+        }
+        frame.set(TelemetryChannels.BRAKE_DISK_HEATING_RATE, heatingRate);
+    }
+
+    private static final class Suspension {
+
+        private final MedianFilter spikeRejection = new MedianFilter(SONAR_MEDIAN_WINDOW);
+        private final DerivativeFilter velocity = new DerivativeFilter(VELOCITY_WINDOW);
+        private final EmaFilter velocitySmoothing = new EmaFilter(VELOCITY_SMOOTHING_MILLIS);
+
+        void reset() {
+            spikeRejection.reset();
+            velocity.reset();
+            velocitySmoothing.reset();
+        }
+
+        void process(TelemetryFrame frame, long now, int rawChannel, int travelChannel, int velocityChannel) {
+            double raw = frame.get(rawChannel);
+            if (Double.isNaN(raw)) {
+                frame.set(travelChannel, Double.NaN);
+                frame.set(velocityChannel, Double.NaN);
+                return;
+            }
+            double travel = spikeRejection.update(now, raw);
+            double rate = velocity.update(now, travel);
+            frame.set(travelChannel, travel);
+            frame.set(velocityChannel, Double.isNaN(rate) ? Double.NaN : velocitySmoothing.update(now, rate));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.gxxr.telemetry;
+
+/**
+ * Fixed-capacity ring of timestamped doubles. Adding past capacity overwrites the
+ * oldest sample; nothing is allocated after construction.
+ */
+public final class DoubleRingBuffer {
+
+    private final double[] values;
+    private final long[] timestamps;
+    private int size, head;
+
+    public DoubleRingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        values = new double[capacity];
+        timestamps = new long[capacity];
+    }
+
+    public void clear() {
+        size = 0;
+        head = 0;
+    }
+
+    /** Adds a sample and returns the one it evicted, or NaN if the ring was not full */
+    public double add(long timestampMillis, double value) {
+        double evicted = size == values.length ? values[head] : Double.NaN;
+        values[head] = value;
+        timestamps[head] = timestampMillis;
+        head = (head + 1) % values.length;
+        if (size < values.length) {
+            size++;
+        }
+        return evicted;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return values.length;
+    }
+
+    public boolean isFull() {
+        return size == values.length;
+    }
+
+    /** 0 is the oldest sample, size() - 1 the newest */
+    public double value(int index) {
+        return values[slot(index)];
+    }
+
+    public long timestamp(int index) {
+        return timestamps[slot(index)];
+    }
+
+    public double newest() {
+        return value(size - 1);
+    }
+
+    private int slot(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+        return (head - size + index + values.length) % values.length;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.gxxr.telemetry;
+
+/**
+ * Exponential moving average with a time constant rather than a fixed alpha, so the
+ * smoothing stays the same when frames arrive irregularly.
+ */
+public final class EmaFilter {
+
+    private final double timeConstantMillis;
+    private double value = Double.NaN;
+    private long lastTimestamp;
+
+    public EmaFilter(double timeConstantMillis) {
+        this.timeConstantMillis = timeConstantMillis;
+    }
+
+    public void reset() {
+        value = Double.NaN;
+    }
+
+    public double update(long timestampMillis, double sample) {
+        if (Double.isNaN(value)) {
+            value = sample;
+        } else {
+            long elapsed = timestampMillis - lastTimestamp;
+            if (elapsed > 0) {
+                double alpha = 1 - Math.exp(-elapsed / timeConstantMillis);
+                value += alpha * (sample - value);
+            }
+        }
+        lastTimestamp = timestampMillis;
+        return value;
+    }
+
+    public double value() {
+        return value;
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.gxxr.telemetry;
+
+/**
+ * Minimal JSON reader for logger frames. Nested objects and arrays are flattened
+ * with the same "_" joined keys gsxr_logger_v5.py produces, so raw per-node packets
+ * and already flattened frames come out identical.
+ *
+ * Only numeric values are reported; booleans become 0/1 and strings or nulls are
+ * skipped. Python's NaN/Infinity literals are accepted since json.dumps emits them.
+ */
+public final class FlatFrameParser {
+
+    public interface FieldVisitor {
+        void onField(String key, double value);
+    }
+
+    private final StringBuilder keyBuilder = new StringBuilder(64);
+    private CharSequence text;
+    private int position;
+
+    /** @throws IllegalArgumentException if the text is not a JSON object */
+    public void parse(CharSequence json, FieldVisitor visitor) {
+        text = json;
+        position = 0;
+        keyBuilder.setLength(0);
+        skipWhitespace();
+        if (peek() != '{') {
+            throw error("Expected '{'");
+        }
+        parseValue(visitor);
+        skipWhitespace();
+        if (position != text.length()) {
+            throw error("Trailing characters");
+        }
+        text = null;
+    }
+
+    /**
+     * Looks up a single numeric field without parsing the whole frame, for the
+     * receive path where only a couple of keys are needed. Returns NaN if absent.
+     */
+    public static double findNumber(String json, String key) {
+        String quoted = "\"" + key + "\"";
+        int index = json.indexOf(quoted);
+        if (index < 0) {
+            return Double.NaN;
+        }
+        int position = index + quoted.length();
+        while (position < json.length() && (Character.isWhitespace(json.charAt(position)) || json.charAt(position) == ':')) {
+            position++;
+        }
+        int start = position;
+        while (position < json.length() && "+-.eE0123456789".indexOf(json.charAt(position)) >= 0) {
+            position++;
+        }
+        try {
+            return Double.parseDouble(json.substring(start, position));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private void parseValue(FieldVisitor visitor) {
+        skipWhitespace();
+        char c = peek();
+        int prefixLength = keyBuilder.length();
+
+        if (c == '{') {
+            position++;
+            skipWhitespace();
+            if (peek() == '}') {
+                position++;
+                return;
+            }
+            while (true) {
+                skipWhitespace();
+                if (prefixLength > 0) {
+                    keyBuilder.append('_');
+                }
+                readString(keyBuilder);
+                skipWhitespace();
+                expect(':');
+                parseValue(visitor);
+                keyBuilder.setLength(prefixLength);
+                skipWhitespace();
+                if (peek() == ',') {
+                    position++;
+                } else {
+                    expect('}');
+                    return;
+                }
+            }
+        } else if (c == '[') {
+            position++;
+            skipWhitespace();
+            if (peek() == ']') {
+                position++;
+                return;
+            }
+            int index = 0;
+            while (true) {
+                if (prefixLength > 0) {
+                    keyBuilder.append('_');
+                }
+                keyBuilder.append(index++);
+                parseValue(visitor);
+                keyBuilder.setLength(prefixLength);
+                skipWhitespace();
+                if (peek() == ',') {
+                    position++;
+                } else {
+                    expect(']');
+                    return;
+                }
+            }
+        } else if (c == '"') {
+            readString(null);
+        } else if (startsWith("true")) {
+            position += 4;
+            visitor.onField(keyBuilder.toString(), 1);
+        } else if (startsWith("false")) {
+            position += 5;
+            visitor.onField(keyBuilder.toString(), 0);
+        } else if (startsWith("null")) {
+            position += 4;
+        } else if (startsWith("NaN")) {
+            position += 3;
+            visitor.onField(keyBuilder.toString(), Double.NaN);
+        } else if (startsWith("Infinity")) {
+            position += 8;
+            visitor.onField(keyBuilder.toString(), Double.POSITIVE_INFINITY);
+        } else if (startsWith("-Infinity")) {
+            position += 9;
+            visitor.onField(keyBuilder.toString(), Double.NEGATIVE_INFINITY);
+        } else {
+            visitor.onField(keyBuilder.toString(), readNumber());
+        }
+    }
+
+    private double readNumber() {
+        int start = position;
+        boolean isIntegral = true;
+        while (position < text.length()) {
+            char c = text.charAt(position);
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+') {
+                position++;
+            } else if (c == '.' || c == 'e' || c == 'E') {
+                isIntegral = false;
+                position++;
+            } else {
+                break;
+            }
+        }
+        if (start == position) {
+            throw error("Unexpected character");
+        }
+
+        // Most channels are small integers, skip the string allocation for those
+        if (isIntegral && position - start <= 15) {
+            long value = 0;
+            boolean isNegative = text.charAt(start) == '-';
+            for (int i = isNegative ? start + 1 : start; i < position; i++) {
+                char c = text.charAt(i);
+                if (c < '0' || c > '9') {
+                    throw error("Malformed number");
+                }
+                value = value * 10 + (c - '0');
+            }
+            return isNegative ? -value : value;
+        }
+        try {
+            return Double.parseDouble(text.subSequence(start, position).toString());
+        } catch (NumberFormatException e) {
+            throw error("Malformed number");
+        }
+    }
+
+    /** Reads a quoted string, appending the unescaped contents to {@code out} when it is not null */
+    private void readString(StringBuilder out) {
+        expect('"');
+        while (position < text.length()) {
+            char c = text.charAt(position++);
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                if (position >= text.length()) {
+                    break;
+                }
+                char escaped = text.charAt(position++);
+                switch (escaped) {
+                    case 'n': c = '\n'; break;
+                    case 't': c = '\t'; break;
+                    case 'r': c = '\r'; break;
+                    case 'b': c = '\b'; break;
+                    case 'f': c = '\f'; break;
+                    case 'u':
+                        if (position + 4 > text.length()) {
+                            throw error("Truncated escape");
+                        }
+                        c = (char) Integer.parseInt(text.subSequence(position, position + 4).toString(), 16);
+                        position += 4;
+                        break;
+                    default: c = escaped; break;
+                }
+            }
+            if (out != null) {
+                out.append(c);
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private boolean startsWith(String literal) {
+        int length = literal.length();
+        if (position + length > text.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(position + i) != literal.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void expect(char c) {
+        if (peek() != c) {
+            throw error("Expected '" + c + "'");
+        }
+        position++;
+    }
+
+    private char peek() {
+        return position < text.length() ? text.charAt(position) : '\0';
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at offset " + position);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.gxxr.telemetry;
+
+/**
+ * Works out how old each logger frame is on the dash clock.
+ *
+ * Requests go out as "REQ &lt;t0&gt;"; a logger that understands it echoes t0 together
+ * with its own receive/transmit times, which feeds the {@link ClockOffsetEstimator}.
+ * An older logger that only sends frame_ts still gets a coarser offset by
+ * treating frame_ts as both logger times, which hides any queueing on the logger.
+ * Frames older than the budget are stale.
+ *
+ * Requests name the {@link FrameSubscription} projection when one is set.
+ *
+ * The logger builds frames on a 50 Hz grid and the dash polls far faster, so most
+ * replies repeat the frame before; {@link #isRepeat} picks those out by frame_idx.
+ */
+public final class FrameAgeTracker {
+
+    public static final String REQUEST_ECHO_KEY = "req_t0";
+    public static final String SERVER_RECEIVE_KEY = "srv_rx_ts";
+    public static final String SERVER_TRANSMIT_KEY = "srv_tx_ts";
+    public static final String FRAME_INDEX_KEY = "frame_idx";
+
+    private final ClockOffsetEstimator estimator;
+    private final long maxAgeMicros;
+    private long requestMicros = Long.MIN_VALUE;
+    private long staleFrames, repeatedFrames;
+    private double lastFrameIndex = Double.NaN;
+    private String projectionSuffix = "";
+
+    public FrameAgeTracker(ClockOffsetEstimator estimator, long maxAgeMicros) {
+        this.estimator = estimator;
+        this.maxAgeMicros = maxAgeMicros;
+    }
+
+    /** Builds the request to send at dash time {@code localMicros} */
+    public String request(long localMicros) {
+        return request(localMicros, false);
+    }
+
+    /** As {@link #request(long)}, but for the whole frame whatever the projection if {@code fullFrame} */
+    public String request(long localMicros, boolean fullFrame) {
+        requestMicros = localMicros;
+        return "REQ " + localMicros + (fullFrame ? "" : projectionSuffix);
+    }
+
+    /** Asks for frames projected by the subscription with {@code id}, or full frames if null */
+    public void setProjection(String id) {
+        projectionSuffix = id == null ? "" : " P" + id;
+    }
+
+    /** True while replies to {@link #request} carry only the projection's keys */
+    public boolean isProjecting() {
+        return !projectionSuffix.isEmpty();
+    }
+
+    /**
+     * Handles the reply to the last {@link #request}, received at dash time
+     * {@code localMicros}. Returns the frame age in microseconds, or -1 if unknown.
+     */
+    public long onReply(String json, long localMicros) {
+        double frameSeconds = FlatFrameParser.findNumber(json, TelemetryArchiveImporter.TIMESTAMP_KEY);
+        if (Double.isNaN(frameSeconds)) {
+            return -1;
+        }
+        long frameMicros = Math.round(frameSeconds * 1e6);
+
+        double echo = FlatFrameParser.findNumber(json, REQUEST_ECHO_KEY);
+        double receiveSeconds = FlatFrameParser.findNumber(json, SERVER_RECEIVE_KEY);
+        double transmitSeconds = FlatFrameParser.findNumber(json, SERVER_TRANSMIT_KEY);
+        if (!Double.isNaN(echo) && !Double.isNaN(receiveSeconds) && !Double.isNaN(transmitSeconds)) {
+            // Ignore late replies to an earlier request
+            if ((long) echo == requestMicros) {
+                estimator.addSample(requestMicros, Math.round(receiveSeconds * 1e6),
+                        Math.round(transmitSeconds * 1e6), localMicros);
+            }
+        } else if (requestMicros != Long.MIN_VALUE) {
+            estimator.addSample(requestMicros, frameMicros, frameMicros, localMicros);
+        }
+
+        if (!estimator.hasEstimate()) {
+            return -1;
+        }
+        // Estimation error can put a fresh frame marginally in the future
+        return Math.max(0, estimator.ageMicros(frameMicros, localMicros));
+    }
+
+    /** True (and counted) if the frame is older than the budget */
+    public boolean isStale(long ageMicros) {
+        if (ageMicros > maxAgeMicros) {
+            staleFrames++;
+            return true;
+        }
+        return false;
+    }
+
+    public long staleFrames() {
+        return staleFrames;
+    }
+
+    /**
+     * True (and counted) if the reply carries the same frame_idx as the last one
+     * checked. A restarted logger counts from 0 again, which reads as a new frame;
+     * replies without an index are never repeats.
+     */
+    public boolean isRepeat(String json) {
+        double frameIndex = FlatFrameParser.findNumber(json, FRAME_INDEX_KEY);
+        if (!Double.isNaN(frameIndex) && frameIndex == lastFrameIndex) {
+            repeatedFrames++;
+            return true;
+        }
+        lastFrameIndex = frameIndex;
+        return false;
+    }
+
+    public long repeatedFrames() {
+        return repeatedFrames;
+    }
+
+    public ClockOffsetEstimator estimator() {
+        return estimator;
+    }
+}
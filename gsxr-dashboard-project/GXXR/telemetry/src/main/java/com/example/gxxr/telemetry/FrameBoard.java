@@ -0,0 +1,196 @@
+package com.example.gxxr.telemetry;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The latest decoded frame in a memory-mapped file, for other processes on the phone
+ * (a video overlay, a second display) that would otherwise poll the logger again.
+ * One writer publishes, any number of readers map the same file and read it with
+ * plain memory loads: no copies through the kernel, no syscalls after mapping.
+ *
+ * The region is protected by a seqlock. The writer makes the sequence odd, writes
+ * the frame and makes it even again; a reader takes the sequence, reads, and keeps
+ * what it read only if the sequence is still the same even number. Readers never
+ * block the writer, and a reader that loses the race just reads again.
+ *
+ * Layout, little endian, {@link #SIZE} bytes:
+ * <pre>
+ *   0  int     magic "GSFB"
+ *   4  int     version
+ *   8  int     channel count ({@link TelemetryChannels#COUNT})
+ *  12  int     sequence, odd while a frame is being written
+ *  16  long    frame timestamp, ms
+ *  24  double  values[channel count], NaN for missing channels
+ * </pre>
+ * A restarted writer reuses the file in place and carries the sequence on, so
+ * readers that mapped it earlier keep working. There must be one writer at a time;
+ * readers keep no state, so any number of threads can share a reading instance.
+ */
+public final class FrameBoard implements Closeable {
+
+    public static final int MAGIC = 0x47534642; // "GSFB"
+    public static final int VERSION = 1;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int CHANNELS_OFFSET = 8;
+    private static final int SEQUENCE_OFFSET = 12;
+    private static final int TIMESTAMP_OFFSET = 16;
+    private static final int VALUES_OFFSET = 24;
+    public static final int SIZE = VALUES_OFFSET + 8 * TelemetryChannels.COUNT;
+
+    // Attempts before read() gives up on a writer that died mid-frame
+    private static final int MAX_READ_ATTEMPTS = 1000;
+
+    // Java 8 has no fences for buffer access; a volatile store followed by a volatile
+    // load is a full barrier on both ARM and x86 and keeps the plain buffer accesses
+    // on their side of it
+    private static volatile int fence;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int sequence;
+
+    private FrameBoard(FileChannel channel, MappedByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer;
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void fullFence() {
+        fence = 0;
+        int unused = fence;
+    }
+
+    /** Maps {@code file} for writing, creating or taking over an existing board */
+    public static FrameBoard create(File file) throws IOException {
+        RandomAccessFile access = new RandomAccessFile(file, "rw");
+        FileChannel channel = access.getChannel();
+        try {
+            if (access.length() < SIZE) {
+                access.setLength(SIZE);
+            }
+            FrameBoard board = new FrameBoard(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, SIZE));
+            board.initialize();
+            return board;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void initialize() {
+        boolean ours = buffer.getInt(MAGIC_OFFSET) == MAGIC && buffer.getInt(VERSION_OFFSET) == VERSION
+                && buffer.getInt(CHANNELS_OFFSET) == TelemetryChannels.COUNT;
+        // Carry the sequence on, rounded up to even, so an old stamp can never validate
+        sequence = ours ? (buffer.getInt(SEQUENCE_OFFSET) | 1) + 1 : 0;
+        buffer.putInt(SEQUENCE_OFFSET, sequence | 1);
+        fullFence();
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putInt(CHANNELS_OFFSET, TelemetryChannels.COUNT);
+        buffer.putLong(TIMESTAMP_OFFSET, 0);
+        for (int channel = 0; channel < TelemetryChannels.COUNT; channel++) {
+            buffer.putDouble(VALUES_OFFSET + 8 * channel, Double.NaN);
+        }
+        fullFence();
+        buffer.putInt(SEQUENCE_OFFSET, sequence);
+    }
+
+    /** Maps an existing board read-only */
+    public static FrameBoard open(File file) throws IOException {
+        return open(new RandomAccessFile(file, "r").getChannel());
+    }
+
+    /**
+     * Maps a board read-only from an open channel, e.g. over a descriptor another app
+     * handed out. The channel is closed with the board.
+     */
+    public static FrameBoard open(FileChannel channel) throws IOException {
+        try {
+            if (channel.size() < SIZE) {
+                throw new IOException("Not a frame board");
+            }
+            FrameBoard board = new FrameBoard(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, SIZE));
+            if (board.buffer.getInt(MAGIC_OFFSET) != MAGIC || board.buffer.getInt(VERSION_OFFSET) != VERSION
+                    || board.buffer.getInt(CHANNELS_OFFSET) != TelemetryChannels.COUNT) {
+                throw new IOException("Not a frame board, or another channel layout");
+            }
+            return board;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** Writer only; makes {@code frame} the latest */
+    public void publish(TelemetryFrame frame) {
+        buffer.putInt(SEQUENCE_OFFSET, sequence + 1);
+        fullFence();
+        buffer.putLong(TIMESTAMP_OFFSET, frame.timestampMillis);
+        for (int channel = 0; channel < TelemetryChannels.COUNT; channel++) {
+            buffer.putDouble(VALUES_OFFSET + 8 * channel, frame.values[channel]);
+        }
+        fullFence();
+        sequence += 2;
+        buffer.putInt(SEQUENCE_OFFSET, sequence);
+    }
+
+    /**
+     * Starts an optimistic read of single values in place: read them with
+     * {@link #value} and {@link #timestampMillis}, then keep them only if
+     * {@link #validate} accepts the stamp.
+     */
+    public int tryOptimisticRead() {
+        int stamp = buffer.getInt(SEQUENCE_OFFSET);
+        fullFence();
+        return stamp;
+    }
+
+    public double value(int channel) {
+        return buffer.getDouble(VALUES_OFFSET + 8 * channel);
+    }
+
+    public long timestampMillis() {
+        return buffer.getLong(TIMESTAMP_OFFSET);
+    }
+
+    /** True if nothing was published since {@code stamp} was taken and no write was under way then */
+    public boolean validate(int stamp) {
+        fullFence();
+        return (stamp & 1) == 0 && buffer.getInt(SEQUENCE_OFFSET) == stamp;
+    }
+
+    /**
+     * Copies the latest coherent frame into {@code frame}.
+     * @return false if the writer stayed mid-frame, e.g. because it died there
+     */
+    public boolean read(TelemetryFrame frame) {
+        for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+            int stamp = tryOptimisticRead();
+            if ((stamp & 1) != 0) {
+                Thread.yield();
+                continue;
+            }
+            frame.timestampMillis = timestampMillis();
+            for (int channel = 0; channel < TelemetryChannels.COUNT; channel++) {
+                frame.values[channel] = value(channel);
+            }
+            if (validate(stamp)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.gxxr.telemetry;
+
+import java.io.Closeable;
+
+/**
+ * Re-publishes frames the dash has already received to other viewers.
+ * {@link #publish} is called on the receiver thread and must never block on a viewer.
+ */
+public interface FramePublisher extends Closeable {
+
+    void publish(byte[] frame, int offset, int length);
+}
@@ -0,0 +1,129 @@
+package com.example.gxxr.telemetry;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+
+/**
+ * The set of logger keys the dash reads, registered with the logger so replies
+ * carry only those keys (plus frame_ts and frame_idx) instead of the whole frame.
+ *
+ * The logger is sent "SUB &lt;id&gt; key,key,..." once and requests then name the
+ * projection with "P&lt;id&gt;". The id is a CRC of the sorted keys, so the same
+ * bindings always map to the same projection. A logger that has forgotten the id
+ * (restarted) answers with the full frame and {@link #UNKNOWN_KEY}; a logger that
+ * predates subscriptions never acknowledges, and the dash keeps asking for full
+ * frames.
+ */
+public final class FrameSubscription {
+
+    public static final String ACK_KEY = "sub_ok";
+    public static final String UNKNOWN_KEY = "proj_unknown";
+
+    private final String[] keys;
+    private final String id;
+
+    private FrameSubscription(TreeSet<String> keys) {
+        this.keys = keys.toArray(new String[0]);
+        CRC32 crc = new CRC32();
+        for (String key : this.keys) {
+            crc.update(key.getBytes(StandardCharsets.UTF_8));
+            crc.update(',');
+        }
+        this.id = String.format(Locale.ROOT, "%08X", crc.getValue());
+    }
+
+    /**
+     * Subscription for the logger keys behind {@code channels}; channels computed on
+     * the dash are skipped. {@code extraKeys} covers values read without a channel.
+     */
+    public static FrameSubscription forChannels(int[] channels, String... extraKeys) {
+        TreeSet<String> keys = new TreeSet<>();
+        for (int channel : channels) {
+            if (TelemetryChannels.isLoggerChannel(channel)) {
+                keys.add(TelemetryChannels.key(channel));
+            }
+        }
+        for (String key : extraKeys) {
+            keys.add(key);
+        }
+        return new FrameSubscription(keys);
+    }
+
+    /** Every channel the logger provides */
+    public static int[] loggerChannels() {
+        int count = 0;
+        int[] channels = new int[TelemetryChannels.COUNT];
+        for (int channel = 0; channel < TelemetryChannels.COUNT; channel++) {
+            if (TelemetryChannels.isLoggerChannel(channel)) {
+                channels[count++] = channel;
+            }
+        }
+        return Arrays.copyOf(channels, count);
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public int keyCount() {
+        return keys.length;
+    }
+
+    public String subscribeMessage() {
+        StringBuilder message = new StringBuilder("SUB ").append(id).append(' ');
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                message.append(',');
+            }
+            message.append(keys[i]);
+        }
+        return message.toString();
+    }
+
+    /** True if the logger answered a projected request without knowing the projection */
+    public static boolean isRejected(String reply) {
+        return !Double.isNaN(FlatFrameParser.findNumber(reply, UNKNOWN_KEY));
+    }
+
+    /**
+     * Registers the subscription and waits up to {@code timeoutMillis} for the
+     * acknowledgement, skipping any frame replies still in flight. Returns false if
+     * the logger did not acknowledge it. The socket timeout is restored afterwards.
+     */
+    public boolean subscribe(DatagramSocket socket, InetAddress address, int port, int timeoutMillis) throws IOException {
+        byte[] message = subscribeMessage().getBytes(StandardCharsets.UTF_8);
+        socket.send(new DatagramPacket(message, message.length, address, port));
+
+        int previousTimeout = socket.getSoTimeout();
+        byte[] buffer = new byte[256];
+        DatagramPacket reply = new DatagramPacket(buffer, buffer.length);
+        long deadline = System.nanoTime() + timeoutMillis * 1_000_000L;
+        try {
+            while (true) {
+                long remainingMillis = (deadline - System.nanoTime()) / 1_000_000L;
+                if (remainingMillis <= 0) {
+                    return false;
+                }
+                socket.setSoTimeout((int) remainingMillis);
+                reply.setLength(buffer.length);
+                socket.receive(reply);
+                String text = new String(reply.getData(), reply.getOffset(), reply.getLength(), StandardCharsets.UTF_8);
+                if (text.contains(ACK_KEY) && text.contains(id)) {
+                    return true;
+                }
+            }
+        } catch (SocketTimeoutException e) {
+            return false;
+        } finally {
+            socket.setSoTimeout(previousTimeout);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.gxxr.telemetry;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Keeps gauge ranges matched to the sensors. Every tracked channel feeds a pair of
+ * {@link StreamingQuantile} sketches for a low and a high percentile of what it read
+ * this session, and from those proposes a range with a small margin either side.
+ * {@link #accept} switches the gauges over to the proposals, e.g. at the end of a
+ * session, so a remounted sonar is back to full scale on the next ride.
+ *
+ * A {@link #calibrate calibrated} channel's range follows the sensor both ways; a
+ * {@link #widen widened} one only ever grows past its default, for temperatures
+ * where a full bar has to keep meaning hot. No proposal is made until a channel has
+ * {@code minSamples} readings, nor for a calibrated channel whose readings span less
+ * than a quarter of its default range (a stuck sensor, or a session spent parked).
+ * Constant cost per frame; not thread safe.
+ */
+public final class GaugeCalibrator {
+
+    private static final int MAGIC = 0x47534743; // "GSGC"
+    private static final int VERSION = 1;
+
+    private static final double MARGIN = 0.05;
+    private static final double MIN_SPAN = 0.25;
+
+    private static final int UNTRACKED = 0, CALIBRATE = 1, WIDEN = 2;
+
+    private final double lowQuantile, highQuantile;
+    private final long minSamples;
+
+    private final int[] modes = new int[TelemetryChannels.COUNT];
+    private final double[] defaultMins = new double[TelemetryChannels.COUNT];
+    private final double[] defaultMaxes = new double[TelemetryChannels.COUNT];
+    private final double[] mins = new double[TelemetryChannels.COUNT];
+    private final double[] maxes = new double[TelemetryChannels.COUNT];
+    private final StreamingQuantile[] lows = new StreamingQuantile[TelemetryChannels.COUNT];
+    private final StreamingQuantile[] highs = new StreamingQuantile[TelemetryChannels.COUNT];
+
+    public GaugeCalibrator(double lowQuantile, double highQuantile, long minSamples) {
+        if (!(lowQuantile < highQuantile)) {
+            throw new IllegalArgumentException("Low quantile must be below the high one");
+        }
+        this.lowQuantile = lowQuantile;
+        this.highQuantile = highQuantile;
+        this.minSamples = Math.max(5, minSamples);
+    }
+
+    /** Tracks {@code channel}, starting from {@code min..max}, and lets its range move either way */
+    public GaugeCalibrator calibrate(int channel, double min, double max) {
+        return track(channel, CALIBRATE, min, max);
+    }
+
+    /** Tracks {@code channel}, starting from {@code min..max}, and only lets its range grow past that */
+    public GaugeCalibrator widen(int channel, double min, double max) {
+        return track(channel, WIDEN, min, max);
+    }
+
+    private GaugeCalibrator track(int channel, int mode, double min, double max) {
+        if (channel < 0 || channel >= TelemetryChannels.COUNT) {
+            throw new IllegalArgumentException("Unknown channel " + channel);
+        }
+        if (modes[channel] != UNTRACKED || !(min < max)) {
+            throw new IllegalArgumentException("Bad or repeated range for channel " + channel);
+        }
+        modes[channel] = mode;
+        defaultMins[channel] = mins[channel] = min;
+        defaultMaxes[channel] = maxes[channel] = max;
+        lows[channel] = new StreamingQuantile(lowQuantile);
+        highs[channel] = new StreamingQuantile(highQuantile);
+        return this;
+    }
+
+    public void process(TelemetryFrame frame) {
+        for (int channel = 0; channel < TelemetryChannels.COUNT; channel++) {
+            if (modes[channel] != UNTRACKED) {
+                double value = frame.get(channel);
+                lows[channel].add(value);
+                highs[channel].add(value);
+            }
+        }
+    }
+
+    /** Bottom of the range the gauge for {@code channel} shows */
+    public double min(int channel) {
+        return mins[channel];
+    }
+
+    public double max(int channel) {
+        return maxes[channel];
+    }
+
+    public boolean hasProposal(int channel) {
+        return !Double.isNaN(proposedMin(channel));
+    }
+
+    /** Range suggested by this session's readings, NaN if there is none yet */
+    public double proposedMin(int channel) {
+        double[] range = proposal(channel);
+        return range == null ? Double.NaN : range[0];
+    }
+
+    public double proposedMax(int channel) {
+        double[] range = proposal(channel);
+        return range == null ? Double.NaN : range[1];
+    }
+
+    private double[] proposal(int channel) {
+        if (modes[channel] == UNTRACKED || lows[channel].count() < minSamples) {
+            return null;
+        }
+        double low = lows[channel].value();
+        double high = highs[channel].value();
+        double span = defaultMaxes[channel] - defaultMins[channel];
+        if (modes[channel] == CALIBRATE && high - low < MIN_SPAN * span) {
+            return null;
+        }
+        double margin = (high - low) * MARGIN;
+        low -= margin;
+        high += margin;
+        if (modes[channel] == WIDEN) {
+            low = Math.min(low, defaultMins[channel]);
+            high = Math.max(high, defaultMaxes[channel]);
+        }
+        return new double[]{low, high};
+    }
+
+    /**
+     * Switches every channel with a proposal over to it and starts collecting afresh.
+     * @return the number of channels whose range changed
+     */
+    public int accept() {
+        int changed = 0;
+        for (int channel = 0; channel < TelemetryChannels.COUNT; channel++) {
+            double[] range = proposal(channel);
+            if (range != null && (range[0] != mins[channel] || range[1] != maxes[channel])) {
+                mins[channel] = range[0];
+                maxes[channel] = range[1];
+                changed++;
+            }
+        }
+        resetSketches();
+        return changed;
+    }
+
+    /** Forgets this session's readings, keeping the ranges in use */
+    public void resetSketches() {
+        for (int channel = 0; channel < TelemetryChannels.COUNT; channel++) {
+            if (modes[channel] != UNTRACKED) {
+                lows[channel].reset();
+                highs[channel].reset();
+            }
+        }
+    }
+
+    /** Back to the default ranges */
+    public void resetRanges() {
+        System.arraycopy(defaultMins, 0, mins, 0, mins.length);
+        System.arraycopy(defaultMaxes, 0, maxes, 0, maxes.length);
+        resetSketches();
+    }
+
+    /** The ranges in use, for {@link AtomicFileWriter} */
+    public byte[] toByteArray() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + 20 * TelemetryChannels.COUNT);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            for (int channel = 0; channel < TelemetryChannels.COUNT; channel++) {
+                if (modes[channel] != UNTRACKED) {
+                    out.writeShort(channel);
+                    out.writeDouble(mins[channel]);
+                    out.writeDouble(maxes[channel]);
+                }
+            }
+            out.writeShort(-1);
+            out.flush();
+        } catch (IOException e) {
+            // ByteArrayOutputStream does not throw
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Restores saved ranges; channels no longer tracked, or tracked with a bad range, are skipped */
+    public void restore(byte[] snapshot) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(snapshot));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a gauge calibration snapshot");
+        }
+        double[] restoredMins = Arrays.copyOf(defaultMins, defaultMins.length);
+        double[] restoredMaxes = Arrays.copyOf(defaultMaxes, defaultMaxes.length);
+        for (int channel = in.readShort(); channel >= 0; channel = in.readShort()) {
+            double min = in.readDouble();
+            double max = in.readDouble();
+            if (channel < TelemetryChannels.COUNT && modes[channel] != UNTRACKED && min < max) {
+                restoredMins[channel] = min;
+                restoredMaxes[channel] = max;
+            }
+        }
+        System.arraycopy(restoredMins, 0, mins, 0, mins.length);
+        System.arraycopy(restoredMaxes, 0, maxes, 0, maxes.length);
+    }
+
+    public void readSnapshot(File file) throws IOException {
+        byte[] snapshot = new byte[(int) file.length()];
+        DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            in.readFully(snapshot);
+        } finally {
+            in.close();
+        }
+        restore(snapshot);
+    }
+}
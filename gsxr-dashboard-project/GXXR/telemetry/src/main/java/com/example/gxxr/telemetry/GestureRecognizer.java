@@ -0,0 +1,189 @@
+package com.example.gxxr.telemetry;
+
+import java.util.Arrays;
+
+/**
+ * Recognises rider gestures on the digital inputs (brake switches, headlight) from
+ * frame timestamps rather than frame counts, so a gesture takes the same time to
+ * perform whether frames arrive at 10 Hz or 500 Hz.
+ *
+ * Each input is debounced: a new level only counts once frames have shown it for
+ * {@code debounceMillis}, and it is then dated from the first frame that showed it.
+ * A gesture is a combination of input levels and fires either when the combination
+ * starts ({@link #press}) or once it has been held for a given time ({@link #hold}).
+ * A held gesture fires once per hold; the combination has to end before it can fire
+ * again. A hold only counts time frames have shown: inputs missing from a frame
+ * keep their level but do not extend the hold, and neither does a change that is
+ * still being debounced.
+ *
+ * Gestures are numbered 0..31 by the caller and {@link #process} reports them as a
+ * bit mask. Not thread safe; allocates nothing per frame.
+ */
+public final class GestureRecognizer {
+
+    private static final int UNKNOWN = Integer.MIN_VALUE;
+
+    private final long debounceMillis;
+
+    // Inputs, one slot per distinct channel used by any gesture
+    private int inputCount;
+    private int[] inputChannels = new int[4];
+    private int[] stableLevels = new int[4];
+    private long[] stableSinceMillis = new long[4];
+    private long[] stableSeenMillis = new long[4];
+    private int[] candidateLevels = new int[4];
+    private long[] candidateSinceMillis = new long[4];
+
+    // Gestures, indexed by their number; comboInputs[g][i] is an input slot
+    private final int[][] comboInputs = new int[32][];
+    private final int[][] comboLevels = new int[32][];
+    private final long[] holdMillis = new long[32];
+    private final boolean[] comboActive = new boolean[32];
+    private final boolean[] firedThisHold = new boolean[32];
+    private final long[] startedAtMillis = new long[32];
+
+    private long lastTimestampMillis = Long.MIN_VALUE;
+
+    public GestureRecognizer(long debounceMillis) {
+        this.debounceMillis = debounceMillis;
+    }
+
+    /** Fires when the inputs reach the given levels, {@code channels[i]} at {@code levels[i]} */
+    public GestureRecognizer press(int gesture, int[] channels, int[] levels) {
+        return add(gesture, 0, channels, levels);
+    }
+
+    /** Fires once the inputs have been at the given levels for {@code holdMillis} */
+    public GestureRecognizer hold(int gesture, long holdMillis, int[] channels, int[] levels) {
+        if (holdMillis <= 0) {
+            throw new IllegalArgumentException("Hold time must be positive");
+        }
+        return add(gesture, holdMillis, channels, levels);
+    }
+
+    private GestureRecognizer add(int gesture, long hold, int[] channels, int[] levels) {
+        if (gesture < 0 || gesture >= comboInputs.length || comboInputs[gesture] != null) {
+            throw new IllegalArgumentException("Bad or duplicate gesture " + gesture);
+        }
+        if (channels.length == 0 || channels.length != levels.length) {
+            throw new IllegalArgumentException("Every input needs a level");
+        }
+        int[] slots = new int[channels.length];
+        for (int i = 0; i < channels.length; i++) {
+            if (channels[i] < 0 || channels[i] >= TelemetryChannels.COUNT) {
+                throw new IllegalArgumentException("Unknown channel " + channels[i]);
+            }
+            slots[i] = inputSlot(channels[i]);
+        }
+        comboInputs[gesture] = slots;
+        comboLevels[gesture] = Arrays.copyOf(levels, levels.length);
+        holdMillis[gesture] = hold;
+        return this;
+    }
+
+    private int inputSlot(int channel) {
+        for (int i = 0; i < inputCount; i++) {
+            if (inputChannels[i] == channel) {
+                return i;
+            }
+        }
+        if (inputCount == inputChannels.length) {
+            int capacity = inputCount * 2;
+            inputChannels = Arrays.copyOf(inputChannels, capacity);
+            stableLevels = Arrays.copyOf(stableLevels, capacity);
+            stableSinceMillis = Arrays.copyOf(stableSinceMillis, capacity);
+            stableSeenMillis = Arrays.copyOf(stableSeenMillis, capacity);
+            candidateLevels = Arrays.copyOf(candidateLevels, capacity);
+            candidateSinceMillis = Arrays.copyOf(candidateSinceMillis, capacity);
+        }
+        inputChannels[inputCount] = channel;
+        stableLevels[inputCount] = UNKNOWN;
+        candidateLevels[inputCount] = UNKNOWN;
+        return inputCount++;
+    }
+
+    /** @return bit {@code 1 << gesture} set for every gesture that fired on this frame */
+    public int process(TelemetryFrame frame) {
+        long now = frame.timestampMillis;
+        if (now < lastTimestampMillis) {
+            // Logger restarted or the clock stepped back; durations so far mean nothing
+            reset();
+        }
+        lastTimestampMillis = now;
+
+        for (int i = 0; i < inputCount; i++) {
+            double value = frame.get(inputChannels[i]);
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            int level = (int) Math.round(value);
+            if (stableLevels[i] == UNKNOWN) {
+                stableLevels[i] = level;
+                stableSinceMillis[i] = now;
+                stableSeenMillis[i] = now;
+                candidateLevels[i] = level;
+            } else if (level == stableLevels[i]) {
+                stableSeenMillis[i] = now;
+                candidateLevels[i] = level;
+            } else {
+                if (level != candidateLevels[i]) {
+                    candidateLevels[i] = level;
+                    candidateSinceMillis[i] = now;
+                }
+                if (now - candidateSinceMillis[i] >= debounceMillis) {
+                    stableLevels[i] = level;
+                    stableSinceMillis[i] = candidateSinceMillis[i];
+                    stableSeenMillis[i] = now;
+                }
+            }
+        }
+
+        int fired = 0;
+        for (int g = 0; g < comboInputs.length; g++) {
+            int[] slots = comboInputs[g];
+            if (slots == null) {
+                continue;
+            }
+            boolean active = true;
+            long since = Long.MIN_VALUE, seen = Long.MAX_VALUE;
+            for (int i = 0; i < slots.length && active; i++) {
+                active = stableLevels[slots[i]] == comboLevels[g][i];
+                since = Math.max(since, stableSinceMillis[slots[i]]);
+                seen = Math.min(seen, stableSeenMillis[slots[i]]);
+            }
+            if (!active) {
+                comboActive[g] = false;
+                firedThisHold[g] = false;
+                continue;
+            }
+            comboActive[g] = true;
+            // Held only as long as frames have actually shown it, not while a change is debouncing
+            if (!firedThisHold[g] && seen - since >= holdMillis[g]) {
+                firedThisHold[g] = true;
+                startedAtMillis[g] = since;
+                fired |= 1 << g;
+            }
+        }
+        return fired;
+    }
+
+    /** Frame time the last firing of {@code gesture} started, i.e. when its inputs reached their levels */
+    public long startedAtMillis(int gesture) {
+        return startedAtMillis[gesture];
+    }
+
+    /** Whether the inputs of {@code gesture} are currently at its levels */
+    public boolean isActive(int gesture) {
+        return comboActive[gesture];
+    }
+
+    public void reset() {
+        for (int i = 0; i < inputCount; i++) {
+            stableLevels[i] = UNKNOWN;
+            candidateLevels[i] = UNKNOWN;
+        }
+        Arrays.fill(comboActive, false);
+        Arrays.fill(firedThisHold, false);
+        lastTimestampMillis = Long.MIN_VALUE;
+    }
+}
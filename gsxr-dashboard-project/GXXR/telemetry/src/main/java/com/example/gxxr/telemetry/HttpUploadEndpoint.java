@@ -0,0 +1,87 @@
+package com.example.gxxr.telemetry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * Posts batches to an HTTP collector as {@code POST <base>/<sessionId>/<firstChunk>}
+ * with a gzip encoded JSON lines body. Any 2xx response counts as accepted.
+ *
+ * The timeouts are long for a pause, so {@link #cancel()} lets another thread abort
+ * the request in flight instead of waiting them out.
+ */
+public final class HttpUploadEndpoint implements UploadEndpoint {
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 10000;
+    private static final int READ_TIMEOUT_MILLIS = 30000;
+
+    private final String baseUrl;
+    private volatile HttpURLConnection connection;
+
+    public HttpUploadEndpoint(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    @Override
+    public void upload(String sessionId, int firstChunk, int rows, byte[] gzipJson) throws IOException {
+        URL url = new URL(baseUrl + "/" + sessionId + "/" + firstChunk);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        this.connection = connection;
+        try {
+            // A cancel() that ran before the connection was published only got to interrupt us
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Upload cancelled");
+            }
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+            connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(gzipJson.length);
+            connection.setRequestProperty("Content-Type", "application/x-ndjson");
+            connection.setRequestProperty("Content-Encoding", "gzip");
+            connection.setRequestProperty("X-Batch-Rows", Integer.toString(rows));
+
+            OutputStream body = connection.getOutputStream();
+            try {
+                body.write(gzipJson);
+            } finally {
+                body.close();
+            }
+            // A cancel() between the write and the read would only make the connection reconnect
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Upload cancelled");
+            }
+
+            int status = connection.getResponseCode();
+            if (status / 100 != 2) {
+                throw new IOException("Upload rejected with HTTP " + status);
+            }
+            // Drain so the connection can be reused
+            InputStream response = connection.getInputStream();
+            byte[] discard = new byte[512];
+            while (response.read(discard) != -1) {
+                ;
+            }
+            response.close();
+        } finally {
+            this.connection = null;
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Aborts the upload in flight, if any, from another thread; it fails with an
+     * IOException. Interrupt the uploading thread first so an upload that is just
+     * starting is caught too.
+     */
+    public void cancel() {
+        HttpURLConnection current = connection;
+        if (current != null) {
+            current.disconnect();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.gxxr.telemetry;
+
+import java.util.Arrays;
+
+/**
+ * Live time delta to the best lap of the session.
+ *
+ * GPS fixes of the running lap are recorded, and each one is projected onto the
+ * reference lap's {@link LapTrace}; the delta is the running lap time minus the
+ * reference time at the same distance, so negative means ahead. When a lap
+ * completes faster than the reference it becomes the new reference.
+ *
+ * A fix further from the last good one than the bike could have gone is ignored,
+ * as is 0/0: multipath jumps and placeholder positions arrive with the fix flag
+ * set. Should every fix disagree with the last good one for a while, that one was
+ * the bad fix, and the tracker starts over from the current position.
+ *
+ * Not thread safe; feed frames from one thread.
+ */
+public final class LapDeltaTracker {
+
+    // Fixes closer together than this add nothing to the trace (the GPS repeats between updates)
+    static final double MIN_FIX_SPACING_METRES = 2;
+    // How far along the reference the next projection may land from the previous one
+    static final double PROJECTION_WINDOW_METRES = 150;
+    // Fastest a fix may move away from the last good one, plus GPS noise
+    static final double MAX_PLAUSIBLE_SPEED_MPS = 100;
+    static final double FIX_JUMP_SLACK_METRES = 30;
+    static final long FIX_REANCHOR_MILLIS = 2000;
+    private static final double METRES_PER_DEGREE = 6_371_000 * Math.PI / 180;
+
+    private LapTrace reference;
+
+    private double[] latitudes = new double[1024];
+    private double[] longitudes = new double[1024];
+    private long[] elapsed = new long[1024];
+    private int fixes;
+
+    private boolean lapRunning;
+    private long lapStartMillis;
+    private double lastDistance;
+
+    // Last plausible fix, kept across laps
+    private double goodLatitude = Double.NaN, goodLongitude = Double.NaN;
+    private long goodFixMillis;
+    private long rejectedSinceMillis = -1;
+
+    public void beginLap(long timestampMillis) {
+        lapRunning = true;
+        lapStartMillis = timestampMillis;
+        fixes = 0;
+        lastDistance = 0;
+    }
+
+    /**
+     * Ends the running lap; it becomes the reference if there is none yet or it beat
+     * the current one. Returns true if the reference changed.
+     */
+    public boolean completeLap(long timestampMillis) {
+        if (!lapRunning) {
+            return false;
+        }
+        lapRunning = false;
+        long lapMillis = timestampMillis - lapStartMillis;
+        if (fixes < 2 || (reference != null && lapMillis >= reference.durationMillis())) {
+            return false;
+        }
+        // Close the trace at the finish so the reference duration is the lap time
+        addFix(lapMillis, latitudes[fixes - 1], longitudes[fixes - 1]);
+        reference = new LapTrace(latitudes, longitudes, elapsed, fixes);
+        return true;
+    }
+
+    /** Drops the running lap without considering it for the reference */
+    public void abandonLap() {
+        lapRunning = false;
+    }
+
+    public boolean hasReference() {
+        return reference != null;
+    }
+
+    public long referenceLapMillis() {
+        return reference == null ? -1 : reference.durationMillis();
+    }
+
+    /** Forgets the reference lap as well, e.g. at the end of a session */
+    public void reset() {
+        reference = null;
+        lapRunning = false;
+        fixes = 0;
+        goodLatitude = Double.NaN;
+        goodLongitude = Double.NaN;
+        rejectedSinceMillis = -1;
+    }
+
+    /** Records the frame's GPS fix and sets {@link TelemetryChannels#LAP_DELTA}, NaN when there is none */
+    public void process(TelemetryFrame frame) {
+        frame.values[TelemetryChannels.LAP_DELTA] = Double.NaN;
+        if (!lapRunning || frame.values[TelemetryChannels.GPS_FIX] != 1) {
+            return;
+        }
+        double latitude = frame.values[TelemetryChannels.GPS_LATITUDE];
+        double longitude = frame.values[TelemetryChannels.GPS_LONGITUDE];
+        if (Double.isNaN(latitude) || Double.isNaN(longitude) || !isPlausibleFix(frame.timestampMillis, latitude, longitude)) {
+            return;
+        }
+        long lapMillis = frame.timestampMillis - lapStartMillis;
+        if (fixes == 0 || metresBetween(latitudes[fixes - 1], longitudes[fixes - 1], latitude, longitude) >= MIN_FIX_SPACING_METRES) {
+            addFix(lapMillis, latitude, longitude);
+        }
+
+        if (reference == null) {
+            return;
+        }
+        double distance = reference.project(latitude, longitude, lastDistance, PROJECTION_WINDOW_METRES);
+        if (Double.isNaN(distance)) {
+            return;
+        }
+        lastDistance = distance;
+        frame.values[TelemetryChannels.LAP_DELTA] = lapMillis - reference.elapsedMillisAt(distance);
+    }
+
+    private boolean isPlausibleFix(long timestampMillis, double latitude, double longitude) {
+        if (latitude == 0 && longitude == 0) {
+            return false;
+        }
+        if (!Double.isNaN(goodLatitude)) {
+            double reachMetres = FIX_JUMP_SLACK_METRES + MAX_PLAUSIBLE_SPEED_MPS * Math.max(0, timestampMillis - goodFixMillis) / 1000.0;
+            if (metresBetween(goodLatitude, goodLongitude, latitude, longitude) > reachMetres) {
+                if (rejectedSinceMillis < 0) {
+                    rejectedSinceMillis = timestampMillis;
+                }
+                if (timestampMillis - rejectedSinceMillis < FIX_REANCHOR_MILLIS) {
+                    return false;
+                }
+            }
+        }
+        rejectedSinceMillis = -1;
+        goodLatitude = latitude;
+        goodLongitude = longitude;
+        goodFixMillis = timestampMillis;
+        return true;
+    }
+
+    private static double metresBetween(double latitude0, double longitude0, double latitude1, double longitude1) {
+        double dy = (latitude1 - latitude0) * METRES_PER_DEGREE;
+        double dx = (longitude1 - longitude0) * METRES_PER_DEGREE * Math.cos(Math.toRadians(latitude1));
+        return Math.hypot(dx, dy);
+    }
+
+    private void addFix(long lapMillis, double latitude, double longitude) {
+        if (fixes == latitudes.length) {
+            latitudes = Arrays.copyOf(latitudes, fixes * 2);
+            longitudes = Arrays.copyOf(longitudes, fixes * 2);
+            elapsed = Arrays.copyOf(elapsed, fixes * 2);
+        }
+        latitudes[fixes] = latitude;
+        longitudes[fixes] = longitude;
+        elapsed[fixes] = lapMillis;
+        fixes++;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.gxxr.telemetry;
+
+/**
+ * The rider's lap timer gestures on the brake switches and headlight trigger.
+ * The dash and the session analytics both recognise them from here, so a
+ * recorded session is cut into the same laps the dash timed.
+ */
+public final class LapGestures {
+
+    public static final long DEBOUNCE_MILLIS = 50;
+    // Both brakes released this long toggles lap mode, whatever the frame rate
+    public static final long LAP_MODE_HOLD_MILLIS = 3000;
+
+    public static final int LAP_MODE = 0;
+    public static final int LAP_ARM = 1;
+    public static final int LAP_STOP = 2;
+
+    private LapGestures() {
+    }
+
+    /** A recognizer firing {@link #LAP_MODE}, {@link #LAP_ARM} and {@link #LAP_STOP} */
+    public static GestureRecognizer newRecognizer() {
+        return new GestureRecognizer(DEBOUNCE_MILLIS)
+                .hold(LAP_MODE, LAP_MODE_HOLD_MILLIS,
+                        new int[]{TelemetryChannels.FRONT_BRAKE, TelemetryChannels.REAR_BRAKE}, new int[]{0, 0})
+                .press(LAP_ARM,
+                        new int[]{TelemetryChannels.HEADLIGHT, TelemetryChannels.REAR_BRAKE, TelemetryChannels.FRONT_BRAKE}, new int[]{1, 1, 0})
+                .press(LAP_STOP,
+                        new int[]{TelemetryChannels.HEADLIGHT, TelemetryChannels.FRONT_BRAKE, TelemetryChannels.REAR_BRAKE}, new int[]{1, 1, 0});
+    }
+}
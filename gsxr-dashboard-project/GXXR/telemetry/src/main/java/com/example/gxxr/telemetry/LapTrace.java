@@ -0,0 +1,209 @@
+package com.example.gxxr.telemetry;
+
+/**
+ * A recorded lap as a polyline parameterised by distance, with a uniform grid over
+ * its segments so a GPS fix can be projected onto it without scanning the lap.
+ *
+ * Positions are converted to metres on a local tangent plane around the first
+ * point, which is accurate to well under a metre over a circuit. The grid is stored
+ * as flat arrays (cell start offsets into a segment list), so a lookup only touches
+ * the few cells around the fix and allocates nothing. Cells start at 25 m and double
+ * until the grid fits {@link #MAX_GRID_CELLS}, so a stray fix far off the circuit
+ * costs lookup speed rather than memory.
+ */
+public final class LapTrace {
+
+    private static final double METRES_PER_DEGREE = 6_371_000 * Math.PI / 180;
+    static final double CELL_METRES = 25;
+    static final int MAX_GRID_CELLS = 1 << 16;
+    // Fixes further than this from the line are off the reference (pit lane, bad fix)
+    static final double MAX_OFFSET_METRES = 40;
+
+    private final double originLatitude, originLongitude;
+    private final double metresPerDegreeLongitude;
+
+    private final int points;
+    private final double[] xs, ys;
+    private final double[] distances;
+    private final long[] elapsedMillis;
+
+    private final double gridMinX, gridMinY;
+    private final double cellMetres;
+    private final int gridWidth, gridHeight;
+    private final int[] cellStarts;
+    private final int[] cellSegments;
+
+    /** Builds a trace from fixes recorded during a lap, {@code elapsed} relative to the lap start */
+    public LapTrace(double[] latitudes, double[] longitudes, long[] elapsed, int count) {
+        if (count < 2) {
+            throw new IllegalArgumentException("A lap needs at least two fixes");
+        }
+        originLatitude = latitudes[0];
+        originLongitude = longitudes[0];
+        metresPerDegreeLongitude = METRES_PER_DEGREE * Math.cos(Math.toRadians(originLatitude));
+
+        points = count;
+        xs = new double[count];
+        ys = new double[count];
+        distances = new double[count];
+        elapsedMillis = new long[count];
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            xs[i] = x(longitudes[i]);
+            ys[i] = y(latitudes[i]);
+            elapsedMillis[i] = elapsed[i];
+            if (i > 0) {
+                distances[i] = distances[i - 1] + Math.hypot(xs[i] - xs[i - 1], ys[i] - ys[i - 1]);
+            }
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+
+        gridMinX = minX;
+        gridMinY = minY;
+        double side = CELL_METRES;
+        while ((Math.floor((maxX - minX) / side) + 1) * (Math.floor((maxY - minY) / side) + 1) > MAX_GRID_CELLS) {
+            side *= 2;
+        }
+        cellMetres = side;
+        gridWidth = (int) ((maxX - minX) / cellMetres) + 1;
+        gridHeight = (int) ((maxY - minY) / cellMetres) + 1;
+
+        // Two passes: count segments per cell, then fill the flat list
+        cellStarts = new int[gridWidth * gridHeight + 1];
+        for (int segment = 0; segment < count - 1; segment++) {
+            addToCells(segment, null);
+        }
+        for (int cell = 0; cell < gridWidth * gridHeight; cell++) {
+            cellStarts[cell + 1] += cellStarts[cell];
+        }
+        cellSegments = new int[cellStarts[gridWidth * gridHeight]];
+        int[] fill = new int[gridWidth * gridHeight];
+        for (int segment = 0; segment < count - 1; segment++) {
+            addToCells(segment, fill);
+        }
+    }
+
+    /** Counts the segment into every cell its bounds touch, or fills it in once {@code fill} is given */
+    private void addToCells(int segment, int[] fill) {
+        int x0 = cellX(Math.min(xs[segment], xs[segment + 1]));
+        int x1 = cellX(Math.max(xs[segment], xs[segment + 1]));
+        int y0 = cellY(Math.min(ys[segment], ys[segment + 1]));
+        int y1 = cellY(Math.max(ys[segment], ys[segment + 1]));
+        for (int cy = y0; cy <= y1; cy++) {
+            for (int cx = x0; cx <= x1; cx++) {
+                int cell = cy * gridWidth + cx;
+                if (fill == null) {
+                    cellStarts[cell + 1]++;
+                } else {
+                    cellSegments[cellStarts[cell] + fill[cell]++] = segment;
+                }
+            }
+        }
+    }
+
+    private double x(double longitude) {
+        return (longitude - originLongitude) * metresPerDegreeLongitude;
+    }
+
+    private double y(double latitude) {
+        return (latitude - originLatitude) * METRES_PER_DEGREE;
+    }
+
+    private int cellX(double x) {
+        return Math.max(0, Math.min(gridWidth - 1, (int) Math.floor((x - gridMinX) / cellMetres)));
+    }
+
+    private int cellY(double y) {
+        return Math.max(0, Math.min(gridHeight - 1, (int) Math.floor((y - gridMinY) / cellMetres)));
+    }
+
+    /** Side of a grid cell, {@link #CELL_METRES} unless the trace spans too much for it */
+    double cellMetres() {
+        return cellMetres;
+    }
+
+    public double lengthMetres() {
+        return distances[points - 1];
+    }
+
+    public long durationMillis() {
+        return elapsedMillis[points - 1];
+    }
+
+    /**
+     * Projects a fix onto the trace and returns the distance along it, or NaN if the
+     * fix is not within {@link #MAX_OFFSET_METRES} of the line. Where the track passes
+     * close to itself the candidate within {@code window} metres of {@code hint} wins,
+     * so the projection does not jump to the other side of a crossover or hairpin.
+     */
+    public double project(double latitude, double longitude, double hint, double window) {
+        double px = x(longitude);
+        double py = y(latitude);
+        if (px < gridMinX - MAX_OFFSET_METRES || py < gridMinY - MAX_OFFSET_METRES
+                || px > gridMinX + gridWidth * cellMetres + MAX_OFFSET_METRES
+                || py > gridMinY + gridHeight * cellMetres + MAX_OFFSET_METRES) {
+            return Double.NaN;
+        }
+
+        int reach = (int) Math.ceil(MAX_OFFSET_METRES / cellMetres);
+        int cx = (int) Math.floor((px - gridMinX) / cellMetres);
+        int cy = (int) Math.floor((py - gridMinY) / cellMetres);
+        double maxOffsetSquared = MAX_OFFSET_METRES * MAX_OFFSET_METRES;
+
+        double bestSquared = Double.MAX_VALUE, bestDistance = Double.NaN;
+        double bestNearHintSquared = Double.MAX_VALUE, bestNearHintDistance = Double.NaN;
+        for (int y = Math.max(0, cy - reach); y <= Math.min(gridHeight - 1, cy + reach); y++) {
+            for (int x = Math.max(0, cx - reach); x <= Math.min(gridWidth - 1, cx + reach); x++) {
+                int cell = y * gridWidth + x;
+                for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++) {
+                    int segment = cellSegments[i];
+                    double ax = xs[segment], ay = ys[segment];
+                    double dx = xs[segment + 1] - ax, dy = ys[segment + 1] - ay;
+                    double lengthSquared = dx * dx + dy * dy;
+                    double t = lengthSquared > 0 ? ((px - ax) * dx + (py - ay) * dy) / lengthSquared : 0;
+                    t = Math.max(0, Math.min(1, t));
+                    double ex = ax + t * dx - px, ey = ay + t * dy - py;
+                    double squared = ex * ex + ey * ey;
+                    if (squared > maxOffsetSquared) {
+                        continue;
+                    }
+                    double distance = distances[segment] + t * (distances[segment + 1] - distances[segment]);
+                    if (squared < bestSquared) {
+                        bestSquared = squared;
+                        bestDistance = distance;
+                    }
+                    if (squared < bestNearHintSquared && Math.abs(distance - hint) <= window) {
+                        bestNearHintSquared = squared;
+                        bestNearHintDistance = distance;
+                    }
+                }
+            }
+        }
+        return Double.isNaN(bestNearHintDistance) ? bestDistance : bestNearHintDistance;
+    }
+
+    /** Reference lap time at {@code distance} metres, interpolated between fixes */
+    public double elapsedMillisAt(double distance) {
+        if (distance <= 0) {
+            return elapsedMillis[0];
+        }
+        if (distance >= distances[points - 1]) {
+            return elapsedMillis[points - 1];
+        }
+        int low = 0, high = points - 1;
+        while (high - low > 1) {
+            int mid = (low + high) >>> 1;
+            if (distances[mid] <= distance) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        double span = distances[high] - distances[low];
+        double t = span > 0 ? (distance - distances[low]) / span : 0;
+        return elapsedMillis[low] + t * (elapsedMillis[high] - elapsedMillis[low]);
+    }
+}
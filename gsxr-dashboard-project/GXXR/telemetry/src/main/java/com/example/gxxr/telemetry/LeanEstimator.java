@@ -0,0 +1,217 @@
+package com.example.gxxr.telemetry;
+
+/**
+ * Lean angle from the bike's own IMU, fused with the phone's orientation.
+ *
+ * The bike IMU is rigidly mounted, so it is the reference: a complementary filter
+ * integrates its roll rate and pulls the result towards a slow reference, the
+ * kinematic lean atan(v * yaw rate / g) when moving (the accelerometer only sees the
+ * bike's own vertical in a steady turn) and the gravity direction when crawling or
+ * stopped. An integral term learns the gyro's bias from the same correction, so
+ * the estimate has no standing error and accelerometer noise stays filtered out.
+ *
+ * Bike samples reach the dash a frame age late. The phone sensor has no such delay,
+ * so the lean shown is the bike estimate plus how far the phone has rolled since
+ * the bike sample was taken; the phone's mount offset and flex cancel out of that
+ * difference. While the bike is upright the mount offset is learned from the two,
+ * and when bike frames stop the phone alone is used, offset corrected.
+ *
+ * Angles in degrees and rates in degrees per second, positive leaning or turning
+ * left; lateral acceleration positive to the left. Times are in ms: bike frame
+ * times on the logger clock, everything else on one local clock. Single threaded,
+ * no allocation after construction.
+ */
+public final class LeanEstimator {
+
+    // The primary node's first MPU, {"mpuA":{"a":{"x",..},"g":{..}}} as gsxr_logger_v5.py flattens
+    // it; mounted x forward, y left, z up, gyro in deg/s
+    public static final String BIKE_ACCEL_Y_KEY = "primary_imu_mpuA_a_y";
+    public static final String BIKE_ACCEL_Z_KEY = "primary_imu_mpuA_a_z";
+    public static final String BIKE_GYRO_X_KEY = "primary_imu_mpuA_g_x";
+    public static final String BIKE_GYRO_Y_KEY = "primary_imu_mpuA_g_y";
+    public static final String BIKE_GYRO_Z_KEY = "primary_imu_mpuA_g_z";
+
+    private static final double GRAVITY = 9.80665;
+    // Gaps longer than this restart integration from the reference
+    private static final long MAX_STEP_MILLIS = 200;
+    // Below this the gyro is trusted, above it the reference
+    private static final double TIME_CONSTANT_SECONDS = 1.0;
+    // Critically damped with the time constant above
+    private static final double BIAS_GAIN = 0.25;
+    private static final double MIN_KINEMATIC_SPEED_KPH = 15;
+    // Bike estimate older than this (local time) falls back to the phone
+    private static final long BIKE_TIMEOUT_MILLIS = 500;
+    private static final long PHONE_TIMEOUT_MILLIS = 500;
+    private static final double UPRIGHT_LEAN = 3;
+    private static final double UPRIGHT_RATE = 5;
+    private static final long UPRIGHT_HOLD_MILLIS = 1000;
+    private static final double OFFSET_GAIN = 0.02;
+    private static final int PHONE_HISTORY = 512;
+
+    private double mountOffset;
+
+    private boolean hasBike;
+    private double bikeLean, bikeRollRate, rollRateBias;
+    private long bikeFrameMillis, bikeLocalMillis;
+    private long uprightSinceMillis;
+
+    // Phone lean history on the local clock, for looking up the lean at a bike sample's time
+    private final long[] phoneMillis = new long[PHONE_HISTORY];
+    private final double[] phoneLeans = new double[PHONE_HISTORY];
+    private int phoneHead, phoneCount;
+
+    /** {@code mountOffset} is the phone's reading with the bike upright, until one is learned */
+    public LeanEstimator(double mountOffset) {
+        this.mountOffset = mountOffset;
+        reset();
+    }
+
+    /** Forgets both sensors' history, keeping the learned mount offset */
+    public void reset() {
+        hasBike = false;
+        rollRateBias = 0;
+        uprightSinceMillis = Long.MIN_VALUE;
+        phoneHead = 0;
+        phoneCount = 0;
+    }
+
+    public double mountOffset() {
+        return mountOffset;
+    }
+
+    /** A phone orientation sample, as read (mount offset not removed) */
+    public void onPhoneLean(long localMillis, double lean) {
+        if (Double.isNaN(lean)) {
+            return;
+        }
+        if (phoneCount > 0 && localMillis < phoneMillis[(phoneHead + PHONE_HISTORY - 1) % PHONE_HISTORY]) {
+            // Clock went backwards; the history cannot be searched any more
+            phoneCount = 0;
+        }
+        phoneMillis[phoneHead] = localMillis;
+        phoneLeans[phoneHead] = lean;
+        phoneHead = (phoneHead + 1) % PHONE_HISTORY;
+        if (phoneCount < PHONE_HISTORY) {
+            phoneCount++;
+        }
+    }
+
+    /**
+     * A bike IMU sample from the frame stamped {@code frameMillis} (logger clock),
+     * taken at {@code localMillis} on the local clock, i.e. received minus its frame
+     * age. A repeated frame is ignored. Missing accelerations or speed may be NaN.
+     */
+    public void onBikeImu(long frameMillis, long localMillis, double rollRate, double pitchRate, double yawRate,
+                          double lateralAccel, double verticalAccel, double speedKph) {
+        if (Double.isNaN(rollRate) || Double.isNaN(yawRate)) {
+            return;
+        }
+        long step = frameMillis - bikeFrameMillis;
+        if (hasBike && step == 0) {
+            return;
+        }
+        if (!hasBike || step < 0 || step > MAX_STEP_MILLIS) {
+            double reference = reference(0, pitchRate, yawRate, lateralAccel, verticalAccel, speedKph);
+            bikeLean = Double.isNaN(reference) ? 0 : reference;
+            uprightSinceMillis = Long.MIN_VALUE;
+        } else {
+            double dt = step / 1000.0;
+            double predicted = bikeLean + (rollRate - rollRateBias) * dt;
+            double reference = reference(predicted, pitchRate, yawRate, lateralAccel, verticalAccel, speedKph);
+            if (Double.isNaN(reference)) {
+                bikeLean = predicted;
+            } else {
+                bikeLean = predicted + dt / (TIME_CONSTANT_SECONDS + dt) * (reference - predicted);
+                rollRateBias -= BIAS_GAIN * (reference - predicted) * dt;
+            }
+        }
+        hasBike = true;
+        bikeRollRate = rollRate - rollRateBias;
+        bikeFrameMillis = frameMillis;
+        bikeLocalMillis = localMillis;
+        learnMountOffset(frameMillis, localMillis, bikeRollRate);
+    }
+
+    /**
+     * Lean from one bike IMU sample on its own: the reference the filter corrects
+     * towards, with no gyro integration. Noisier in transitions but needs no history,
+     * so recorded frames can be handled in any order. NaN if the inputs are missing.
+     */
+    public static double instantLean(double pitchRate, double yawRate,
+                                     double lateralAccel, double verticalAccel, double speedKph) {
+        double lean = 0;
+        // The heading rate depends on the lean it gives; a few passes settle it
+        for (int pass = 0; pass < 3 && !Double.isNaN(lean); pass++) {
+            lean = reference(lean, pitchRate, yawRate, lateralAccel, verticalAccel, speedKph);
+        }
+        return lean;
+    }
+
+    private static double reference(double lean, double pitchRate, double yawRate,
+                                    double lateralAccel, double verticalAccel, double speedKph) {
+        if (speedKph >= MIN_KINEMATIC_SPEED_KPH) {
+            // Heading rate about the vertical, from the bike-frame rates at the current lean
+            double leanRadians = Math.toRadians(lean);
+            double headingRate = yawRate * Math.cos(leanRadians)
+                    - (Double.isNaN(pitchRate) ? 0 : pitchRate) * Math.sin(leanRadians);
+            return Math.toDegrees(Math.atan(speedKph / 3.6 * Math.toRadians(headingRate) / GRAVITY));
+        }
+        if (Double.isNaN(lateralAccel) || Double.isNaN(verticalAccel)) {
+            return Double.NaN;
+        }
+        return Math.toDegrees(Math.atan2(-lateralAccel, verticalAccel));
+    }
+
+    private void learnMountOffset(long frameMillis, long localMillis, double rollRate) {
+        if (Math.abs(bikeLean) > UPRIGHT_LEAN || Math.abs(rollRate) > UPRIGHT_RATE) {
+            uprightSinceMillis = Long.MIN_VALUE;
+            return;
+        }
+        if (uprightSinceMillis == Long.MIN_VALUE) {
+            uprightSinceMillis = frameMillis;
+        }
+        if (frameMillis - uprightSinceMillis < UPRIGHT_HOLD_MILLIS) {
+            return;
+        }
+        double phone = phoneLeanAt(localMillis);
+        if (!Double.isNaN(phone)) {
+            mountOffset += OFFSET_GAIN * ((phone - bikeLean) - mountOffset);
+        }
+    }
+
+    /** Phone lean at {@code localMillis}, interpolated; NaN outside the history */
+    private double phoneLeanAt(long localMillis) {
+        int newer = -1;
+        for (int n = 0; n < phoneCount; n++) {
+            int i = (phoneHead + PHONE_HISTORY - 1 - n) % PHONE_HISTORY;
+            if (phoneMillis[i] <= localMillis) {
+                if (newer < 0) {
+                    // Newer than the newest sample; good enough if that is recent
+                    return localMillis - phoneMillis[i] <= PHONE_TIMEOUT_MILLIS ? phoneLeans[i] : Double.NaN;
+                }
+                long span = phoneMillis[newer] - phoneMillis[i];
+                double fraction = span == 0 ? 0 : (double) (localMillis - phoneMillis[i]) / span;
+                return phoneLeans[i] + fraction * (phoneLeans[newer] - phoneLeans[i]);
+            }
+            newer = i;
+        }
+        return Double.NaN;
+    }
+
+    public boolean hasBikeImu(long nowMillis) {
+        return hasBike && nowMillis - bikeLocalMillis <= BIKE_TIMEOUT_MILLIS;
+    }
+
+    /** Best lean for {@code nowMillis} on the local clock, NaN with neither sensor */
+    public double lean(long nowMillis) {
+        double phoneNow = phoneLeanAt(nowMillis);
+        if (hasBikeImu(nowMillis)) {
+            double phoneThen = phoneLeanAt(bikeLocalMillis);
+            if (!Double.isNaN(phoneNow) && !Double.isNaN(phoneThen)) {
+                return bikeLean + (phoneNow - phoneThen);
+            }
+            return bikeLean + bikeRollRate * Math.min(nowMillis - bikeLocalMillis, MAX_STEP_MILLIS) / 1000.0;
+        }
+        return phoneNow - mountOffset;
+    }
+}
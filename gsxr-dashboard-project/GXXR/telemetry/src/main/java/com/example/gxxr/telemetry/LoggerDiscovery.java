@@ -0,0 +1,120 @@
+package com.example.gxxr.telemetry;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Finds the logger's REQ server without configuration: a "DISCOVER" probe goes to the
+ * logger port on each probe address (typically the LAN broadcast address and
+ * loopback), and gsxr_logger_v5.py answers with {"gsxr_logger": 5, "req_port": ...}
+ * from the address the dash should use. The last endpoint that delivered frames is
+ * cached in a small file so the next start can send its first request straight away.
+ */
+public final class LoggerDiscovery {
+
+    public static final String PROBE = "DISCOVER";
+    public static final String REPLY_KEY = "gsxr_logger";
+    public static final String PORT_KEY = "req_port";
+
+    private final int port;
+    private final File cacheFile;
+    private InetSocketAddress remembered;
+
+    /** Probes go to {@code port}; the endpoint is cached in {@code cacheFile} */
+    public LoggerDiscovery(int port, File cacheFile) {
+        this.port = port;
+        this.cacheFile = cacheFile;
+    }
+
+    /** The endpoint last passed to {@link #remember}, or null; addresses are numeric, nothing is resolved */
+    public InetSocketAddress cachedEndpoint() {
+        if (remembered != null || !cacheFile.exists()) {
+            return remembered;
+        }
+        try {
+            BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(cacheFile), StandardCharsets.UTF_8));
+            try {
+                String[] parts = in.readLine().trim().split(" ");
+                remembered = new InetSocketAddress(InetAddress.getByName(parts[0]), Integer.parseInt(parts[1]));
+            } finally {
+                in.close();
+            }
+        } catch (Exception e) {
+            // Torn or foreign file; discovery will replace it
+            remembered = null;
+        }
+        return remembered;
+    }
+
+    /** Caches {@code endpoint} for the next start; writes only when it changed */
+    public void remember(InetSocketAddress endpoint) throws IOException {
+        if (endpoint.equals(cachedEndpoint())) {
+            return;
+        }
+        File temp = new File(cacheFile.getPath() + ".tmp");
+        FileOutputStream out = new FileOutputStream(temp);
+        try {
+            out.write((endpoint.getAddress().getHostAddress() + " " + endpoint.getPort() + "\n").getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        } finally {
+            out.close();
+        }
+        if (!temp.renameTo(cacheFile)) {
+            throw new IOException("Could not replace " + cacheFile);
+        }
+        remembered = endpoint;
+    }
+
+    /**
+     * Probes every address and returns the first logger to answer within
+     * {@code timeoutMillis}, or null. Frame replies still in flight on the socket are
+     * skipped. Broadcast addresses need {@link DatagramSocket#setBroadcast}; the socket
+     * timeout is restored afterwards.
+     */
+    public InetSocketAddress discover(DatagramSocket socket, int timeoutMillis, InetAddress... probeAddresses) throws IOException {
+        byte[] probe = PROBE.getBytes(StandardCharsets.UTF_8);
+        for (InetAddress address : probeAddresses) {
+            try {
+                socket.send(new DatagramPacket(probe, probe.length, address, port));
+            } catch (IOException e) {
+                // No route for this one (e.g. broadcast without Wi-Fi), try the others
+            }
+        }
+
+        int previousTimeout = socket.getSoTimeout();
+        byte[] buffer = new byte[256];
+        DatagramPacket reply = new DatagramPacket(buffer, buffer.length);
+        long deadline = System.nanoTime() + timeoutMillis * 1_000_000L;
+        try {
+            while (true) {
+                long remainingMillis = (deadline - System.nanoTime()) / 1_000_000L;
+                if (remainingMillis <= 0) {
+                    return null;
+                }
+                socket.setSoTimeout((int) remainingMillis);
+                reply.setLength(buffer.length);
+                socket.receive(reply);
+                String text = new String(reply.getData(), reply.getOffset(), reply.getLength(), StandardCharsets.UTF_8);
+                if (Double.isNaN(FlatFrameParser.findNumber(text, REPLY_KEY))) {
+                    continue;
+                }
+                double replyPort = FlatFrameParser.findNumber(text, PORT_KEY);
+                return new InetSocketAddress(reply.getAddress(), Double.isNaN(replyPort) ? reply.getPort() : (int) replyPort);
+            }
+        } catch (SocketTimeoutException e) {
+            return null;
+        } finally {
+            socket.setSoTimeout(previousTimeout);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.gxxr.telemetry;
+
+import java.util.Arrays;
+
+/**
+ * Running median over the last {@code window} samples, for rejecting single-sample
+ * spikes such as sonar echoes. The window is kept sorted incrementally, so each
+ * sample costs O(window) with no allocation.
+ */
+public final class MedianFilter {
+
+    private final DoubleRingBuffer history;
+    private final double[] sorted;
+    private int count;
+
+    public MedianFilter(int window) {
+        history = new DoubleRingBuffer(window);
+        sorted = new double[window];
+    }
+
+    public void reset() {
+        history.clear();
+        count = 0;
+    }
+
+    public double update(long timestampMillis, double value) {
+        double evicted = history.add(timestampMillis, value);
+        if (!Double.isNaN(evicted)) {
+            int index = Arrays.binarySearch(sorted, 0, count, evicted);
+            System.arraycopy(sorted, index + 1, sorted, index, count - index - 1);
+            count--;
+        }
+        int insert = Arrays.binarySearch(sorted, 0, count, value);
+        if (insert < 0) {
+            insert = -insert - 1;
+        }
+        System.arraycopy(sorted, insert, sorted, insert + 1, count - insert);
+        sorted[insert] = value;
+        count++;
+
+        if ((count & 1) == 1) {
+            return sorted[count / 2];
+        }
+        return (sorted[count / 2 - 1] + sorted[count / 2]) / 2;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.gxxr.telemetry;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.MulticastSocket;
+
+/**
+ * Sends every frame once to a UDP multicast group. The network does the fan-out,
+ * so the cost per frame is one send no matter how many pit-side viewers listen.
+ */
+public final class MulticastFramePublisher implements FramePublisher {
+
+    public static final String DEFAULT_GROUP = "239.10.0.1";
+    public static final int DEFAULT_PORT = 9200;
+
+    private final MulticastSocket socket;
+    private final DatagramPacket packet;
+    private volatile long sendFailures;
+
+    public MulticastFramePublisher(String group, int port, int timeToLive) throws IOException {
+        socket = new MulticastSocket();
+        socket.setTimeToLive(timeToLive);
+        packet = new DatagramPacket(new byte[0], 0, InetAddress.getByName(group), port);
+    }
+
+    @Override
+    public void publish(byte[] frame, int offset, int length) {
+        try {
+            packet.setData(frame, offset, length);
+            socket.send(packet);
+        } catch (IOException e) {
+            // Best effort, a missed broadcast frame is superseded 20 ms later
+            sendFailures++;
+        }
+    }
+
+    public long sendFailures() {
+        return sendFailures;
+    }
+
+    @Override
+    public void close() {
+        socket.close();
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.gxxr.telemetry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One stoppable worker of the dashboard pipeline (network receive, lap timer, ...).
+ *
+ * {@link #start()} runs {@link #onStart()} and then {@link #runOnce()} in a loop on a
+ * single thread; calling it again while running does nothing, so lifecycle callbacks
+ * can never stack up duplicate threads. {@link #stop()} interrupts the loop, calls
+ * {@link #wakeUp()} to unblock I/O, and waits up to two seconds for the thread to
+ * finish; {@link TelemetryPipeline} signals all its stages before waiting on any.
+ * An exception from one iteration is logged and retried after a short delay instead
+ * of killing the stage.
+ */
+public abstract class PipelineStage {
+
+    private static final long RETRY_DELAY_MILLIS = 1000;
+    static final long STOP_TIMEOUT_MILLIS = 2000;
+
+    private final String name;
+    // The current worker; a worker that finds itself replaced (e.g. it outlived a stop timeout) exits
+    private volatile Thread thread;
+
+    protected PipelineStage(String name) {
+        this.name = name;
+    }
+
+    /** Worker thread, before the first iteration */
+    protected void onStart() throws Exception {
+    }
+
+    /** Worker thread; one iteration, usually ending in a sleep or blocking read */
+    protected abstract void runOnce() throws Exception;
+
+    /** Worker thread, after the loop ends; release what onStart acquired */
+    protected void onStop() {
+    }
+
+    /** Caller thread during stop(); unblock anything interrupt() cannot, e.g. close a socket */
+    protected void wakeUp() {
+    }
+
+    public final String name() {
+        return name;
+    }
+
+    public final boolean isRunning() {
+        return thread != null;
+    }
+
+    public final synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        Thread worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                loop(Thread.currentThread());
+            }
+        }, name);
+        thread = worker;
+        worker.start();
+    }
+
+    public final void stop() {
+        awaitStop(requestStop(), System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(STOP_TIMEOUT_MILLIS));
+    }
+
+    /** Signals the worker to stop without waiting; returns it for awaitStop, or null if not running */
+    final synchronized Thread requestStop() {
+        Thread worker = thread;
+        if (worker == null) {
+            return null;
+        }
+        thread = null;
+        // Interrupt before waking up: I/O that starts after wakeUp() still sees the interrupt
+        worker.interrupt();
+        wakeUp();
+        return worker;
+    }
+
+    /** Waits for a worker from requestStop until {@code deadlineNanos} on the System.nanoTime clock */
+    static void awaitStop(Thread worker, long deadlineNanos) {
+        if (worker == null) {
+            return;
+        }
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+        try {
+            worker.join(Math.max(1, remainingMillis));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void loop(Thread self) {
+        boolean started = false;
+        try {
+            while (thread == self) {
+                try {
+                    if (!started) {
+                        onStart();
+                        started = true;
+                        // Re-check before blocking, stop() may have come in during onStart
+                        continue;
+                    }
+                    runOnce();
+                } catch (InterruptedException e) {
+                    break;
+                } catch (Exception e) {
+                    if (thread != self) {
+                        break;
+                    }
+                    e.printStackTrace();
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                }
+            }
+        } catch (InterruptedException ignored) {
+            // Stopped while backing off
+        } finally {
+            onStop();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.gxxr.telemetry;
+
+/**
+ * Picks a rendering quality tier from the device thermal status and measured frame
+ * times.
+ *
+ * Thermal status sets a floor that applies immediately. Frame times move the tier
+ * one step at a time: down when too many frames in a window miss the budget, and
+ * back up only after frames have stayed clean for {@link #STEP_UP_HOLD_MILLIS}, so
+ * the dash does not flap between tiers at the edge of throttling.
+ */
+public final class QualityGovernor {
+
+    public interface Listener {
+        void onTierChanged(int tier, String reason);
+    }
+
+    public static final int TIER_FULL = 0;              // everything on
+    public static final int TIER_NO_GLOW = 1;           // glow shadows off
+    public static final int TIER_REDUCED_SENSORS = 2;   // + slower phone sensor rate
+    public static final int TIER_MINIMAL = 3;           // + slow channels refreshed at a low rate
+
+    // PowerManager.THERMAL_STATUS_* values, mirrored so this stays plain Java
+    public static final int THERMAL_NONE = 0;
+    public static final int THERMAL_LIGHT = 1;
+    public static final int THERMAL_MODERATE = 2;
+    public static final int THERMAL_SEVERE = 3;
+
+    static final int WINDOW_FRAMES = 60;
+    static final double JANK_FACTOR = 1.5;
+    static final double STEP_DOWN_JANK_RATIO = 0.25;
+    static final double STEP_UP_JANK_RATIO = 0.05;
+    static final long STEP_DOWN_HOLD_MILLIS = 2000;
+    static final long STEP_UP_HOLD_MILLIS = 10000;
+    // Longer gaps mean the callback was not running (paused, splash), not jank
+    private static final long MAX_FRAME_INTERVAL_NANOS = 250_000_000L;
+
+    private final long jankThresholdNanos;
+    private final Listener listener;
+
+    private int tier = TIER_FULL;
+    private int thermalFloor = TIER_FULL;
+    private long lastFrameNanos = -1;
+    private int windowFrames, windowJankFrames;
+    private long lastChangeMillis;
+    private long cleanSinceMillis = -1;
+
+    public QualityGovernor(long frameBudgetNanos, Listener listener) {
+        this.jankThresholdNanos = (long) (frameBudgetNanos * JANK_FACTOR);
+        this.listener = listener;
+    }
+
+    public int tier() {
+        return tier;
+    }
+
+    public static String tierName(int tier) {
+        switch (tier) {
+            case TIER_FULL:
+                return "full";
+            case TIER_NO_GLOW:
+                return "no-glow";
+            case TIER_REDUCED_SENSORS:
+                return "reduced-sensors";
+            default:
+                return "minimal";
+        }
+    }
+
+    /**
+     * Feeds a thermal status change. {@code nowMillis} must be on the frame time clock,
+     * System.nanoTime() / 1e6 for Choreographer, since tier holds compare the two.
+     */
+    public void onThermalStatus(int status, long nowMillis) {
+        if (status >= THERMAL_SEVERE) {
+            thermalFloor = TIER_MINIMAL;
+        } else if (status == THERMAL_MODERATE) {
+            thermalFloor = TIER_REDUCED_SENSORS;
+        } else if (status == THERMAL_LIGHT) {
+            thermalFloor = TIER_NO_GLOW;
+        } else {
+            thermalFloor = TIER_FULL;
+        }
+        if (tier < thermalFloor) {
+            setTier(thermalFloor, nowMillis, "thermal status " + status);
+        }
+    }
+
+    /** Feeds one vsync timestamp, e.g. from a Choreographer frame callback */
+    public void onFrame(long frameTimeNanos) {
+        long previous = lastFrameNanos;
+        lastFrameNanos = frameTimeNanos;
+        if (previous < 0) {
+            return;
+        }
+        long interval = frameTimeNanos - previous;
+        if (interval <= 0 || interval > MAX_FRAME_INTERVAL_NANOS) {
+            windowFrames = 0;
+            windowJankFrames = 0;
+            cleanSinceMillis = -1;
+            return;
+        }
+
+        windowFrames++;
+        if (interval > jankThresholdNanos) {
+            windowJankFrames++;
+        }
+        if (windowFrames == WINDOW_FRAMES) {
+            evaluate((double) windowJankFrames / windowFrames, frameTimeNanos / 1_000_000L);
+            windowFrames = 0;
+            windowJankFrames = 0;
+        }
+    }
+
+    private void evaluate(double jankRatio, long nowMillis) {
+        if (jankRatio > STEP_DOWN_JANK_RATIO) {
+            cleanSinceMillis = -1;
+            // Give the previous step time to take effect before going further
+            if (tier < TIER_MINIMAL && nowMillis - lastChangeMillis >= STEP_DOWN_HOLD_MILLIS) {
+                setTier(tier + 1, nowMillis, Math.round(jankRatio * 100) + "% janky frames");
+            }
+        } else if (jankRatio < STEP_UP_JANK_RATIO) {
+            if (cleanSinceMillis < 0) {
+                cleanSinceMillis = nowMillis;
+            }
+            if (tier > thermalFloor && nowMillis - cleanSinceMillis >= STEP_UP_HOLD_MILLIS
+                    && nowMillis - lastChangeMillis >= STEP_UP_HOLD_MILLIS) {
+                setTier(tier - 1, nowMillis, "frame times recovered");
+                cleanSinceMillis = nowMillis;
+            }
+        } else {
+            cleanSinceMillis = -1;
+        }
+    }
+
+    private void setTier(int newTier, long nowMillis, String reason) {
+        tier = newTier;
+        lastChangeMillis = nowMillis;
+        if (listener != null) {
+            listener.onTierChanged(newTier, reason);
+        }
+    }
+}
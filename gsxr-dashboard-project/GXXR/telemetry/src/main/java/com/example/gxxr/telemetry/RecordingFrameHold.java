@@ -0,0 +1,64 @@
+package com.example.gxxr.telemetry;
+
+/**
+ * Picks the frames the session recording and pit-side viewers get while the dash
+ * polls a {@link FrameSubscription} projection.
+ *
+ * Every new frame is recorded, projected or not, but one frame late: it is held
+ * until the next frame_idx comes in, so a full reply for the same frame can still
+ * take its place. The poll asks for the full frame once {@link #isFullFrameDue} says
+ * so, which gives the recording every key at that interval without a second round
+ * trip ahead of the display. Not thread safe; use from the receiving thread.
+ */
+public final class RecordingFrameHold {
+
+    private final long fullFrameIntervalMicros;
+    private String heldFrame;
+    private double heldFrameIndex = Double.NaN;
+    private boolean isHeldFrameFull;
+    private long lastFullFrameMicros = Long.MIN_VALUE;
+
+    public RecordingFrameHold(long fullFrameIntervalMicros) {
+        if (fullFrameIntervalMicros <= 0) {
+            throw new IllegalArgumentException("Full frame interval must be positive");
+        }
+        this.fullFrameIntervalMicros = fullFrameIntervalMicros;
+    }
+
+    /** True if the next poll should ask for the full frame */
+    public boolean isFullFrameDue(long localMicros) {
+        return lastFullFrameMicros == Long.MIN_VALUE || localMicros - lastFullFrameMicros >= fullFrameIntervalMicros;
+    }
+
+    /**
+     * Takes a reply received at dash time {@code localMicros}, {@code isFull} if it
+     * carries every key. Returns the frame now due for recording, or null.
+     */
+    public String onFrame(String json, boolean isFull, long localMicros) {
+        double frameIndex = FlatFrameParser.findNumber(json, FrameAgeTracker.FRAME_INDEX_KEY);
+        if (isFull) {
+            lastFullFrameMicros = localMicros;
+        }
+        if (heldFrame != null && frameIndex == heldFrameIndex) {
+            // The same frame again; only a full copy of a projected one is worth keeping
+            if (isFull && !isHeldFrameFull) {
+                heldFrame = json;
+                isHeldFrameFull = true;
+            }
+            return null;
+        }
+        String released = heldFrame;
+        heldFrame = json;
+        heldFrameIndex = frameIndex;
+        isHeldFrameFull = isFull;
+        return released;
+    }
+
+    /** Releases the held frame, e.g. when the receiver stops; null if there is none */
+    public String flush() {
+        String released = heldFrame;
+        heldFrame = null;
+        heldFrameIndex = Double.NaN;
+        return released;
+    }
+}
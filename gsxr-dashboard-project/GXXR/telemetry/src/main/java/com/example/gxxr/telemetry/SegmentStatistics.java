@@ -0,0 +1,172 @@
+package com.example.gxxr.telemetry;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Aggregates for one stretch of riding (a whole session or a single lap).
+ */
+public final class SegmentStatistics {
+
+    private static final double[] SPEED_BANDS = {50, 100, 150, 200, 250};
+    private static final double[] TYRE_TEMP_BANDS = {40, 60, 80, 100};
+    private static final double[] BRAKE_DISK_TEMP_BANDS = {50, 100, 200, 300};
+    private static final double[] COOLANT_TEMP_BANDS = {60, 85, 100, 110};
+    private static final double[] FRONT_SUSPENSION_BANDS = {24, 32, 48, 64, 72};
+    private static final double[] REAR_SUSPENSION_BANDS = {48, 64, 96, 112, 120};
+    private static final double[] LEAN_ANGLE_BANDS = {-45, -30, -15, 15, 30, 45};
+    private static final double[] FRAME_AGE_BANDS = {20, 50, 100, 250};
+    private static final double[] BRAKING_G_BANDS = {0.2, 0.5, 0.8, 1.0};
+
+    // Channels aggregated per segment; everything else in the frame is ignored
+    static final int[] TRACKED_CHANNELS = {
+            TelemetryChannels.WHEEL_SPEED,
+            TelemetryChannels.FRONT_BRAKE_DISK_TEMP,
+            TelemetryChannels.COOLANT_TEMP,
+            TelemetryChannels.FRONT_TYRE_S1,
+            TelemetryChannels.FRONT_TYRE_S2,
+            TelemetryChannels.FRONT_TYRE_S3,
+            TelemetryChannels.REAR_TYRE_S1,
+            TelemetryChannels.REAR_TYRE_S2,
+            TelemetryChannels.REAR_TYRE_S3,
+            TelemetryChannels.FRONT_SUSPENSION,
+            TelemetryChannels.REAR_SUSPENSION,
+            TelemetryChannels.LEAN_ANGLE,
+            TelemetryChannels.FRAME_AGE,
+            TelemetryChannels.BRAKING_G,
+    };
+
+    private final ChannelStatistics[] channels = new ChannelStatistics[TelemetryChannels.COUNT];
+    private long startMillis, endMillis;
+    private int frontBrakeApplications, rearBrakeApplications;
+    private boolean frontBrakeApplied, rearBrakeApplied;
+
+    public SegmentStatistics() {
+        for (int channel : TRACKED_CHANNELS) {
+            channels[channel] = new ChannelStatistics(bandsFor(channel));
+        }
+    }
+
+    private static double[] bandsFor(int channel) {
+        switch (channel) {
+            case TelemetryChannels.WHEEL_SPEED:
+                return SPEED_BANDS;
+            case TelemetryChannels.FRONT_BRAKE_DISK_TEMP:
+                return BRAKE_DISK_TEMP_BANDS;
+            case TelemetryChannels.COOLANT_TEMP:
+                return COOLANT_TEMP_BANDS;
+            case TelemetryChannels.FRONT_SUSPENSION:
+                return FRONT_SUSPENSION_BANDS;
+            case TelemetryChannels.REAR_SUSPENSION:
+                return REAR_SUSPENSION_BANDS;
+            case TelemetryChannels.LEAN_ANGLE:
+                return LEAN_ANGLE_BANDS;
+            case TelemetryChannels.FRAME_AGE:
+                return FRAME_AGE_BANDS;
+            case TelemetryChannels.BRAKING_G:
+                return BRAKING_G_BANDS;
+            default:
+                return TYRE_TEMP_BANDS;
+        }
+    }
+
+    public void reset(long timestampMillis) {
+        for (int channel : TRACKED_CHANNELS) {
+            channels[channel].reset();
+        }
+        startMillis = timestampMillis;
+        endMillis = timestampMillis;
+        frontBrakeApplications = 0;
+        rearBrakeApplications = 0;
+        frontBrakeApplied = false;
+        rearBrakeApplied = false;
+    }
+
+    public void add(TelemetryFrame frame) {
+        long ts = frame.timestampMillis;
+        if (startMillis == 0) {
+            startMillis = ts;
+        }
+        endMillis = ts;
+
+        for (int channel : TRACKED_CHANNELS) {
+            channels[channel].add(ts, frame.values[channel]);
+        }
+
+        // Count rising edges only, a held lever is one application
+        if (frame.has(TelemetryChannels.FRONT_BRAKE)) {
+            boolean applied = frame.values[TelemetryChannels.FRONT_BRAKE] == TelemetryChannels.BRAKE_APPLIED;
+            if (applied && !frontBrakeApplied) frontBrakeApplications++;
+            frontBrakeApplied = applied;
+        }
+        if (frame.has(TelemetryChannels.REAR_BRAKE)) {
+            boolean applied = frame.values[TelemetryChannels.REAR_BRAKE] == TelemetryChannels.BRAKE_APPLIED;
+            if (applied && !rearBrakeApplied) rearBrakeApplications++;
+            rearBrakeApplied = applied;
+        }
+    }
+
+    /** Statistics for a tracked channel, or null if the channel is not aggregated */
+    public ChannelStatistics channel(int channel) {
+        return channels[channel];
+    }
+
+    public long startMillis() {
+        return startMillis;
+    }
+
+    public long durationMillis() {
+        return endMillis - startMillis;
+    }
+
+    public int frontBrakeApplications() {
+        return frontBrakeApplications;
+    }
+
+    public int rearBrakeApplications() {
+        return rearBrakeApplications;
+    }
+
+    public void copyFrom(SegmentStatistics other) {
+        for (int channel : TRACKED_CHANNELS) {
+            channels[channel].copyFrom(other.channels[channel]);
+        }
+        startMillis = other.startMillis;
+        endMillis = other.endMillis;
+        frontBrakeApplications = other.frontBrakeApplications;
+        rearBrakeApplications = other.rearBrakeApplications;
+        frontBrakeApplied = other.frontBrakeApplied;
+        rearBrakeApplied = other.rearBrakeApplied;
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(startMillis);
+        out.writeLong(endMillis);
+        out.writeInt(frontBrakeApplications);
+        out.writeInt(rearBrakeApplications);
+        out.writeByte(TRACKED_CHANNELS.length);
+        for (int channel : TRACKED_CHANNELS) {
+            out.writeByte(channel);
+            channels[channel].writeTo(out);
+        }
+    }
+
+    void readFrom(DataInput in) throws IOException {
+        reset(0);
+        startMillis = in.readLong();
+        endMillis = in.readLong();
+        frontBrakeApplications = in.readInt();
+        rearBrakeApplications = in.readInt();
+        int tracked = in.readUnsignedByte();
+        for (int i = 0; i < tracked; i++) {
+            int channel = in.readUnsignedByte();
+            ChannelStatistics statistics = channel < channels.length ? channels[channel] : null;
+            if (statistics == null) {
+                // Channel no longer tracked, read into a throwaway so the stream stays aligned
+                statistics = new ChannelStatistics(TYRE_TEMP_BANDS);
+            }
+            statistics.readFrom(in);
+        }
+    }
+}
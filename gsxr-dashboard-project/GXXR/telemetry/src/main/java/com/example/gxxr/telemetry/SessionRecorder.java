@@ -0,0 +1,207 @@
+package com.example.gxxr.telemetry;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Records raw logger frames into a session archive on its own thread.
+ *
+ * {@link #offer(String)} never blocks the caller: if the writer falls behind the
+ * frame is dropped and counted. The archive is written as {@code <id>.gsxa.part}
+ * and only renamed to {@code <id>.gsxa} once closed, so uploaders never pick up a
+ * session that is still being written.
+ *
+ * Finished archives are deleted by the uploader once sent. So that storage stays
+ * bounded when they can't be sent, each new session first deletes the oldest
+ * finished archives until the rest fit within the recorder's byte cap, and deletes
+ * any {@code .part} left by a crash (its channel names are in the footer it never
+ * got, so it can't be finished). While recording, older archives make way as the
+ * session grows; a session that alone reaches the cap is finished there, and the
+ * rest of it is not recorded.
+ */
+public final class SessionRecorder {
+
+    private static final int QUEUE_CAPACITY = 512;
+    private static final long POLL_TIMEOUT_MILLIS = 200;
+    private static final String PART_SUFFIX = SessionUploader.ARCHIVE_SUFFIX + ".part";
+    private static final Logger LOG = Logger.getLogger(SessionRecorder.class.getName());
+
+    private final File directory;
+    private final long maxArchiveBytes;
+    private final ArrayBlockingQueue<String> frames = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private volatile boolean isRecording = false;
+    private volatile boolean hasReachedCap = false;
+    private volatile long droppedFrames;
+    private Thread writerThread;
+
+    public SessionRecorder(File directory, long maxArchiveBytes) {
+        if (maxArchiveBytes <= 0) {
+            throw new IllegalArgumentException("Archive cap must be positive");
+        }
+        this.directory = directory;
+        this.maxArchiveBytes = maxArchiveBytes;
+    }
+
+    public synchronized void start(final String sessionId) {
+        if (isRecording) {
+            return;
+        }
+        directory.mkdirs();
+        deleteStaleParts(directory);
+        pruneArchives(directory, maxArchiveBytes);
+        frames.clear();
+        hasReachedCap = false;
+        isRecording = true;
+
+        writerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                File part = new File(directory, sessionId + PART_SUFFIX);
+                File archive = new File(directory, sessionId + SessionUploader.ARCHIVE_SUFFIX);
+                try {
+                    TelemetryArchiveWriter writer = new TelemetryArchiveWriter(part);
+                    try {
+                        TelemetryArchiveImporter importer = new TelemetryArchiveImporter(writer);
+                        long budget = maxArchiveBytes - archivedBytes(directory);
+                        while ((isRecording || !frames.isEmpty()) && !hasReachedCap) {
+                            String frame = frames.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                            if (frame == null) {
+                                continue;
+                            }
+                            importer.importFrame(frame);
+                            // bytesWritten only moves when a chunk is flushed, so this runs once a chunk
+                            if (writer.bytesWritten() > budget) {
+                                pruneArchives(directory, Math.max(0, maxArchiveBytes - writer.bytesWritten()));
+                                budget = maxArchiveBytes - archivedBytes(directory);
+                                if (writer.bytesWritten() > budget) {
+                                    hasReachedCap = true;
+                                    LOG.warning("Session " + sessionId + " reached the " + maxArchiveBytes
+                                            + " byte archive cap, the rest of it is not recorded");
+                                }
+                            }
+                        }
+                    } finally {
+                        writer.close();
+                    }
+                    if (!part.renameTo(archive)) {
+                        throw new IOException("Could not finish " + archive);
+                    }
+                } catch (Exception e) {
+                    LOG.log(Level.WARNING, "Recording " + sessionId + " failed", e);
+                    // Nothing can finish it later
+                    if (part.exists() && !part.delete()) {
+                        LOG.warning("Could not delete " + part);
+                    }
+                }
+            }
+        }, "session-recorder");
+
+        writerThread.start();
+    }
+
+    /** Queues a frame for recording; returns false if not recording, capped or the queue is full */
+    public boolean offer(String frameJson) {
+        if (!isRecording || hasReachedCap) {
+            return false;
+        }
+        if (!frames.offer(frameJson)) {
+            droppedFrames++;
+            return false;
+        }
+        return true;
+    }
+
+    /** Stops recording and waits for the archive to be closed */
+    public synchronized void stop() {
+        if (!isRecording) {
+            return;
+        }
+        isRecording = false;
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writerThread = null;
+    }
+
+    /**
+     * Deletes the oldest finished archives in {@code directory} until the rest add up
+     * to {@code maxBytes} or less. Session ids start with their date, so name order
+     * is age order. Returns how many were deleted.
+     */
+    static int pruneArchives(File directory, long maxBytes) {
+        File[] archives = directory.listFiles();
+        if (archives == null) {
+            return 0;
+        }
+        Arrays.sort(archives);
+        long total = archivedBytes(directory);
+        int deleted = 0;
+        for (int i = 0; i < archives.length && total > maxBytes; i++) {
+            File archive = archives[i];
+            if (!archive.getName().endsWith(SessionUploader.ARCHIVE_SUFFIX)) {
+                continue;
+            }
+            long length = archive.length();
+            if (archive.delete()) {
+                total -= length;
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    /** Total size of the finished archives in {@code directory} */
+    static long archivedBytes(File directory) {
+        File[] archives = directory.listFiles();
+        long total = 0;
+        if (archives != null) {
+            for (File archive : archives) {
+                if (archive.getName().endsWith(SessionUploader.ARCHIVE_SUFFIX)) {
+                    total += archive.length();
+                }
+            }
+        }
+        return total;
+    }
+
+    /** Deletes archives a crashed recorder never finished; only call while not recording */
+    static int deleteStaleParts(File directory) {
+        File[] parts = directory.listFiles();
+        if (parts == null) {
+            return 0;
+        }
+        int deleted = 0;
+        for (File part : parts) {
+            if (!part.getName().endsWith(PART_SUFFIX)) {
+                continue;
+            }
+            if (part.delete()) {
+                LOG.warning("Deleted unfinished archive " + part.getName());
+                deleted++;
+            } else {
+                LOG.warning("Could not delete unfinished archive " + part.getName());
+            }
+        }
+        return deleted;
+    }
+
+    public boolean isRecording() {
+        return isRecording;
+    }
+
+    /** True once the running session has filled the archive cap and stopped being written */
+    public boolean hasReachedCap() {
+        return hasReachedCap;
+    }
+
+    public long droppedFrames() {
+        return droppedFrames;
+    }
+}
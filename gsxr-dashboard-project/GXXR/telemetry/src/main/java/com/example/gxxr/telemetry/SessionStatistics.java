@@ -0,0 +1,133 @@
+package com.example.gxxr.telemetry;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental session and per-lap statistics fed one frame at a time.
+ *
+ * Updates and queries are synchronized so the UI thread can feed frames while
+ * another thread takes a snapshot. {@link #toByteArray()} only copies a few
+ * primitive arrays under the lock; writing the file can then happen anywhere.
+ */
+public final class SessionStatistics {
+
+    private static final int SNAPSHOT_MAGIC = 0x47535853; // "GSXS"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int MAX_LAP_HISTORY = 64;
+
+    private final SegmentStatistics session = new SegmentStatistics();
+    private final SegmentStatistics currentLap = new SegmentStatistics();
+    private final List<SegmentStatistics> completedLaps = new ArrayList<>();
+    private boolean isLapOpen = false;
+
+    public synchronized void onFrame(TelemetryFrame frame) {
+        session.add(frame);
+        if (isLapOpen) {
+            currentLap.add(frame);
+        }
+    }
+
+    public synchronized void beginLap(long timestampMillis) {
+        currentLap.reset(timestampMillis);
+        isLapOpen = true;
+    }
+
+    /** Closes the running lap and keeps its aggregates in the lap history */
+    public synchronized void completeLap() {
+        if (!isLapOpen) {
+            return;
+        }
+        SegmentStatistics lap = new SegmentStatistics();
+        lap.copyFrom(currentLap);
+        if (completedLaps.size() == MAX_LAP_HISTORY) {
+            completedLaps.remove(0);
+        }
+        completedLaps.add(lap);
+        isLapOpen = false;
+    }
+
+    public synchronized void resetSession(long timestampMillis) {
+        session.reset(timestampMillis);
+        currentLap.reset(timestampMillis);
+        completedLaps.clear();
+        isLapOpen = false;
+    }
+
+    public synchronized boolean isLapOpen() {
+        return isLapOpen;
+    }
+
+    public synchronized int completedLapCount() {
+        return completedLaps.size();
+    }
+
+    /** Copies the session aggregates into {@code out} so they can be read without holding the lock */
+    public synchronized void copySession(SegmentStatistics out) {
+        out.copyFrom(session);
+    }
+
+    public synchronized void copyCurrentLap(SegmentStatistics out) {
+        out.copyFrom(currentLap);
+    }
+
+    public synchronized void copyCompletedLap(int index, SegmentStatistics out) {
+        out.copyFrom(completedLaps.get(index));
+    }
+
+    public synchronized byte[] toByteArray() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(2048);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            session.writeTo(out);
+            out.writeBoolean(isLapOpen);
+            currentLap.writeTo(out);
+            out.writeShort(completedLaps.size());
+            for (SegmentStatistics lap : completedLaps) {
+                lap.writeTo(out);
+            }
+            out.flush();
+        } catch (IOException e) {
+            // ByteArrayOutputStream does not throw
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public synchronized void restore(byte[] snapshot) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(snapshot));
+        if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+            throw new IOException("Not a session statistics snapshot");
+        }
+        session.readFrom(in);
+        isLapOpen = in.readBoolean();
+        currentLap.readFrom(in);
+        completedLaps.clear();
+        int laps = in.readUnsignedShort();
+        for (int i = 0; i < laps; i++) {
+            SegmentStatistics lap = new SegmentStatistics();
+            lap.readFrom(in);
+            completedLaps.add(lap);
+        }
+    }
+
+    public void readSnapshot(File file) throws IOException {
+        byte[] snapshot = new byte[(int) file.length()];
+        DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            in.readFully(snapshot);
+        } finally {
+            in.close();
+        }
+        restore(snapshot);
+    }
+}
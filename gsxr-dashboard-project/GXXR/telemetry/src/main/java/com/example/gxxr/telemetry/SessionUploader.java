@@ -0,0 +1,177 @@
+package com.example.gxxr.telemetry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Uploads finished session archives in large gzip batches of whole archive chunks.
+ *
+ * The cursor advances only after the endpoint accepts a batch, so a drop in
+ * connectivity or the bike starting to move simply stops the loop; the next call
+ * resumes from the first unacknowledged chunk. Batches are paced to a byte rate so
+ * the upload never saturates the link the live telemetry uses. An archive is
+ * deleted once the endpoint has all of it; its cursor stays marked complete.
+ */
+public final class SessionUploader {
+
+    public interface UploadGate {
+        /** Checked before every batch, e.g. only while the bike is parked */
+        boolean isUploadAllowed();
+    }
+
+    public static final String ARCHIVE_SUFFIX = ".gsxa";
+
+    private final UploadEndpoint endpoint;
+    private final UploadCursorStore cursors;
+    private final UploadGate gate;
+    private final int chunksPerBatch;
+    private final long maxBytesPerSecond;
+
+    private final StringBuilder line = new StringBuilder(2048);
+
+    public SessionUploader(UploadEndpoint endpoint, UploadCursorStore cursors, UploadGate gate,
+                           int chunksPerBatch, long maxBytesPerSecond) {
+        this.endpoint = endpoint;
+        this.cursors = cursors;
+        this.gate = gate;
+        this.chunksPerBatch = chunksPerBatch;
+        this.maxBytesPerSecond = maxBytesPerSecond;
+    }
+
+    /**
+     * Uploads every archive in {@code directory} that is not complete yet, oldest first,
+     * deleting each one once it is.
+     *
+     * @return true if everything pending was uploaded
+     */
+    public boolean uploadPending(File directory) throws IOException, InterruptedException {
+        File[] archives = directory.listFiles();
+        if (archives == null) {
+            return true;
+        }
+        Arrays.sort(archives);
+        for (File archive : archives) {
+            if (!archive.getName().endsWith(ARCHIVE_SUFFIX)) {
+                continue;
+            }
+            if (!uploadSession(archive)) {
+                return false;
+            }
+            // If this fails the next pass finds its cursor complete and tries again
+            archive.delete();
+        }
+        return true;
+    }
+
+    /** @return true once the whole archive has been accepted by the endpoint */
+    public boolean uploadSession(File archive) throws IOException, InterruptedException {
+        String sessionId = archive.getName().substring(0, archive.getName().length() - ARCHIVE_SUFFIX.length());
+        int nextChunk = cursors.nextChunk(sessionId);
+        if (nextChunk == UploadCursorStore.COMPLETE) {
+            return true;
+        }
+
+        TelemetryArchiveReader reader = new TelemetryArchiveReader(archive);
+        try {
+            int[] channels = new int[reader.channelCount()];
+            String[] names = new String[channels.length];
+            for (int i = 0; i < channels.length; i++) {
+                channels[i] = i;
+                names[i] = reader.channelName(i);
+            }
+
+            while (nextChunk < reader.chunkCount()) {
+                if (!gate.isUploadAllowed() || Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+
+                long started = System.currentTimeMillis();
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream(256 * 1024);
+                Writer out = new OutputStreamWriter(new GZIPOutputStream(compressed, 64 * 1024), "UTF-8");
+                BatchEncoder encoder = new BatchEncoder(out, names);
+                reader.readChunks(nextChunk, chunksPerBatch, channels, encoder);
+                out.close();
+                if (encoder.error != null) {
+                    throw encoder.error;
+                }
+
+                byte[] payload = compressed.toByteArray();
+                endpoint.upload(sessionId, nextChunk, encoder.rows, payload);
+
+                nextChunk = Math.min(reader.chunkCount(), nextChunk + chunksPerBatch);
+                cursors.save(sessionId, nextChunk < reader.chunkCount() ? nextChunk : UploadCursorStore.COMPLETE);
+
+                // Pace batches to the configured byte rate
+                long budgetMillis = payload.length * 1000L / maxBytesPerSecond;
+                long remaining = budgetMillis - (System.currentTimeMillis() - started);
+                if (remaining > 0) {
+                    Thread.sleep(remaining);
+                }
+            }
+            if (reader.chunkCount() == 0) {
+                cursors.save(sessionId, UploadCursorStore.COMPLETE);
+            }
+            return true;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private final class BatchEncoder implements TelemetryArchiveReader.RowVisitor {
+
+        private final Writer out;
+        private final String[] names;
+        private int rows;
+        private IOException error;
+
+        BatchEncoder(Writer out, String[] names) {
+            this.out = out;
+            this.names = names;
+        }
+
+        @Override
+        public void onRow(long timestampMicros, double[] values) {
+            if (error != null) {
+                return;
+            }
+            line.setLength(0);
+            line.append("{\"").append(TelemetryArchiveImporter.TIMESTAMP_KEY).append("\":");
+            appendSeconds(timestampMicros);
+            for (int i = 0; i < values.length; i++) {
+                double value = values[i];
+                if (Double.isNaN(value)) {
+                    continue;
+                }
+                line.append(",\"").append(names[i]).append("\":");
+                if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+                    line.append((long) value);
+                } else {
+                    line.append(value);
+                }
+            }
+            line.append("}\n");
+            try {
+                out.append(line);
+            } catch (IOException e) {
+                error = e;
+            }
+            rows++;
+        }
+
+        private void appendSeconds(long micros) {
+            long seconds = Math.floorDiv(micros, 1000000L);
+            long fraction = Math.floorMod(micros, 1000000L);
+            line.append(seconds).append('.');
+            String digits = Long.toString(fraction);
+            for (int i = digits.length(); i < 6; i++) {
+                line.append('0');
+            }
+            line.append(digits);
+        }
+    }
+}
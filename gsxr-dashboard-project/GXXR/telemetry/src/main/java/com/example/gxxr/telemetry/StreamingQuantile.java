@@ -0,0 +1,115 @@
+package com.example.gxxr.telemetry;
+
+import java.util.Arrays;
+
+/**
+ * Estimates one quantile of a stream with the P-square algorithm (Jain and Chlamtac): five
+ * markers track the minimum, the quantile, the maximum and two points in between,
+ * and are nudged along a parabola as samples arrive. Constant memory and time per
+ * sample, no allocation; the estimate is exact for the first five samples.
+ */
+public final class StreamingQuantile {
+
+    private final double quantile;
+    private final double[] heights = new double[5];
+    private final double[] positions = new double[5];
+    private final double[] desired = new double[5];
+    private final double[] increments;
+    private long count;
+
+    public StreamingQuantile(double quantile) {
+        if (!(quantile > 0 && quantile < 1)) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1");
+        }
+        this.quantile = quantile;
+        increments = new double[]{0, quantile / 2, quantile, (1 + quantile) / 2, 1};
+        reset();
+    }
+
+    public void reset() {
+        count = 0;
+        for (int i = 0; i < 5; i++) {
+            positions[i] = i;
+        }
+        desired[0] = 0;
+        desired[1] = 2 * quantile;
+        desired[2] = 4 * quantile;
+        desired[3] = 2 + 2 * quantile;
+        desired[4] = 4;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    /** NaN is ignored */
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (count < 5) {
+            heights[(int) count++] = value;
+            if (count == 5) {
+                Arrays.sort(heights);
+            }
+            return;
+        }
+        count++;
+
+        int cell;
+        if (value < heights[0]) {
+            heights[0] = value;
+            cell = 0;
+        } else if (value >= heights[4]) {
+            heights[4] = value;
+            cell = 3;
+        } else {
+            cell = 0;
+            while (value >= heights[cell + 1]) {
+                cell++;
+            }
+        }
+        for (int i = cell + 1; i < 5; i++) {
+            positions[i]++;
+        }
+        for (int i = 0; i < 5; i++) {
+            desired[i] += increments[i];
+        }
+
+        for (int i = 1; i < 4; i++) {
+            double offset = desired[i] - positions[i];
+            if ((offset >= 1 && positions[i + 1] - positions[i] > 1)
+                    || (offset <= -1 && positions[i - 1] - positions[i] < -1)) {
+                int step = offset > 0 ? 1 : -1;
+                double height = parabolic(i, step);
+                if (height <= heights[i - 1] || height >= heights[i + 1]) {
+                    height = heights[i] + step * (heights[i + step] - heights[i]) / (positions[i + step] - positions[i]);
+                }
+                heights[i] = height;
+                positions[i] += step;
+            }
+        }
+    }
+
+    private double parabolic(int i, int step) {
+        double below = positions[i] - positions[i - 1];
+        double above = positions[i + 1] - positions[i];
+        return heights[i] + step / (positions[i + 1] - positions[i - 1])
+                * ((below + step) * (heights[i + 1] - heights[i]) / above
+                + (above - step) * (heights[i] - heights[i - 1]) / below);
+    }
+
+    /** The current estimate, NaN before the first sample */
+    public double value() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (count < 5) {
+            // Nearest rank over the samples so far; they are not sorted yet
+            double[] sorted = Arrays.copyOf(heights, (int) count);
+            Arrays.sort(sorted);
+            return sorted[(int) Math.min(count - 1, Math.round(quantile * (count - 1)))];
+        }
+        return heights[2];
+    }
+}
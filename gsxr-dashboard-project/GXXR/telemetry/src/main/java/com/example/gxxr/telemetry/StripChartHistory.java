@@ -0,0 +1,136 @@
+package com.example.gxxr.telemetry;
+
+/**
+ * Sample history for a scrolling strip chart, decimated to one min/max pair per
+ * pixel column.
+ *
+ * Raw samples for the last {@code windowMillis} are kept in a float ring buffer so
+ * the columns can be rebuilt when the chart is resized. Columns are fixed slices of
+ * time ({@code windowMillis / columns} each) numbered from the clock epoch, so a
+ * chart that has drawn up to column n only needs to shift by
+ * {@code newestColumn() - n} pixels and draw the new columns. Cost per sample and
+ * per drawn column is constant regardless of the sample rate.
+ *
+ * Not thread safe; add and draw from one thread.
+ */
+public final class StripChartHistory {
+
+    private final long windowMillis;
+
+    private final long[] timestamps;
+    private final float[] values;
+    private int head, size;
+
+    private int columns;
+    private long millisPerColumn;
+    private float[] columnMins = new float[0];
+    private float[] columnMaxs = new float[0];
+    // Absolute number of the newest column, -1 before the first sample
+    private long newestColumn = -1;
+
+    public StripChartHistory(int capacity, long windowMillis) {
+        this.windowMillis = windowMillis;
+        this.timestamps = new long[capacity];
+        this.values = new float[capacity];
+    }
+
+    public long windowMillis() {
+        return windowMillis;
+    }
+
+    public int columns() {
+        return columns;
+    }
+
+    /** Sets the pixel width and rebuilds every column from the raw samples */
+    public void setColumns(int columns) {
+        this.columns = Math.max(0, columns);
+        if (this.columns == 0) {
+            return;
+        }
+        millisPerColumn = Math.max(1, windowMillis / this.columns);
+        columnMins = new float[this.columns];
+        columnMaxs = new float[this.columns];
+        newestColumn = -1;
+        for (int i = 0; i < size; i++) {
+            int index = (head - size + i + timestamps.length) % timestamps.length;
+            addToColumn(timestamps[index], values[index]);
+        }
+    }
+
+    public void add(long timestampMillis, float value) {
+        if (Float.isNaN(value)) {
+            return;
+        }
+        timestamps[head] = timestampMillis;
+        values[head] = value;
+        head = (head + 1) % timestamps.length;
+        if (size < timestamps.length) {
+            size++;
+        }
+        // Drop samples that have scrolled off so a resize only rebuilds the visible window
+        while (size > 1 && timestampMillis - timestamps[(head - size + timestamps.length) % timestamps.length] > windowMillis) {
+            size--;
+        }
+        if (columns > 0) {
+            addToColumn(timestampMillis, value);
+        }
+    }
+
+    private void addToColumn(long timestampMillis, float value) {
+        long column = Math.floorDiv(timestampMillis, millisPerColumn);
+        if (column < newestColumn) {
+            // Late sample; fold it into the current column rather than rewriting history
+            column = newestColumn;
+        }
+        if (column > newestColumn) {
+            long first = Math.max(newestColumn + 1, column - columns + 1);
+            for (long c = first; c <= column; c++) {
+                int slot = slot(c);
+                columnMins[slot] = Float.NaN;
+                columnMaxs[slot] = Float.NaN;
+            }
+            newestColumn = column;
+        }
+        int slot = slot(column);
+        if (Float.isNaN(columnMins[slot])) {
+            columnMins[slot] = value;
+            columnMaxs[slot] = value;
+        } else {
+            columnMins[slot] = Math.min(columnMins[slot], value);
+            columnMaxs[slot] = Math.max(columnMaxs[slot], value);
+        }
+    }
+
+    private int slot(long column) {
+        return (int) Math.floorMod(column, (long) columns);
+    }
+
+    public long newestColumn() {
+        return newestColumn;
+    }
+
+    /** True if {@code column} is still inside the window and has at least one sample */
+    public boolean hasColumn(long column) {
+        return columns > 0 && newestColumn >= 0 && column <= newestColumn && column > newestColumn - columns
+                && !Float.isNaN(columnMins[slot(column)]);
+    }
+
+    public float columnMin(long column) {
+        return columnMins[slot(column)];
+    }
+
+    public float columnMax(long column) {
+        return columnMaxs[slot(column)];
+    }
+
+    public int sampleCount() {
+        return size;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+        newestColumn = -1;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.gxxr.telemetry;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Streams the logger's flat JSON frames (one object per line, as written to
+ * sensor_frames_flat.jsonl) into an archive. Lines are parsed and appended one at a
+ * time so memory use is the writer's single chunk regardless of input size.
+ */
+public final class TelemetryArchiveImporter implements FlatFrameParser.FieldVisitor {
+
+    public static final String TIMESTAMP_KEY = "frame_ts";
+
+    private final TelemetryArchiveWriter writer;
+    private final FlatFrameParser parser = new FlatFrameParser();
+
+    // Per-line scratch, filled by the parser callback before the row is written
+    private int[] rowChannels = new int[128];
+    private double[] rowValues = new double[128];
+    private int rowFields;
+    private double rowTimestampSeconds;
+
+    private long importedFrames, skippedFrames;
+
+    public TelemetryArchiveImporter(TelemetryArchiveWriter writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Appends one frame. Frames without a timestamp, that fail to parse, or that
+     * go back in time are counted as skipped rather than failing the import.
+     */
+    public boolean importFrame(CharSequence json) throws IOException {
+        rowFields = 0;
+        rowTimestampSeconds = Double.NaN;
+        try {
+            parser.parse(json, this);
+        } catch (IllegalArgumentException e) {
+            skippedFrames++;
+            return false;
+        }
+
+        if (Double.isNaN(rowTimestampSeconds)) {
+            skippedFrames++;
+            return false;
+        }
+        long timestampMicros = Math.round(rowTimestampSeconds * 1e6);
+        if (timestampMicros < writer.lastTimestampMicros()) {
+            skippedFrames++;
+            return false;
+        }
+
+        writer.beginRow(timestampMicros);
+        for (int i = 0; i < rowFields; i++) {
+            writer.set(rowChannels[i], rowValues[i]);
+        }
+        writer.endRow();
+        importedFrames++;
+        return true;
+    }
+
+    @Override
+    public void onField(String key, double value) {
+        if (TIMESTAMP_KEY.equals(key)) {
+            rowTimestampSeconds = value;
+            return;
+        }
+        if (rowFields == rowChannels.length) {
+            rowChannels = Arrays.copyOf(rowChannels, rowFields * 2);
+            rowValues = Arrays.copyOf(rowValues, rowFields * 2);
+        }
+        rowChannels[rowFields] = writer.channel(key);
+        rowValues[rowFields] = value;
+        rowFields++;
+    }
+
+    public long importJsonLines(Reader in) throws IOException {
+        BufferedReader reader = new BufferedReader(in, 256 * 1024);
+        long before = importedFrames;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            importFrame(line);
+        }
+        return importedFrames - before;
+    }
+
+    public long importedFrames() {
+        return importedFrames;
+    }
+
+    public long skippedFrames() {
+        return skippedFrames;
+    }
+
+    /** Converts a flat JSON lines log into an archive, returning the number of frames written */
+    public static long convert(File jsonLines, File archive) throws IOException {
+        TelemetryArchiveWriter writer = new TelemetryArchiveWriter(archive);
+        try {
+            Reader in = new InputStreamReader(new FileInputStream(jsonLines), "UTF-8");
+            try {
+                return new TelemetryArchiveImporter(writer).importJsonLines(in);
+            } finally {
+                in.close();
+            }
+        } finally {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.gxxr.telemetry;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Random access reader for archives written by {@link TelemetryArchiveWriter}.
+ *
+ * Only the footer index is held in memory. A read binary searches the index for
+ * the chunks overlapping the requested time range and then loads just the time
+ * block and the requested column blocks of each chunk.
+ */
+public final class TelemetryArchiveReader implements Closeable {
+
+    public interface RowVisitor {
+        /** {@code values} is reused between rows and ordered like the requested channels */
+        void onRow(long timestampMicros, double[] values);
+    }
+
+    private final RandomAccessFile file;
+    private final String[] channelNames;
+    private final Map<String, Integer> channelIds = new HashMap<>();
+    private final long[] chunkOffsets, chunkFirstMicros, chunkLastMicros;
+    private final int[] chunkRowCounts;
+
+    private byte[] readBuffer = new byte[64 * 1024];
+    private long bytesRead;
+
+    public TelemetryArchiveReader(File path) throws IOException {
+        file = new RandomAccessFile(path, "r");
+        try {
+            long length = file.length();
+            if (length < 20) {
+                throw new IOException("Archive too short");
+            }
+            file.seek(0);
+            if (file.readInt() != TelemetryArchiveWriter.MAGIC) {
+                throw new IOException("Not a telemetry archive");
+            }
+            if (file.readInt() != TelemetryArchiveWriter.VERSION) {
+                throw new IOException("Unsupported archive version");
+            }
+
+            file.seek(length - 12);
+            long footerOffset = file.readLong();
+            if (file.readInt() != TelemetryArchiveWriter.MAGIC) {
+                throw new IOException("Archive not closed cleanly, footer missing");
+            }
+
+            byte[] footer = new byte[(int) (length - 12 - footerOffset)];
+            file.seek(footerOffset);
+            file.readFully(footer);
+            ByteCursor in = new ByteCursor(footer, 0, footer.length);
+
+            channelNames = new String[in.readVarInt()];
+            for (int i = 0; i < channelNames.length; i++) {
+                int nameLength = in.readVarInt();
+                channelNames[i] = new String(footer, in.position(), nameLength, "UTF-8");
+                in.skip(nameLength);
+                channelIds.put(channelNames[i], i);
+            }
+
+            int chunks = in.readVarInt();
+            chunkOffsets = new long[chunks];
+            chunkFirstMicros = new long[chunks];
+            chunkLastMicros = new long[chunks];
+            chunkRowCounts = new int[chunks];
+            for (int i = 0; i < chunks; i++) {
+                chunkOffsets[i] = in.readVarLong();
+                chunkFirstMicros[i] = in.readSignedVarLong();
+                chunkLastMicros[i] = in.readSignedVarLong();
+                chunkRowCounts[i] = in.readVarInt();
+            }
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    public int channelCount() {
+        return channelNames.length;
+    }
+
+    public String channelName(int id) {
+        return channelNames[id];
+    }
+
+    /** Returns the channel id for a name, or -1 if the archive has no such channel */
+    public int channelId(String name) {
+        Integer id = channelIds.get(name);
+        return id != null ? id : -1;
+    }
+
+    public int chunkCount() {
+        return chunkOffsets.length;
+    }
+
+    public long rowCount() {
+        long rows = 0;
+        for (int count : chunkRowCounts) {
+            rows += count;
+        }
+        return rows;
+    }
+
+    public long firstTimestampMicros() {
+        return chunkOffsets.length > 0 ? chunkFirstMicros[0] : 0;
+    }
+
+    public long lastTimestampMicros() {
+        return chunkOffsets.length > 0 ? chunkLastMicros[chunkOffsets.length - 1] : 0;
+    }
+
+    /** Bytes read from chunk data so far, useful to check how selective a read was */
+    public long bytesRead() {
+        return bytesRead;
+    }
+
+    /** Index of the first chunk whose last timestamp is at or after {@code timestampMicros} */
+    public int findChunk(long timestampMicros) {
+        int low = 0, high = chunkLastMicros.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (chunkLastMicros[mid] < timestampMicros) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public long readAll(int[] channels, RowVisitor visitor) throws IOException {
+        return read(Long.MIN_VALUE, Long.MAX_VALUE, channels, visitor);
+    }
+
+    /**
+     * Visits every row with {@code fromMicros <= timestamp <= toMicros}.
+     * Channels are archive ids; a negative id yields NaN for that slot.
+     *
+     * @return number of rows visited
+     */
+    public long read(long fromMicros, long toMicros, int[] channels, RowVisitor visitor) throws IOException {
+        return read(findChunk(fromMicros), chunkOffsets.length, fromMicros, toMicros, channels, visitor);
+    }
+
+    /** Visits every row of chunks {@code [firstChunk, firstChunk + count)} */
+    public long readChunks(int firstChunk, int count, int[] channels, RowVisitor visitor) throws IOException {
+        int end = Math.min(chunkOffsets.length, firstChunk + count);
+        return read(firstChunk, end, Long.MIN_VALUE, Long.MAX_VALUE, channels, visitor);
+    }
+
+    private long read(int firstChunk, int endChunk, long fromMicros, long toMicros,
+                      int[] channels, RowVisitor visitor) throws IOException {
+        long visited = 0;
+        double[] row = new double[channels.length];
+        long[] timestamps = new long[0];
+        double[][] columns = new double[channels.length][];
+
+        for (int chunk = firstChunk; chunk < endChunk; chunk++) {
+            if (chunkFirstMicros[chunk] > toMicros) {
+                break;
+            }
+            int rows = chunkRowCounts[chunk];
+            if (timestamps.length < rows) {
+                timestamps = new long[rows];
+                for (int i = 0; i < columns.length; i++) {
+                    columns[i] = new double[rows];
+                }
+            }
+            readChunk(chunk, channels, timestamps, columns);
+
+            for (int r = 0; r < rows; r++) {
+                long ts = timestamps[r];
+                if (ts < fromMicros) {
+                    continue;
+                }
+                if (ts > toMicros) {
+                    break;
+                }
+                for (int c = 0; c < channels.length; c++) {
+                    row[c] = columns[c][r];
+                }
+                visitor.onRow(ts, row);
+                visited++;
+            }
+        }
+        return visited;
+    }
+
+    private void readChunk(int chunk, int[] channels, long[] timestamps, double[][] columns) throws IOException {
+        long offset = chunkOffsets[chunk];
+        int rows = chunkRowCounts[chunk];
+
+        file.seek(offset);
+        int headerLength = file.readInt();
+        byte[] header = new byte[headerLength];
+        file.readFully(header);
+        bytesRead += 4 + headerLength;
+
+        ByteCursor in = new ByteCursor(header, 0, headerLength);
+        in.readVarInt(); // rows, already known from the index
+        int timeLength = in.readVarInt();
+        int columnCount = in.readVarInt();
+        int[] columnChannels = new int[columnCount];
+        int[] columnLengths = new int[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            columnChannels[i] = in.readVarInt();
+            columnLengths[i] = in.readVarInt();
+        }
+
+        long dataStart = offset + 4 + headerLength;
+        byte[] block = fill(dataStart, timeLength);
+        ArchiveColumnCodec.decodeTimestamps(new ByteCursor(block, 0, timeLength), rows, timestamps);
+
+        for (int c = 0; c < channels.length; c++) {
+            long columnOffset = dataStart + timeLength;
+            int length = -1;
+            for (int i = 0; i < columnCount; i++) {
+                if (columnChannels[i] == channels[c]) {
+                    length = columnLengths[i];
+                    break;
+                }
+                columnOffset += columnLengths[i];
+            }
+            if (length < 0) {
+                Arrays.fill(columns[c], 0, rows, Double.NaN);
+                continue;
+            }
+            block = fill(columnOffset, length);
+            ArchiveColumnCodec.decodeColumn(block, 0, length, rows, columns[c]);
+        }
+    }
+
+    private byte[] fill(long offset, int length) throws IOException {
+        if (readBuffer.length < length) {
+            readBuffer = new byte[Math.max(length, readBuffer.length * 2)];
+        }
+        file.seek(offset);
+        file.readFully(readBuffer, 0, length);
+        bytesRead += length;
+        return readBuffer;
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
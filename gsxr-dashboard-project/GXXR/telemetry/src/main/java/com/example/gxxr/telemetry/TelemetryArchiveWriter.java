@@ -0,0 +1,223 @@
+package com.example.gxxr.telemetry;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes telemetry rows into the column-chunked archive format.
+ *
+ * <pre>
+ * file    := header chunk* footer trailer
+ * header  := "GSXA" version:int32
+ * chunk   := headerLength:int32 rows:varint timeLength:varint columns:varint
+ *            (channel:varint length:varint)* timeBlock columnBlock*
+ * footer  := channels:varint name:utf* chunks:varint
+ *            (offset:varint firstMicros:zigzag lastMicros:zigzag rows:varint)*
+ * trailer := footerOffset:int64 "GSXA"
+ * </pre>
+ *
+ * Only one chunk of rows is buffered at a time so memory stays bounded no matter
+ * how long the session is. Timestamps must not go backwards; the footer index
+ * relies on chunks being in time order.
+ */
+public final class TelemetryArchiveWriter implements Closeable {
+
+    static final int MAGIC = 0x47535841; // "GSXA"
+    static final int VERSION = 1;
+    public static final int DEFAULT_CHUNK_ROWS = 1024;
+
+    private final DataOutputStream out;
+    private final int chunkRows;
+    private long position;
+
+    private final Map<String, Integer> channelIds = new HashMap<>();
+    private final List<String> channelNames = new ArrayList<>();
+    private double[][] columns = new double[32][];
+    private boolean[] isColumnUsed = new boolean[32];
+
+    private final long[] timestamps;
+    private int rows;
+    private boolean isRowOpen;
+    private long lastTimestampMicros = Long.MIN_VALUE;
+
+    private final ByteBuilder chunkHeader = new ByteBuilder(256);
+    private final ByteBuilder chunkBody = new ByteBuilder(64 * 1024);
+    private final ByteBuilder timeBlock = new ByteBuilder(4 * 1024);
+
+    // Sparse index, one entry per chunk
+    private long[] chunkOffsets = new long[64];
+    private long[] chunkFirstMicros = new long[64];
+    private long[] chunkLastMicros = new long[64];
+    private int[] chunkRowCounts = new int[64];
+    private int chunkCount;
+
+    public TelemetryArchiveWriter(File file) throws IOException {
+        this(new FileOutputStream(file), DEFAULT_CHUNK_ROWS);
+    }
+
+    public TelemetryArchiveWriter(OutputStream stream, int chunkRows) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(stream, 64 * 1024));
+        this.chunkRows = chunkRows;
+        this.timestamps = new long[chunkRows];
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        position = 8;
+    }
+
+    /** Returns the id for a channel name, registering it on first use */
+    public int channel(String name) {
+        Integer id = channelIds.get(name);
+        if (id != null) {
+            return id;
+        }
+        int newId = channelNames.size();
+        channelNames.add(name);
+        channelIds.put(name, newId);
+        if (newId == columns.length) {
+            columns = Arrays.copyOf(columns, newId * 2);
+            isColumnUsed = Arrays.copyOf(isColumnUsed, newId * 2);
+        }
+        return newId;
+    }
+
+    public void beginRow(long timestampMicros) {
+        if (isRowOpen) {
+            throw new IllegalStateException("Previous row not ended");
+        }
+        if (timestampMicros < lastTimestampMicros) {
+            throw new IllegalArgumentException("Timestamp went backwards: " + timestampMicros);
+        }
+        lastTimestampMicros = timestampMicros;
+        timestamps[rows] = timestampMicros;
+        isRowOpen = true;
+    }
+
+    public void set(int channel, double value) {
+        double[] column = columns[channel];
+        if (column == null) {
+            column = new double[chunkRows];
+            Arrays.fill(column, Double.NaN);
+            columns[channel] = column;
+        }
+        column[rows] = value;
+        isColumnUsed[channel] = true;
+    }
+
+    public void endRow() throws IOException {
+        if (!isRowOpen) {
+            throw new IllegalStateException("No row open");
+        }
+        isRowOpen = false;
+        rows++;
+        if (rows == chunkRows) {
+            flushChunk();
+        }
+    }
+
+    public long lastTimestampMicros() {
+        return lastTimestampMicros;
+    }
+
+    /** Bytes of the chunks written so far, not counting the open chunk or the footer */
+    public long bytesWritten() {
+        return position;
+    }
+
+    private void flushChunk() throws IOException {
+        if (rows == 0) {
+            return;
+        }
+
+        timeBlock.reset();
+        ArchiveColumnCodec.encodeTimestamps(timestamps, rows, timeBlock);
+
+        chunkHeader.reset();
+        chunkBody.reset();
+        int columnCount = 0;
+        for (int channel = 0; channel < channelNames.size(); channel++) {
+            if (isColumnUsed[channel]) {
+                columnCount++;
+            }
+        }
+        chunkHeader.writeVarLong(rows);
+        chunkHeader.writeVarLong(timeBlock.length());
+        chunkHeader.writeVarLong(columnCount);
+
+        for (int channel = 0; channel < channelNames.size(); channel++) {
+            if (!isColumnUsed[channel]) {
+                continue;
+            }
+            int start = chunkBody.length();
+            ArchiveColumnCodec.encodeColumn(columns[channel], rows, chunkBody);
+            chunkHeader.writeVarLong(channel);
+            chunkHeader.writeVarLong(chunkBody.length() - start);
+
+            Arrays.fill(columns[channel], 0, rows, Double.NaN);
+            isColumnUsed[channel] = false;
+        }
+
+        if (chunkCount == chunkOffsets.length) {
+            int grown = chunkCount * 2;
+            chunkOffsets = Arrays.copyOf(chunkOffsets, grown);
+            chunkFirstMicros = Arrays.copyOf(chunkFirstMicros, grown);
+            chunkLastMicros = Arrays.copyOf(chunkLastMicros, grown);
+            chunkRowCounts = Arrays.copyOf(chunkRowCounts, grown);
+        }
+        chunkOffsets[chunkCount] = position;
+        chunkFirstMicros[chunkCount] = timestamps[0];
+        chunkLastMicros[chunkCount] = timestamps[rows - 1];
+        chunkRowCounts[chunkCount] = rows;
+        chunkCount++;
+
+        out.writeInt(chunkHeader.length());
+        chunkHeader.writeTo(out);
+        timeBlock.writeTo(out);
+        chunkBody.writeTo(out);
+        position += 4 + chunkHeader.length() + timeBlock.length() + chunkBody.length();
+
+        rows = 0;
+    }
+
+    /** Flushes the partial chunk and writes the footer index */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (isRowOpen) {
+                endRow();
+            }
+            flushChunk();
+
+            ByteBuilder footer = new ByteBuilder(1024 + chunkCount * 16);
+            footer.writeVarLong(channelNames.size());
+            for (String name : channelNames) {
+                byte[] utf = name.getBytes("UTF-8");
+                footer.writeVarLong(utf.length);
+                footer.writeBytes(utf, 0, utf.length);
+            }
+            footer.writeVarLong(chunkCount);
+            for (int i = 0; i < chunkCount; i++) {
+                footer.writeVarLong(chunkOffsets[i]);
+                footer.writeSignedVarLong(chunkFirstMicros[i]);
+                footer.writeSignedVarLong(chunkLastMicros[i]);
+                footer.writeVarLong(chunkRowCounts[i]);
+            }
+
+            long footerOffset = position;
+            footer.writeTo(out);
+            out.writeLong(footerOffset);
+            out.writeInt(MAGIC);
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.gxxr.telemetry;
+
+/**
+ * Fixed channel layout used by the dashboard. Each channel maps one flattened
+ * logger key (see gsxr_logger_v5.py) onto a slot in {@link TelemetryFrame#values}.
+ */
+public final class TelemetryChannels {
+
+    public static final int FRONT_TYRE_S1 = 0;
+    public static final int FRONT_TYRE_S2 = 1;
+    public static final int FRONT_TYRE_S3 = 2;
+    public static final int REAR_TYRE_S1 = 3;
+    public static final int REAR_TYRE_S2 = 4;
+    public static final int REAR_TYRE_S3 = 5;
+    public static final int FRONT_BRAKE_DISK_TEMP = 6;
+    public static final int FRONT_BRAKE = 7;
+    public static final int REAR_BRAKE = 8;
+    public static final int FRONT_SUSPENSION = 9;
+    public static final int REAR_SUSPENSION = 10;
+    public static final int GPS_FIX = 11;
+    public static final int WHEEL_SPEED = 12;
+    public static final int COOLANT_TEMP = 13;
+    public static final int HEADLIGHT = 14;
+    public static final int LEAN_ANGLE = 15;   // phone orientation, not sent by the logger
+    public static final int FRAME_AGE = 16;    // logger to dash latency, estimated on the dash
+
+    // Derived on the dash by DerivedChannelProcessor
+    public static final int FRONT_SUSPENSION_TRAVEL = 17;
+    public static final int REAR_SUSPENSION_TRAVEL = 18;
+    public static final int FRONT_SUSPENSION_VELOCITY = 19;
+    public static final int REAR_SUSPENSION_VELOCITY = 20;
+    public static final int LONGITUDINAL_G = 21;
+    public static final int BRAKING_G = 22;
+    public static final int BRAKE_DISK_HEATING_RATE = 23;
+
+    public static final int GPS_LATITUDE = 24;
+    public static final int GPS_LONGITUDE = 25;
+    public static final int LAP_DELTA = 26;    // vs. the reference lap, derived by LapDeltaTracker
+
+    public static final int COUNT = 27;
+
+    // Digital brake inputs read 1 while the lever/pedal is applied
+    public static final int BRAKE_APPLIED = 1;
+
+    private static final String[] KEYS = {
+            "front_tyre_S1",
+            "front_tyre_S2",
+            "front_tyre_S3",
+            "rear_tyre_S1",
+            "rear_tyre_S2",
+            "rear_tyre_S3",
+            "front_brakes_tps_S1",
+            "brakes_imu_in_d5",
+            "brakes_imu_in_d6",
+            "front_imu_sonar_mm",
+            "rear_brake_gps_rear_ss_mm",
+            "rear_brake_gps_gps_fix",
+            "rear_brake_gps_wheel_kmh",
+            "port4_d6_int_tempC",
+            "port4_d6_int_d6",
+            "dash_lean_angle_deg",
+            "dash_frame_age_ms",
+            "dash_front_suspension_travel_mm",
+            "dash_rear_suspension_travel_mm",
+            "dash_front_suspension_velocity_mm_s",
+            "dash_rear_suspension_velocity_mm_s",
+            "dash_longitudinal_g",
+            "dash_braking_g",
+            "dash_front_brake_disk_heating_c_s",
+            "rear_brake_gps_gps_lat",
+            "rear_brake_gps_gps_lon",
+            "dash_lap_delta_ms",
+    };
+
+    private TelemetryChannels() {
+    }
+
+    public static String key(int channel) {
+        return KEYS[channel];
+    }
+
+    /** False for channels computed on the dash ("dash_" keys) */
+    public static boolean isLoggerChannel(int channel) {
+        return !KEYS[channel].startsWith("dash_");
+    }
+
+    /** Returns the channel for a flattened logger key, or -1 if the dashboard does not use it */
+    public static int indexOf(String key) {
+        for (int i = 0; i < COUNT; i++) {
+            if (KEYS[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
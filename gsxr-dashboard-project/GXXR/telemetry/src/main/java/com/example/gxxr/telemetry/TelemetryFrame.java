@@ -0,0 +1,39 @@
+package com.example.gxxr.telemetry;
+
+import java.util.Arrays;
+
+/**
+ * One decoded logger frame laid out by {@link TelemetryChannels}.
+ * Missing channels are held as NaN so the frame can be reused without allocating.
+ */
+public final class TelemetryFrame {
+
+    public long timestampMillis;
+    public final double[] values = new double[TelemetryChannels.COUNT];
+
+    public TelemetryFrame() {
+        clear();
+    }
+
+    public void clear() {
+        timestampMillis = 0;
+        Arrays.fill(values, Double.NaN);
+    }
+
+    public boolean has(int channel) {
+        return !Double.isNaN(values[channel]);
+    }
+
+    public double get(int channel) {
+        return values[channel];
+    }
+
+    public void set(int channel, double value) {
+        values[channel] = value;
+    }
+
+    public void copyFrom(TelemetryFrame other) {
+        timestampMillis = other.timestampMillis;
+        System.arraycopy(other.values, 0, values, 0, values.length);
+    }
+}
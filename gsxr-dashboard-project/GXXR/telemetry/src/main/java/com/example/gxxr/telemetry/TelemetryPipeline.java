@@ -0,0 +1,59 @@
+package com.example.gxxr.telemetry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns the dashboard's pipeline stages and starts or stops them together, so the
+ * activity lifecycle maps onto one {@link #start()} / {@link #stop()} pair.
+ * Stages start in the order they were added and stop in reverse. Stop signals every
+ * stage before waiting on any, so their shutdowns overlap and the caller (the UI
+ * thread, on pause) waits at most one stop timeout in total.
+ */
+public final class TelemetryPipeline {
+
+    private final List<PipelineStage> stages = new ArrayList<>();
+    private boolean isRunning = false;
+
+    public synchronized TelemetryPipeline add(PipelineStage stage) {
+        stages.add(stage);
+        if (isRunning) {
+            stage.start();
+        }
+        return this;
+    }
+
+    public synchronized void start() {
+        isRunning = true;
+        for (int i = 0; i < stages.size(); i++) {
+            stages.get(i).start();
+        }
+    }
+
+    public synchronized void stop() {
+        isRunning = false;
+        Thread[] workers = new Thread[stages.size()];
+        for (int i = stages.size() - 1; i >= 0; i--) {
+            workers[i] = stages.get(i).requestStop();
+        }
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(PipelineStage.STOP_TIMEOUT_MILLIS);
+        for (int i = workers.length - 1; i >= 0; i--) {
+            PipelineStage.awaitStop(workers[i], deadlineNanos);
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return isRunning;
+    }
+
+    public synchronized int runningStageCount() {
+        int running = 0;
+        for (int i = 0; i < stages.size(); i++) {
+            if (stages.get(i).isRunning()) {
+                running++;
+            }
+        }
+        return running;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.gxxr.telemetry;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Remembers, per session archive, the next chunk to upload. Saved with a write to a
+ * temp file and rename after every accepted batch, so an interrupted upload resumes
+ * at the first unacknowledged batch.
+ */
+public final class UploadCursorStore {
+
+    public static final int COMPLETE = -1;
+
+    private final File file;
+    private final Properties cursors = new Properties();
+
+    public UploadCursorStore(File file) throws IOException {
+        this.file = file;
+        if (file.exists()) {
+            InputStream in = new FileInputStream(file);
+            try {
+                cursors.load(in);
+            } finally {
+                in.close();
+            }
+        }
+    }
+
+    /** Next chunk to upload for the session, 0 if never started or {@link #COMPLETE} */
+    public synchronized int nextChunk(String sessionId) {
+        String value = cursors.getProperty(sessionId);
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    public synchronized boolean isComplete(String sessionId) {
+        return nextChunk(sessionId) == COMPLETE;
+    }
+
+    public synchronized void save(String sessionId, int nextChunk) throws IOException {
+        cursors.setProperty(sessionId, Integer.toString(nextChunk));
+        File temp = new File(file.getPath() + ".tmp");
+        FileOutputStream out = new FileOutputStream(temp);
+        try {
+            cursors.store(out, null);
+            out.getFD().sync();
+        } finally {
+            out.close();
+        }
+        if (!temp.renameTo(file)) {
+            throw new IOException("Could not replace " + file);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.gxxr.telemetry;
+
+import java.io.IOException;
+
+/**
+ * Destination for recorded session batches. Implementations must treat a repeated
+ * (sessionId, firstChunk) pair as the same batch, since a batch is re-sent when the
+ * previous attempt failed before its cursor was saved.
+ */
+public interface UploadEndpoint {
+
+    /**
+     * @param sessionId  archive name the rows came from
+     * @param firstChunk index of the first archive chunk in this batch
+     * @param rows       number of frames in the batch
+     * @param gzipJson   gzip compressed JSON lines, one flat frame per line
+     * @throws IOException if the batch was not accepted and should be retried later
+     */
+    void upload(String sessionId, int firstChunk, int rows, byte[] gzipJson) throws IOException;
+}
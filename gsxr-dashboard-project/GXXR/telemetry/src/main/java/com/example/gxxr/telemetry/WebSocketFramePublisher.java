@@ -0,0 +1,269 @@
+package com.example.gxxr.telemetry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Minimal WebSocket server that streams every published frame as a text message.
+ *
+ * A frame is wrapped in its WebSocket header exactly once and stored in a shared
+ * ring; {@link #publish} never touches the subscribers. Each subscriber has its own
+ * sender thread that walks the ring from its own cursor. A subscriber that falls a
+ * full ring behind (or stays blocked in a write) is disconnected instead of being
+ * allowed to hold anything up.
+ */
+public final class WebSocketFramePublisher implements FramePublisher {
+
+    private static final int RING_SIZE = 64;
+    private static final long REAPER_INTERVAL_MILLIS = 500;
+    private static final int MAX_HANDSHAKE_BYTES = 8192;
+    private static final String ACCEPT_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+
+    private final ServerSocket serverSocket;
+    private final AtomicReferenceArray<byte[]> ring = new AtomicReferenceArray<>(RING_SIZE);
+    private volatile long publishedCount = 0;
+    private final Object frameSignal = new Object();
+    private final CopyOnWriteArrayList<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private volatile boolean isOpen = true;
+    private final AtomicLong droppedSubscribers = new AtomicLong();
+
+    public WebSocketFramePublisher(int port) throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(port));
+
+        Thread acceptThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                acceptSubscribers();
+            }
+        }, "ws-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+
+        Thread reaperThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                reapSlowSubscribers();
+            }
+        }, "ws-reaper");
+        reaperThread.setDaemon(true);
+        reaperThread.start();
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    public long droppedSubscribers() {
+        return droppedSubscribers.get();
+    }
+
+    /** Called from a single publishing thread */
+    @Override
+    public void publish(byte[] frame, int offset, int length) {
+        int headerLength = length < 126 ? 2 : (length < 65536 ? 4 : 10);
+        byte[] message = new byte[headerLength + length];
+        message[0] = (byte) 0x81; // FIN + text
+        if (length < 126) {
+            message[1] = (byte) length;
+        } else if (length < 65536) {
+            message[1] = 126;
+            message[2] = (byte) (length >>> 8);
+            message[3] = (byte) length;
+        } else {
+            message[1] = 127;
+            for (int i = 0; i < 8; i++) {
+                message[2 + i] = (byte) ((long) length >>> (56 - i * 8));
+            }
+        }
+        System.arraycopy(frame, offset, message, headerLength, length);
+
+        long sequence = publishedCount;
+        ring.set((int) (sequence % RING_SIZE), message);
+        publishedCount = sequence + 1;
+        synchronized (frameSignal) {
+            frameSignal.notifyAll();
+        }
+    }
+
+    private void acceptSubscribers() {
+        while (isOpen) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                final Subscriber subscriber = new Subscriber(socket);
+                Thread senderThread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        subscriber.run();
+                    }
+                }, "ws-subscriber");
+                senderThread.setDaemon(true);
+                senderThread.start();
+            } catch (IOException e) {
+                if (isOpen) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void reapSlowSubscribers() {
+        while (isOpen) {
+            try {
+                Thread.sleep(REAPER_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long published = publishedCount;
+            for (Subscriber subscriber : subscribers) {
+                if (published - subscriber.nextSequence >= RING_SIZE) {
+                    droppedSubscribers.incrementAndGet();
+                    subscriber.close();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        isOpen = false;
+        try {
+            serverSocket.close();
+        } catch (IOException ignored) {
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+        synchronized (frameSignal) {
+            frameSignal.notifyAll();
+        }
+    }
+
+    private final class Subscriber {
+
+        private final Socket socket;
+        private volatile long nextSequence;
+
+        Subscriber(Socket socket) {
+            this.socket = socket;
+        }
+
+        void run() {
+            try {
+                socket.setSoTimeout(5000);
+                if (!handshake()) {
+                    close();
+                    return;
+                }
+                // Start from the newest frame rather than replaying the ring
+                nextSequence = publishedCount;
+                subscribers.add(this);
+                OutputStream out = socket.getOutputStream();
+
+                while (isOpen && !socket.isClosed()) {
+                    long published = publishedCount;
+                    if (nextSequence == published) {
+                        synchronized (frameSignal) {
+                            while (isOpen && nextSequence == publishedCount) {
+                                frameSignal.wait(1000);
+                            }
+                        }
+                        continue;
+                    }
+                    if (published - nextSequence >= RING_SIZE) {
+                        droppedSubscribers.incrementAndGet();
+                        break;
+                    }
+                    byte[] message = ring.get((int) (nextSequence % RING_SIZE));
+                    if (publishedCount - nextSequence >= RING_SIZE) {
+                        // Slot was overwritten while we picked it up
+                        droppedSubscribers.incrementAndGet();
+                        break;
+                    }
+                    out.write(message);
+                    nextSequence++;
+                }
+            } catch (Exception ignored) {
+                // Subscriber went away
+            } finally {
+                close();
+            }
+        }
+
+        private boolean handshake() throws IOException, NoSuchAlgorithmException {
+            InputStream in = socket.getInputStream();
+            StringBuilder request = new StringBuilder();
+            while (request.length() < MAX_HANDSHAKE_BYTES) {
+                int c = in.read();
+                if (c == -1) {
+                    return false;
+                }
+                request.append((char) c);
+                if (request.length() >= 4 && request.lastIndexOf("\r\n\r\n") == request.length() - 4) {
+                    break;
+                }
+            }
+
+            String key = null;
+            for (String header : request.toString().split("\r\n")) {
+                int colon = header.indexOf(':');
+                if (colon > 0 && header.substring(0, colon).trim().equalsIgnoreCase("Sec-WebSocket-Key")) {
+                    key = header.substring(colon + 1).trim();
+                }
+            }
+            if (key == null) {
+                return false;
+            }
+
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest((key + ACCEPT_GUID).getBytes(ASCII));
+            String response = "HTTP/1.1 101 Switching Protocols\r\n"
+                    + "Upgrade: websocket\r\n"
+                    + "Connection: Upgrade\r\n"
+                    + "Sec-WebSocket-Accept: " + base64(digest) + "\r\n\r\n";
+            socket.getOutputStream().write(response.getBytes(ASCII));
+            socket.getOutputStream().flush();
+            return true;
+        }
+
+        void close() {
+            subscribers.remove(this);
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    // java.util.Base64 needs API 26, the dash still runs on 24
+    private static String base64(byte[] data) {
+        final String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        StringBuilder out = new StringBuilder((data.length + 2) / 3 * 4);
+        for (int i = 0; i < data.length; i += 3) {
+            int b0 = data[i] & 0xFF;
+            int b1 = i + 1 < data.length ? data[i + 1] & 0xFF : 0;
+            int b2 = i + 2 < data.length ? data[i + 2] & 0xFF : 0;
+            out.append(alphabet.charAt(b0 >>> 2));
+            out.append(alphabet.charAt(((b0 & 0x03) << 4) | (b1 >>> 4)));
+            out.append(i + 1 < data.length ? alphabet.charAt(((b1 & 0x0F) << 2) | (b2 >>> 6)) : '=');
+            out.append(i + 2 < data.length ? alphabet.charAt(b2 & 0x3F) : '=');
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.gxxr.telemetry;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AlertEngineTest {
+
+    private final TelemetryFrame frame = new TelemetryFrame();
+
+    private boolean feed(AlertEngine engine, long ts, double coolant, double frontSuspension) {
+        frame.clear();
+        frame.timestampMillis = ts;
+        frame.set(TelemetryChannels.COOLANT_TEMP, coolant);
+        frame.set(TelemetryChannels.FRONT_SUSPENSION, frontSuspension);
+        return engine.evaluate(frame);
+    }
+
+    @Test
+    public void thresholdRule_needsHoldTimeAndClearsWithHysteresis() {
+        AlertEngine engine = new AlertRules()
+                .above(TelemetryChannels.COOLANT_TEMP, 105, 100, 1000, AlertRules.SEVERITY_WARNING, 9)
+                .compile();
+
+        feed(engine, 0, 106, 50);
+        feed(engine, 500, 107, 50);
+        // Dipping below the trigger restarts the hold
+        feed(engine, 600, 104, 50);
+        feed(engine, 1500, 106, 50);
+        assertFalse(engine.isActive(0));
+        assertTrue(feed(engine, 2500, 106, 50));
+        assertTrue(engine.isActive(0));
+
+        // Between clear and trigger levels the alert stays up
+        assertFalse(feed(engine, 2600, 102, 50));
+        assertTrue(engine.isActive(0));
+        assertTrue(feed(engine, 2700, 100, 50));
+        assertFalse(engine.isActive(0));
+    }
+
+    @Test
+    public void rateAndMissingRules() {
+        AlertEngine engine = new AlertRules()
+                .rateAbove(TelemetryChannels.COOLANT_TEMP, 2, 0.5, 0, AlertRules.SEVERITY_WARNING, 1)
+                .missing(TelemetryChannels.WHEEL_SPEED, 0, AlertRules.SEVERITY_FAULT, 2)
+                .compile();
+
+        feed(engine, 0, 80, 50);
+        assertTrue(engine.isActive(1));
+        feed(engine, 1000, 81, 50);
+        assertFalse(engine.isActive(0));
+        feed(engine, 2000, 84, 50);
+        assertTrue(engine.isActive(0));
+        feed(engine, 3000, 85, 50);
+        assertTrue(engine.isActive(0));
+        feed(engine, 4000, 85.2, 50);
+        assertFalse(engine.isActive(0));
+
+        frame.set(TelemetryChannels.WHEEL_SPEED, 40);
+        engine.evaluate(frame);
+        assertFalse(engine.isActive(1));
+    }
+
+    @Test
+    public void rateRule_holdsForSteppedSensorAtHighFrameRates() {
+        AlertEngine engine = new AlertRules()
+                .rateAbove(TelemetryChannels.COOLANT_TEMP, 2, 0.5, 5000, AlertRules.SEVERITY_WARNING, 1)
+                .compile();
+
+        // 500 Hz frames, the sender reporting whole degrees: +1 every 250 ms is 4 C/s
+        long t = 0;
+        for (; t < 5800; t += 2) {
+            feed(engine, t, 80 + t / 250, 50);
+            assertFalse(engine.isActive(0));
+        }
+        for (; t < 7000; t += 2) {
+            feed(engine, t, 80 + t / 250, 50);
+        }
+        assertTrue(engine.isActive(0));
+
+        // Levelling off to +1 every 4 s clears it
+        long base = 80 + t / 250;
+        for (long end = t + 3000; t < end; t += 2) {
+            feed(engine, t, base + (t - 7000) / 4000, 50);
+        }
+        assertFalse(engine.isActive(0));
+    }
+
+    @Test
+    public void display_prefersSeverityAndRotatesEqualSeverity() {
+        AlertEngine engine = new AlertRules()
+                .missing(TelemetryChannels.WHEEL_SPEED, 0, AlertRules.SEVERITY_FAULT, 10)
+                .missing(TelemetryChannels.GPS_FIX, 0, AlertRules.SEVERITY_FAULT, 11)
+                .above(TelemetryChannels.COOLANT_TEMP, 115, 110, 0, AlertRules.SEVERITY_CRITICAL, 20)
+                .below(TelemetryChannels.FRONT_SUSPENSION, 20, 24, 0, AlertRules.SEVERITY_WARNING, 30)
+                .compile();
+
+        feed(engine, 0, 90, 50);
+        assertEquals(2, engine.activeCount());
+        // Two faults alternate every dwell period
+        int first = engine.displayAlert(0);
+        assertEquals(first, engine.displayAlert(200));
+        int second = engine.displayAlert(600);
+        assertNotEquals(first, second);
+        assertEquals(first, engine.displayAlert(1200));
+
+        // A critical alert takes over immediately and nothing else is shown while it lasts
+        feed(engine, 1300, 120, 10);
+        assertEquals(4, engine.activeCount());
+        assertEquals(20, engine.code(engine.displayAlert(1300)));
+        assertEquals(20, engine.code(engine.displayAlert(5000)));
+        assertEquals(20, engine.code(engine.displayAlert(9000)));
+
+        // Once it clears, the warning outranks the faults
+        feed(engine, 9100, 100, 10);
+        assertEquals(30, engine.code(engine.displayAlert(9100)));
+
+        feed(engine, 9200, 100, 50);
+        frame.set(TelemetryChannels.WHEEL_SPEED, 40);
+        frame.set(TelemetryChannels.GPS_FIX, 1);
+        engine.evaluate(frame);
+        assertEquals(-1, engine.displayAlert(9300));
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.gxxr.telemetry;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ChannelSchedulerTest {
+
+    private static final int[] SLOW = {
+            TelemetryChannels.FRONT_TYRE_S1,
+            TelemetryChannels.FRONT_TYRE_S2,
+            TelemetryChannels.FRONT_BRAKE_DISK_TEMP,
+            TelemetryChannels.COOLANT_TEMP,
+    };
+
+    private static ChannelScheduler scheduler() {
+        ChannelScheduler scheduler = new ChannelScheduler(50, 500, 1)
+                .assign(TelemetryChannels.FRONT_SUSPENSION, ChannelScheduler.RATE_NORMAL, 15);
+        for (int channel : SLOW) {
+            scheduler.assign(channel, ChannelScheduler.RATE_SLOW, 10);
+        }
+        return scheduler;
+    }
+
+    @Test
+    public void eachClass_drawsAtItsRate() {
+        ChannelScheduler scheduler = scheduler();
+        int critical = 0, normal = 0;
+        int[] slow = new int[SLOW.length];
+        // Five seconds of 100 Hz display frames
+        for (long millis = 0; millis < 5000; millis += 10) {
+            scheduler.beginFrame(millis);
+            if (scheduler.shouldDraw(TelemetryChannels.FRONT_BRAKE, millis % 20 == 0 ? 1 : 0)) {
+                critical++;
+            }
+            if (scheduler.shouldDraw(TelemetryChannels.FRONT_SUSPENSION, 50 + (millis % 7))) {
+                normal++;
+            }
+            int slowThisFrame = 0;
+            for (int i = 0; i < SLOW.length; i++) {
+                if (scheduler.shouldDraw(SLOW[i], 60 + millis / 1000.0)) {
+                    slow[i]++;
+                    slowThisFrame++;
+                }
+            }
+            assertTrue("slow redraws must be spread over frames", slowThisFrame <= 1);
+        }
+        assertEquals(500, critical);
+        assertEquals(100, normal);
+        for (int count : slow) {
+            assertEquals(10, count);
+        }
+    }
+
+    @Test
+    public void missingSlowChannel_doesNotStarveOthers() {
+        ChannelScheduler scheduler = scheduler();
+        int coolant = 0;
+        for (long millis = 0; millis < 5000; millis += 10) {
+            scheduler.beginFrame(millis);
+            // Only the coolant sensor is reporting
+            if (scheduler.shouldDraw(TelemetryChannels.COOLANT_TEMP, 90)) {
+                coolant++;
+            }
+        }
+        assertEquals(10, coolant);
+    }
+
+    @Test
+    public void urgentChange_bypassesBudget() {
+        ChannelScheduler scheduler = new ChannelScheduler(50, 500, 1)
+                .assign(TelemetryChannels.FRONT_SUSPENSION, ChannelScheduler.RATE_NORMAL, 15)
+                .assign(TelemetryChannels.COOLANT_TEMP, ChannelScheduler.RATE_SLOW, 10);
+        scheduler.beginFrame(0);
+        assertTrue(scheduler.shouldDraw(TelemetryChannels.COOLANT_TEMP, 90));
+        scheduler.beginFrame(20);
+        assertFalse(scheduler.shouldDraw(TelemetryChannels.COOLANT_TEMP, 95));
+        assertTrue(scheduler.shouldDraw(TelemetryChannels.FRONT_SUSPENSION, 50));
+        scheduler.beginFrame(30);
+        assertFalse(scheduler.shouldDraw(TelemetryChannels.FRONT_SUSPENSION, 60));
+        scheduler.beginFrame(40);
+        assertTrue(scheduler.shouldDraw(TelemetryChannels.COOLANT_TEMP, 100));
+        assertTrue(scheduler.shouldDraw(TelemetryChannels.FRONT_SUSPENSION, 66));
+        // Missing readings never count as a jump
+        scheduler.beginFrame(60);
+        assertFalse(scheduler.shouldDraw(TelemetryChannels.COOLANT_TEMP, Double.NaN));
+    }
+
+    @Test
+    public void requestedUpdate_drawsOnce() {
+        ChannelScheduler scheduler = new ChannelScheduler(50, 500, 1)
+                .assign(TelemetryChannels.FRONT_BRAKE_DISK_TEMP, ChannelScheduler.RATE_SLOW, 40);
+        scheduler.beginFrame(0);
+        assertTrue(scheduler.shouldDraw(TelemetryChannels.FRONT_BRAKE_DISK_TEMP, 250));
+        scheduler.requestUpdate(TelemetryChannels.FRONT_BRAKE_DISK_TEMP);
+        scheduler.beginFrame(10);
+        assertTrue(scheduler.shouldDraw(TelemetryChannels.FRONT_BRAKE_DISK_TEMP, 251));
+        scheduler.beginFrame(20);
+        assertFalse(scheduler.shouldDraw(TelemetryChannels.FRONT_BRAKE_DISK_TEMP, 252));
+    }
+
+    @Test
+    public void stretchedIntervals_andReset() {
+        ChannelScheduler scheduler = scheduler();
+        scheduler.setIntervals(100, 2000);
+        int normal = 0, coolant = 0;
+        for (long millis = 0; millis < 4000; millis += 10) {
+            scheduler.beginFrame(millis);
+            if (scheduler.shouldDraw(TelemetryChannels.FRONT_SUSPENSION, 50)) {
+                normal++;
+            }
+            if (scheduler.shouldDraw(TelemetryChannels.COOLANT_TEMP, 90)) {
+                coolant++;
+            }
+        }
+        assertEquals(40, normal);
+        // Its turn comes fourth among the slow channels, then every two seconds
+        assertEquals(2, coolant);
+
+        scheduler.reset();
+        scheduler.beginFrame(4000);
+        assertTrue(scheduler.shouldDraw(TelemetryChannels.FRONT_SUSPENSION, 50));
+        assertTrue(scheduler.shouldDraw(TelemetryChannels.FRONT_TYRE_S1, 50));
+    }
+}
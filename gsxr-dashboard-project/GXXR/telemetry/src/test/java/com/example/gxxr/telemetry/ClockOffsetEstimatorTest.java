@@ -0,0 +1,72 @@
+package com.example.gxxr.telemetry;
+
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ClockOffsetEstimatorTest {
+
+    // Logger epoch clock running 40 ppm fast against the phone's boot clock
+    private static final long LOGGER_EPOCH_MICROS = 1_731_600_000_000_000L;
+    private static final double LOGGER_DRIFT = 40e-6;
+
+    private static long loggerMicros(long localMicros) {
+        return LOGGER_EPOCH_MICROS + Math.round(localMicros * (1 + LOGGER_DRIFT));
+    }
+
+    @Test
+    public void jitteryExchanges_convergeOnOffsetAndDrift() {
+        ClockOffsetEstimator estimator = new ClockOffsetEstimator();
+        Random random = new Random(7);
+        long local = 5_000_000;
+
+        for (int i = 0; i < 2000; i++) {
+            // Wi-Fi style delays: a 1 ms floor with occasional long, one-sided queueing
+            long uplink = 1000 + (random.nextInt(10) == 0 ? random.nextInt(40000) : random.nextInt(300));
+            long downlink = 1000 + (random.nextInt(10) == 0 ? random.nextInt(40000) : random.nextInt(300));
+            long t0 = local;
+            long t1 = loggerMicros(t0 + uplink);
+            long t2 = t1 + 200;
+            long t3 = t0 + uplink + 200 + downlink;
+            estimator.addSample(t0, t1, t2, t3);
+            local += 20_000;
+        }
+
+        assertTrue(estimator.hasEstimate());
+        assertEquals(loggerMicros(local) - local, estimator.offsetMicros(local), 500);
+        assertEquals(40, estimator.driftPpm(), 15);
+
+        long frameLocal = local - 30_000;
+        assertEquals(30_000, estimator.ageMicros(loggerMicros(frameLocal), local), 500);
+    }
+
+    @Test
+    public void tracker_usesEchoAndDropsStaleFrames() {
+        FrameAgeTracker tracker = new FrameAgeTracker(new ClockOffsetEstimator(), 250_000);
+        long local = 10_000_000;
+
+        assertEquals("REQ " + local, tracker.request(local));
+        String reply = String.format(Locale.ENGLISH,
+                "{\"frame_ts\": %.6f, \"rear_brake_gps_wheel_kmh\": 88, \"req_t0\": %d, \"srv_rx_ts\": %.6f, \"srv_tx_ts\": %.6f}",
+                loggerMicros(local - 20_000) / 1e6, local, loggerMicros(local + 1000) / 1e6, loggerMicros(local + 1100) / 1e6);
+        long age = tracker.onReply(reply, local + 2100);
+        assertEquals(22_100, age, 100);
+        assertFalse(tracker.isStale(age));
+
+        // A frame the logger has been sitting on for half a second
+        local += 1_000_000;
+        tracker.request(local);
+        reply = String.format(Locale.ENGLISH,
+                "{\"frame_ts\": %.6f, \"req_t0\": %d, \"srv_rx_ts\": %.6f, \"srv_tx_ts\": %.6f}",
+                loggerMicros(local - 500_000) / 1e6, local, loggerMicros(local + 1000) / 1e6, loggerMicros(local + 1100) / 1e6);
+        assertTrue(tracker.isStale(tracker.onReply(reply, local + 2100)));
+        assertEquals(1, tracker.staleFrames());
+
+        // A late reply to an older request must not be used as a clock sample
+        tracker.request(local + 50_000);
+        assertEquals(-1, tracker.onReply("{\"error\": \"NO_DATA_YET\", \"req_t0\": 1}", local + 60_000));
+    }
+}
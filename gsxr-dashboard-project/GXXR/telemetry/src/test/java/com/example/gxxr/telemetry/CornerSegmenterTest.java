@@ -0,0 +1,189 @@
+package com.example.gxxr.telemetry;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class CornerSegmenterTest {
+
+    private static final double ORIGIN_LATITUDE = 52.0, ORIGIN_LONGITUDE = 4.0;
+    private static final double METRES_PER_DEGREE = 6_371_000 * Math.PI / 180;
+    private static final long LAP_START = 1_000_000;
+
+    private final CornerSegmenter segmenter = new CornerSegmenter();
+    private final TelemetryFrame frame = new TelemetryFrame();
+
+    private void frame(long lapMillis, double speed, int frontBrake, double brakingG, double longitudinalG, double lean) {
+        frame.clear();
+        frame.timestampMillis = LAP_START + lapMillis;
+        frame.set(TelemetryChannels.WHEEL_SPEED, speed);
+        frame.set(TelemetryChannels.FRONT_BRAKE, frontBrake);
+        frame.set(TelemetryChannels.REAR_BRAKE, 0);
+        frame.set(TelemetryChannels.BRAKING_G, brakingG);
+        frame.set(TelemetryChannels.LONGITUDINAL_G, longitudinalG);
+        frame.set(TelemetryChannels.LEAN_ANGLE, lean);
+        segmenter.process(frame);
+    }
+
+    /**
+     * Straight at 200, brakes on at 5 s down to 80 by 7 s, tipping in from 6.5 s to
+     * 45 degrees right, speed bottoming at 75 at 8.5 s, back on the gas from 9 s and
+     * upright again by 11 s. Frames at 50 Hz.
+     */
+    private void rideCorner(long offset) {
+        for (long t = 0; t < 13_000; t += 20) {
+            double speed, brakingG = 0, longitudinalG = 0, lean = 0;
+            int brake = 0;
+            if (t < 5000) {
+                speed = 200;
+            } else if (t < 7000) {
+                speed = 200 - 120 * (t - 5000) / 2000.0;
+                brake = 1;
+                brakingG = 0.85;
+                longitudinalG = -0.85;
+            } else if (t < 8500) {
+                speed = 80 - 5 * (t - 7000) / 1500.0;
+                brakingG = 0.05;
+                longitudinalG = -0.05;
+            } else {
+                speed = 75 + 20 * (t - 8500) / 4500.0;
+                longitudinalG = t >= 9000 ? 0.3 : 0;
+            }
+            if (t >= 6500 && t < 8000) {
+                lean = -45 * (t - 6500) / 1500.0;
+            } else if (t >= 8000 && t < 9500) {
+                lean = -45;
+            } else if (t >= 9500 && t < 11_000) {
+                lean = -45 * (11_000 - t) / 1500.0;
+            }
+            frame(offset + t, speed, brake, brakingG, longitudinalG, lean);
+        }
+    }
+
+    @Test
+    public void brakingIntoCorner_sharesOneRow() throws IOException {
+        segmenter.beginLap(LAP_START);
+        rideCorner(0);
+        CornerTable table = segmenter.completeLap(LAP_START + 13_000);
+
+        assertEquals(1, table.rows());
+        assertEquals(5000, table.get(0, CornerTable.BRAKE_START), 0);
+        assertEquals(2000, table.get(0, CornerTable.BRAKE_DURATION), 0);
+        assertEquals(200, table.get(0, CornerTable.BRAKE_SPEED), 0);
+        assertEquals(0.85, table.get(0, CornerTable.PEAK_BRAKING_G), 1e-9);
+        assertEquals(7000, table.get(0, CornerTable.CORNER_ENTRY), 20);
+        assertEquals(8500, table.get(0, CornerTable.APEX), 20);
+        assertEquals(75, table.get(0, CornerTable.MIN_SPEED), 0.1);
+        assertEquals(-45, table.get(0, CornerTable.MAX_LEAN), 0);
+        assertEquals(9000, table.get(0, CornerTable.DRIVE), 0);
+        assertEquals(10_740, table.get(0, CornerTable.CORNER_EXIT), 20);
+        // No GPS in this ride
+        assertTrue(Double.isNaN(table.get(0, CornerTable.BRAKE_LATITUDE)));
+        assertSame(table, segmenter.lastLap());
+
+        StringBuilder csv = new StringBuilder();
+        table.writeCsv(csv);
+        assertTrue(csv.toString().startsWith("brake_start_ms,brake_duration_ms,"));
+        assertTrue(csv.toString().contains("\n5000,2000,200,,,0.85,"));
+    }
+
+    @Test
+    public void dabsAndWobbles_areIgnored_lonelyBrakingKeepsItsRow() {
+        segmenter.beginLap(LAP_START);
+        long t = 0;
+        // A dab of the lever, then a flick of lean on the straight
+        for (; t < 2000; t += 20) {
+            frame(t, 180, t >= 500 && t < 700 ? 1 : 0, 0, 0, t >= 1000 && t < 1400 ? 20 : 0);
+        }
+        // A hard stop with no corner after it, e.g. the pit lane entry
+        for (; t < 8000; t += 20) {
+            boolean stopping = t >= 2000 && t < 4000;
+            frame(t, stopping ? 180 - 130 * (t - 2000) / 2000.0 : 50, stopping ? 1 : 0, stopping ? 0.9 : 0, 0, 0);
+        }
+        // The lever squeezed while stopped for the lap gestures
+        for (; t < 9000; t += 20) {
+            frame(t, 0, 1, 0, 0, 0);
+        }
+        rideCorner(t);
+        CornerTable table = segmenter.completeLap(LAP_START + t + 13_000);
+
+        assertEquals(2, table.rows());
+        assertEquals(2000, table.get(0, CornerTable.BRAKE_START), 0);
+        assertTrue(Double.isNaN(table.get(0, CornerTable.CORNER_ENTRY)));
+        assertEquals(t + 5000, table.get(1, CornerTable.BRAKE_START), 0);
+        assertEquals(-45, table.get(1, CornerTable.MAX_LEAN), 0);
+    }
+
+    @Test
+    public void decelerationOnlyBraking_survivesMissingBrakingG() {
+        segmenter.beginLap(LAP_START);
+        for (long t = 0; t < 6000; t += 20) {
+            boolean stopping = t >= 2000 && t < 4000;
+            // No lever switch, and every other frame without a braking g
+            double brakingG = t % 40 == 20 ? Double.NaN : stopping ? 0.6 : 0;
+            frame(t, stopping ? 180 - 100 * (t - 2000) / 2000.0 : 80, 0, brakingG, 0, 0);
+        }
+        CornerTable table = segmenter.completeLap(LAP_START + 6000);
+
+        assertEquals(1, table.rows());
+        assertEquals(2000, table.get(0, CornerTable.BRAKE_START), 0);
+        assertEquals(2000, table.get(0, CornerTable.BRAKE_DURATION), 20);
+        assertEquals(0.6, table.get(0, CornerTable.PEAK_BRAKING_G), 1e-9);
+    }
+
+    @Test
+    public void gpsHeading_findsCornersWithoutLean() {
+        segmenter.beginLap(LAP_START);
+        // 60 km/h round a 40 m radius (24 deg/s, anticlockwise so to the left), GPS at 10 Hz
+        double latitude = ORIGIN_LATITUDE, longitude = ORIGIN_LONGITUDE;
+        double x = 0, y = 0, heading = 0, speed = 60 / 3.6;
+        for (long t = 0; t < 20_000; t += 20) {
+            boolean turning = t >= 5000 && t < 10_000;
+            if (t % 100 == 0) {
+                latitude = ORIGIN_LATITUDE + y / METRES_PER_DEGREE;
+                longitude = ORIGIN_LONGITUDE + x / (METRES_PER_DEGREE * Math.cos(Math.toRadians(ORIGIN_LATITUDE)));
+            }
+            frame.clear();
+            frame.timestampMillis = LAP_START + t;
+            frame.set(TelemetryChannels.WHEEL_SPEED, 60);
+            frame.set(TelemetryChannels.GPS_FIX, 1);
+            frame.set(TelemetryChannels.GPS_LATITUDE, latitude);
+            frame.set(TelemetryChannels.GPS_LONGITUDE, longitude);
+            segmenter.process(frame);
+            if (turning) {
+                heading += speed / 40 * 0.02;
+            }
+            x += speed * 0.02 * Math.cos(heading);
+            y += speed * 0.02 * Math.sin(heading);
+        }
+        CornerTable table = segmenter.completeLap(LAP_START + 20_000);
+
+        assertEquals(1, table.rows());
+        // Within a second: the heading needs a few metres of travel between bearings
+        assertEquals(5000, table.get(0, CornerTable.CORNER_ENTRY), 1000);
+        assertEquals(10_000, table.get(0, CornerTable.CORNER_EXIT), 1000);
+        assertTrue(Double.isNaN(table.get(0, CornerTable.MAX_LEAN)));
+        assertTrue(Double.isNaN(table.get(0, CornerTable.BRAKE_START)));
+    }
+
+    @Test
+    public void longLap_isBoundedByTheTableCapacity() {
+        segmenter.beginLap(LAP_START);
+        long laps = CornerSegmenter.MAX_SEGMENTS_PER_LAP + 5;
+        for (int i = 0; i < laps; i++) {
+            rideCorner(i * 13_000L);
+        }
+        CornerTable table = segmenter.completeLap(LAP_START + laps * 13_000);
+        assertEquals(CornerSegmenter.MAX_SEGMENTS_PER_LAP, table.rows());
+        // Each of the five corners that did not fit had its braking zone dropped too
+        assertEquals(10, table.droppedRows());
+
+        // The next lap fills the other table; the completed one is left alone
+        segmenter.beginLap(LAP_START + laps * 13_000);
+        assertSame(table, segmenter.lastLap());
+        assertEquals(CornerSegmenter.MAX_SEGMENTS_PER_LAP, table.rows());
+        assertNull(new CornerSegmenter().completeLap(0));
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.gxxr.telemetry;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DashboardSharedStateTest {
+
+    private final DashboardSharedState state = new DashboardSharedState();
+
+    @Test
+    public void lapTimer_armsAndDisarms() {
+        assertFalse(state.isLapArmed());
+        assertEquals(-1, state.lapElapsed(5000));
+
+        state.armLap(1000);
+        assertTrue(state.isLapArmed());
+        assertEquals(1000, state.lapStartPoint());
+        assertEquals(4000, state.lapElapsed(5000));
+
+        state.disarmLap();
+        assertFalse(state.isLapArmed());
+        assertEquals(0, state.lapStartPoint());
+    }
+
+    @Test
+    public void faults_reportOnlyChanges() {
+        assertTrue(state.raiseFault(DashboardSharedState.FAULT_STALE_FRAMES));
+        assertFalse(state.raiseFault(DashboardSharedState.FAULT_STALE_FRAMES));
+        assertTrue(state.raiseFault(DashboardSharedState.FAULT_LOGGER_SILENT));
+        assertEquals(3, state.faults());
+
+        assertTrue(state.clearFault(DashboardSharedState.FAULT_STALE_FRAMES));
+        assertFalse(state.clearFault(DashboardSharedState.FAULT_STALE_FRAMES));
+        assertEquals(1 << DashboardSharedState.FAULT_LOGGER_SILENT, state.faults());
+    }
+
+    @Test
+    public void frameHandoff_wakesOnceAndKeepsNewest() {
+        DashboardSharedState.PendingFrame first = new DashboardSharedState.PendingFrame("{\"a\":1}", 10);
+        DashboardSharedState.PendingFrame second = new DashboardSharedState.PendingFrame("{\"a\":2}", 20);
+
+        assertTrue(state.offerFrame(first));
+        assertFalse(state.offerFrame(second));
+        assertEquals(1, state.supersededFrames());
+
+        assertSame(second, state.takeFrame());
+        assertNull(state.takeFrame());
+        assertTrue(state.offerFrame(first));
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.gxxr.telemetry;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DerivedChannelProcessorTest {
+
+    @Test
+    public void medianFilter_matchesSortedWindow() {
+        MedianFilter filter = new MedianFilter(5);
+        DoubleRingBuffer window = new DoubleRingBuffer(5);
+        Random random = new Random(3);
+        for (int i = 0; i < 500; i++) {
+            double value = random.nextInt(20);
+            window.add(i, value);
+            double[] sorted = new double[window.size()];
+            for (int j = 0; j < sorted.length; j++) {
+                sorted[j] = window.value(j);
+            }
+            Arrays.sort(sorted);
+            double expected = sorted.length % 2 == 1 ? sorted[sorted.length / 2]
+                    : (sorted[sorted.length / 2 - 1] + sorted[sorted.length / 2]) / 2;
+            assertEquals(expected, filter.update(i, value), 0);
+        }
+    }
+
+    @Test
+    public void derivedChannels_fromSteadyInputs() {
+        DerivedChannelProcessor processor = new DerivedChannelProcessor();
+        TelemetryFrame frame = new TelemetryFrame();
+
+        for (int i = 0; i <= 100; i++) {
+            long ts = 1000 + i * 20L;
+            frame.clear();
+            frame.timestampMillis = ts;
+            // Braking at 10 m/s^2 from 180 km/h, the disc heating at 10 C/s
+            frame.set(TelemetryChannels.WHEEL_SPEED, 180 - 36 * (i * 0.02));
+            frame.set(TelemetryChannels.FRONT_BRAKE_DISK_TEMP, 100 + 10 * (i * 0.02));
+            // Fork compressing at 100 mm/s with a sonar echo every 25 frames
+            double travel = 80 - 100 * (i * 0.02);
+            frame.set(TelemetryChannels.FRONT_SUSPENSION, i % 25 == 12 ? 400 : travel);
+            processor.process(frame);
+
+            if (i % 25 == 12 && i > 5) {
+                // The median lags a ramp by a couple of samples but never follows the echo
+                assertTrue(Math.abs(frame.get(TelemetryChannels.FRONT_SUSPENSION_TRAVEL) - travel) < 10);
+            }
+        }
+
+        assertEquals(10 / 9.80665, frame.get(TelemetryChannels.BRAKING_G), 0.01);
+        assertEquals(-10 / 9.80665, frame.get(TelemetryChannels.LONGITUDINAL_G), 0.01);
+        assertEquals(10, frame.get(TelemetryChannels.BRAKE_DISK_HEATING_RATE), 0.5);
+        assertEquals(-100, frame.get(TelemetryChannels.FRONT_SUSPENSION_VELOCITY), 5);
+        // No rear sonar in these frames
+        assertTrue(Double.isNaN(frame.get(TelemetryChannels.REAR_SUSPENSION_TRAVEL)));
+    }
+
+    @Test
+    public void repeatedPolls_areProcessedOnce() {
+        FrameAgeTracker tracker = new FrameAgeTracker(new ClockOffsetEstimator(), 250_000);
+        DerivedChannelProcessor processor = new DerivedChannelProcessor();
+        TelemetryFrame frame = new TelemetryFrame();
+        int processed = 0;
+
+        for (int i = 0; i < 100; i++) {
+            // Each 50 Hz frame answers ten polls
+            String reply = String.format(Locale.ENGLISH,
+                    "{\"frame_ts\": %.2f, \"frame_idx\": %d, \"rear_brake_gps_wheel_kmh\": %.3f}",
+                    1700000000 + i * 0.02, i, 180 - 36 * (i * 0.02));
+            for (int poll = 0; poll < 10; poll++) {
+                if (tracker.isRepeat(reply)) {
+                    continue;
+                }
+                frame.clear();
+                frame.timestampMillis = Math.round(FlatFrameParser.findNumber(reply, "frame_ts") * 1000);
+                frame.set(TelemetryChannels.WHEEL_SPEED, FlatFrameParser.findNumber(reply, "rear_brake_gps_wheel_kmh"));
+                processor.process(frame);
+                processed++;
+                if (i > 0) {
+                    assertEquals(10 / 9.80665, frame.get(TelemetryChannels.BRAKING_G), 0.01);
+                }
+            }
+        }
+        assertEquals(100, processed);
+        assertEquals(900, tracker.repeatedFrames());
+
+        // Logger restart: the index starts over and is taken as a new frame
+        assertFalse(tracker.isRepeat("{\"frame_ts\": 1700000100.00, \"frame_idx\": 0}"));
+        assertFalse(tracker.isRepeat("{\"error\": \"NO_DATA_YET\"}"));
+        assertFalse(tracker.isRepeat("{\"error\": \"NO_DATA_YET\"}"));
+    }
+}
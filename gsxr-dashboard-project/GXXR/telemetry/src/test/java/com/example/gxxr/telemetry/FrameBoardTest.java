@@ -0,0 +1,183 @@
+package com.example.gxxr.telemetry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class FrameBoardTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** Frame {@code k}: timestamp k and every channel a function of k, so a torn read shows */
+    private static void fill(TelemetryFrame frame, long k) {
+        frame.timestampMillis = k;
+        for (int channel = 0; channel < TelemetryChannels.COUNT; channel++) {
+            frame.values[channel] = k * 1000.0 + channel;
+        }
+    }
+
+    private static boolean isCoherent(TelemetryFrame frame) {
+        for (int channel = 0; channel < TelemetryChannels.COUNT; channel++) {
+            if (frame.values[channel] != frame.timestampMillis * 1000.0 + channel) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    public void separateMappings_seePublishedFrames() throws Exception {
+        File file = folder.newFile("frame_board");
+        try (FrameBoard writer = FrameBoard.create(file);
+             FrameBoard reader = FrameBoard.open(file)) {
+            TelemetryFrame frame = new TelemetryFrame();
+            assertTrue(reader.read(frame));
+            assertFalse(frame.has(TelemetryChannels.WHEEL_SPEED));
+
+            fill(frame, 7);
+            frame.set(TelemetryChannels.LAP_DELTA, Double.NaN);
+            writer.publish(frame);
+
+            int stamp = reader.tryOptimisticRead();
+            double speed = reader.value(TelemetryChannels.WHEEL_SPEED);
+            assertTrue(reader.validate(stamp));
+            assertEquals(7012, speed, 0);
+
+            TelemetryFrame copy = new TelemetryFrame();
+            assertTrue(reader.read(copy));
+            assertEquals(7, copy.timestampMillis);
+            assertFalse(copy.has(TelemetryChannels.LAP_DELTA));
+
+            writer.publish(frame);
+            assertFalse(reader.validate(stamp));
+        }
+    }
+
+    @Test
+    public void concurrentReaders_neverSeeTornFrames() throws Exception {
+        File file = folder.newFile("frame_board");
+        try (FrameBoard writer = FrameBoard.create(file);
+             FrameBoard reader = FrameBoard.open(file)) {
+            AtomicBoolean done = new AtomicBoolean();
+            AtomicLong reads = new AtomicLong();
+            AtomicLong torn = new AtomicLong();
+            Thread[] readers = new Thread[3];
+            for (int i = 0; i < readers.length; i++) {
+                readers[i] = new Thread(() -> {
+                    TelemetryFrame frame = new TelemetryFrame();
+                    long last = -1;
+                    while (!done.get()) {
+                        // Timestamp 0 is the empty board from before the first publish
+                        if (reader.read(frame) && frame.timestampMillis > 0) {
+                            if (!isCoherent(frame) || frame.timestampMillis < last) {
+                                torn.incrementAndGet();
+                            }
+                            last = frame.timestampMillis;
+                            reads.incrementAndGet();
+                        }
+                    }
+                });
+                readers[i].start();
+            }
+
+            TelemetryFrame frame = new TelemetryFrame();
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(300);
+            for (long k = 1; System.nanoTime() < deadline; k++) {
+                fill(frame, k);
+                writer.publish(frame);
+            }
+            done.set(true);
+            for (Thread thread : readers) {
+                thread.join();
+            }
+            assertEquals(0, torn.get());
+            assertTrue(reads.get() > 0);
+        }
+    }
+
+    @Test
+    public void readerInAnotherJvm_seesCoherentFrames() throws Exception {
+        File file = folder.newFile("frame_board");
+        try (FrameBoard writer = FrameBoard.create(file)) {
+            TelemetryFrame frame = new TelemetryFrame();
+            fill(frame, 1);
+            writer.publish(frame);
+
+            String java = new File(new File(System.getProperty("java.home"), "bin"), "java").getPath();
+            Process child = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    ChildReader.class.getName(), file.getPath())
+                    .redirectErrorStream(true)
+                    .start();
+            // Keep publishing until the child has seen enough and exited
+            for (long k = 2; child.isAlive() && k < 50_000_000; k++) {
+                fill(frame, k);
+                writer.publish(frame);
+            }
+            boolean exited = child.waitFor(20, TimeUnit.SECONDS);
+            if (!exited) {
+                child.destroyForcibly();
+            }
+            assertTrue(exited);
+            assertEquals(0, child.exitValue());
+        }
+    }
+
+    /** Reads the board from a separate process; exits 1 on a torn frame */
+    public static final class ChildReader {
+        public static void main(String[] args) throws IOException {
+            try (FrameBoard board = FrameBoard.open(new File(args[0]))) {
+                TelemetryFrame frame = new TelemetryFrame();
+                long first = -1;
+                for (int reads = 0; reads < 200_000 || frame.timestampMillis - first < 1000; reads++) {
+                    if (!board.read(frame) || !isCoherent(frame)) {
+                        System.exit(1);
+                    }
+                    if (first < 0) {
+                        first = frame.timestampMillis;
+                    }
+                }
+            }
+            System.exit(0);
+        }
+    }
+
+    @Test
+    public void restartedWriter_keepsSequenceGoing() throws Exception {
+        File file = folder.newFile("frame_board");
+        TelemetryFrame frame = new TelemetryFrame();
+        fill(frame, 3);
+        int stamp;
+        try (FrameBoard writer = FrameBoard.create(file);
+             FrameBoard reader = FrameBoard.open(file)) {
+            writer.publish(frame);
+            stamp = reader.tryOptimisticRead();
+            try (FrameBoard restarted = FrameBoard.create(file)) {
+                // An old stamp must not validate against the new writer's frames
+                assertFalse(reader.validate(stamp));
+                restarted.publish(frame);
+                assertTrue(reader.tryOptimisticRead() > stamp);
+                assertTrue(reader.read(frame));
+                assertEquals(3, frame.timestampMillis);
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void foreignFile_isRejected() throws Exception {
+        File file = folder.newFile("not_a_board");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[FrameBoard.SIZE]);
+        }
+        FrameBoard.open(file);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.gxxr.telemetry;
+
+import org.junit.Test;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class FrameSubscriptionTest {
+
+    private static void fillFrame(StandInLoggerServer server) {
+        server.put("frame_ts", 1700000000.25);
+        server.put("frame_idx", 42);
+        for (int channel : FrameSubscription.loggerChannels()) {
+            server.put(TelemetryChannels.key(channel), channel);
+        }
+        server.put("rear_brake_gps_S1", 81);
+        // The bulk of a real frame: IMU axes and per-node timestamps the dash never reads
+        for (String node : new String[]{"front_imu", "brakes_imu", "primary_imu"}) {
+            for (String axis : new String[]{"ax", "ay", "az", "gx", "gy", "gz", "mx", "my", "mz"}) {
+                server.put(node + "_imu_" + axis, 0.123456);
+            }
+            server.put(node + "_log_ts", 1700000000.123456);
+        }
+    }
+
+    private static String request(DatagramSocket socket, int port, FrameAgeTracker tracker) throws Exception {
+        return send(socket, port, tracker.request(123456789));
+    }
+
+    private static String send(DatagramSocket socket, int port, String message) throws Exception {
+        byte[] request = message.getBytes(StandardCharsets.UTF_8);
+        socket.send(new DatagramPacket(request, request.length, InetAddress.getLoopbackAddress(), port));
+        DatagramPacket reply = new DatagramPacket(new byte[4096], 4096);
+        socket.receive(reply);
+        return new String(reply.getData(), 0, reply.getLength(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void projectedFrames_carryOnlySubscribedKeys() throws Exception {
+        FrameSubscription subscription = FrameSubscription.forChannels(FrameSubscription.loggerChannels(), "rear_brake_gps_S1");
+        assertEquals(subscription.id(), FrameSubscription.forChannels(FrameSubscription.loggerChannels(), "rear_brake_gps_S1").id());
+        assertFalse(subscription.subscribeMessage().contains("dash_"));
+
+        try (StandInLoggerServer server = new StandInLoggerServer(true);
+             DatagramSocket socket = new DatagramSocket()) {
+            fillFrame(server);
+            socket.setSoTimeout(2000);
+            FrameAgeTracker tracker = new FrameAgeTracker(new ClockOffsetEstimator(), 250_000);
+
+            String full = request(socket, server.port(), tracker);
+            assertTrue(subscription.subscribe(socket, InetAddress.getLoopbackAddress(), server.port(), 1000));
+            tracker.setProjection(subscription.id());
+            String projected = request(socket, server.port(), tracker);
+
+            assertFalse(FrameSubscription.isRejected(projected));
+            assertFalse(projected.contains("_imu_ax"));
+            assertEquals(1700000000.25, FlatFrameParser.findNumber(projected, "frame_ts"), 1e-6);
+            assertEquals(123456789, FlatFrameParser.findNumber(projected, FrameAgeTracker.REQUEST_ECHO_KEY), 0);
+            assertEquals(81, FlatFrameParser.findNumber(projected, "rear_brake_gps_S1"), 0);
+            for (int channel : FrameSubscription.loggerChannels()) {
+                assertEquals(channel, FlatFrameParser.findNumber(projected, TelemetryChannels.key(channel)), 0);
+            }
+            assertTrue(projected.length() * 2 < full.length());
+
+            // Whole frames stay available next to the projection, for the recording's snapshots
+            assertTrue(tracker.isProjecting());
+            String whole = send(socket, server.port(), tracker.request(987654321, true));
+            assertTrue(whole.contains("_imu_ax"));
+            assertEquals(987654321, FlatFrameParser.findNumber(whole, FrameAgeTracker.REQUEST_ECHO_KEY), 0);
+
+            // Logger restarted: full frame, flagged so the dash subscribes again
+            server.forgetProjections();
+            String rejected = request(socket, server.port(), tracker);
+            assertTrue(FrameSubscription.isRejected(rejected));
+            assertTrue(rejected.contains("_imu_ax"));
+            assertTrue(subscription.subscribe(socket, InetAddress.getLoopbackAddress(), server.port(), 1000));
+            assertFalse(FrameSubscription.isRejected(request(socket, server.port(), tracker)));
+        }
+    }
+
+    private static String frame(int frameIndex, boolean isFull) {
+        return "{\"frame_ts\": " + (1700000000 + frameIndex * 0.02) + ", \"frame_idx\": " + frameIndex
+                + ", \"dash_speed_kph\": 120" + (isFull ? ", \"front_imu_imu_ax\": 0.1}" : "}");
+    }
+
+    @Test
+    public void recordingHold_recordsEveryFrameOnceWithPeriodicFullFrames() throws Exception {
+        RecordingFrameHold hold = new RecordingFrameHold(1_000_000);
+        assertTrue(hold.isFullFrameDue(0));
+        assertNull(hold.onFrame(frame(1, true), true, 0));
+        assertFalse(hold.isFullFrameDue(999_999));
+
+        // Projected polls, most of them repeats; each frame comes out once, one frame late
+        assertNull(hold.onFrame(frame(1, false), false, 10_000));
+        assertEquals(frame(1, true), hold.onFrame(frame(2, false), false, 20_000));
+        assertNull(hold.onFrame(frame(2, false), false, 30_000));
+        assertEquals(frame(2, false), hold.onFrame(frame(3, false), false, 40_000));
+
+        // The snapshot poll lands on the frame already held and takes its place
+        assertTrue(hold.isFullFrameDue(1_000_000));
+        assertNull(hold.onFrame(frame(3, true), true, 1_000_000));
+        assertFalse(hold.isFullFrameDue(1_010_000));
+        assertEquals(frame(3, true), hold.onFrame(frame(4, false), false, 1_020_000));
+        // A projected repeat never replaces a full frame
+        assertEquals(frame(4, false), hold.onFrame(frame(5, true), true, 2_000_000));
+        assertNull(hold.onFrame(frame(5, false), false, 2_010_000));
+        assertEquals(frame(5, true), hold.flush());
+        assertNull(hold.flush());
+    }
+
+    @Test
+    public void olderLogger_neverAcknowledges() throws Exception {
+        FrameSubscription subscription = FrameSubscription.forChannels(FrameSubscription.loggerChannels());
+        try (StandInLoggerServer server = new StandInLoggerServer(false);
+             DatagramSocket socket = new DatagramSocket()) {
+            fillFrame(server);
+            socket.setSoTimeout(2000);
+            assertFalse(subscription.subscribe(socket, InetAddress.getLoopbackAddress(), server.port(), 200));
+            assertEquals(2000, socket.getSoTimeout());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.gxxr.telemetry;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GaugeCalibratorTest {
+
+    private static GaugeCalibrator calibrator() {
+        return new GaugeCalibrator(0.02, 0.98, 1000)
+                .calibrate(TelemetryChannels.FRONT_SUSPENSION, 16, 80)
+                .widen(TelemetryChannels.COOLANT_TEMP, 20, 120);
+    }
+
+    private static void ride(GaugeCalibrator calibrator, int frames, double sonarOffset, double coolantPeak, long seed) {
+        Random random = new Random(seed);
+        TelemetryFrame frame = new TelemetryFrame();
+        for (int i = 0; i < frames; i++) {
+            frame.clear();
+            frame.set(TelemetryChannels.FRONT_SUSPENSION, sonarOffset + 48 + 30 * Math.sin(i * 0.05) + random.nextGaussian());
+            if (i % 7 != 0) {
+                frame.set(TelemetryChannels.COOLANT_TEMP, coolantPeak - 20 + 20 * Math.abs(Math.sin(i * 0.001)));
+            }
+            calibrator.process(frame);
+        }
+    }
+
+    @Test
+    public void streamingQuantile_tracksPercentiles() {
+        Random random = new Random(7);
+        double[] samples = new double[20000];
+        StreamingQuantile low = new StreamingQuantile(0.02);
+        StreamingQuantile median = new StreamingQuantile(0.5);
+        StreamingQuantile high = new StreamingQuantile(0.98);
+        for (int i = 0; i < samples.length; i++) {
+            // Skewed, like sonar travel that mostly sits near sag
+            samples[i] = 40 + 10 * random.nextGaussian() + (random.nextInt(10) == 0 ? 30 * random.nextDouble() : 0);
+            low.add(samples[i]);
+            median.add(samples[i]);
+            high.add(samples[i]);
+        }
+        median.add(Double.NaN);
+        Arrays.sort(samples);
+        assertEquals(samples[400], low.value(), 1.0);
+        assertEquals(samples[10000], median.value(), 0.5);
+        assertEquals(samples[19600], high.value(), 1.0);
+        assertEquals(samples.length, median.count());
+
+        StreamingQuantile few = new StreamingQuantile(0.5);
+        assertTrue(Double.isNaN(few.value()));
+        few.add(3);
+        few.add(1);
+        few.add(2);
+        assertEquals(2, few.value(), 0);
+    }
+
+    @Test
+    public void remountedSonar_isRecalibrated() {
+        GaugeCalibrator calibrator = calibrator();
+        // Sensor moved 20 mm further from the fork: readings run 38..98 instead of 18..78
+        ride(calibrator, 999, 20, 95, 1);
+        assertFalse(calibrator.hasProposal(TelemetryChannels.FRONT_SUSPENSION));
+        ride(calibrator, 4000, 20, 95, 2);
+        assertTrue(calibrator.hasProposal(TelemetryChannels.FRONT_SUSPENSION));
+        assertEquals(16, calibrator.min(TelemetryChannels.FRONT_SUSPENSION), 0);
+
+        assertEquals(1, calibrator.accept());
+        double min = calibrator.min(TelemetryChannels.FRONT_SUSPENSION);
+        double max = calibrator.max(TelemetryChannels.FRONT_SUSPENSION);
+        assertTrue("min " + min, min > 30 && min < 40);
+        assertTrue("max " + max, max > 96 && max < 106);
+        // Cool enough session, the coolant gauge keeps its default
+        assertEquals(20, calibrator.min(TelemetryChannels.COOLANT_TEMP), 0);
+        assertEquals(120, calibrator.max(TelemetryChannels.COOLANT_TEMP), 0);
+        assertFalse(calibrator.hasProposal(TelemetryChannels.FRONT_SUSPENSION));
+    }
+
+    @Test
+    public void widenedChannel_onlyGrows() {
+        GaugeCalibrator calibrator = calibrator();
+        ride(calibrator, 20000, 0, 135, 3);
+        calibrator.accept();
+        assertEquals(20, calibrator.min(TelemetryChannels.COOLANT_TEMP), 0);
+        assertTrue(calibrator.max(TelemetryChannels.COOLANT_TEMP) > 135);
+    }
+
+    @Test
+    public void stuckSensor_makesNoProposal() {
+        GaugeCalibrator calibrator = calibrator();
+        TelemetryFrame frame = new TelemetryFrame();
+        for (int i = 0; i < 5000; i++) {
+            frame.clear();
+            frame.set(TelemetryChannels.FRONT_SUSPENSION, 50 + (i % 3));
+            calibrator.process(frame);
+        }
+        assertFalse(calibrator.hasProposal(TelemetryChannels.FRONT_SUSPENSION));
+        assertEquals(0, calibrator.accept());
+        assertEquals(80, calibrator.max(TelemetryChannels.FRONT_SUSPENSION), 0);
+    }
+
+    @Test
+    public void ranges_surviveRestart() throws Exception {
+        GaugeCalibrator calibrator = calibrator();
+        ride(calibrator, 5000, 20, 95, 4);
+        calibrator.accept();
+
+        GaugeCalibrator restored = calibrator();
+        restored.restore(calibrator.toByteArray());
+        assertEquals(calibrator.min(TelemetryChannels.FRONT_SUSPENSION), restored.min(TelemetryChannels.FRONT_SUSPENSION), 0);
+        assertEquals(calibrator.max(TelemetryChannels.FRONT_SUSPENSION), restored.max(TelemetryChannels.FRONT_SUSPENSION), 0);
+
+        restored.resetRanges();
+        assertEquals(16, restored.min(TelemetryChannels.FRONT_SUSPENSION), 0);
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.gxxr.telemetry;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GestureRecognizerTest {
+
+    private static final int LAP_MODE = 0;
+    private static final int LAP_ARM = 1;
+    private static final int LAP_STOP = 2;
+
+    private static GestureRecognizer dashGestures() {
+        return new GestureRecognizer(50)
+                .hold(LAP_MODE, 3000,
+                        new int[]{TelemetryChannels.FRONT_BRAKE, TelemetryChannels.REAR_BRAKE}, new int[]{0, 0})
+                .press(LAP_ARM,
+                        new int[]{TelemetryChannels.HEADLIGHT, TelemetryChannels.REAR_BRAKE, TelemetryChannels.FRONT_BRAKE}, new int[]{1, 1, 0})
+                .press(LAP_STOP,
+                        new int[]{TelemetryChannels.HEADLIGHT, TelemetryChannels.FRONT_BRAKE, TelemetryChannels.REAR_BRAKE}, new int[]{1, 1, 0});
+    }
+
+    // Rider inputs over a 26 s ride as {from ms, front, rear, headlight}; a row holds until the next one
+    private static final long[][] RIDE = {
+            {0, 1, 1, 0},
+            {1000, 0, 0, 0},        // lap mode hold
+            {4500, 1, 1, 0},
+            {5000, 0, 1, 0},        // 30 ms switch bounce
+            {5030, 1, 1, 0},
+            {6000, 0, 1, 1},        // arm
+            {6600, 1, 1, 0},
+            {10000, 1, 0, 0},       // bounce
+            {10030, 1, 1, 0},
+            {20000, 1, 0, 1},       // stop
+            {20400, 1, 1, 0},
+            {22000, 0, 0, 0},       // held just short of the lap mode time
+            {25000, 1, 1, 0},
+    };
+    private static final long RIDE_END = 26000;
+
+    private static long[] inputsAt(long millis) {
+        long[] row = RIDE[0];
+        for (long[] candidate : RIDE) {
+            if (candidate[0] <= millis) {
+                row = candidate;
+            }
+        }
+        return row;
+    }
+
+    /** Replays the ride sampled at {@code rateHz} with jittered frame times; each frame is delivered {@code repeats} times */
+    private static List<long[]> replay(int rateHz, int repeats, long seed) {
+        GestureRecognizer recognizer = dashGestures();
+        TelemetryFrame frame = new TelemetryFrame();
+        Random random = new Random(seed);
+        List<long[]> events = new ArrayList<>();
+        double period = 1000.0 / rateHz;
+        for (int k = 0; k * period < RIDE_END; k++) {
+            long millis = Math.round(k * period + random.nextDouble() * period * 0.3);
+            long[] inputs = inputsAt(millis);
+            frame.clear();
+            frame.timestampMillis = millis;
+            frame.set(TelemetryChannels.FRONT_BRAKE, inputs[1]);
+            frame.set(TelemetryChannels.REAR_BRAKE, inputs[2]);
+            frame.set(TelemetryChannels.HEADLIGHT, inputs[3]);
+            for (int r = 0; r < repeats; r++) {
+                int fired = recognizer.process(frame);
+                for (int gesture = 0; gesture < 3; gesture++) {
+                    if ((fired & (1 << gesture)) != 0) {
+                        events.add(new long[]{gesture, recognizer.startedAtMillis(gesture), millis});
+                    }
+                }
+            }
+        }
+        return events;
+    }
+
+    private static void assertRide(List<long[]> events, long tolerance) {
+        assertEquals(3, events.size());
+        long[][] expected = {
+                {LAP_MODE, 1000, 4000},
+                {LAP_ARM, 6000, 6050},
+                {LAP_STOP, 20000, 20050},
+        };
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i][0], events.get(i)[0]);
+            long started = events.get(i)[1];
+            long fired = events.get(i)[2];
+            assertTrue("started " + started, started >= expected[i][1] && started <= expected[i][1] + tolerance);
+            assertTrue("fired " + fired, fired >= expected[i][2] && fired <= expected[i][2] + 2 * tolerance);
+        }
+    }
+
+    @Test
+    public void sameGestures_from10HzTo500Hz() {
+        for (int rate : new int[]{10, 25, 50, 100, 200, 500}) {
+            for (long seed = 0; seed < 5; seed++) {
+                // At most one frame period (plus jitter) late, however fast frames come
+                assertRide(replay(rate, 1, seed), (long) Math.ceil(1300.0 / rate));
+            }
+        }
+    }
+
+    @Test
+    public void repeatedFrames_doNotShortenHolds() {
+        // Polling faster than the logger grid hands the same frame over many times
+        assertRide(replay(50, 20, 1), 26);
+    }
+
+    @Test
+    public void missingInputs_keepLevelWithoutExtendingHolds() {
+        GestureRecognizer recognizer = dashGestures();
+        TelemetryFrame frame = new TelemetryFrame();
+        int fired = 0;
+        for (long millis = 0; millis <= 6000; millis += 20) {
+            frame.clear();
+            frame.timestampMillis = millis;
+            // Brake node keeps dropping out before the hold time has been shown
+            if (millis < 1000 || (millis >= 2500 && millis < 2900)) {
+                frame.set(TelemetryChannels.FRONT_BRAKE, 0);
+                frame.set(TelemetryChannels.REAR_BRAKE, 0);
+            }
+            fired |= recognizer.process(frame);
+        }
+        assertEquals(0, fired);
+        assertTrue(recognizer.isActive(LAP_MODE));
+
+        frame.timestampMillis = 6020;
+        frame.set(TelemetryChannels.FRONT_BRAKE, 0);
+        frame.set(TelemetryChannels.REAR_BRAKE, 0);
+        assertEquals(1 << LAP_MODE, recognizer.process(frame));
+        assertEquals(0, recognizer.startedAtMillis(LAP_MODE));
+    }
+
+    @Test
+    public void clockStepBack_restartsHolds() {
+        GestureRecognizer recognizer = dashGestures();
+        TelemetryFrame frame = new TelemetryFrame();
+        frame.set(TelemetryChannels.FRONT_BRAKE, 0);
+        frame.set(TelemetryChannels.REAR_BRAKE, 0);
+        frame.timestampMillis = 100_000;
+        recognizer.process(frame);
+        frame.timestampMillis = 102_000;
+        assertEquals(0, recognizer.process(frame));
+        assertTrue(recognizer.isActive(LAP_MODE));
+
+        // Logger restarted with its clock behind; the two seconds held so far no longer count
+        frame.timestampMillis = 50_000;
+        assertEquals(0, recognizer.process(frame));
+        frame.timestampMillis = 51_500;
+        assertEquals(0, recognizer.process(frame));
+        frame.timestampMillis = 53_000;
+        assertEquals(1 << LAP_MODE, recognizer.process(frame));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateGesture_isRejected() {
+        dashGestures().press(LAP_ARM, new int[]{TelemetryChannels.HEADLIGHT}, new int[]{1});
+    }
+}
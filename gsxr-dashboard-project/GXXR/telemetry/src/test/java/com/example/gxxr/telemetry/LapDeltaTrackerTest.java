@@ -0,0 +1,138 @@
+package com.example.gxxr.telemetry;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LapDeltaTrackerTest {
+
+    private static final double ORIGIN_LATITUDE = 52.0, ORIGIN_LONGITUDE = 4.0;
+    private static final double METRES_PER_DEGREE = 6_371_000 * Math.PI / 180;
+
+    private final TelemetryFrame frame = new TelemetryFrame();
+    private long now = 1_000_000;
+
+    /**
+     * Rides one lap of a figure of eight (it crosses itself in the middle) at a
+     * constant pace, GPS at 10 Hz and frames at 50 Hz. Returns the delta seen at each
+     * quarter of the lap.
+     */
+    private double[] rideLap(LapDeltaTracker tracker, long lapMillis) {
+        return rideLap(tracker, lapMillis, -1);
+    }
+
+    /** As above, with a 0/0 fix and then a 5 km multipath jump at {@code glitchAtMillis} into the lap */
+    private double[] rideLap(LapDeltaTracker tracker, long lapMillis, long glitchAtMillis) {
+        double[] quarters = new double[4];
+        tracker.beginLap(now);
+        double latitude = 0, longitude = 0;
+        for (long t = 0; t < lapMillis; t += 20) {
+            if (t % 100 == 0) {
+                double theta = Math.PI / 2 + 2 * Math.PI * t / lapMillis;
+                double x = 400 * Math.sin(theta);
+                double y = 400 * Math.sin(theta) * Math.cos(theta);
+                latitude = ORIGIN_LATITUDE + y / METRES_PER_DEGREE;
+                longitude = ORIGIN_LONGITUDE + x / (METRES_PER_DEGREE * Math.cos(Math.toRadians(ORIGIN_LATITUDE)));
+            }
+            frame.clear();
+            frame.timestampMillis = now + t;
+            frame.set(TelemetryChannels.GPS_FIX, 1);
+            frame.set(TelemetryChannels.GPS_LATITUDE, latitude);
+            frame.set(TelemetryChannels.GPS_LONGITUDE, longitude);
+            if (t == glitchAtMillis) {
+                frame.set(TelemetryChannels.GPS_LATITUDE, 0);
+                frame.set(TelemetryChannels.GPS_LONGITUDE, 0);
+            } else if (t == glitchAtMillis + 20) {
+                frame.set(TelemetryChannels.GPS_LATITUDE, latitude + 5000 / METRES_PER_DEGREE);
+            }
+            tracker.process(frame);
+            if (t == glitchAtMillis || t == glitchAtMillis + 20) {
+                assertTrue(Double.isNaN(frame.get(TelemetryChannels.LAP_DELTA)));
+            }
+            for (int q = 1; q <= 3; q++) {
+                if (t == lapMillis * q / 4 / 100 * 100) {
+                    quarters[q] = frame.get(TelemetryChannels.LAP_DELTA);
+                }
+            }
+        }
+        now += lapMillis;
+        return quarters;
+    }
+
+    @Test
+    public void delta_followsTheReference_throughTheCrossover() {
+        LapDeltaTracker tracker = new LapDeltaTracker();
+        rideLap(tracker, 90_000);
+        assertTrue(tracker.completeLap(now));
+        assertEquals(90_000, tracker.referenceLapMillis());
+
+        // 10 s faster over the lap; the crossover sits at a quarter and three quarters
+        double[] deltas = rideLap(tracker, 80_000);
+        for (int q = 1; q <= 3; q++) {
+            assertEquals(-10_000 * q / 4.0, deltas[q], 250);
+        }
+        assertTrue(tracker.completeLap(now));
+        assertEquals(80_000, tracker.referenceLapMillis());
+
+        // A slower lap is measured against, but does not replace, the best one
+        deltas = rideLap(tracker, 85_000);
+        assertEquals(5_000 * 3 / 4.0, deltas[3], 250);
+        assertFalse(tracker.completeLap(now));
+        assertEquals(80_000, tracker.referenceLapMillis());
+    }
+
+    @Test
+    public void noDelta_withoutFixOrOffTrack() {
+        LapDeltaTracker tracker = new LapDeltaTracker();
+        rideLap(tracker, 60_000);
+        tracker.completeLap(now);
+
+        tracker.beginLap(now);
+        frame.clear();
+        frame.timestampMillis = now + 1000;
+        frame.set(TelemetryChannels.GPS_FIX, 0);
+        tracker.process(frame);
+        assertTrue(Double.isNaN(frame.get(TelemetryChannels.LAP_DELTA)));
+
+        // Pit lane, well away from the racing line
+        frame.set(TelemetryChannels.GPS_FIX, 1);
+        frame.set(TelemetryChannels.GPS_LATITUDE, ORIGIN_LATITUDE + 300 / METRES_PER_DEGREE);
+        frame.set(TelemetryChannels.GPS_LONGITUDE, ORIGIN_LONGITUDE);
+        tracker.process(frame);
+        assertTrue(Double.isNaN(frame.get(TelemetryChannels.LAP_DELTA)));
+    }
+
+    @Test
+    public void outlierFixes_stayOutOfTheTrace() {
+        LapDeltaTracker tracker = new LapDeltaTracker();
+        rideLap(tracker, 90_000, 30_000);
+        assertTrue(tracker.completeLap(now));
+
+        // Measured against a reference that never went to 0/0 or 5 km off
+        double[] deltas = rideLap(tracker, 80_000, 50_000);
+        for (int q = 1; q <= 3; q++) {
+            assertEquals(-10_000 * q / 4.0, deltas[q], 250);
+        }
+        assertTrue(tracker.completeLap(now));
+    }
+
+    @Test
+    public void farFlungTrace_capsItsGrid() {
+        // A circuit's worth of fixes and one on the other side of the world
+        int count = 101;
+        double[] latitudes = new double[count], longitudes = new double[count];
+        long[] elapsed = new long[count];
+        for (int i = 0; i < count - 1; i++) {
+            latitudes[i] = ORIGIN_LATITUDE + i * 10 / METRES_PER_DEGREE;
+            longitudes[i] = ORIGIN_LONGITUDE;
+            elapsed[i] = i * 250;
+        }
+        latitudes[count - 1] = -ORIGIN_LATITUDE;
+        longitudes[count - 1] = ORIGIN_LONGITUDE - 180;
+        elapsed[count - 1] = count * 250;
+
+        LapTrace trace = new LapTrace(latitudes, longitudes, elapsed, count);
+        assertTrue(trace.cellMetres() > LapTrace.CELL_METRES);
+        assertEquals(500, trace.project(ORIGIN_LATITUDE + 500 / METRES_PER_DEGREE, ORIGIN_LONGITUDE, 500, 150), 1);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.gxxr.telemetry;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LeanEstimatorTest {
+
+    private static final double SPEED_KPH = 90;
+    private static final double MOUNT_OFFSET = 7;
+    private static final long BIKE_LATENCY_MILLIS = 60;
+
+    /** True lean at {@code millis}: upright for 5 s, then alternating 40 degree corners */
+    private static double trueLean(long millis) {
+        if (millis < 5000) {
+            return 0;
+        }
+        return 40 * Math.sin(2 * Math.PI * (millis - 5000) / 6000.0);
+    }
+
+    private static double trueLeanRate(long millis) {
+        return (trueLean(millis + 1) - trueLean(millis - 1)) / 0.002;
+    }
+
+    /**
+     * Rides the profile with a biased, noisy bike gyro sampled every 20 ms and
+     * delivered {@link #BIKE_LATENCY_MILLIS} late, a flexing phone at 200 Hz, and
+     * returns the largest error of the displayed lean after the first corner.
+     */
+    private static double ride(LeanEstimator estimator, long durationMillis) {
+        Random random = new Random(42);
+        double worst = 0;
+        for (long now = 0; now < durationMillis; now += 5) {
+            double flex = 1.5 * Math.sin(now / 300.0);
+            estimator.onPhoneLean(now, trueLean(now) + MOUNT_OFFSET + flex);
+            if (now % 20 == 0 && now >= BIKE_LATENCY_MILLIS) {
+                long sampled = now - BIKE_LATENCY_MILLIS;
+                double lean = Math.toRadians(trueLean(sampled));
+                // Steady turn: heading rate from the lean, seen in the bike frame
+                double heading = Math.toDegrees(9.80665 * Math.tan(lean) / (SPEED_KPH / 3.6));
+                estimator.onBikeImu(sampled, sampled,
+                        trueLeanRate(sampled) + 0.8 + random.nextGaussian(),
+                        -heading * Math.sin(lean), heading * Math.cos(lean),
+                        random.nextGaussian(), 9.8 + random.nextGaussian(), SPEED_KPH);
+            }
+            if (now > 8000) {
+                worst = Math.max(worst, Math.abs(estimator.lean(now) - trueLean(now)));
+            }
+        }
+        return worst;
+    }
+
+    @Test
+    public void fusedLean_tracksCornersThroughGyroBiasAndLatency() {
+        LeanEstimator estimator = new LeanEstimator(5);
+        assertTrue(Double.isNaN(estimator.lean(0)));
+        assertTrue(ride(estimator, 60_000) < 2.5);
+        // Learned while upright at the start, despite the wrong initial offset
+        assertEquals(MOUNT_OFFSET, estimator.mountOffset(), 0.5);
+    }
+
+    @Test
+    public void phoneMotion_coversTheBikeFrameLatency() {
+        LeanEstimator estimator = new LeanEstimator(MOUNT_OFFSET);
+        ride(estimator, 11_000);
+        // Bike frames stop while flicking over; the last one was sampled at 10920
+        for (long now = 11_000; now <= 11_300; now += 5) {
+            estimator.onPhoneLean(now, trueLean(now) + MOUNT_OFFSET);
+        }
+        assertTrue(Math.abs(trueLean(11_300) - trueLean(10_920)) > 10);
+        assertTrue(estimator.hasBikeImu(11_300));
+        assertEquals(trueLean(11_300), estimator.lean(11_300), 2.5);
+    }
+
+    @Test
+    public void withoutBikeFrames_phoneIsUsedOffsetCorrected() {
+        LeanEstimator estimator = new LeanEstimator(MOUNT_OFFSET);
+        estimator.onPhoneLean(1000, 30 + MOUNT_OFFSET);
+        assertFalse(estimator.hasBikeImu(1000));
+        assertEquals(30, estimator.lean(1000), 1e-9);
+
+        // Parked on the side stand: the bike's gravity reading wins over the phone
+        double sideStand = Math.toRadians(10);
+        estimator.onBikeImu(100, 1000, 0, 0, 0, -9.8 * Math.sin(sideStand), 9.8 * Math.cos(sideStand), 0);
+        assertEquals(10, estimator.lean(1000), 1e-9);
+        assertTrue(estimator.hasBikeImu(1400));
+        assertFalse(estimator.hasBikeImu(1600));
+        estimator.onPhoneLean(1600, -20 + MOUNT_OFFSET);
+        assertEquals(-20, estimator.lean(1600), 1e-9);
+    }
+
+    @Test
+    public void repeatedFrame_isIntegratedOnce() {
+        LeanEstimator estimator = new LeanEstimator(0);
+        estimator.onBikeImu(1000, 1000, 0, 0, 0, 0, 9.8, 0);
+        estimator.onBikeImu(1100, 1100, 50, 0, 0, 0, 9.8, 0);
+        double once = estimator.lean(1100);
+        // The dash polls faster than the logger grid; the same frame arrives again later
+        estimator.onBikeImu(1100, 1120, 50, 0, 0, 0, 9.8, 0);
+        assertEquals(once, estimator.lean(1100), 1e-9);
+        assertTrue(once > 4);
+    }
+
+    @Test
+    public void loggerFrame_carriesTheBikeImuKeys() {
+        // The primary node's packet, flattened into the frame the way the logger does it
+        String packet = "{\"primary_imu\":{\"log_ts\":1700000000.013,\"ts\":81234,"
+                + "\"mpuA\":{\"a\":{\"x\":0.12,\"y\":-1.70,\"z\":9.65},\"g\":{\"x\":0.4,\"y\":-0.2,\"z\":0.3},\"t\":31.5},"
+                + "\"mpuB\":{\"a\":{\"x\":0.1,\"y\":-1.6,\"z\":9.7},\"g\":{\"x\":0.5,\"y\":-0.1,\"z\":0.2},\"t\":31.9}}}";
+        final StringBuilder frame = new StringBuilder("{\"frame_ts\":1700000000.02");
+        new FlatFrameParser().parse(packet, new FlatFrameParser.FieldVisitor() {
+            @Override
+            public void onField(String key, double value) {
+                frame.append(",\"").append(key).append("\":").append(value);
+            }
+        });
+        String json = frame.append('}').toString();
+        assertTrue(json.contains("\"primary_imu_mpuA_a_y\":-1.7"));
+
+        LeanEstimator estimator = new LeanEstimator(0);
+        estimator.onBikeImu(1000, 1000,
+                -FlatFrameParser.findNumber(json, LeanEstimator.BIKE_GYRO_X_KEY),
+                FlatFrameParser.findNumber(json, LeanEstimator.BIKE_GYRO_Y_KEY),
+                FlatFrameParser.findNumber(json, LeanEstimator.BIKE_GYRO_Z_KEY),
+                FlatFrameParser.findNumber(json, LeanEstimator.BIKE_ACCEL_Y_KEY),
+                FlatFrameParser.findNumber(json, LeanEstimator.BIKE_ACCEL_Z_KEY), 0);
+        assertTrue(estimator.hasBikeImu(1000));
+        // Standing still, leaning left onto the side stand
+        assertEquals(Math.toDegrees(Math.atan2(1.70, 9.65)), estimator.lean(1000), 1e-9);
+    }
+}
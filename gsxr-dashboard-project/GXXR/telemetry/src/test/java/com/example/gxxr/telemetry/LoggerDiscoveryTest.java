@@ -0,0 +1,69 @@
+package com.example.gxxr.telemetry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class LoggerDiscoveryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void discover_findsStandInAndSkipsFrames() throws Exception {
+        try (StandInLoggerServer server = new StandInLoggerServer(true);
+             DatagramSocket socket = new DatagramSocket()) {
+            server.put("frame_ts", 1700000000.25);
+            socket.setSoTimeout(250);
+            LoggerDiscovery discovery = new LoggerDiscovery(server.port(), folder.newFile("logger_endpoint"));
+
+            // A frame reply is still in flight when discovery starts
+            byte[] request = "REQ".getBytes(StandardCharsets.UTF_8);
+            socket.send(new DatagramPacket(request, request.length, InetAddress.getLoopbackAddress(), server.port()));
+            // Nobody answers on the documentation-only address
+            InetSocketAddress endpoint = discovery.discover(socket, 2000,
+                    InetAddress.getByName("192.0.2.1"), InetAddress.getLoopbackAddress());
+
+            assertEquals(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.port()), endpoint);
+            assertEquals(250, socket.getSoTimeout());
+        }
+    }
+
+    @Test
+    public void silentNetwork_timesOut() throws Exception {
+        try (DatagramSocket silent = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+             DatagramSocket socket = new DatagramSocket()) {
+            LoggerDiscovery discovery = new LoggerDiscovery(silent.getLocalPort(), folder.newFile("logger_endpoint"));
+            long start = System.nanoTime();
+            assertNull(discovery.discover(socket, 200, InetAddress.getLoopbackAddress()));
+            assertTrue((System.nanoTime() - start) / 1_000_000L < 2000);
+            assertEquals(0, socket.getSoTimeout());
+        }
+    }
+
+    @Test
+    public void endpoint_isCachedAcrossRestarts() throws Exception {
+        File cache = new File(folder.getRoot(), "logger_endpoint");
+        LoggerDiscovery discovery = new LoggerDiscovery(9100, cache);
+        assertNull(discovery.cachedEndpoint());
+
+        InetSocketAddress endpoint = new InetSocketAddress(InetAddress.getByName("192.168.4.1"), 9100);
+        discovery.remember(endpoint);
+        assertEquals(endpoint, new LoggerDiscovery(9100, cache).cachedEndpoint());
+
+        try (FileOutputStream out = new FileOutputStream(cache)) {
+            out.write("garbage".getBytes(StandardCharsets.UTF_8));
+        }
+        assertNull(new LoggerDiscovery(9100, cache).cachedEndpoint());
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.gxxr.telemetry;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class QualityGovernorTest {
+
+    private static final long VSYNC_NANOS = 16_666_667L;
+
+    private final List<Integer> tiers = new ArrayList<>();
+    private final QualityGovernor governor = new QualityGovernor(VSYNC_NANOS, new QualityGovernor.Listener() {
+        @Override
+        public void onTierChanged(int tier, String reason) {
+            tiers.add(tier);
+        }
+    });
+    private long frameNanos = 1_000_000_000L;
+
+    /** Runs for the given time with every {@code jankEvery}-th frame taking three vsyncs (0 = never) */
+    private void run(long millis, int jankEvery) {
+        long end = frameNanos + millis * 1_000_000L;
+        int frame = 0;
+        while (frameNanos < end) {
+            frameNanos += (jankEvery > 0 && ++frame % jankEvery == 0) ? 3 * VSYNC_NANOS : VSYNC_NANOS;
+            governor.onFrame(frameNanos);
+        }
+    }
+
+    @Test
+    public void sustainedJank_stepsDownOneTierAtATime_thenRecoversWithHysteresis() {
+        run(3000, 0);
+        assertTrue(tiers.isEmpty());
+
+        // Half the frames late: one step per hold period, not straight to the bottom
+        run(2500, 2);
+        assertEquals(1, tiers.size());
+        run(10000, 2);
+        assertEquals(QualityGovernor.TIER_MINIMAL, governor.tier());
+        assertEquals(Arrays.asList(1, 2, 3), tiers);
+
+        // Clean frames must hold for the full period before each step back up
+        run(9000, 0);
+        assertEquals(QualityGovernor.TIER_MINIMAL, governor.tier());
+        run(3500, 0);
+        assertEquals(QualityGovernor.TIER_REDUCED_SENSORS, governor.tier());
+
+        // Borderline frame times (10% late) neither step down nor up
+        run(30000, 10);
+        assertEquals(QualityGovernor.TIER_REDUCED_SENSORS, governor.tier());
+    }
+
+    @Test
+    public void thermalStatus_setsFloorThatFrameTimesCannotClimbAbove() {
+        governor.onThermalStatus(QualityGovernor.THERMAL_MODERATE, 0);
+        assertEquals(QualityGovernor.TIER_REDUCED_SENSORS, governor.tier());
+
+        run(60000, 0);
+        assertEquals(QualityGovernor.TIER_REDUCED_SENSORS, governor.tier());
+
+        governor.onThermalStatus(QualityGovernor.THERMAL_NONE, frameNanos / 1_000_000L);
+        run(25000, 0);
+        assertEquals(QualityGovernor.TIER_FULL, governor.tier());
+    }
+}
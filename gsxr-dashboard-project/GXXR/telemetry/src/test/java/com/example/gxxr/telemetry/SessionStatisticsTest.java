@@ -0,0 +1,78 @@
+package com.example.gxxr.telemetry;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SessionStatisticsTest {
+
+    private static TelemetryFrame frame(long ts, double speed, int frontBrake) {
+        TelemetryFrame frame = new TelemetryFrame();
+        frame.timestampMillis = ts;
+        frame.set(TelemetryChannels.WHEEL_SPEED, speed);
+        frame.set(TelemetryChannels.FRONT_BRAKE, frontBrake);
+        return frame;
+    }
+
+    @Test
+    public void aggregates_matchBatchComputation() {
+        SessionStatistics statistics = new SessionStatistics();
+        double[] speeds = {40, 60, 120, 180, 80};
+        for (int i = 0; i < speeds.length; i++) {
+            statistics.onFrame(frame(1000 + i * 20L, speeds[i], 0));
+        }
+
+        SegmentStatistics session = new SegmentStatistics();
+        statistics.copySession(session);
+        ChannelStatistics speed = session.channel(TelemetryChannels.WHEEL_SPEED);
+
+        assertEquals(5, speed.count());
+        assertEquals(40, speed.min(), 0);
+        assertEquals(180, speed.max(), 0);
+        assertEquals(96, speed.mean(), 1e-9);
+        assertEquals(3080, speed.variance(), 1e-9);
+        // 40 sits below the first band edge, 60 and 80 in the next band up
+        assertEquals(20, speed.timeInBandMillis(0));
+        assertEquals(20, speed.timeInBandMillis(1));
+        assertEquals(80, session.durationMillis());
+    }
+
+    @Test
+    public void brakeApplications_countRisingEdgesOnly() {
+        SessionStatistics statistics = new SessionStatistics();
+        int[] brake = {0, 1, 1, 1, 0, 1, 0, 0, 1};
+        for (int i = 0; i < brake.length; i++) {
+            statistics.onFrame(frame(i * 20L, 100, brake[i]));
+        }
+
+        SegmentStatistics session = new SegmentStatistics();
+        statistics.copySession(session);
+        assertEquals(3, session.frontBrakeApplications());
+    }
+
+    @Test
+    public void snapshot_roundTripsSessionAndLaps() throws Exception {
+        SessionStatistics statistics = new SessionStatistics();
+        statistics.onFrame(frame(0, 50, 0));
+        statistics.beginLap(20);
+        statistics.onFrame(frame(20, 150, 1));
+        statistics.onFrame(frame(40, 170, 0));
+        statistics.completeLap();
+        statistics.beginLap(60);
+        statistics.onFrame(frame(60, 90, 0));
+
+        SessionStatistics restored = new SessionStatistics();
+        restored.restore(statistics.toByteArray());
+
+        SegmentStatistics lap = new SegmentStatistics();
+        restored.copyCompletedLap(0, lap);
+        assertEquals(1, restored.completedLapCount());
+        assertTrue(restored.isLapOpen());
+        assertEquals(160, lap.channel(TelemetryChannels.WHEEL_SPEED).mean(), 1e-9);
+        assertEquals(1, lap.frontBrakeApplications());
+
+        SegmentStatistics session = new SegmentStatistics();
+        restored.copySession(session);
+        assertEquals(4, session.channel(TelemetryChannels.WHEEL_SPEED).count());
+    }
+}
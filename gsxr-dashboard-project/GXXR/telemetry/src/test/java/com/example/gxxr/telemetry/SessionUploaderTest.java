@@ -0,0 +1,263 @@
+package com.example.gxxr.telemetry;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+public class SessionUploaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private HttpServer server;
+    private final List<String> acceptedPaths = new ArrayList<>();
+    private int acceptedRows;
+    private int failNextRequests;
+
+    @Before
+    public void startStandInCollector() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/sessions", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                synchronized (SessionUploaderTest.this) {
+                    if (failNextRequests > 0) {
+                        failNextRequests--;
+                        exchange.sendResponseHeaders(503, -1);
+                        exchange.close();
+                        return;
+                    }
+                    BufferedReader body = new BufferedReader(new InputStreamReader(
+                            new GZIPInputStream(exchange.getRequestBody()), "UTF-8"));
+                    int rows = 0;
+                    while (body.readLine() != null) {
+                        rows++;
+                    }
+                    assertEquals(exchange.getRequestHeaders().getFirst("X-Batch-Rows"), Integer.toString(rows));
+                    acceptedRows += rows;
+                    acceptedPaths.add(exchange.getRequestURI().getPath());
+                }
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void stopStandInCollector() {
+        server.stop(0);
+    }
+
+    private File recordSession(String sessionId, int frames) throws IOException {
+        File directory = folder.newFolder("sessions");
+        File archive = new File(directory, sessionId + SessionUploader.ARCHIVE_SUFFIX);
+        TelemetryArchiveWriter writer = new TelemetryArchiveWriter(new FileOutputStream(archive), 100);
+        TelemetryArchiveImporter importer = new TelemetryArchiveImporter(writer);
+        for (int i = 0; i < frames; i++) {
+            importer.importFrame(String.format(Locale.ENGLISH,
+                    "{\"frame_ts\": %.3f, \"rear_brake_gps_wheel_kmh\": %d}", 1000 + i * 0.02, i % 180));
+        }
+        writer.close();
+        return directory;
+    }
+
+    @Test
+    public void interruptedUpload_resumesFromCursor() throws Exception {
+        File sessions = recordSession("20251115_101500", 1050);
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/sessions";
+        File cursorFile = folder.newFile("cursors.properties");
+        SessionUploader.UploadGate parked = new SessionUploader.UploadGate() {
+            @Override
+            public boolean isUploadAllowed() {
+                return true;
+            }
+        };
+
+        // Second batch fails, the first one must not be sent again
+        final HttpUploadEndpoint http = new HttpUploadEndpoint(url);
+        SessionUploader uploader = new SessionUploader(new UploadEndpoint() {
+            private int calls;
+
+            @Override
+            public void upload(String sessionId, int firstChunk, int rows, byte[] gzipJson) throws IOException {
+                if (++calls == 2) {
+                    synchronized (SessionUploaderTest.this) {
+                        failNextRequests = 1;
+                    }
+                }
+                http.upload(sessionId, firstChunk, rows, gzipJson);
+            }
+        }, new UploadCursorStore(cursorFile), parked, 4, Long.MAX_VALUE / 2000);
+
+        try {
+            uploader.uploadPending(sessions);
+            fail("Expected the stand-in to reject the second batch");
+        } catch (IOException expected) {
+        }
+        assertEquals(1, acceptedPaths.size());
+
+        // A fresh uploader, as after an app restart, picks up from the saved cursor
+        UploadCursorStore cursors = new UploadCursorStore(cursorFile);
+        assertEquals(4, cursors.nextChunk("20251115_101500"));
+        SessionUploader resumed = new SessionUploader(new HttpUploadEndpoint(url), cursors, parked, 4, Long.MAX_VALUE / 2000);
+        assertTrue(resumed.uploadPending(sessions));
+
+        assertEquals("/sessions/20251115_101500/0", acceptedPaths.get(0));
+        assertEquals("/sessions/20251115_101500/4", acceptedPaths.get(1));
+        assertEquals("/sessions/20251115_101500/8", acceptedPaths.get(2));
+        assertEquals(1050, acceptedRows);
+        assertTrue(cursors.isComplete("20251115_101500"));
+        assertFalse(new File(sessions, "20251115_101500" + SessionUploader.ARCHIVE_SUFFIX).exists());
+    }
+
+    @Test
+    public void closedGate_stopsWithoutUploading() throws Exception {
+        File sessions = recordSession("20251115_120000", 300);
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/sessions";
+        SessionUploader uploader = new SessionUploader(new HttpUploadEndpoint(url),
+                new UploadCursorStore(folder.newFile("cursors.properties")), new SessionUploader.UploadGate() {
+            @Override
+            public boolean isUploadAllowed() {
+                return false;
+            }
+        }, 1, 1024 * 1024);
+
+        assertFalse(uploader.uploadPending(sessions));
+        assertTrue(acceptedPaths.isEmpty());
+        assertTrue(new File(sessions, "20251115_120000" + SessionUploader.ARCHIVE_SUFFIX).exists());
+    }
+
+    @Test
+    public void cancel_abortsAStalledUpload() throws Exception {
+        final CountDownLatch received = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        // Takes the batch and then never answers, as a collector behind a dead link would
+        server.createContext("/stalled", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                while (exchange.getRequestBody().read() != -1) {
+                    ;
+                }
+                received.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+            }
+        });
+        final HttpUploadEndpoint http = new HttpUploadEndpoint("http://127.0.0.1:" + server.getAddress().getPort() + "/stalled");
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        Thread uploading = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    http.upload("20251115_130000", 0, 1, new byte[64]);
+                } catch (Exception e) {
+                    failure.set(e);
+                }
+            }
+        });
+        uploading.start();
+
+        try {
+            assertTrue(received.await(5, TimeUnit.SECONDS));
+            // Let it get from sending the body to waiting for the response
+            Thread.sleep(200);
+            long cancelStart = System.nanoTime();
+            http.cancel();
+            uploading.join(5000);
+            assertFalse(uploading.isAlive());
+            assertTrue("cancel() should not wait for the read timeout", System.nanoTime() - cancelStart < 2_000_000_000L);
+            assertTrue(failure.get() instanceof IOException);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void archivesOverTheCap_arePrunedOldestFirst() throws Exception {
+        File sessions = folder.newFolder("sessions");
+        for (String sessionId : new String[]{"20251116_090000", "20251115_090000", "20251117_090000"}) {
+            FileOutputStream out = new FileOutputStream(new File(sessions, sessionId + SessionUploader.ARCHIVE_SUFFIX));
+            out.write(new byte[1000]);
+            out.close();
+        }
+        // Still being written, never counted or deleted
+        FileOutputStream part = new FileOutputStream(new File(sessions, "20251114_090000" + SessionUploader.ARCHIVE_SUFFIX + ".part"));
+        part.write(new byte[5000]);
+        part.close();
+
+        assertEquals(0, SessionRecorder.pruneArchives(sessions, 3000));
+        assertEquals(2, SessionRecorder.pruneArchives(sessions, 1500));
+        assertFalse(new File(sessions, "20251115_090000" + SessionUploader.ARCHIVE_SUFFIX).exists());
+        assertFalse(new File(sessions, "20251116_090000" + SessionUploader.ARCHIVE_SUFFIX).exists());
+        assertTrue(new File(sessions, "20251117_090000" + SessionUploader.ARCHIVE_SUFFIX).exists());
+        assertTrue(new File(sessions, "20251114_090000" + SessionUploader.ARCHIVE_SUFFIX + ".part").exists());
+    }
+
+    @Test
+    public void recorder_dropsOrphanedPartsAndStopsAtTheCap() throws Exception {
+        File sessions = folder.newFolder("sessions");
+        // Left by a recorder that was killed mid-session
+        File orphan = new File(sessions, "20251114_090000" + SessionUploader.ARCHIVE_SUFFIX + ".part");
+        FileOutputStream out = new FileOutputStream(orphan);
+        out.write(new byte[5000]);
+        out.close();
+
+        SessionRecorder recorder = new SessionRecorder(sessions, 20_000);
+        recorder.start("20251115_090000");
+        assertFalse(orphan.exists());
+
+        int offered = 0;
+        for (int i = 0; i < 100_000 && !recorder.hasReachedCap(); i++) {
+            String frame = String.format(Locale.ENGLISH, "{\"frame_ts\": %.3f, \"rear_brake_gps_wheel_kmh\": %d, \"coolant\": %.2f}",
+                    1000 + i * 0.02, (i * 7919) % 300, Math.sin(i) * 40);
+            while (!recorder.offer(frame) && !recorder.hasReachedCap()) {
+                Thread.sleep(1);
+            }
+            offered++;
+        }
+        assertTrue(recorder.hasReachedCap());
+        assertFalse(recorder.offer("{\"frame_ts\": 5000}"));
+        recorder.stop();
+
+        File archive = new File(sessions, "20251115_090000" + SessionUploader.ARCHIVE_SUFFIX);
+        assertTrue(archive.exists());
+        assertFalse(new File(sessions, "20251115_090000" + SessionUploader.ARCHIVE_SUFFIX + ".part").exists());
+        TelemetryArchiveReader reader = new TelemetryArchiveReader(archive);
+        try {
+            assertTrue(reader.chunkCount() > 0);
+            assertTrue(reader.chunkCount() * TelemetryArchiveWriter.DEFAULT_CHUNK_ROWS < offered + TelemetryArchiveWriter.DEFAULT_CHUNK_ROWS);
+        } finally {
+            reader.close();
+        }
+        // One chunk over at most, where the cap was noticed
+        assertTrue(archive.length() < 40_000);
+    }
+}
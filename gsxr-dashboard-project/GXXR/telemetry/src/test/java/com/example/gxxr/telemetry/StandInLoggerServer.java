@@ -0,0 +1,135 @@
+package com.example.gxxr.telemetry;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Loopback stand-in for the REQ server of gsxr_logger_v5.py: answers REQ with the
+ * current frame, echoes clock sync times, supports SUB projections and answers
+ * discovery probes the same way, so the dash side of the protocol can be exercised
+ * without the logger.
+ */
+final class StandInLoggerServer implements AutoCloseable {
+
+    private final DatagramSocket socket;
+    private final Thread thread;
+    private final boolean supportsSubscriptions;
+
+    private final Map<String, Double> frame = new LinkedHashMap<>();
+    private final Map<String, String[]> projections = new HashMap<>();
+
+    StandInLoggerServer(boolean supportsSubscriptions) throws SocketException {
+        this.supportsSubscriptions = supportsSubscriptions;
+        socket = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+        thread = new Thread(this::serve, "stand-in-logger");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    int port() {
+        return socket.getLocalPort();
+    }
+
+    synchronized void put(String key, double value) {
+        frame.put(key, value);
+    }
+
+    /** Simulates a logger restart */
+    synchronized void forgetProjections() {
+        projections.clear();
+    }
+
+    private void serve() {
+        byte[] buffer = new byte[4096];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        try {
+            while (true) {
+                packet.setLength(buffer.length);
+                socket.receive(packet);
+                String message = new String(packet.getData(), 0, packet.getLength(), StandardCharsets.UTF_8).trim();
+                String reply = handle(message);
+                if (reply != null) {
+                    byte[] bytes = reply.getBytes(StandardCharsets.UTF_8);
+                    socket.send(new DatagramPacket(bytes, bytes.length, packet.getSocketAddress()));
+                }
+            }
+        } catch (IOException e) {
+            // Closed
+        }
+    }
+
+    private synchronized String handle(String message) {
+        String[] parts = message.split(" ", 3);
+        if (parts[0].equals(LoggerDiscovery.PROBE)) {
+            return "{\"" + LoggerDiscovery.REPLY_KEY + "\": 5, \"" + LoggerDiscovery.PORT_KEY + "\": " + port() + "}";
+        }
+        if (parts[0].equals("SUB") && supportsSubscriptions && parts.length == 3) {
+            projections.put(parts[1], parts[2].split(","));
+            return "{\"sub_ok\": \"" + parts[1] + "\", \"sub_keys\": " + projections.get(parts[1]).length + "}";
+        }
+        if (!parts[0].equals("REQ")) {
+            // The logger only logs unknown commands
+            return null;
+        }
+
+        String t0 = null, projection = null;
+        for (String part : message.split(" ")) {
+            if (part.startsWith("P") && supportsSubscriptions) {
+                projection = part.substring(1);
+            } else if (!part.isEmpty() && Character.isDigit(part.charAt(0))) {
+                t0 = part;
+            }
+        }
+
+        StringBuilder reply = new StringBuilder("{");
+        String[] keys = projection == null ? null : projections.get(projection);
+        for (Map.Entry<String, Double> field : frame.entrySet()) {
+            String key = field.getKey();
+            if (keys == null || key.equals("frame_ts") || key.equals("frame_idx") || contains(keys, key)) {
+                append(reply, key, field.getValue());
+            }
+        }
+        if (projection != null && keys == null) {
+            append(reply, FrameSubscription.UNKNOWN_KEY, 1);
+        }
+        if (t0 != null) {
+            double now = System.currentTimeMillis() / 1000.0;
+            reply.append(String.format(Locale.ROOT, ", \"req_t0\": %s, \"srv_rx_ts\": %.6f, \"srv_tx_ts\": %.6f", t0, now, now));
+        }
+        return reply.append('}').toString();
+    }
+
+    private static boolean contains(String[] keys, String key) {
+        for (String candidate : keys) {
+            if (candidate.equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void append(StringBuilder json, String key, double value) {
+        if (json.length() > 1) {
+            json.append(", ");
+        }
+        json.append('"').append(key).append("\": ").append(value);
+    }
+
+    @Override
+    public void close() {
+        socket.close();
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
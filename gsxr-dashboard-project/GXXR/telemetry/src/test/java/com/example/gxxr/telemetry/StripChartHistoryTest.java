@@ -0,0 +1,55 @@
+package com.example.gxxr.telemetry;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StripChartHistoryTest {
+
+    @Test
+    public void columns_holdMinMaxOfTheirSlice() {
+        // 10 s across 100 px, 100 ms per column, fed at 500 Hz
+        StripChartHistory history = new StripChartHistory(8192, 10_000);
+        history.setColumns(100);
+        for (long t = 0; t < 20_000; t += 2) {
+            history.add(t, (float) Math.sin(t / 1000.0 * 2 * Math.PI) * 50);
+        }
+
+        long newest = history.newestColumn();
+        assertEquals(199, newest);
+        assertFalse(history.hasColumn(newest - 100));
+        for (long column = newest - 99; column <= newest; column++) {
+            assertTrue(history.hasColumn(column));
+            float min = Float.MAX_VALUE, max = -Float.MAX_VALUE;
+            for (long t = column * 100; t < column * 100 + 100; t += 2) {
+                float value = (float) Math.sin(t / 1000.0 * 2 * Math.PI) * 50;
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            assertEquals(min, history.columnMin(column), 1e-4);
+            assertEquals(max, history.columnMax(column), 1e-4);
+        }
+    }
+
+    @Test
+    public void resize_rebuildsFromRawSamples_andGapsStayEmpty() {
+        StripChartHistory history = new StripChartHistory(1024, 1000);
+        history.setColumns(10);
+        for (long t = 0; t < 500; t += 20) {
+            history.add(t, t);
+        }
+        // Logger drops out for 300 ms
+        for (long t = 800; t < 1000; t += 20) {
+            history.add(t, t);
+        }
+        assertFalse(history.hasColumn(6));
+        assertTrue(history.hasColumn(8));
+
+        history.setColumns(20);
+        assertEquals(19, history.newestColumn());
+        assertEquals(900, history.columnMin(18), 0);
+        assertEquals(940, history.columnMax(18), 0);
+        assertFalse(history.hasColumn(12));
+        assertTrue(history.hasColumn(9));
+    }
+}
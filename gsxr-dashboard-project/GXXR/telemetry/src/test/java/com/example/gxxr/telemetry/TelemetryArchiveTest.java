@@ -0,0 +1,113 @@
+package com.example.gxxr.telemetry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.StringReader;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+public class TelemetryArchiveTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final int FRAMES = 5000;
+    private static final double START_SECONDS = 1763096111.176;
+
+    private static double tyreTemp(int i) {
+        return 40 + Math.sin(i / 50.0) * 12.5;
+    }
+
+    private static String frameJson(int i) {
+        StringBuilder line = new StringBuilder();
+        line.append(String.format(Locale.ENGLISH, "{\"frame_ts\": %.6f, \"frame_idx\": %d", START_SECONDS + i * 0.02, i + 1));
+        line.append(String.format(Locale.ENGLISH, ", \"front_tyre_S1\": %.2f", tyreTemp(i)));
+        line.append(", \"brakes_imu_in_d5\": ").append((i / 100) % 2);
+        line.append(", \"rear_brake_gps_gps\": {\"fix\": true, \"sats\": 7}");
+        line.append(", \"rear_brake_gps_node\": \"rear\"");
+        // The sonar drops out for a stretch, like a missing sensor packet
+        if (i < 1200 || i > 1500) {
+            line.append(", \"front_imu_sonar_mm\": ").append(40 + (i % 7));
+        }
+        return line.append('}').toString();
+    }
+
+    private File writeArchive(int chunkRows) throws Exception {
+        StringBuilder log = new StringBuilder();
+        for (int i = 0; i < FRAMES; i++) {
+            log.append(frameJson(i)).append('\n');
+        }
+        File archive = folder.newFile();
+        TelemetryArchiveWriter writer = new TelemetryArchiveWriter(new FileOutputStream(archive), chunkRows);
+        TelemetryArchiveImporter importer = new TelemetryArchiveImporter(writer);
+        assertEquals(FRAMES, importer.importJsonLines(new StringReader(log.toString())));
+        writer.close();
+        return archive;
+    }
+
+    @Test
+    public void importedFrames_roundTripExactly() throws Exception {
+        TelemetryArchiveReader reader = new TelemetryArchiveReader(writeArchive(512));
+        int tyre = reader.channelId("front_tyre_S1");
+        int brake = reader.channelId("brakes_imu_in_d5");
+        int sonar = reader.channelId("front_imu_sonar_mm");
+        int fix = reader.channelId("rear_brake_gps_gps_fix");
+        assertEquals(-1, reader.channelId("rear_brake_gps_node"));
+
+        final int[] row = {0};
+        long visited = reader.readAll(new int[]{tyre, brake, sonar, fix}, new TelemetryArchiveReader.RowVisitor() {
+            @Override
+            public void onRow(long timestampMicros, double[] values) {
+                int i = row[0]++;
+                assertEquals(Math.round((START_SECONDS + i * 0.02) * 1e6), timestampMicros);
+                assertEquals(Double.parseDouble(String.format(Locale.ENGLISH, "%.2f", tyreTemp(i))), values[0], 0);
+                assertEquals((i / 100) % 2, values[1], 0);
+                if (i < 1200 || i > 1500) {
+                    assertEquals(40 + (i % 7), values[2], 0);
+                } else {
+                    assertTrue(Double.isNaN(values[2]));
+                }
+                assertEquals(1, values[3], 0);
+            }
+        });
+        assertEquals(FRAMES, visited);
+        assertEquals(FRAMES, reader.rowCount());
+        reader.close();
+    }
+
+    @Test
+    public void timeRangeRead_onlyTouchesOverlappingChunks() throws Exception {
+        File file = writeArchive(256);
+        TelemetryArchiveReader reader = new TelemetryArchiveReader(file);
+        int tyre = reader.channelId("front_tyre_S1");
+
+        long from = Math.round((START_SECONDS + 3000 * 0.02) * 1e6);
+        long to = Math.round((START_SECONDS + 3099 * 0.02) * 1e6);
+        final long[] count = {0};
+        reader.read(from, to, new int[]{tyre}, new TelemetryArchiveReader.RowVisitor() {
+            @Override
+            public void onRow(long timestampMicros, double[] values) {
+                count[0]++;
+            }
+        });
+
+        assertEquals(100, count[0]);
+        assertTrue("read " + reader.bytesRead() + " of " + file.length(), reader.bytesRead() * 10 < file.length());
+        reader.close();
+    }
+
+    @Test
+    public void archive_isSmallerThanJsonLines() throws Exception {
+        long jsonBytes = 0;
+        for (int i = 0; i < FRAMES; i++) {
+            jsonBytes += frameJson(i).length() + 1;
+        }
+        File file = writeArchive(TelemetryArchiveWriter.DEFAULT_CHUNK_ROWS);
+        assertTrue(file.length() * 8 < jsonBytes);
+    }
+}
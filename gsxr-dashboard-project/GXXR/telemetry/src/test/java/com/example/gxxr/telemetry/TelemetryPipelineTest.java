@@ -0,0 +1,187 @@
+package com.example.gxxr.telemetry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class TelemetryPipelineTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static int countThreads(String name) {
+        int count = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.isAlive() && thread.getName().equals(name)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void repeatedLifecycle_neverLeavesDuplicateOrStrayThreads() throws Exception {
+        final AtomicInteger started = new AtomicInteger();
+        final AtomicInteger stopped = new AtomicInteger();
+        // Set on the worker, closed from the test thread
+        final AtomicReference<DatagramSocket> socket = new AtomicReference<>();
+
+        // Blocks in receive() the way the logger stage does
+        PipelineStage receiver = new PipelineStage("test-receiver") {
+            @Override
+            protected void onStart() throws Exception {
+                socket.set(new DatagramSocket());
+                started.incrementAndGet();
+            }
+
+            @Override
+            protected void runOnce() throws Exception {
+                socket.get().receive(new DatagramPacket(new byte[64], 64));
+            }
+
+            @Override
+            protected void onStop() {
+                DatagramSocket current = socket.get();
+                if (current != null) {
+                    current.close();
+                }
+                stopped.incrementAndGet();
+            }
+
+            @Override
+            protected void wakeUp() {
+                // Stop can land before the worker has opened its socket
+                DatagramSocket current = socket.get();
+                if (current != null) {
+                    current.close();
+                }
+            }
+        };
+        PipelineStage ticker = new PipelineStage("test-ticker") {
+            @Override
+            protected void runOnce() throws Exception {
+                Thread.sleep(5);
+            }
+        };
+        TelemetryPipeline pipeline = new TelemetryPipeline().add(receiver).add(ticker);
+
+        for (int cycle = 0; cycle < 5; cycle++) {
+            pipeline.start();
+            pipeline.start();
+            Thread.sleep(20);
+            assertEquals(1, countThreads("test-receiver"));
+            assertEquals(1, countThreads("test-ticker"));
+            assertEquals(2, pipeline.runningStageCount());
+
+            long stopStart = System.nanoTime();
+            pipeline.stop();
+            assertTrue("stop() should not wait for the join timeout", System.nanoTime() - stopStart < 1_000_000_000L);
+            assertEquals(0, countThreads("test-receiver"));
+            assertEquals(0, countThreads("test-ticker"));
+        }
+        assertEquals(5, started.get());
+        assertEquals(5, stopped.get());
+    }
+
+    /** Takes {@code lingerMillis} to finish after being woken up, ignoring interrupts meanwhile */
+    private static PipelineStage slowStoppingStage(String name, final long lingerMillis) {
+        return new PipelineStage(name) {
+            private volatile long wokenAtNanos = -1;
+
+            @Override
+            protected void runOnce() throws Exception {
+                Thread.sleep(5);
+            }
+
+            @Override
+            protected void onStop() {
+                while (wokenAtNanos < 0 || System.nanoTime() - wokenAtNanos < lingerMillis * 1_000_000L) {
+                    Thread.yield();
+                }
+            }
+
+            @Override
+            protected void wakeUp() {
+                wokenAtNanos = System.nanoTime();
+            }
+        };
+    }
+
+    @Test
+    public void stop_waitsForSlowStagesTogether() throws Exception {
+        TelemetryPipeline pipeline = new TelemetryPipeline();
+        for (int i = 0; i < 3; i++) {
+            pipeline.add(slowStoppingStage("test-slow-" + i, 400));
+        }
+        pipeline.start();
+        Thread.sleep(20);
+
+        long stopStart = System.nanoTime();
+        pipeline.stop();
+        long stopMillis = (System.nanoTime() - stopStart) / 1_000_000L;
+        // One after another this would be 1200 ms
+        assertTrue("stop() took " + stopMillis + " ms", stopMillis >= 400 && stopMillis < 1000);
+        assertEquals(0, countThreads("test-slow-0") + countThreads("test-slow-1") + countThreads("test-slow-2"));
+    }
+
+    @Test
+    public void fileWriter_appliesWritesInOrder() throws Exception {
+        AtomicFileWriter writer = new AtomicFileWriter();
+        File file = new File(folder.getRoot(), "nested/state.txt");
+        for (int i = 0; i < 100; i++) {
+            writer.submit(file, Integer.toString(i).getBytes(StandardCharsets.UTF_8));
+        }
+        writer.shutdown();
+        assertTrue(writer.awaitTermination(10000));
+        assertEquals("99", new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    public void snapshot_roundTripsLapStateAndStatistics() throws Exception {
+        SessionStatistics statistics = new SessionStatistics();
+        TelemetryFrame frame = new TelemetryFrame();
+        for (int i = 0; i < 10; i++) {
+            frame.clear();
+            frame.timestampMillis = 1000 + i * 20;
+            frame.set(TelemetryChannels.WHEEL_SPEED, 100 + i);
+            statistics.onFrame(frame);
+        }
+
+        DashboardSnapshot snapshot = new DashboardSnapshot();
+        snapshot.savedAtMillis = 1_731_600_000_000L;
+        snapshot.isDashboardActive = true;
+        snapshot.maxLeftLeanAngle = 42;
+        snapshot.maxRightLeanAngle = 38;
+        snapshot.isLapModeEnabled = true;
+        snapshot.isLapTimerArmed = true;
+        snapshot.lapStartMillis = 1_731_599_940_000L;
+        snapshot.sessionStatistics = statistics.toByteArray();
+        File file = new File(folder.getRoot(), "dashboard_state.bin");
+        snapshot.write(file);
+
+        DashboardSnapshot restored = DashboardSnapshot.read(file);
+        assertTrue(restored.isDashboardActive);
+        assertEquals(42, restored.maxLeftLeanAngle);
+        assertEquals(38, restored.maxRightLeanAngle);
+        assertTrue(restored.isLapModeEnabled && restored.isLapTimerArmed);
+        assertEquals(snapshot.lapStartMillis, restored.lapStartMillis);
+
+        SessionStatistics restoredStatistics = new SessionStatistics();
+        restoredStatistics.restore(restored.sessionStatistics);
+        SegmentStatistics session = new SegmentStatistics();
+        restoredStatistics.copySession(session);
+        assertEquals(10, session.channel(TelemetryChannels.WHEEL_SPEED).count());
+        assertTrue(file.length() < 4096);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.gxxr.telemetry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class WebSocketFramePublisherTest {
+
+    private WebSocketFramePublisher publisher;
+
+    @Before
+    public void start() throws IOException {
+        publisher = new WebSocketFramePublisher(0);
+    }
+
+    @After
+    public void stop() {
+        publisher.close();
+    }
+
+    private Socket connect(int receiveBuffer) throws Exception {
+        Socket socket = new Socket();
+        if (receiveBuffer > 0) {
+            socket.setReceiveBufferSize(receiveBuffer);
+        }
+        socket.connect(new InetSocketAddress("127.0.0.1", publisher.port()));
+        socket.getOutputStream().write(("GET / HTTP/1.1\r\nHost: dash\r\nUpgrade: websocket\r\nConnection: Upgrade\r\n"
+                + "Sec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\nSec-WebSocket-Version: 13\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+
+        InputStream in = socket.getInputStream();
+        StringBuilder response = new StringBuilder();
+        while (!response.toString().endsWith("\r\n\r\n")) {
+            response.append((char) in.read());
+        }
+        // Accept value from the RFC 6455 handshake example
+        assertTrue(response.toString(), response.toString().contains("Sec-WebSocket-Accept: s3pPLMBiTxaQ9kYGzzhZRbK+xOo="));
+        return socket;
+    }
+
+    private static String readMessage(DataInputStream in) throws IOException {
+        assertEquals(0x81, in.readUnsignedByte());
+        int length = in.readUnsignedByte();
+        if (length == 126) {
+            length = in.readUnsignedShort();
+        }
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+
+    private void awaitSubscribers(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (publisher.subscriberCount() != count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, publisher.subscriberCount());
+    }
+
+    @Test
+    public void everySubscriber_receivesTheSameFrames() throws Exception {
+        Socket first = connect(0);
+        Socket second = connect(0);
+        awaitSubscribers(2);
+
+        for (int i = 0; i < 10; i++) {
+            byte[] frame = ("{\"frame_idx\": " + i + "}").getBytes(StandardCharsets.UTF_8);
+            publisher.publish(frame, 0, frame.length);
+        }
+
+        DataInputStream firstIn = new DataInputStream(first.getInputStream());
+        DataInputStream secondIn = new DataInputStream(second.getInputStream());
+        for (int i = 0; i < 10; i++) {
+            assertEquals("{\"frame_idx\": " + i + "}", readMessage(firstIn));
+            assertEquals("{\"frame_idx\": " + i + "}", readMessage(secondIn));
+        }
+        first.close();
+        second.close();
+    }
+
+    @Test
+    public void stalledSubscriber_isDroppedWithoutBlockingPublisher() throws Exception {
+        Socket stalled = connect(4096);
+        awaitSubscribers(1);
+
+        byte[] frame = new byte[1800];
+        Arrays.fill(frame, (byte) 'x');
+        long deadline = System.currentTimeMillis() + 10000;
+        while (publisher.droppedSubscribers() == 0 && System.currentTimeMillis() < deadline) {
+            publisher.publish(frame, 0, frame.length);
+            Thread.sleep(0, 200000);
+        }
+
+        assertEquals(1, publisher.droppedSubscribers());
+        awaitSubscribers(0);
+        stalled.close();
+    }
+}
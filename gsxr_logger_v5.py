@@ -54,8 +54,21 @@ stream_sock_lock = threading.Lock()
 
 # Latest full frame (as JSON text) for request/response
 last_frame_line = None
+last_frame = None
 last_frame_lock = threading.Lock()
 
+# Field projections registered with "SUB <id> key,key,...": {id: [keys]}
+projections = {}
+# Last projected reply per projection: {id: (frame_idx, json text)}
+projected_cache = {}
+projections_lock = threading.Lock()
+
+# Keys every projected frame keeps
+PROJECTION_BASE_KEYS = ("frame_ts", "frame_idx")
+
+# Answer to "DISCOVER" probes (broadcast by the dash to STREAM_CONTROL_PORT)
+LOGGER_VERSION = 5
+
 
 # ==== FLATTEN HELPERS ============================================
 
@@ -156,7 +169,7 @@ def aggregator():
       - Store the latest frame JSON text in 'last_frame_line' for REQ replies.
       - Print stats every PRINT_EVERY_FRAMES frames.
     """
-    global frames_logged, last_frame_line
+    global frames_logged, last_frame_line, last_frame
 
     frame_idx = 0
     start = time.time()
@@ -199,6 +212,7 @@ def aggregator():
             if STREAM_ENABLE:
                 with last_frame_lock:
                     last_frame_line = line
+                    last_frame = frame
 
             # Update frame count + print stats periodically
             with frames_logged_lock:
@@ -216,6 +230,31 @@ def aggregator():
 
 # ==== REQUEST SERVER (REQ -> single frame reply) =================
 
+def projected_line(proj_id: str, frame: dict):
+    """
+    JSON text of 'frame' reduced to the keys of projection 'proj_id', or None if
+    the projection is unknown (e.g. registered before a logger restart).
+    Keys missing from the frame stay missing, as in a full frame.
+    """
+    with projections_lock:
+        keys = projections.get(proj_id)
+        if keys is None:
+            return None
+        cached = projected_cache.get(proj_id)
+        if cached is not None and cached[0] == frame["frame_idx"]:
+            return cached[1]
+
+    reduced = {k: frame[k] for k in PROJECTION_BASE_KEYS}
+    for k in keys:
+        if k in frame:
+            reduced[k] = frame[k]
+    line = json.dumps(reduced)
+
+    with projections_lock:
+        projected_cache[proj_id] = (frame["frame_idx"], line)
+    return line
+
+
 def stream_control_server():
     """
     UDP server that listens for REQ commands from clients
@@ -223,28 +262,81 @@ def stream_control_server():
 
     - Client sends "REQ" to STREAM_CONTROL_PORT.
     - Server replies once with the latest frame (JSON) to that addr.
+    - Client may send "REQ <t0>" with its own send time; the reply then also
+      carries req_t0 (echoed), srv_rx_ts and srv_tx_ts so the client can
+      estimate clock offset NTP style. Plain "REQ" replies are unchanged.
+    - Client may register the keys it reads with "SUB <id> key,key,..."
+      (answered with {"sub_ok": id, "sub_keys": n}) and then send
+      "REQ [<t0>] P<id>" to get frames reduced to those keys plus frame_ts and
+      frame_idx. An unknown id gets the full frame with "proj_unknown": 1 so the
+      client can subscribe again.
+    - Client may broadcast "DISCOVER" to this port to find the logger; the reply
+      {"gsxr_logger": 5, "req_port": n} comes from the address to send REQ to.
     """
-    global stream_sock, last_frame_line
+    global stream_sock, last_frame_line, last_frame
     assert stream_sock is not None, "stream_sock must be initialized and bound"
 
     print(f"[REQ-SERVER] Listening for REQ on {UDP_IP}:{STREAM_CONTROL_PORT} ...")
 
     while True:
         try:
-            data, addr = stream_sock.recvfrom(1024)
-            msg = data.decode("utf-8").strip().upper()
+            data, addr = stream_sock.recvfrom(4096)
+            rx_ts = time.time()
+            raw_msg = data.decode("utf-8").strip()
+            msg = raw_msg.upper()
+
+            if msg.startswith("DISCOVER"):
+                reply = json.dumps({"gsxr_logger": LOGGER_VERSION, "req_port": STREAM_CONTROL_PORT})
+                print(f"[REQ-SERVER] Discovered by {addr}")
+                with stream_sock_lock:
+                    try:
+                        stream_sock.sendto(reply.encode("utf-8"), addr)
+                    except Exception as e:
+                        print(f"[REQ-SERVER] Error sending reply to {addr}: {e}")
 
-            if msg.startswith("REQ"):
+            elif msg.startswith("SUB"):
+                # Keys are case sensitive, so split the original text
+                parts = raw_msg.split(None, 2)
+                if len(parts) < 3:
+                    print(f"[REQ-SERVER] Malformed SUB from {addr}")
+                    continue
+                proj_id = parts[1].upper()
+                keys = [k for k in parts[2].split(",") if k]
+                with projections_lock:
+                    projections[proj_id] = keys
+                    projected_cache.pop(proj_id, None)
+                print(f"[REQ-SERVER] Projection {proj_id} with {len(keys)} keys for {addr}")
+                reply = json.dumps({"sub_ok": proj_id, "sub_keys": len(keys)})
+                with stream_sock_lock:
+                    try:
+                        stream_sock.sendto(reply.encode("utf-8"), addr)
+                    except Exception as e:
+                        print(f"[REQ-SERVER] Error sending reply to {addr}: {e}")
+
+            elif msg.startswith("REQ"):
                 # Grab the latest frame snapshot
                 with last_frame_lock:
                     snapshot = last_frame_line
+                    snapshot_frame = last_frame
+
+                parts = msg.split()
+                proj_id = next((p[1:] for p in parts[1:] if p.startswith("P")), None)
 
                 if snapshot is None:
                     # No frame yet: reply with a small notice or empty JSON
                     reply = json.dumps({"error": "NO_DATA_YET"})
+                elif proj_id is not None:
+                    reply = projected_line(proj_id, snapshot_frame)
+                    if reply is None:
+                        reply = snapshot[:-1] + ', "proj_unknown": 1}'
                 else:
                     reply = snapshot
 
+                if len(parts) > 1 and parts[1].isdigit() and reply.endswith("}"):
+                    # Clock sync: echo the client's send time with our receive/transmit times
+                    reply = reply[:-1] + ', "req_t0": %s, "srv_rx_ts": %.6f, "srv_tx_ts": %.6f}' % (
+                        parts[1], rx_ts, time.time())
+
                 with stream_sock_lock:
                     try:
                         stream_sock.sendto(reply.encode("utf-8"), addr)